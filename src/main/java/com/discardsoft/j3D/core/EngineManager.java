@@ -14,6 +14,8 @@ package com.discardsoft.j3D.core;
 
 import com.discardsoft.j3D.Main;
 import com.discardsoft.j3D.core.utils.Consts;
+import com.discardsoft.j3D.core.utils.LoadModel;
+import com.discardsoft.j3D.core.utils.Settings;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.glfw.GLFWErrorCallback;
 
@@ -180,6 +182,11 @@ public class EngineManager {
      * Updates the game state and renders the current frame.
      */
     private void render() {
+        // Reload evicted assets seen last frame and evict unused ones while over the GPU memory budget
+        LoadModel.getAssets().update();
+        // Upload assets decoded in the background, without letting them take over the frame
+        LoadModel.getPipeline().processUploads((long) (Settings.ASSET_UPLOAD_BUDGET_MS * 1_000_000L));
+        LoadModel.getTextureStreamer().update();
         gameLogic.render();
         window.update();
     }
@@ -198,7 +205,10 @@ public class EngineManager {
      * </p>
      */
     private void cleanup() {
+        LoadModel.getPipeline().shutdown();
+        LoadModel.getTextureStreamer().cleanup();
         gameLogic.cleanup();
+        LoadModel.cleanup();
         window.cleanup();
         errorCallback.free();
         GLFW.glfwTerminate();
@@ -12,24 +12,53 @@
 
 package com.discardsoft.j3D.core;
 
+import com.discardsoft.j3D.core.asset.CachedMesh;
+import com.discardsoft.j3D.core.asset.CachedTexture;
+import com.discardsoft.j3D.core.asset.DecodedImage;
+import com.discardsoft.j3D.core.asset.ImportedScene;
+import com.discardsoft.j3D.core.asset.MeshCache;
+import com.discardsoft.j3D.core.asset.MeshData;
+import com.discardsoft.j3D.core.asset.MeshPacker;
+import com.discardsoft.j3D.core.asset.MipChain;
+import com.discardsoft.j3D.core.asset.ObjParser;
+import com.discardsoft.j3D.core.asset.PendingUpload;
+import com.discardsoft.j3D.core.asset.PackedMesh;
+import com.discardsoft.j3D.core.asset.SceneCache;
+import com.discardsoft.j3D.core.asset.SceneImporter;
+import com.discardsoft.j3D.core.asset.TextureCache;
+import com.discardsoft.j3D.core.asset.TextureFormat;
+import com.discardsoft.j3D.core.asset.VertexFormat;
 import com.discardsoft.j3D.core.entity.Model;
+import com.discardsoft.j3D.core.entity.Texture;
+import com.discardsoft.j3D.core.render.GeometryArena;
+import com.discardsoft.j3D.core.render.GpuResourceRegistry;
+import com.discardsoft.j3D.core.render.TextureStreamer;
+import com.discardsoft.j3D.core.utils.Settings;
 import com.discardsoft.j3D.core.utils.Utils;
+import org.joml.Vector3f;
 import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
 import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
 import org.lwjgl.stb.STBImage;
 import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The ObjectLoader class is responsible for loading 3D models and textures
@@ -39,40 +68,306 @@ import java.util.Map;
 public class ObjectLoader {
 
     // Vertex Array Objects (VAOs) store the structure of vertex data.
-    private List<Integer> vaos = new ArrayList<>();
+    private final Set<Integer> vaos = new LinkedHashSet<>();
 
     // Vertex Buffer Objects (VBOs) store the actual vertex data.
-    private List<Integer> vbos = new ArrayList<>();
+    private final Set<Integer> vbos = new LinkedHashSet<>();
 
     // Textures store image data for rendering.
-    private List<Integer> textures = new ArrayList<>();
+    private final Set<Integer> textures = new LinkedHashSet<>();
+
+    // Estimated GPU memory of every buffer and texture, shared with all other loaders.
+    private final GpuResourceRegistry registry = GpuResourceRegistry.getShared();
+
+    // Buffers owned by each VAO, so a single model can be unloaded.
+    private final Map<Integer, List<Integer>> vaoBuffers = new HashMap<>();
+
+    // Buffers of the VAO currently being built.
+    private List<Integer> currentBuffers;
+
+    // Shared geometry storage for loaded models, or null to give every model its own VAO.
+    private final GeometryArena arena;
+
+    // Vertex layout used for models that get their own VAO.
+    private VertexFormat vertexFormat = VertexFormat.FLOAT;
+
+    // Binary copies of imported OBJ files, or null to always parse them.
+    private MeshCache meshCache = Settings.MESH_CACHE ? new MeshCache(Paths.get(Settings.MESH_CACHE_PATH)) : null;
+
+    // Binary copies of scenes imported through Assimp, or null to always import them.
+    private SceneCache sceneCache = Settings.MESH_CACHE ? new SceneCache(Paths.get(Settings.MESH_CACHE_PATH)) : null;
+
+    // Decoded copies of texture files with their mip chains, or null to always decode them.
+    private TextureCache textureCache = Settings.TEXTURE_CACHE
+            ? new TextureCache(Paths.get(Settings.TEXTURE_CACHE_PATH), Settings.TEXTURE_CACHE_COMPACT) : null;
+
+    // Streams textures prepared on worker threads over several frames, or null to upload them at once.
+    private TextureStreamer textureStreamer;
+
+    /**
+     * Creates a loader that gives every model its own VAO and buffers.
+     */
+    public ObjectLoader() {
+        this(null);
+    }
+
+    /**
+     * Creates a loader that places model geometry in a shared arena.
+     *
+     * @param arena The arena to allocate models from, or null for separate buffers per model.
+     */
+    public ObjectLoader(GeometryArena arena) {
+        this.arena = arena;
+    }
+
+    /**
+     * Sets the vertex layout for models loaded into their own VAO.
+     * Models placed in a geometry arena always use the arena's float layout,
+     * and meshes whose texture coordinates are too large for half floats fall
+     * back to {@link VertexFormat#FLOAT}.
+     *
+     * @param vertexFormat The vertex layout to upload with.
+     */
+    public void setVertexFormat(VertexFormat vertexFormat) {
+        this.vertexFormat = vertexFormat;
+    }
+
+    /**
+     * Sets the cache of binary meshes used by {@link #importOBJ(String)}.
+     *
+     * @param meshCache The cache, or null to always parse OBJ files.
+     */
+    public void setMeshCache(MeshCache meshCache) {
+        this.meshCache = meshCache;
+    }
+
+    /**
+     * Sets the cache of imported scenes used by {@link #importScene(String)}.
+     *
+     * @param sceneCache The cache, or null to always import model files through Assimp.
+     */
+    public void setSceneCache(SceneCache sceneCache) {
+        this.sceneCache = sceneCache;
+    }
+
+    /**
+     * Sets the cache of decoded textures used by {@link #readTexture(String)}.
+     *
+     * @param textureCache The cache, or null to always decode image files.
+     */
+    public void setTextureCache(TextureCache textureCache) {
+        this.textureCache = textureCache;
+    }
+
+    /**
+     * Sets the streamer used for textures loaded through {@link #prepareTexture(String, String)}
+     * and {@link #prepareScene(String)}. Such textures are then streamed in
+     * from their smallest mip level, instead of being uploaded whole.
+     * Synchronous imports always upload at once.
+     *
+     * @param textureStreamer The streamer, or null to upload textures at once.
+     */
+    public void setTextureStreamer(TextureStreamer textureStreamer) {
+        this.textureStreamer = textureStreamer;
+    }
 
     /**
      * Loads a 3D model into memory.
+     * <p>
+     * The model-space bounding box and sphere are computed from the vertex
+     * positions so the renderer can cull the model against the view frustum.
+     * If the loader has a geometry arena, the model is suballocated from it.
+     * Otherwise it gets its own VAO in the loader's vertex format, with 16-bit
+     * indices whenever the mesh has few enough vertices.
+     * </p>
      */
     public Model loadModel(float[] vertices, float[] textureCoords, float[] normalsArray, int[] indices) {
+        if (arena != null) {
+            Model model = arena.allocate(vertices, textureCoords, normalsArray, indices);
+            computeBounds(model, vertices);
+            return model;
+        }
+
+        if (vertexFormat == VertexFormat.PACKED && MeshPacker.canPack(textureCoords)) {
+            return loadPackedModel(vertices, textureCoords, normalsArray, indices);
+        }
+
         int id = createVAO();
-        storeIndicesBuffer(indices);
+        int indexType = MeshPacker.indexType(vertices.length / 3);
+        storeIndicesBuffer(indices, indexType);
         storeDataInAttributeList(0, 3, vertices);
         storeDataInAttributeList(1, 2, textureCoords);
         storeDataInAttributeList(2, 3, normalsArray);
         unbind();
-        return new Model(id, indices.length);
+        Model model = new Model(id, indices.length, indexType, false);
+        computeBounds(model, vertices);
+        return model;
+    }
+
+    /**
+     * Loads a 3D model into its own VAO using the quantized, interleaved packed layout.
+     */
+    private Model loadPackedModel(float[] vertices, float[] textureCoords, float[] normalsArray, int[] indices) {
+        PackedMesh packed = MeshPacker.pack(vertices, textureCoords, normalsArray, indices);
+        int id = createVAO();
+
+        int ebo = GL15.glGenBuffers();
+        trackBuffer(ebo, (long) packed.getIndexCount() * indexSize(packed.getIndexType()));
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ebo);
+        if (packed.getIndexType() == GL11.GL_UNSIGNED_SHORT) {
+            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, (ShortBuffer) packed.getIndices(), GL15.GL_STATIC_DRAW);
+        } else {
+            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, (IntBuffer) packed.getIndices(), GL15.GL_STATIC_DRAW);
+        }
+
+        int vbo = GL15.glGenBuffers();
+        trackBuffer(vbo, packed.getVertices().remaining());
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, packed.getVertices(), GL15.GL_STATIC_DRAW);
+        GL20.glVertexAttribPointer(0, 3, GL11.GL_SHORT, true, MeshPacker.VERTEX_BYTES, MeshPacker.POSITION_OFFSET);
+        GL20.glVertexAttribPointer(1, 2, GL30.GL_HALF_FLOAT, false, MeshPacker.VERTEX_BYTES, MeshPacker.TEXTURE_OFFSET);
+        GL20.glVertexAttribPointer(2, 2, GL11.GL_SHORT, true, MeshPacker.VERTEX_BYTES, MeshPacker.NORMAL_OFFSET);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        unbind();
+
+        Model model = new Model(id, packed.getIndexCount(), packed.getIndexType(), true);
+        packed.free();
+        computeBounds(model, vertices);
+        return model;
+    }
+
+    /**
+     * Loads CPU-side mesh data into memory as a 3D model.
+     *
+     * @param mesh The mesh to upload.
+     * @return The uploaded model.
+     */
+    public Model loadModel(MeshData mesh) {
+        return loadModel(mesh.getPositions(), mesh.getTextureCoords(), mesh.getNormals(), mesh.getIndices());
     }
 
     /**
      * Loads a texture from a file.
      */
     public int loadTexture(String path) throws Exception {
-        int width;
-        int height;
-        ByteBuffer buffer;
+        return loadTexture(readTexture(path));
+    }
+
+    /**
+     * Loads a texture from a file, with transparency taken from its alpha channel.
+     *
+     * @param path The image file.
+     * @param name The name given to the texture.
+     * @return The uploaded texture.
+     */
+    public Texture importTexture(String path, String name) throws Exception {
+        return prepareTexture(path, name, false).upload();
+    }
+
+    /**
+     * Reads a texture file without touching OpenGL.
+     * <p>
+     * Safe to call from any thread; the returned upload must run on the
+     * thread owning the OpenGL context. With a texture streamer, the upload
+     * only starts streaming the mip levels in.
+     * </p>
+     *
+     * @param path The image file.
+     * @param name The name given to the texture.
+     * @return The texture once uploaded.
+     */
+    public PendingUpload<Texture> prepareTexture(String path, String name) throws Exception {
+        return prepareTexture(path, name, true);
+    }
+
+    /**
+     * Reads a texture file without touching OpenGL.
+     *
+     * @param path The image file.
+     * @param name The name given to the texture.
+     * @param stream Whether the upload may go through the texture streamer.
+     * @return The texture once uploaded.
+     */
+    private PendingUpload<Texture> prepareTexture(String path, String name, boolean stream) throws Exception {
+        MipChain image = readTexture(path);
+        boolean transparent = image.hasTransparency();
+        TextureStreamer streamer = stream ? textureStreamer : null;
+        return new PendingUpload<>() {
+            @Override
+            public Texture upload() {
+                int id;
+                if (streamer == null) {
+                    id = loadTexture(image);
+                } else {
+                    long bytes = textureBytes(image, image.getLevelCount());
+                    id = streamer.begin(image);
+                    trackTexture(id, bytes);
+                }
+                return new Texture(id, name, transparent);
+            }
+
+            @Override
+            public void discard() {
+                image.free();
+            }
+        };
+    }
+
+    /**
+     * Reads a texture and its mip chain, from the texture cache when it is up to date.
+     * <p>
+     * Otherwise the image is decoded, its mip levels are generated and the
+     * cache file is written, so the next run skips both steps. Safe to call
+     * from any thread.
+     * </p>
+     *
+     * @param path The image file.
+     * @return The pixels, to be freed by the caller or by {@link #loadTexture(MipChain)}.
+     */
+    public MipChain readTexture(String path) throws Exception {
+        Path source = Paths.get(path);
+        if (textureCache != null) {
+            try {
+                CachedTexture cached = textureCache.open(source);
+                if (cached != null) {
+                    return cached;
+                }
+            } catch (IOException e) {
+                System.err.println("Could not read texture cache for " + path + ": " + e.getMessage());
+            }
+        }
+
+        DecodedImage image = decodeTexture(path);
+        image.generateMipmaps();
+        if (textureCache != null && Files.isRegularFile(source)) {
+            try {
+                textureCache.write(source, image);
+                CachedTexture cached = textureCache.open(source);
+                if (cached != null) {
+                    // Upload what later runs will load, in the cache's format
+                    image.free();
+                    return cached;
+                }
+            } catch (IOException e) {
+                System.err.println("Could not write texture cache for " + path + ": " + e.getMessage());
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Decodes an image file into RGBA pixels, falling back to the error texture if it cannot be read.
+     *
+     * @param path The image file.
+     * @return The decoded pixels, to be freed by the caller or by {@link #loadTexture(MipChain)}.
+     */
+    public DecodedImage decodeTexture(String path) throws Exception {
         try (MemoryStack stack = MemoryStack.stackPush()) {
             IntBuffer widthBuffer = stack.mallocInt(1);
             IntBuffer heightBuffer = stack.mallocInt(1);
             IntBuffer channelBuffer = stack.mallocInt(1);
 
-            buffer = STBImage.stbi_load(path, widthBuffer, heightBuffer, channelBuffer, 4);
+            ByteBuffer buffer = STBImage.stbi_load(path, widthBuffer, heightBuffer, channelBuffer, 4);
             if (buffer == null) {
                 // Load a default error texture if the specified texture is missing.
                 path = "src/main/resources/textures/errtex.png";
@@ -81,126 +376,370 @@ public class ObjectLoader {
                     throw new Exception("Failed to load " + path + " texture file: " + STBImage.stbi_failure_reason());
                 }
             }
-
-            width = widthBuffer.get();
-            height = heightBuffer.get();
+            return new DecodedImage(widthBuffer.get(), heightBuffer.get(), buffer);
         }
+    }
 
+    /**
+     * Uploads pixels as a texture and frees them.
+     * <p>
+     * Every level of the chain is uploaded as it is; a chain with only the
+     * base level has its mipmaps generated by the driver.
+     * </p>
+     *
+     * @param image The pixels and their mip levels.
+     * @return The texture ID.
+     */
+    public int loadTexture(MipChain image) {
         int id = GL11.glGenTextures();
-        textures.add(id);
         GL11.glBindTexture(GL11.GL_TEXTURE_2D, id);
         GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
-        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, buffer);
-        GL30.glGenerateMipmap(GL11.GL_TEXTURE_2D);
-        STBImage.stbi_image_free(buffer);
+        TextureFormat format = image.getFormat();
+        int levels = image.getLevelCount();
+        // A single level gets a driver-built chain, about a third more memory
+        trackTexture(id, levels == 1 ? textureBytes(image, 1) * 4 / 3 : textureBytes(image, levels));
+        for (int level = 0; level < levels; level++) {
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, level, format.getInternalFormat(), image.getLevelWidth(level), image.getLevelHeight(level),
+                              0, format.getPixelFormat(), format.getPixelType(), image.getLevelPixels(level));
+        }
+        if (levels == 1) {
+            GL30.glGenerateMipmap(GL11.GL_TEXTURE_2D);
+        } else {
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL12.GL_TEXTURE_MAX_LEVEL, levels - 1);
+        }
+        // Nearest filtering (pixelated look) is part of the texture object, so set it once here rather than per draw
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        image.free();
+        return id;
+    }
+
+    /**
+     * Uploads textures of the same size and format as the layers of one array texture, and frees them.
+     * <p>
+     * Layer {@code i} holds {@code layers.get(i)}. Only the mip levels every
+     * layer provides are uploaded.
+     * </p>
+     *
+     * @param layers The pixels of each layer.
+     * @return The ID of the GL_TEXTURE_2D_ARRAY.
+     */
+    public int loadTextureArray(List<? extends MipChain> layers) throws Exception {
+        MipChain first = layers.get(0);
+        TextureFormat format = first.getFormat();
+        int levels = first.getLevelCount();
+        for (MipChain layer : layers) {
+            if (layer.getFormat() != format || layer.getLevelWidth(0) != first.getLevelWidth(0)
+                    || layer.getLevelHeight(0) != first.getLevelHeight(0)) {
+                throw new Exception("Array texture layers must share size and format");
+            }
+            levels = Math.min(levels, layer.getLevelCount());
+        }
+
+        int id = GL11.glGenTextures();
+        trackTexture(id, textureBytes(first, levels) * layers.size());
+        GL11.glBindTexture(GL30.GL_TEXTURE_2D_ARRAY, id);
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        for (int level = 0; level < levels; level++) {
+            int width = first.getLevelWidth(level);
+            int height = first.getLevelHeight(level);
+            GL12.glTexImage3D(GL30.GL_TEXTURE_2D_ARRAY, level, format.getInternalFormat(), width, height, layers.size(),
+                              0, format.getPixelFormat(), format.getPixelType(), (ByteBuffer) null);
+            for (int layer = 0; layer < layers.size(); layer++) {
+                GL12.glTexSubImage3D(GL30.GL_TEXTURE_2D_ARRAY, level, 0, 0, layer, width, height, 1,
+                                     format.getPixelFormat(), format.getPixelType(), layers.get(layer).getLevelPixels(level));
+            }
+        }
+        GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL12.GL_TEXTURE_MAX_LEVEL, levels - 1);
+        // Same pixelated look as single textures
+        GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL30.GL_TEXTURE_2D_ARRAY, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        GL11.glBindTexture(GL30.GL_TEXTURE_2D_ARRAY, 0);
+        for (MipChain layer : layers) {
+            layer.free();
+        }
         return id;
     }
 
     /*
      *
      * Imports a 3D model from an OBJ file, including vertices, texture coordinates, and normals.
+     * With a mesh cache, the binary copy of the file is uploaded directly from disk
+     * when it is up to date, and written after parsing when it is not.
      *
      */
     public Model importOBJ(String filePath) throws Exception {
-        List<Float> vertices = new ArrayList<>();
-        List<Float> textureCoords = new ArrayList<>();
-        List<Float> normals = new ArrayList<>();
-        Map<String, Integer> uniqueVertices = new HashMap<>();
-        List<Float> finalVertices = new ArrayList<>();
-        List<Float> finalTextureCoords = new ArrayList<>();
-        List<Float> finalNormals = new ArrayList<>();
-        List<Integer> indices = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] tokens = line.split(" ");
-                switch (tokens[0]) {
-                    case "v": // Vertex position
-                        vertices.add(Float.parseFloat(tokens[1]));
-                        vertices.add(Float.parseFloat(tokens[2]));
-                        vertices.add(Float.parseFloat(tokens[3]));
-                        break;
-                    case "vt": // Texture coordinate
-                        textureCoords.add(Float.parseFloat(tokens[1]));
-                        textureCoords.add(Float.parseFloat(tokens[2]));
-                        break;
-                    case "vn": // Normal vector
-                        normals.add(Float.parseFloat(tokens[1]));
-                        normals.add(Float.parseFloat(tokens[2]));
-                        normals.add(Float.parseFloat(tokens[3]));
-                        break;
-                    case "f": // Face (indices)
-                        for (int i = 1; i < tokens.length; i++) {
-                            String[] parts = tokens[i].split("/");
-                            int vertexIndex = Integer.parseInt(parts[0]) - 1;
-                            int textureIndex = parts.length > 1 && !parts[1].isEmpty() ? Integer.parseInt(parts[1]) - 1 : -1;
-                            int normalIndex = parts.length > 2 && !parts[2].isEmpty() ? Integer.parseInt(parts[2]) - 1 : -1;
-
-                            // Create a unique key for the vertex combination
-                            String key = vertexIndex + "/" + textureIndex + "/" + normalIndex;
-                            if (!uniqueVertices.containsKey(key)) {
-                                // Add vertex position
-                                finalVertices.add(vertices.get(vertexIndex * 3));
-                                finalVertices.add(vertices.get(vertexIndex * 3 + 1));
-                                finalVertices.add(vertices.get(vertexIndex * 3 + 2));
-
-                                // Add texture coordinate if available
-                                if (textureIndex != -1) {
-                                    finalTextureCoords.add(textureCoords.get(textureIndex * 2));
-                                    finalTextureCoords.add(textureCoords.get(textureIndex * 2 + 1));
-                                } else {
-                                    finalTextureCoords.add(0.0f);
-                                    finalTextureCoords.add(0.0f);
-                                }
-
-                                // Add normal vector if available
-                                if (normalIndex != -1) {
-                                    finalNormals.add(normals.get(normalIndex * 3));
-                                    finalNormals.add(normals.get(normalIndex * 3 + 1));
-                                    finalNormals.add(normals.get(normalIndex * 3 + 2));
-                                } else {
-                                    finalNormals.add(0.0f);
-                                    finalNormals.add(0.0f);
-                                    finalNormals.add(0.0f);
-                                }
-
-                                // Store the index of this unique vertex
-                                uniqueVertices.put(key, uniqueVertices.size());
-                            }
-
-                            // Add the index to the indices list
-                            indices.add(uniqueVertices.get(key));
-                        }
-                        break;
+        return prepareOBJ(filePath).upload();
+    }
+
+    /**
+     * Reads an OBJ file, or its cached binary copy, without touching OpenGL.
+     * <p>
+     * Safe to call from any thread; the returned upload must run on the
+     * thread owning the OpenGL context. Falls back to the error model if the
+     * file cannot be parsed.
+     * </p>
+     *
+     * @param filePath The OBJ file.
+     * @return The mesh, ready to be uploaded.
+     */
+    public PendingUpload<Model> prepareOBJ(String filePath) throws Exception {
+        MeshData mesh = null;
+        if (meshCache != null) {
+            Path source = Paths.get(filePath);
+            try {
+                CachedMesh cached = meshCache.open(source);
+                if (cached != null) {
+                    return () -> loadModel(cached);
                 }
+            } catch (IOException e) {
+                System.err.println("Ignoring mesh cache of " + source + ": " + e.getMessage());
             }
+
+            mesh = parseAndCache(source);
+        }
+        MeshData parsed = mesh != null ? mesh : parseOBJ(filePath);
+        return () -> loadModel(parsed);
+    }
+
+    /**
+     * Reads the geometry of an OBJ file into CPU-side mesh data without uploading it.
+     * <p>
+     * Safe to call from any thread. Like {@link #prepareOBJ(String)}, it reads
+     * the cached binary copy when it is up to date and writes it after parsing
+     * when it is not. Falls back to the error model if the file cannot be parsed.
+     * </p>
+     *
+     * @param filePath The OBJ file.
+     * @return The mesh data.
+     */
+    public MeshData readOBJ(String filePath) throws Exception {
+        MeshData mesh = null;
+        if (meshCache != null) {
+            Path source = Paths.get(filePath);
+            try {
+                CachedMesh cached = meshCache.open(source);
+                if (cached != null) {
+                    return cached.toMeshData();
+                }
+            } catch (IOException e) {
+                System.err.println("Ignoring mesh cache of " + source + ": " + e.getMessage());
+            }
+            mesh = parseAndCache(source);
+        }
+        return mesh != null ? mesh : parseOBJ(filePath);
+    }
+
+    /**
+     * Parses an OBJ file and writes it to the mesh cache.
+     *
+     * @return The mesh, or null if the file cannot be parsed
+     */
+    private MeshData parseAndCache(Path source) {
+        MeshData mesh;
+        try {
+            mesh = ObjParser.parse(source);
         } catch (Exception e) {
-            System.err.println("Failed to load model: " + filePath + ".");
-            return importOBJ("src/main/resources/models/errmodel.obj");
+            return null; // Let the regular import report it and fall back to the error model
+        }
+        try {
+            meshCache.write(source, mesh);
+        } catch (IOException e) {
+            System.err.println("Could not write mesh cache of " + source + ": " + e.getMessage());
         }
+        return mesh;
+    }
+
+    /**
+     * Imports a glTF, FBX or other Assimp-supported model file as one model per material.
+     *
+     * @param filePath The model file.
+     * @return The models, textured with their material's diffuse texture where it has one.
+     * @see #prepareScene(String)
+     */
+    public List<Model> importScene(String filePath) throws Exception {
+        return prepareScene(filePath, false).upload();
+    }
+
+    /**
+     * Imports a model file through Assimp, or reads its cached binary copy, without touching OpenGL.
+     * <p>
+     * Safe to call from any thread; the returned upload must run on the
+     * thread owning the OpenGL context. With a scene cache, an imported file
+     * is written to the cache so later loads skip Assimp. Each distinct
+     * texture is read once and shared by the parts using it. Textures that
+     * cannot be read leave their parts untextured. With a texture streamer,
+     * the textures are streamed in.
+     * </p>
+     *
+     * @param filePath The model file.
+     * @return The models, ready to be uploaded.
+     * @throws Exception If the file cannot be imported.
+     */
+    public PendingUpload<List<Model>> prepareScene(String filePath) throws Exception {
+        return prepareScene(filePath, true);
+    }
 
-        float[] verticesArray = new float[finalVertices.size()];
-        for (int i = 0; i < finalVertices.size(); i++) {
-            verticesArray[i] = finalVertices.get(i);
+    /**
+     * Imports a model file through Assimp, or reads its cached binary copy, without touching OpenGL.
+     *
+     * @param filePath The model file.
+     * @param stream Whether the textures may go through the texture streamer.
+     * @return The models, ready to be uploaded.
+     * @throws Exception If the file cannot be imported.
+     */
+    private PendingUpload<List<Model>> prepareScene(String filePath, boolean stream) throws Exception {
+        Path source = Paths.get(filePath);
+        boolean optimize = Settings.MODEL_IMPORT_OPTIMIZE;
+        ImportedScene scene = null;
+        if (sceneCache != null) {
+            try {
+                scene = sceneCache.open(source, optimize);
+            } catch (IOException e) {
+                System.err.println("Ignoring scene cache of " + source + ": " + e.getMessage());
+            }
+        }
+        if (scene == null) {
+            scene = SceneImporter.importFile(source, optimize);
+            if (sceneCache != null) {
+                try {
+                    sceneCache.write(source, scene, optimize);
+                } catch (IOException e) {
+                    System.err.println("Could not write scene cache of " + source + ": " + e.getMessage());
+                }
+            }
         }
 
-        float[] textureCoordsArray = new float[finalTextureCoords.size()];
-        for (int i = 0; i < finalTextureCoords.size(); i++) {
-            textureCoordsArray[i] = finalTextureCoords.get(i);
+        Map<String, PendingUpload<Texture>> textureUploads = new HashMap<>();
+        for (ImportedScene.Part part : scene.getParts()) {
+            String texturePath = part.getTexturePath();
+            if (texturePath == null || textureUploads.containsKey(texturePath)) {
+                continue;
+            }
+            String name = Paths.get(texturePath).getFileName().toString().replaceFirst("\\.[^.]*$", "");
+            try {
+                textureUploads.put(texturePath, prepareTexture(texturePath, name, stream));
+            } catch (Exception e) {
+                System.err.println("Failed to load texture: " + texturePath + ". " + e.getMessage());
+                textureUploads.put(texturePath, null);
+            }
         }
 
-        float[] normalsArray = new float[finalNormals.size()];
-        for (int i = 0; i < finalNormals.size(); i++) {
-            normalsArray[i] = finalNormals.get(i);
+        ImportedScene imported = scene;
+        return new PendingUpload<>() {
+            @Override
+            public List<Model> upload() throws Exception {
+                Map<String, Texture> uploaded = new HashMap<>();
+                for (Map.Entry<String, PendingUpload<Texture>> texture : textureUploads.entrySet()) {
+                    if (texture.getValue() != null) {
+                        uploaded.put(texture.getKey(), texture.getValue().upload());
+                    }
+                }
+                List<Model> models = new ArrayList<>();
+                for (ImportedScene.Part part : imported.getParts()) {
+                    Model model = loadModel(part.getMesh());
+                    model.setTexture(part.getTexturePath() != null ? uploaded.get(part.getTexturePath()) : null);
+                    models.add(model);
+                }
+                return models;
+            }
+
+            @Override
+            public void discard() {
+                for (PendingUpload<Texture> texture : textureUploads.values()) {
+                    if (texture != null) {
+                        texture.discard();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Uploads a mesh from the binary mesh cache.
+     * <p>
+     * Arena models and models in the float layout are uploaded straight from
+     * the mapped file. The packed layout re-encodes the vertices first.
+     * </p>
+     *
+     * @param mesh The cached mesh.
+     * @return The uploaded model.
+     */
+    public Model loadModel(CachedMesh mesh) {
+        Model model;
+        if (arena != null) {
+            model = arena.allocate(mesh.getVertices(), mesh.getVertexCount(), mesh.getIndices(), mesh.getIndexCount());
+        } else if (vertexFormat == VertexFormat.PACKED) {
+            return loadModel(mesh.toMeshData());
+        } else {
+            int id = createVAO();
+            int indexType = MeshPacker.indexType(mesh.getVertexCount());
+            int ebo = GL15.glGenBuffers();
+            trackBuffer(ebo, (long) mesh.getIndexCount() * indexSize(indexType));
+            GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, ebo);
+            if (indexType == GL11.GL_UNSIGNED_SHORT) {
+                IntBuffer source = mesh.getIndices().asIntBuffer();
+                ShortBuffer indices = MemoryUtil.memAllocShort(Math.max(1, mesh.getIndexCount()));
+                for (int i = 0; i < mesh.getIndexCount(); i++) {
+                    indices.put(i, (short) source.get(i));
+                }
+                indices.limit(mesh.getIndexCount());
+                GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, indices, GL15.GL_STATIC_DRAW);
+                MemoryUtil.memFree(indices);
+            } else {
+                GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, mesh.getIndices(), GL15.GL_STATIC_DRAW);
+            }
+
+            int vbo = GL15.glGenBuffers();
+            trackBuffer(vbo, (long) mesh.getVertexCount() * CachedMesh.VERTEX_BYTES);
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vbo);
+            GL15.glBufferData(GL15.GL_ARRAY_BUFFER, mesh.getVertices(), GL15.GL_STATIC_DRAW);
+            GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, CachedMesh.VERTEX_BYTES, 0);
+            GL20.glVertexAttribPointer(1, 2, GL11.GL_FLOAT, false, CachedMesh.VERTEX_BYTES, 3 * Float.BYTES);
+            GL20.glVertexAttribPointer(2, 3, GL11.GL_FLOAT, false, CachedMesh.VERTEX_BYTES, 5 * Float.BYTES);
+            GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+            unbind();
+            model = new Model(id, mesh.getIndexCount(), indexType, false);
         }
+        model.setBounds(mesh.getBoundsMin(), mesh.getBoundsMax());
+        return model;
+    }
 
-        int[] indicesArray = new int[indices.size()];
-        for (int i = 0; i < indices.size(); i++) {
-            indicesArray[i] = indices.get(i);
+    /*
+     *
+     * Parses an OBJ file into CPU-side mesh data without uploading it.
+     * Falls back to the error model if the file cannot be read.
+     *
+     */
+    public MeshData parseOBJ(String filePath) throws Exception {
+        try {
+            return ObjParser.parse(Paths.get(filePath));
+        } catch (Exception e) {
+            System.err.println("Failed to load model: " + filePath + ".");
+            return parseOBJ("src/main/resources/models/errmodel.obj");
+        }
+    }
+
+    /**
+     * Computes the bounding volumes of a model from its vertex positions.
+     *
+     * @param model The model to store the bounds on.
+     * @param vertices The vertex positions (3 floats per vertex).
+     */
+    private void computeBounds(Model model, float[] vertices) {
+        if (vertices.length < 3) {
+            Vector3f zero = new Vector3f();
+            model.setBounds(zero, zero);
+            return;
         }
 
-        return loadModel(verticesArray, textureCoordsArray, normalsArray, indicesArray);
+        Vector3f min = new Vector3f(Float.POSITIVE_INFINITY);
+        Vector3f max = new Vector3f(Float.NEGATIVE_INFINITY);
+        for (int i = 0; i + 2 < vertices.length; i += 3) {
+            min.set(Math.min(min.x, vertices[i]), Math.min(min.y, vertices[i + 1]), Math.min(min.z, vertices[i + 2]));
+            max.set(Math.max(max.x, vertices[i]), Math.max(max.y, vertices[i + 1]), Math.max(max.z, vertices[i + 2]));
+        }
+        model.setBounds(min, max);
     }
 
     /**
@@ -211,21 +750,78 @@ public class ObjectLoader {
     private int createVAO() {
         int id = GL30.glGenVertexArrays();
         vaos.add(id);
+        currentBuffers = new ArrayList<>();
+        vaoBuffers.put(id, currentBuffers);
         GL30.glBindVertexArray(id);
         return id;
     }
 
+    /**
+     * Records a buffer as owned by this loader and the VAO being built.
+     *
+     * @param vbo The ID of the buffer.
+     * @param bytes The size of the data stored in it.
+     */
+    private void trackBuffer(int vbo, long bytes) {
+        vbos.add(vbo);
+        currentBuffers.add(vbo);
+        registry.register(GpuResourceRegistry.Kind.BUFFER, vbo, bytes);
+    }
+
+    /**
+     * Records a texture as owned by this loader.
+     *
+     * @param textureId The ID of the texture.
+     * @param bytes The size of all of its levels and layers.
+     */
+    private void trackTexture(int textureId, long bytes) {
+        textures.add(textureId);
+        registry.register(GpuResourceRegistry.Kind.TEXTURE, textureId, bytes);
+    }
+
+    /**
+     * Estimates the GPU memory of a texture's levels.
+     *
+     * @param image The texture's pixels.
+     * @param levels The number of levels uploaded.
+     * @return The size in bytes.
+     */
+    private static long textureBytes(MipChain image, int levels) {
+        long bytes = 0;
+        for (int level = 0; level < levels; level++) {
+            bytes += (long) image.getLevelWidth(level) * image.getLevelHeight(level) * image.getFormat().getBytesPerPixel();
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the size of one index.
+     *
+     * @param indexType GL_UNSIGNED_SHORT or GL_UNSIGNED_INT.
+     * @return The size in bytes.
+     */
+    private static int indexSize(int indexType) {
+        return indexType == GL11.GL_UNSIGNED_SHORT ? Short.BYTES : Integer.BYTES;
+    }
+
     /**
      * Stores indices in an OpenGL Element Array Buffer.
      *
      * @param indices The indices to store.
+     * @param indexType The index type to store them as (GL_UNSIGNED_SHORT or GL_UNSIGNED_INT).
      */
-    private void storeIndicesBuffer(int[] indices) {
+    private void storeIndicesBuffer(int[] indices, int indexType) {
         int vbo = GL15.glGenBuffers();
-        vbos.add(vbo);
+        trackBuffer(vbo, (long) indices.length * indexSize(indexType));
         GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, vbo);
-        IntBuffer buffer = Utils.storeDataInIntBuffer(indices);
-        GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+        if (indexType == GL11.GL_UNSIGNED_SHORT) {
+            ShortBuffer buffer = (ShortBuffer) MeshPacker.packIndices(indices, indexType);
+            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+            MemoryUtil.memFree(buffer);
+        } else {
+            IntBuffer buffer = Utils.storeDataInIntBuffer(indices);
+            GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, buffer, GL15.GL_STATIC_DRAW);
+        }
     }
 
     /**
@@ -237,7 +833,7 @@ public class ObjectLoader {
      */
     private void storeDataInAttributeList(int attributeNumber, int vertexCount, float[] data) {
         int vbo = GL15.glGenBuffers();
-        vbos.add(vbo);
+        trackBuffer(vbo, (long) data.length * Float.BYTES);
         GL30.glBindBuffer(GL30.GL_ARRAY_BUFFER, vbo);
         FloatBuffer buffer = Utils.storeDataInFloatBuffer(data);
         GL30.glBufferData(GL30.GL_ARRAY_BUFFER, buffer, GL30.GL_STATIC_DRAW);
@@ -245,6 +841,48 @@ public class ObjectLoader {
         GL15.glBindBuffer(GL30.GL_ARRAY_BUFFER, 0);
     }
 
+    /**
+     * Releases the GPU storage of a single model created by this loader.
+     * Arena models return their range to the arena; models with their own
+     * VAO have the VAO and its buffers deleted. Models from other loaders are ignored.
+     *
+     * @param model The model to unload.
+     */
+    public void unloadModel(Model model) {
+        if (model.isArenaAllocated()) {
+            if (arena != null) {
+                arena.free(model);
+            }
+            return;
+        }
+        List<Integer> buffers = vaoBuffers.remove(model.getVaoId());
+        if (buffers == null) {
+            return;
+        }
+        for (int vbo : buffers) {
+            GL15.glDeleteBuffers(vbo);
+            vbos.remove(vbo);
+            registry.unregister(GpuResourceRegistry.Kind.BUFFER, vbo);
+        }
+        GL30.glDeleteVertexArrays(model.getVaoId());
+        vaos.remove(model.getVaoId());
+    }
+
+    /**
+     * Deletes a single texture created by this loader.
+     *
+     * @param textureId The ID of the texture.
+     */
+    public void unloadTexture(int textureId) {
+        if (textures.remove(textureId)) {
+            if (textureStreamer != null) {
+                textureStreamer.cancel(textureId);
+            }
+            GL11.glDeleteTextures(textureId);
+            registry.unregister(GpuResourceRegistry.Kind.TEXTURE, textureId);
+        }
+    }
+
     /**
      * Cleans up OpenGL resources used by the ObjectLoader.
      * Deletes all VAOs, VBOs, and textures created by this class.
@@ -255,10 +893,16 @@ public class ObjectLoader {
         }
         for (int vbo : vbos) {
             GL30.glDeleteBuffers(vbo);
+            registry.unregister(GpuResourceRegistry.Kind.BUFFER, vbo);
         }
         for (int texture : textures) {
             GL11.glDeleteTextures(texture);
+            registry.unregister(GpuResourceRegistry.Kind.TEXTURE, texture);
         }
+        vaos.clear();
+        vbos.clear();
+        textures.clear();
+        vaoBuffers.clear();
     }
 
     /**
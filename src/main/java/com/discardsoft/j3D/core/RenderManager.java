@@ -16,17 +16,28 @@ import com.discardsoft.j3D.Main;
 import com.discardsoft.j3D.core.entity.Camera;
 import com.discardsoft.j3D.core.entity.Entity;
 import com.discardsoft.j3D.core.entity.Light;
+import com.discardsoft.j3D.core.entity.Model;
+import com.discardsoft.j3D.core.entity.Texture;
+import com.discardsoft.j3D.core.render.FrameUniforms;
+import com.discardsoft.j3D.core.render.GLStateCache;
+import com.discardsoft.j3D.core.render.IndirectDrawBuffer;
+import com.discardsoft.j3D.core.render.InstanceBuffer;
+import com.discardsoft.j3D.core.render.LightUniforms;
+import com.discardsoft.j3D.core.render.RenderQueue;
+import com.discardsoft.j3D.core.render.RenderStats;
+import com.discardsoft.j3D.core.render.uniform.IntUniform;
+import com.discardsoft.j3D.core.render.uniform.Vec3Uniform;
 import com.discardsoft.j3D.core.scene.BaseScene;
 import com.discardsoft.j3D.core.utils.Transformation;
 import com.discardsoft.j3D.core.utils.Utils;
+import org.joml.FrustumIntersection;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
 import org.joml.Vector3f;
+import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL15;
-import org.lwjgl.opengl.GL20;
-import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -34,7 +45,16 @@ import java.util.List;
  * <p>
  * This class is responsible for initializing and managing shaders,
  * setting up render parameters, and rendering entities with appropriate
- * lighting and camera view transformations.
+ * lighting and camera view transformations. Entities outside the camera
+ * frustum are culled before any draw work is issued for them, and visible
+ * entities that share a model and texture are drawn together with a single
+ * instanced draw call. Draws are ordered by render-state sort keys and all
+ * state changes go through a {@link GLStateCache}, so redundant binds are
+ * never sent to the driver. Models living in a shared geometry arena are
+ * submitted together with glMultiDrawElementsIndirect when OpenGL 4.3 is
+ * available, one call per texture. Textures packed into an array texture
+ * share its ID, so models using different layers still batch together; the
+ * layer travels with each instance.
  * </p>
  * 
  * @author DiscardSoft
@@ -42,12 +62,75 @@ import java.util.List;
  */
 public class RenderManager {
 
+  /** Texture unit array textures are bound to, so they never replace the 2D binding on unit 0 */
+  private static final int ARRAY_TEXTURE_UNIT = 1;
+
   /** Reference to window manager for viewport and projection updates */
   private final WindowManager window;
 
   /** Shader program manager for rendering */
   private ShaderManager shader;
 
+  /** Camera view matrix, rebuilt in place every frame */
+  private final Matrix4f viewMatrix = new Matrix4f();
+
+  /** Scratch normal matrix for billboarded entities, whose transform changes with the camera */
+  private final Matrix3f billboardNormalMatrix = new Matrix3f();
+
+  /** Combined projection-view matrix used to build the culling frustum */
+  private final Matrix4f projectionViewMatrix = new Matrix4f();
+
+  /** Camera frustum planes for visibility tests */
+  private final FrustumIntersection frustum = new FrustumIntersection();
+
+  /** Counters describing the last rendered frame */
+  private final RenderStats stats = new RenderStats();
+
+  /** Texture unit read by the fragment shader */
+  private IntUniform textureSampler;
+
+  /** Texture unit of array textures read by the fragment shader */
+  private IntUniform textureArraySampler;
+
+  /** Flag selecting the array texture sampler for the current model */
+  private IntUniform useTextureArray;
+
+  /** Flag selecting alpha-tested, blended shading for transparent entities */
+  private IntUniform useTransparency;
+
+  /** Flag selecting the packed vertex decoding for the current model */
+  private IntUniform packedVertices;
+
+  /** Bounds center used to decode packed positions */
+  private Vec3Uniform positionOffset;
+
+  /** Bounds half extent used to decode packed positions */
+  private Vec3Uniform positionScale;
+
+  /** Per-frame stream of instance transformation matrices */
+  private InstanceBuffer instanceBuffer;
+
+  /** Multi-draw command stream for arena models, or null if multi-draw indirect is unsupported */
+  private IndirectDrawBuffer indirectBuffer;
+
+  /** Model whose VAO and texture the pending indirect commands use */
+  private Model indirectModel;
+
+  /** Camera matrices and position shared by all programs, written once per frame */
+  private FrameUniforms frameUniforms;
+
+  /** Scene light shared by all programs, written once per frame */
+  private LightUniforms lightUniforms;
+
+  /** Tracks bound OpenGL state to skip redundant changes */
+  private final GLStateCache state = new GLStateCache(stats);
+
+  /** Visible opaque entities sorted by program, texture, VAO and depth, reused across frames */
+  private final RenderQueue opaqueQueue = new RenderQueue();
+
+  /** Visible transparent entities sorted back to front, reused across frames */
+  private final RenderQueue transparentQueue = new RenderQueue();
+
   /**
    * Constructs a new render manager instance.
    * <p>
@@ -73,26 +156,38 @@ public class RenderManager {
     shader.createFragmentShader(Utils.loadResource("/shaders/fragment.glsl"));
     shader.link();
 
-    // Create model transformation uniforms
-    shader.createUniform("textureSampler");
-    shader.createUniform("transformationMatrix");
-    shader.createUniform("projectionMatrix");
-    shader.createUniform("viewMatrix");
-
-    // Create lighting uniforms
-    shader.createUniform("lightPosition");
-    shader.createUniform("lightColor");
-    shader.createUniform("ambientLight");
-    shader.createUniform("cameraPosition");
+    // Camera and light state live in shared uniform blocks, model matrices are per-instance attributes
+    textureSampler = shader.createIntUniform("textureSampler");
+    textureArraySampler = shader.createIntUniform("textureArraySampler");
+    useTextureArray = shader.createIntUniform("useTextureArray");
 
     // Add a new uniform for transparency flag
-    shader.createUniform("useTransparency");
+    useTransparency = shader.createIntUniform("useTransparency");
+
+    // Uniforms decoding quantized vertices of packed models
+    packedVertices = shader.createIntUniform("packedVertices");
+    positionOffset = shader.createVec3Uniform("positionOffset");
+    positionScale = shader.createVec3Uniform("positionScale");
+
+    // Create the per-frame instance stream
+    instanceBuffer = new InstanceBuffer(1024);
+
+    // Multi-draw indirect with per-command base instances needs OpenGL 4.3
+    if (GL.getCapabilities().OpenGL43) {
+      indirectBuffer = new IndirectDrawBuffer(256);
+    }
+
+    // Create the shared uniform blocks; the UI projection only has to be written once
+    frameUniforms = new FrameUniforms();
+    frameUniforms.setOrthographicMatrix(window.getOrthographicMatrix());
+    lightUniforms = new LightUniforms();
   }
 
   /**
    * Renders an entire scene with the specified camera.
    * <p>
    * Processes all entities in the scene with their lighting settings.
+   * Entities whose bounding volume lies outside the camera frustum are skipped.
    * </p>
    *
    * @param scene  The scene to render
@@ -100,96 +195,244 @@ public class RenderManager {
    */
   public void render(BaseScene scene, Camera camera) {
     clear();
+    stats.reset();
+    state.reset();
 
     // Get entities and light from scene
     List<Entity> entities = scene.getEntities();
     Light light = scene.getLight();
 
-    // Separate entities into opaque and transparent lists
-    List<Entity> opaqueEntities = new ArrayList<>();
-    List<Entity> transparentEntities = new ArrayList<>();
-
-    for (Entity entity : entities) {
-      if (entity.hasTransparentTexture()) {
-        transparentEntities.add(entity);
-      } else {
-        opaqueEntities.add(entity);
-      }
+    // Build the view frustum from the current projection and camera view
+    Matrix4f projectionMatrix = window.updateProjectionMatrix();
+    Transformation.getViewMatrix(camera, viewMatrix);
+    frustum.set(projectionViewMatrix.set(projectionMatrix).mul(viewMatrix));
+
+    // Queue visible entities with their sort keys and order both queues
+    opaqueQueue.clear();
+    transparentQueue.clear();
+    long frameTime = System.nanoTime();
+    collectVisible(entities, camera.getPosition(), frameTime);
+    collectVisible(scene.getStaticBatches(), camera.getPosition(), frameTime);
+    opaqueQueue.sort();
+    transparentQueue.sort();
+
+    // Stream all instance and normal matrices with one upload: opaque entities first, then transparent entities
+    instanceBuffer.clear();
+    for (int i = 0; i < opaqueQueue.size(); i++) {
+      addInstance(opaqueQueue.get(i));
+    }
+    int firstTransparentInstance = instanceBuffer.size();
+    for (int i = 0; i < transparentQueue.size(); i++) {
+      addInstance(transparentQueue.get(i));
+    }
+    instanceBuffer.upload();
+    if (indirectBuffer != null) {
+      indirectBuffer.begin();
     }
 
     // Prepare shader program
-    shader.bind();
+    state.useProgram(shader.getProgramId());
 
-    // Set view and projection matrices (shared by all entities)
-    shader.setUniform("projectionMatrix", window.updateProjectionMatrix());
-    shader.setUniform("viewMatrix", Transformation.getViewMatrix(camera));
+    // Upload camera and lighting state once for every program (shared by all entities)
+    frameUniforms.update(projectionMatrix, viewMatrix, camera.getPosition());
+    lightUniforms.update(light);
 
-    // Set lighting properties (shared by all entities)
-    shader.setUniform("lightPosition", light.getPosition());
-    shader.setUniform("lightColor", light.getColor());
-    shader.setUniform("ambientLight", light.getAmbient());
-    shader.setUniform("cameraPosition", camera.getPosition());
-
-    // Set texture sampler uniform (always texture unit 0)
-    shader.setUniform("textureSampler", 0);
+    // Set texture sampler uniforms (2D textures on unit 0, array textures on unit 1)
+    textureSampler.set(0);
+    textureArraySampler.set(ARRAY_TEXTURE_UNIT);
 
     // First render all opaque objects with depth testing and writing enabled
-    GL11.glEnable(GL11.GL_DEPTH_TEST);
-    GL11.glDepthMask(true);
-    GL11.glDisable(GL11.GL_BLEND);
+    state.enable(GL11.GL_DEPTH_TEST);
+    state.depthMask(true);
+    state.disable(GL11.GL_BLEND);
 
     // Set transparency flag to false for opaque objects
-    shader.setUniform("useTransparency", 0);
+    useTransparency.set(0);
 
-    // Render each opaque entity
-    for (Entity entity : opaqueEntities) {
-      renderEntity(entity);
-    }
+    // Entities sharing state are adjacent after sorting, so each run becomes one instanced draw
+    renderRuns(opaqueQueue, 0);
 
     // Then render transparent objects with blending enabled
-    if (!transparentEntities.isEmpty()) {
-      // Sort transparent entities by distance from camera (back to front)
-      sortTransparentEntities(transparentEntities, camera.getPosition());
-
+    if (transparentQueue.size() > 0) {
       // Enable alpha blending
-      GL11.glEnable(GL11.GL_BLEND);
-      GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-      GL11.glDepthMask(false); // Don't write to depth buffer for transparent objects
+      state.enable(GL11.GL_BLEND);
+      state.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+      state.depthMask(false); // Don't write to depth buffer for transparent objects
 
       // Set transparency flag to true for transparent objects
-      shader.setUniform("useTransparency", 1);
+      useTransparency.set(1);
 
-      // Render each transparent entity
-      for (Entity entity : transparentEntities) {
-        renderEntity(entity);
-      }
+      // Only consecutive entities sharing a model are merged, which keeps the back-to-front order
+      renderRuns(transparentQueue, firstTransparentInstance);
 
       // Restore default state
-      GL11.glDepthMask(true);
-      GL11.glDisable(GL11.GL_BLEND);
+      state.depthMask(true);
+      state.disable(GL11.GL_BLEND);
+    }
+
+    // Unbind vertex array and shader after rendering all entities, leaving unit 0 active for code binding textures directly
+    state.bindVertexArray(0);
+    state.useProgram(0);
+    state.activeTexture(0);
+  }
+
+  /**
+   * Culls entities against the frustum and queues the visible ones in the
+   * opaque or transparent render queue.
+   *
+   * @param entities       The entities to process
+   * @param cameraPosition Camera position used for the depth part of the sort keys
+   * @param frameTime      Time of this frame, recorded on every visible model
+   */
+  private void collectVisible(List<Entity> entities, Vector3f cameraPosition, long frameTime) {
+    int programId = shader.getProgramId();
+    for (int i = 0; i < entities.size(); i++) {
+      Entity entity = entities.get(i);
+      if (!isInFrustum(entity)) {
+        stats.countCulled();
+        continue;
+      }
+      // Visible models are marked even when not resident, so evicted assets get reloaded
+      entity.getModel().markUsed(frameTime);
+      if (!entity.getModel().isResident()) {
+        continue; // Still streaming in
+      }
+      stats.countVisible();
+
+      float distanceSquared = calculateDistanceSquared(entity.getPosition(), cameraPosition);
+      if (entity.hasTransparentTexture()) {
+        transparentQueue.add(RenderQueue.backToFrontKey(distanceSquared), entity);
+      } else {
+        Model model = entity.getModel();
+        opaqueQueue.add(RenderQueue.opaqueKey(programId, textureId(model), geometryKey(model), distanceSquared), entity);
+      }
     }
+  }
 
-    // Unbind shader after rendering all entities
-    shader.unbind();
+  /**
+   * Appends an entity's transformation and normal matrices and texture layer to the instance buffer.
+   * <p>
+   * Regular entities use their cached matrices, so nothing is recomputed for
+   * entities that did not move. Billboards derive their normal matrix from the
+   * camera-facing transform every frame.
+   * </p>
+   *
+   * @param entity The entity to add
+   */
+  private void addInstance(Entity entity) {
+    if (entity.isBillboardY() || entity.isBillboardFull()) {
+      Matrix4f world = Transformation.getWorldMatrix(entity);
+      instanceBuffer.add(world, world.normal(billboardNormalMatrix), textureLayer(entity.getModel()));
+    } else {
+      instanceBuffer.add(entity.getWorldMatrix(), entity.getNormalMatrix(), textureLayer(entity.getModel()));
+    }
   }
 
   /**
-   * Sorts transparent entities by distance from camera, farthest to nearest.
-   * This ensures proper alpha blending by rendering distant objects first.
+   * Draws a sorted queue, merging runs of consecutive entities that share
+   * geometry and texture into single instanced draws.
+   * <p>
+   * Runs of arena models become indirect commands, and consecutive commands
+   * using the same texture are submitted together. Other models are drawn
+   * with one instanced call per run.
+   * </p>
    *
-   * @param transparentEntities List of entities with transparency
-   * @param cameraPosition      Camera position to calculate distance from
+   * @param queue         The sorted queue to draw
+   * @param firstInstance The instance buffer index of the queue's first entity
    */
-  private void sortTransparentEntities(List<Entity> transparentEntities, Vector3f cameraPosition) {
-    transparentEntities.sort(new Comparator<Entity>() {
-      @Override
-      public int compare(Entity e1, Entity e2) {
-        float distance1 = calculateDistanceSquared(e1.getPosition(), cameraPosition);
-        float distance2 = calculateDistanceSquared(e2.getPosition(), cameraPosition);
-        // Sort in descending order (furthest first)
-        return Float.compare(distance2, distance1);
+  private void renderRuns(RenderQueue queue, int firstInstance) {
+    int runStart = 0;
+    for (int i = 1; i <= queue.size(); i++) {
+      if (i == queue.size() || !sharesBatch(queue.get(i).getModel(), queue.get(runStart).getModel())) {
+        Model model = queue.get(runStart).getModel();
+        if (indirectBuffer != null && model.isArenaAllocated()) {
+          queueIndirect(model, firstInstance + runStart, i - runStart);
+        } else {
+          submitIndirect();
+          renderInstances(model, firstInstance + runStart, i - runStart);
+        }
+        runStart = i;
       }
-    });
+    }
+    submitIndirect();
+  }
+
+  /**
+   * Adds a run of instances of an arena model to the pending indirect commands.
+   * <p>
+   * Pending commands are submitted first if they use a different VAO or texture.
+   * </p>
+   *
+   * @param model         The model shared by all instances
+   * @param firstInstance The index of the first instance in the instance buffer
+   * @param count         The number of instances to draw
+   */
+  private void queueIndirect(Model model, int firstInstance, int count) {
+    if (indirectModel != null
+        && (indirectModel.getVaoId() != model.getVaoId() || textureId(indirectModel) != textureId(model))) {
+      submitIndirect();
+    }
+    indirectModel = model;
+    indirectBuffer.add(model.getVertexCount(), count, model.getFirstIndex(), model.getBaseVertex(), firstInstance);
+  }
+
+  /**
+   * Draws all pending indirect commands with a single multi-draw call.
+   */
+  private void submitIndirect() {
+    if (indirectModel == null) {
+      return;
+    }
+    bindModel(indirectModel, 0); // Base instances select each command's range
+    indirectBuffer.submit();
+    stats.countDrawCall();
+    indirectModel = null;
+  }
+
+  /**
+   * Tests an entity's bounding volume against the current camera frustum.
+   * <p>
+   * Unrotated entities are tested with their exact world-space bounding box.
+   * Rotated and billboarded entities use a sphere around the entity origin
+   * that encloses the model for any orientation.
+   * </p>
+   *
+   * @param entity The entity to test
+   * @return True if the entity may be visible
+   */
+  private boolean isInFrustum(Entity entity) {
+    Model model = entity.getModel();
+    Vector3f position = entity.getPosition();
+    Vector3f rotation = entity.getRotation();
+    Vector3f scale = entity.getScale();
+
+    if (!entity.isBillboardY() && !entity.isBillboardFull()
+        && rotation.x == 0.0f && rotation.y == 0.0f && rotation.z == 0.0f) {
+      Vector3f min = model.getBoundsMin();
+      Vector3f max = model.getBoundsMax();
+      float x0 = position.x + min.x * scale.x;
+      float x1 = position.x + max.x * scale.x;
+      float y0 = position.y + min.y * scale.y;
+      float y1 = position.y + max.y * scale.y;
+      float z0 = position.z + min.z * scale.z;
+      float z1 = position.z + max.z * scale.z;
+      return frustum.testAab(
+          Math.min(x0, x1), Math.min(y0, y1), Math.min(z0, z1),
+          Math.max(x0, x1), Math.max(y0, y1), Math.max(z0, z1));
+    }
+
+    float maxScale = Math.max(Math.abs(scale.x), Math.max(Math.abs(scale.y), Math.abs(scale.z)));
+    float radius = (model.getBoundsCenter().length() + model.getBoundsRadius()) * maxScale;
+    return frustum.testSphere(position.x, position.y, position.z, radius);
+  }
+
+  /**
+   * Gets the counters for the most recently rendered frame.
+   *
+   * @return The render statistics
+   */
+  public RenderStats getStats() {
+    return stats;
   }
 
   /**
@@ -208,39 +451,109 @@ public class RenderManager {
   }
 
   /**
-   * Renders a single entity with the currently bound shader.
+   * Checks whether two models can be drawn with the same instanced draw call.
+   *
+   * @param a The first model
+   * @param b The second model
+   * @return True if both models use the same geometry and texture
+   */
+  private static boolean sharesBatch(Model a, Model b) {
+    return a.getVaoId() == b.getVaoId()
+        && a.getFirstIndex() == b.getFirstIndex()
+        && a.getBaseVertex() == b.getBaseVertex()
+        && a.getVertexCount() == b.getVertexCount()
+        && textureId(a) == textureId(b);
+  }
+
+  /**
+   * Builds the geometry part of an opaque sort key.
    * <p>
-   * Sets entity-specific uniforms, binds model data, and issues draw calls.
+   * Arena models share a VAO, so their index range is mixed in to keep
+   * instances of the same mesh adjacent. The key only orders draws; models
+   * with equal keys are still compared exactly before being merged.
    * </p>
    *
-   * @param entity The entity to render
+   * @param model The model
+   * @return A value identifying the model's geometry
+   */
+  private static int geometryKey(Model model) {
+    return model.getVaoId() + model.getFirstIndex() * 0x9E3779B1;
+  }
+
+  /**
+   * Gets the ID of a model's texture.
+   *
+   * @param model The model
+   * @return The texture ID, or 0 if the model has no texture
+   */
+  private static int textureId(Model model) {
+    return model.getTexture() != null ? model.getTexture().getTextureId() : 0;
+  }
+
+  /**
+   * Gets the array texture layer of a model's texture.
+   *
+   * @param model The model
+   * @return The layer index, or 0 if the texture is not part of an array
+   */
+  private static int textureLayer(Model model) {
+    Texture texture = model.getTexture();
+    return texture != null && texture.isArrayLayer() ? texture.getLayer() : 0;
+  }
+
+  /**
+   * Renders a range of instances of one model with the currently bound shader.
+   * <p>
+   * Binds model data through the state cache, points the instance attributes
+   * at the range, and issues a single instanced draw call. Texture filtering
+   * is set once when the texture is created, not per draw.
+   * </p>
+   *
+   * @param model         The model shared by all instances
+   * @param firstInstance The index of the first instance in the instance buffer
+   * @param count         The number of instances to draw
    */
-  private void renderEntity(Entity entity) {
-    // Set entity-specific transformation matrix
-    shader.setUniform("transformationMatrix", Transformation.createTransformationMatrix(entity));
-
-    // Bind vertex array and enable attribute arrays
-    GL30.glBindVertexArray(entity.getModel().getVaoId());
-    GL20.glEnableVertexAttribArray(0); // Position
-    GL20.glEnableVertexAttribArray(1); // Texture coordinates
-    GL20.glEnableVertexAttribArray(2); // Normals
-
-    // Bind texture
-    GL15.glActiveTexture(GL15.GL_TEXTURE0);
-    GL11.glBindTexture(GL11.GL_TEXTURE_2D, entity.getModel().getTexture().getTextureId());
-
-    // Set texture filtering to nearest (pixelated look) for all textures
-    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
-    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
-
-    // Draw the entity
-    GL11.glDrawElements(GL11.GL_TRIANGLES, entity.getModel().getVertexCount(), GL11.GL_UNSIGNED_INT, 0);
-
-    // Cleanup - disable attribute arrays and unbind vertex array
-    GL20.glDisableVertexAttribArray(0);
-    GL20.glDisableVertexAttribArray(1);
-    GL20.glDisableVertexAttribArray(2);
-    GL30.glBindVertexArray(0);
+  private void renderInstances(Model model, int firstInstance, int count) {
+    bindModel(model, firstInstance);
+
+    // Draw all instances, offset into the shared buffers for arena models
+    GL32.glDrawElementsInstancedBaseVertex(GL11.GL_TRIANGLES, model.getVertexCount(), model.getIndexType(),
+        (long) model.getFirstIndex() * model.getIndexSize(), count, model.getBaseVertex());
+    stats.countDrawCall();
+  }
+
+  /**
+   * Binds a model's vertex array and texture and points the instance attributes at a range.
+   *
+   * @param model         The model to bind
+   * @param firstInstance The index of the first instance in the instance buffer
+   */
+  private void bindModel(Model model, int firstInstance) {
+    // Bind vertex array and enable attribute arrays (skipped when already in that state)
+    state.bindVertexArray(model.getVaoId());
+    state.enableVertexAttribArray(0); // Position
+    state.enableVertexAttribArray(1); // Texture coordinates
+    state.enableVertexAttribArray(2); // Normals
+    instanceBuffer.bindAttributes(state, firstInstance); // Transformation matrices
+
+    // Bind texture; array layers are selected per instance
+    Texture texture = model.getTexture();
+    boolean arrayTexture = texture != null && texture.isArrayLayer();
+    useTextureArray.set(arrayTexture ? 1 : 0);
+    if (arrayTexture) {
+      state.bindTextureArray(ARRAY_TEXTURE_UNIT, texture.getTextureId());
+    } else {
+      state.bindTexture(0, textureId(model));
+    }
+
+    // Packed positions are decoded from the model bounds (uploads are skipped when unchanged)
+    packedVertices.set(model.hasPackedVertices() ? 1 : 0);
+    if (model.hasPackedVertices()) {
+      Vector3f min = model.getBoundsMin();
+      Vector3f max = model.getBoundsMax();
+      positionOffset.set(model.getBoundsCenter());
+      positionScale.set((max.x - min.x) * 0.5f, (max.y - min.y) * 0.5f, (max.z - min.z) * 0.5f);
+    }
   }
 
   /**
@@ -258,40 +571,39 @@ public class RenderManager {
   @Deprecated
   public void render(Entity entity, Camera camera, Light light) {
     clear();
-    shader.bind();
-
-    // Set transformation matrices
-    shader.setUniform("textureSampler", 0);
-    shader.setUniform("transformationMatrix", Transformation.createTransformationMatrix(entity));
-    shader.setUniform("projectionMatrix", window.updateProjectionMatrix());
-    shader.setUniform("viewMatrix", Transformation.getViewMatrix(camera));
+    state.reset();
+    state.useProgram(shader.getProgramId());
 
-    // Set lighting properties
-    shader.setUniform("lightPosition", light.getPosition());
-    shader.setUniform("lightColor", light.getColor());
-    shader.setUniform("ambientLight", light.getAmbient());
-    shader.setUniform("cameraPosition", camera.getPosition());
+    // Set transformation matrices and lighting properties
+    textureSampler.set(0);
+    textureArraySampler.set(ARRAY_TEXTURE_UNIT);
+    frameUniforms.update(window.updateProjectionMatrix(), Transformation.getViewMatrix(camera, viewMatrix), camera.getPosition());
+    lightUniforms.update(light);
 
     // Set transparency flag based on entity
-    shader.setUniform("useTransparency", entity.hasTransparentTexture() ? 1 : 0);
+    useTransparency.set(entity.hasTransparentTexture() ? 1 : 0);
 
     // Enable alpha blending if needed
     if (entity.hasTransparentTexture()) {
-      GL11.glEnable(GL11.GL_BLEND);
-      GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-      GL11.glDepthMask(false);
+      state.enable(GL11.GL_BLEND);
+      state.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+      state.depthMask(false);
     }
 
-    // Render the entity
-    renderEntity(entity);
+    // Render the entity as a single instance
+    instanceBuffer.clear();
+    addInstance(entity);
+    instanceBuffer.upload();
+    renderInstances(entity.getModel(), 0, 1);
 
     // Restore default state
     if (entity.hasTransparentTexture()) {
-      GL11.glDepthMask(true);
-      GL11.glDisable(GL11.GL_BLEND);
+      state.depthMask(true);
+      state.disable(GL11.GL_BLEND);
     }
 
-    shader.unbind();
+    state.bindVertexArray(0);
+    state.useProgram(0);
   }
 
   /**
@@ -309,5 +621,11 @@ public class RenderManager {
    */
   public void cleanup() {
     shader.cleanup();
+    instanceBuffer.cleanup();
+    if (indirectBuffer != null) {
+      indirectBuffer.cleanup();
+    }
+    frameUniforms.cleanup();
+    lightUniforms.cleanup();
   }
 }
@@ -12,12 +12,22 @@
 
 package com.discardsoft.j3D.core;
 
+import com.discardsoft.j3D.core.render.FrameUniforms;
+import com.discardsoft.j3D.core.render.LightUniforms;
+import com.discardsoft.j3D.core.render.uniform.BoolUniform;
+import com.discardsoft.j3D.core.render.uniform.FloatUniform;
+import com.discardsoft.j3D.core.render.uniform.IntUniform;
+import com.discardsoft.j3D.core.render.uniform.Mat4Uniform;
+import com.discardsoft.j3D.core.render.uniform.Vec3Uniform;
+import com.discardsoft.j3D.core.render.uniform.Vec4Uniform;
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
 import org.joml.Vector4f;
+import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL20;
-import org.lwjgl.system.MemoryStack;
+import org.lwjgl.opengl.GL31;
 
+import java.nio.FloatBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +37,12 @@ import java.util.Map;
  * This class handles the creation, compilation, and linking of vertex and fragment shaders.
  * It also provides methods to create and set uniform variables that are passed to the shaders.
  * </p>
+ * <p>
+ * Uniforms set on the hot path should use the typed handles returned by
+ * methods such as {@link #createMat4Uniform(String)}, which cache their
+ * location and skip uploads of unchanged values. The name-based
+ * {@code setUniform} methods are kept for compatibility.
+ * </p>
  * 
  * @author DiscardSoft
  * @version 0.1
@@ -45,6 +61,9 @@ public class ShaderManager {
     /** Map of uniform names to their locations in the shader program */
     private final Map<String, Integer> uniformLocations;
 
+    /** Upload buffer for name-based matrix uniforms, allocated once */
+    private final FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
+
     /**
      * Constructs a new shader manager and creates an OpenGL shader program.
      *
@@ -69,11 +88,88 @@ public class ShaderManager {
      * @throws Exception If the uniform cannot be found in the shader program
      */
     public void createUniform(String uniformName) throws Exception {
+        uniformLocations.put(uniformName, findUniform(uniformName));
+    }
+
+    /**
+     * Creates a typed handle for a mat4 uniform.
+     *
+     * @param uniformName The name of the uniform in the shader
+     * @return The uniform handle
+     * @throws Exception If the uniform cannot be found in the shader program
+     */
+    public Mat4Uniform createMat4Uniform(String uniformName) throws Exception {
+        return new Mat4Uniform(findUniform(uniformName));
+    }
+
+    /**
+     * Creates a typed handle for a vec3 uniform.
+     *
+     * @param uniformName The name of the uniform in the shader
+     * @return The uniform handle
+     * @throws Exception If the uniform cannot be found in the shader program
+     */
+    public Vec3Uniform createVec3Uniform(String uniformName) throws Exception {
+        return new Vec3Uniform(findUniform(uniformName));
+    }
+
+    /**
+     * Creates a typed handle for a vec4 uniform.
+     *
+     * @param uniformName The name of the uniform in the shader
+     * @return The uniform handle
+     * @throws Exception If the uniform cannot be found in the shader program
+     */
+    public Vec4Uniform createVec4Uniform(String uniformName) throws Exception {
+        return new Vec4Uniform(findUniform(uniformName));
+    }
+
+    /**
+     * Creates a typed handle for a float uniform.
+     *
+     * @param uniformName The name of the uniform in the shader
+     * @return The uniform handle
+     * @throws Exception If the uniform cannot be found in the shader program
+     */
+    public FloatUniform createFloatUniform(String uniformName) throws Exception {
+        return new FloatUniform(findUniform(uniformName));
+    }
+
+    /**
+     * Creates a typed handle for an int or sampler uniform.
+     *
+     * @param uniformName The name of the uniform in the shader
+     * @return The uniform handle
+     * @throws Exception If the uniform cannot be found in the shader program
+     */
+    public IntUniform createIntUniform(String uniformName) throws Exception {
+        return new IntUniform(findUniform(uniformName));
+    }
+
+    /**
+     * Creates a typed handle for a boolean uniform.
+     *
+     * @param uniformName The name of the uniform in the shader
+     * @return The uniform handle
+     * @throws Exception If the uniform cannot be found in the shader program
+     */
+    public BoolUniform createBoolUniform(String uniformName) throws Exception {
+        return new BoolUniform(findUniform(uniformName));
+    }
+
+    /**
+     * Looks up the location of a uniform in the linked program.
+     *
+     * @param uniformName The name of the uniform in the shader
+     * @return The uniform location
+     * @throws Exception If the uniform cannot be found in the shader program
+     */
+    private int findUniform(String uniformName) throws Exception {
         int location = GL20.glGetUniformLocation(programId, uniformName);
         if (location < 0) {
             throw new Exception("Failed to find uniform: " + uniformName);
         }
-        uniformLocations.put(uniformName, location);
+        return location;
     }
 
     /**
@@ -83,13 +179,11 @@ public class ShaderManager {
      * @param value The matrix value to set
      */
     public void setUniform(String uniformName, Matrix4f value) {
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            GL20.glUniformMatrix4fv(
-                uniformLocations.get(uniformName), 
-                false, 
-                value.get(stack.mallocFloat(16))
-            );
-        }
+        GL20.glUniformMatrix4fv(
+            uniformLocations.get(uniformName), 
+            false, 
+            value.get(matrixBuffer)
+        );
     }
 
     /**
@@ -225,6 +319,23 @@ public class ShaderManager {
         if (fragmentShaderId != 0) {
             GL20.glDetachShader(programId, fragmentShaderId);
         }
+
+        // Attach shared uniform blocks to their fixed binding points
+        bindUniformBlock(FrameUniforms.BLOCK_NAME, FrameUniforms.BINDING);
+        bindUniformBlock(LightUniforms.BLOCK_NAME, LightUniforms.BINDING);
+    }
+
+    /**
+     * Attaches a uniform block of the program to a binding point, if the program declares it.
+     *
+     * @param blockName The name of the uniform block in GLSL
+     * @param binding The binding point shared by all programs
+     */
+    private void bindUniformBlock(String blockName, int binding) {
+        int blockIndex = GL31.glGetUniformBlockIndex(programId, blockName);
+        if (blockIndex != GL31.GL_INVALID_INDEX) {
+            GL31.glUniformBlockBinding(programId, blockIndex, binding);
+        }
     }
 
     /**
@@ -237,6 +348,18 @@ public class ShaderManager {
         GL20.glUseProgram(programId);
     }
 
+    /**
+     * Gets the OpenGL ID of the shader program.
+     * <p>
+     * Used to bind the program through a state cache and to sort draws by program.
+     * </p>
+     *
+     * @return The program ID
+     */
+    public int getProgramId() {
+        return programId;
+    }
+
     /**
      * Unbinds the current shader program.
      */
@@ -0,0 +1,1034 @@
+package com.discardsoft.j3D.core.asset;
+
+import com.discardsoft.j3D.core.ObjectLoader;
+import com.discardsoft.j3D.core.entity.Model;
+import com.discardsoft.j3D.core.entity.Texture;
+import com.discardsoft.j3D.core.render.GpuResourceRegistry;
+import com.discardsoft.j3D.core.utils.Settings;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Reference-counted cache of mesh geometry and textures.
+ * <p>
+ * Meshes are keyed by model path and textures by texture path, so every
+ * distinct file is parsed and uploaded once no matter how many entities use
+ * it. {@link #acquire(String, String, String)} hands out a lightweight
+ * {@link Model} per caller that shares the cached GPU geometry and
+ * {@link Texture}; {@link #release(Model)} gives it back. When the last
+ * handle of a mesh or texture is released, the asset stays loaded as idle,
+ * so a level that is reloaded soon after finds it still cached.
+ * </p>
+ * <p>
+ * {@link #update()} keeps the estimated GPU memory of the
+ * {@link GpuResourceRegistry} within its budget. Idle assets are unloaded
+ * first, least recently released first. If that is not enough, assets
+ * whose models have not been visible for {@link Settings#GPU_EVICT_UNUSED_SECONDS}
+ * are evicted, least recently visible first: their models become
+ * placeholders again and the asset is reloaded as soon as one of them is
+ * visible. Evicting a mesh in a geometry arena returns its ranges to the
+ * arena, where later loads reuse them, and lets the arena shrink once
+ * enough of it is free. Textures held by
+ * {@link #acquireTexture(String, String)}, {@link #retainTexture(Texture)}
+ * or {@link #packTextures(Map, int)} are never evicted while held.
+ * </p>
+ * <p>
+ * With an {@link AssetPipeline}, {@link #acquireAsync(String, String, String)}
+ * decodes missing assets on worker threads and returns a
+ * {@link Model#placeholder(Texture) placeholder} right away. Placeholders
+ * become resident when both their mesh and texture have been uploaded.
+ * If either fails to load, they use the {@link #setErrorAssets(String, String, String) error assets}
+ * instead, and the failed asset is forgotten so the next acquire tries it again.
+ * All methods must be called on the render thread.
+ * </p>
+ * <p>
+ * {@link #packTextures(Map, int)} preloads small textures of equal size as
+ * the layers of shared array textures, so models using them can be drawn
+ * without rebinding. An array texture is deleted once all of its layers
+ * have been released.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class AssetManager {
+
+    /** Most layers put into one array texture, the minimum every OpenGL 3 driver supports */
+    private static final int MAX_ARRAY_LAYERS = 256;
+
+    /** Loader used to upload and unload assets */
+    private final ObjectLoader loader;
+
+    /** Pipeline used for asynchronous loads, or null if only synchronous loads are supported */
+    private final AssetPipeline pipeline;
+
+    /** Cached meshes by model path */
+    private final Map<String, Entry<Model>> meshes = new HashMap<>();
+
+    /** Cached textures by texture path */
+    private final Map<String, Entry<Texture>> textures = new HashMap<>();
+
+    /** Cache entries of every texture handed out, for releasing by identity */
+    private final Map<Texture, Entry<Texture>> textureEntries = new IdentityHashMap<>();
+
+    /** Outstanding model handles and the cache entries they hold */
+    private final Map<Model, Handle> handles = new IdentityHashMap<>();
+
+    /** Handles that are still placeholders */
+    private final Map<Model, Handle> waiting = new IdentityHashMap<>();
+
+    /** Number of cached layers still using each array texture, by texture ID */
+    private final Map<Integer, Integer> arrayLayers = new HashMap<>();
+
+    /** Loaded meshes without references, least recently released first */
+    private final Set<Entry<Model>> idleMeshes = new LinkedHashSet<>();
+
+    /** Loaded textures without references, least recently released first */
+    private final Set<Entry<Texture>> idleTextures = new LinkedHashSet<>();
+
+    /** Referenced meshes that were unloaded to stay within the memory budget */
+    private final Set<Entry<Model>> evictedMeshes = new LinkedHashSet<>();
+
+    /** Referenced textures that were unloaded to stay within the memory budget */
+    private final Set<Entry<Texture>> evictedTextures = new LinkedHashSet<>();
+
+    /** Estimated GPU memory of everything the loader has uploaded */
+    private final GpuResourceRegistry registry = GpuResourceRegistry.getShared();
+
+    /** Model path of the mesh shown in place of meshes that fail to load asynchronously, or null */
+    private String errorModelPath;
+
+    /** Texture path of the texture shown in place of textures that fail to load asynchronously, or null */
+    private String errorTexturePath;
+
+    /** Name of the error texture */
+    private String errorTextureName;
+
+    /**
+     * Creates a new asset manager that loads synchronously.
+     *
+     * @param loader The loader used to upload and unload assets
+     */
+    public AssetManager(ObjectLoader loader) {
+        this(loader, null);
+    }
+
+    /**
+     * Creates a new asset manager.
+     *
+     * @param loader The loader used to upload and unload assets
+     * @param pipeline The pipeline for asynchronous loads, or null
+     */
+    public AssetManager(ObjectLoader loader, AssetPipeline pipeline) {
+        this.loader = loader;
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Gets a model handle for a mesh and texture, loading either one if it is not cached yet.
+     * <p>
+     * If the mesh or texture is still being loaded asynchronously, the
+     * handle is a placeholder like those from {@link #acquireAsync(String, String, String)}.
+     * </p>
+     *
+     * @param modelPath The path of the OBJ file
+     * @param texturePath The path of the texture image
+     * @param textureName The name given to the texture, used to identify it
+     * @return A new model sharing the cached geometry and texture
+     * @throws Exception If the mesh or texture cannot be loaded
+     */
+    public Model acquire(String modelPath, String texturePath, String textureName) throws Exception {
+        Entry<Model> mesh = acquireMeshEntry(modelPath);
+        Entry<Texture> texture;
+        try {
+            texture = acquireTextureEntry(texturePath, textureName);
+        } catch (Exception e) {
+            releaseMesh(mesh);
+            throw e;
+        }
+        return createHandle(mesh, texture, textureName);
+    }
+
+    /**
+     * Sets the mesh and texture shown by placeholders whose own mesh or texture fails to load asynchronously.
+     * <p>
+     * They are loaded synchronously the first time a load fails. Without
+     * them, such placeholders are never drawn.
+     * </p>
+     *
+     * @param modelPath The path of the error OBJ file
+     * @param texturePath The path of the error texture image
+     * @param textureName The name given to the error texture
+     */
+    public void setErrorAssets(String modelPath, String texturePath, String textureName) {
+        this.errorModelPath = modelPath;
+        this.errorTexturePath = texturePath;
+        this.errorTextureName = textureName;
+    }
+
+    /**
+     * Gets a model handle for a mesh and texture without waiting for them to load.
+     * <p>
+     * Assets that are not cached are decoded on the pipeline's workers and
+     * uploaded within its per-frame budget. Until then the returned model is
+     * a placeholder that is not drawn; it turns into the real model in place,
+     * so entities can be created from it immediately.
+     * </p>
+     *
+     * @param modelPath The path of the OBJ file
+     * @param texturePath The path of the texture image
+     * @param textureName The name given to the texture, used to identify it
+     * @return A new model, resident if both assets were already cached
+     * @throws IllegalStateException If this manager has no pipeline
+     */
+    public Model acquireAsync(String modelPath, String texturePath, String textureName) {
+        if (pipeline == null) {
+            throw new IllegalStateException("Asynchronous loading requires an asset pipeline");
+        }
+
+        Entry<Model> mesh = meshes.get(modelPath);
+        if (mesh == null) {
+            mesh = new Entry<>(modelPath);
+            meshes.put(modelPath, mesh);
+            loadMeshAsync(mesh);
+        } else if (mesh.isEvicted()) {
+            evictedMeshes.remove(mesh);
+            loadMeshAsync(mesh);
+        }
+        addReference(mesh, idleMeshes);
+
+        Entry<Texture> texture = textures.get(texturePath);
+        if (texture == null) {
+            texture = new Entry<>(texturePath);
+            texture.name = textureName;
+            textures.put(texturePath, texture);
+            loadTextureAsync(texture);
+        } else if (texture.isEvicted()) {
+            evictedTextures.remove(texture);
+            loadTextureAsync(texture);
+        }
+        addReference(texture, idleTextures);
+
+        return createHandle(mesh, texture, textureName);
+    }
+
+    /**
+     * Gets a texture, loading it if it is not cached yet.
+     * <p>
+     * The texture stays loaded until it is given back with {@link #releaseTexture(Texture)}.
+     * </p>
+     *
+     * @param texturePath The path of the texture image
+     * @param textureName The name given to the texture, used to identify it
+     * @return The shared texture
+     * @throws Exception If the texture cannot be loaded, or is still loading asynchronously
+     */
+    public Texture acquireTexture(String texturePath, String textureName) throws Exception {
+        Entry<Texture> entry = acquireTextureEntry(texturePath, textureName);
+        if (entry.asset == null) {
+            releaseTexture(entry);
+            throw new Exception("Texture is still loading: " + texturePath);
+        }
+        entry.pins++;
+        return entry.asset;
+    }
+
+    /**
+     * Gets a texture without waiting for it to load.
+     * <p>
+     * A texture that is not cached is decoded on the pipeline's workers and
+     * uploaded within its per-frame budget. The reference is added right
+     * away and kept until it is given back with {@link #releaseTexture(Texture)}
+     * once the future has completed. Cancelling the future before it
+     * completes gives the reference back instead. If the texture fails to
+     * load, the future completes exceptionally and holds no reference.
+     * </p>
+     *
+     * @param texturePath The path of the texture image
+     * @param textureName The name given to the texture, used to identify it
+     * @return The shared texture, completed on the render thread once it is uploaded
+     * @throws IllegalStateException If this manager has no pipeline
+     */
+    public CompletableFuture<Texture> acquireTextureAsync(String texturePath, String textureName) {
+        if (pipeline == null) {
+            throw new IllegalStateException("Asynchronous loading requires an asset pipeline");
+        }
+
+        Entry<Texture> entry = textures.get(texturePath);
+        if (entry == null) {
+            entry = new Entry<>(texturePath);
+            entry.name = textureName;
+            textures.put(texturePath, entry);
+            loadTextureAsync(entry);
+        } else if (entry.isEvicted()) {
+            evictedTextures.remove(entry);
+            loadTextureAsync(entry);
+        }
+        addReference(entry, idleTextures);
+        entry.pins++;
+        if (entry.asset != null) {
+            return CompletableFuture.completedFuture(entry.asset);
+        }
+
+        CompletableFuture<Texture> texture = new CompletableFuture<>();
+        Entry<Texture> loading = entry;
+        loading.waiters.add(texture);
+        texture.whenComplete((loaded, error) -> {
+            // Still waiting means it was cancelled rather than loaded or failed
+            if (loading.waiters.remove(texture)) {
+                loading.pins = Math.max(0, loading.pins - 1);
+                releaseTexture(loading);
+            }
+        });
+        return texture;
+    }
+
+    /**
+     * Adds a reference to a texture handed out by this manager, keeping it loaded.
+     *
+     * @param texture The texture to keep
+     * @return True if the texture is managed by this cache
+     */
+    public boolean retainTexture(Texture texture) {
+        Entry<Texture> entry = textureEntries.get(texture);
+        if (entry == null) {
+            return false;
+        }
+        addReference(entry, idleTextures);
+        entry.pins++;
+        return true;
+    }
+
+    /**
+     * Loads textures that are not cached yet, packing those of equal size and format into array textures.
+     * <p>
+     * Textures larger than {@code maxSize} in either dimension, and textures
+     * that have no partner of the same size, are skipped and load on their
+     * own when first acquired. Every packed texture is cached under its path
+     * with one reference held by the caller, to be given back with
+     * {@link #releaseTexture(Texture)} once the models using it have been
+     * acquired.
+     * </p>
+     * <p>
+     * With a pipeline, the textures are decoded in parallel on its workers
+     * and this call waits for them.
+     * </p>
+     *
+     * @param texturePaths The names of the textures to pack, by texture path, in layer order
+     * @param maxSize The largest width or height to pack, in pixels
+     * @return The packed textures
+     */
+    public List<Texture> packTextures(Map<String, String> texturePaths, int maxSize) {
+        // Start reading every texture that is not cached yet
+        Map<String, CompletableFuture<MipChain>> reads = new LinkedHashMap<>();
+        for (String texturePath : texturePaths.keySet()) {
+            if (!textures.containsKey(texturePath) && pipeline != null) {
+                reads.put(texturePath, pipeline.load(() -> {
+                    MipChain image = loader.readTexture(texturePath);
+                    return new PendingUpload<MipChain>() {
+                        @Override
+                        public MipChain upload() {
+                            return image;
+                        }
+
+                        @Override
+                        public void discard() {
+                            image.free();
+                        }
+                    };
+                }));
+            }
+        }
+
+        // Group the textures that can share an array
+        Map<String, List<PackedLayer>> groups = new LinkedHashMap<>();
+        for (Map.Entry<String, String> texture : texturePaths.entrySet()) {
+            String texturePath = texture.getKey();
+            if (textures.containsKey(texturePath)) {
+                continue;
+            }
+            MipChain image;
+            try {
+                CompletableFuture<MipChain> read = reads.get(texturePath);
+                image = read != null ? pipeline.await(read) : loader.readTexture(texturePath);
+            } catch (Exception e) {
+                System.err.println("Failed to load texture: " + texturePath + ". " + e.getMessage());
+                continue;
+            }
+            int width = image.getLevelWidth(0);
+            int height = image.getLevelHeight(0);
+            if (width > maxSize || height > maxSize) {
+                image.free();
+                continue;
+            }
+            groups.computeIfAbsent(width + "x" + height + " " + image.getFormat(), key -> new ArrayList<>())
+                  .add(new PackedLayer(texturePath, texture.getValue(), image));
+        }
+
+        List<Texture> packed = new ArrayList<>();
+        for (List<PackedLayer> group : groups.values()) {
+            for (int start = 0; start < group.size(); start += MAX_ARRAY_LAYERS) {
+                List<PackedLayer> layers = group.subList(start, Math.min(group.size(), start + MAX_ARRAY_LAYERS));
+                if (layers.size() == 1) {
+                    // A lone texture gains nothing from an array
+                    layers.get(0).image.free();
+                    continue;
+                }
+                packArray(layers, packed);
+            }
+        }
+        return packed;
+    }
+
+    /**
+     * Uploads a group of equally sized textures as one array texture and caches each layer.
+     */
+    private void packArray(List<PackedLayer> layers, List<Texture> packed) {
+        boolean[] transparent = new boolean[layers.size()];
+        List<MipChain> images = new ArrayList<>();
+        for (int i = 0; i < layers.size(); i++) {
+            transparent[i] = layers.get(i).image.hasTransparency();
+            images.add(layers.get(i).image);
+        }
+        int arrayId;
+        try {
+            arrayId = loader.loadTextureArray(images);
+        } catch (Exception e) {
+            System.err.println("Failed to pack textures: " + e.getMessage());
+            for (MipChain image : images) {
+                image.free();
+            }
+            return;
+        }
+
+        for (int i = 0; i < layers.size(); i++) {
+            PackedLayer layer = layers.get(i);
+            Entry<Texture> entry = new Entry<>(layer.texturePath);
+            entry.name = layer.textureName;
+            entry.asset = new Texture(arrayId, layer.textureName, transparent[i], i);
+            entry.loadedAt = System.nanoTime();
+            entry.references = 1;
+            entry.pins = 1;
+            textures.put(layer.texturePath, entry);
+            textureEntries.put(entry.asset, entry);
+            packed.add(entry.asset);
+        }
+        arrayLayers.put(arrayId, layers.size());
+    }
+
+    /**
+     * Gives back a model handle from {@link #acquire(String, String, String)}
+     * or {@link #acquireAsync(String, String, String)}.
+     * <p>
+     * Models that were not handed out by this manager, or were already
+     * released, are ignored. Loads that no handle needs anymore are cancelled.
+     * </p>
+     *
+     * @param model The model handle
+     * @return True if the handle was released
+     */
+    public boolean release(Model model) {
+        Handle handle = handles.remove(model);
+        if (handle == null) {
+            return false;
+        }
+        waiting.remove(model);
+        handle.mesh.users.remove(model);
+        handle.texture.users.remove(model);
+        releaseMesh(handle.mesh);
+        releaseTexture(handle.texture);
+        return true;
+    }
+
+    /**
+     * Gives back one reference to a texture from {@link #acquireTexture(String, String)}
+     * or {@link #retainTexture(Texture)}.
+     *
+     * @param texture The texture
+     * @return True if the texture is managed by this cache
+     */
+    public boolean releaseTexture(Texture texture) {
+        Entry<Texture> entry = textureEntries.get(texture);
+        if (entry == null) {
+            return false;
+        }
+        entry.pins = Math.max(0, entry.pins - 1);
+        releaseTexture(entry);
+        return true;
+    }
+
+    /**
+     * Reloads evicted assets that are visible again and evicts assets while over the memory budget.
+     * <p>
+     * Must be called once per frame, after rendering has recorded which
+     * models were visible. Reloads go through the pipeline when there is one,
+     * otherwise they happen right away.
+     * </p>
+     */
+    public void update() {
+        reloadVisible();
+        trim();
+    }
+
+    /**
+     * Unloads assets until the estimated GPU memory is within budget or nothing more can be unloaded.
+     * <p>
+     * Idle assets go first, least recently released first, followed by
+     * assets whose models have not been visible for
+     * {@link Settings#GPU_EVICT_UNUSED_SECONDS}, least recently visible first.
+     * An arena mesh only lowers the estimate once the arena shrinks, so
+     * several may be evicted before it drops.
+     * </p>
+     */
+    private void trim() {
+        while (registry.isOverBudget() && unloadOldestIdle()) {
+            // Keep unloading idle assets
+        }
+        if (!registry.isOverBudget()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long unusedSince = now - (long) (Settings.GPU_EVICT_UNUSED_SECONDS * 1_000_000_000L);
+        List<Entry<?>> candidates = new ArrayList<>();
+        for (Entry<Model> mesh : meshes.values()) {
+            if (isEvictable(mesh, unusedSince)) {
+                candidates.add(mesh);
+            }
+        }
+        for (Entry<Texture> texture : textures.values()) {
+            // An array stays resident while any of its layers is drawn, so evicting one layer frees nothing
+            if (isEvictable(texture, unusedSince) && !texture.asset.isArrayLayer()) {
+                candidates.add(texture);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(Entry::lastUsed));
+        for (Entry<?> entry : candidates) {
+            if (!registry.isOverBudget()) {
+                break;
+            }
+            evict(entry, now);
+        }
+    }
+
+    /**
+     * Gets the number of distinct meshes currently loaded or loading.
+     *
+     * @return The mesh count
+     */
+    public int getMeshCount() {
+        return meshes.size();
+    }
+
+    /**
+     * Gets the number of distinct textures currently loaded or loading.
+     *
+     * @return The texture count
+     */
+    public int getTextureCount() {
+        return textures.size();
+    }
+
+    /**
+     * Gets the number of model handles that have not been released.
+     *
+     * @return The handle count
+     */
+    public int getHandleCount() {
+        return handles.size();
+    }
+
+    /**
+     * Gets the number of handles that are still placeholders.
+     *
+     * @return The count of handles waiting for their assets
+     */
+    public int getWaitingCount() {
+        return waiting.size();
+    }
+
+    /**
+     * Gets the number of loaded meshes and textures that have no references.
+     *
+     * @return The count of idle assets
+     */
+    public int getIdleCount() {
+        return idleMeshes.size() + idleTextures.size();
+    }
+
+    /**
+     * Gets the number of referenced meshes and textures that were evicted and not reloaded yet.
+     *
+     * @return The count of evicted assets
+     */
+    public int getEvictedCount() {
+        return evictedMeshes.size() + evictedTextures.size();
+    }
+
+    /**
+     * Creates and registers a handle for a mesh and texture entry.
+     */
+    private Model createHandle(Entry<Model> mesh, Entry<Texture> texture, String textureName) {
+        Handle handle = new Handle(mesh, texture);
+        Model model;
+        if (mesh.asset != null && texture.asset != null) {
+            model = new Model(mesh.asset, texture.asset);
+        } else {
+            // The stand-in texture carries the name, so entities know whether they are transparent
+            model = Model.placeholder(texture.asset != null ? texture.asset : new Texture(0, textureName));
+            waiting.put(model, handle);
+        }
+        handles.put(model, handle);
+        mesh.users.add(model);
+        texture.users.add(model);
+        return model;
+    }
+
+    /**
+     * Adds a reference to a cached entry, taking it out of the idle set.
+     */
+    private static <T> void addReference(Entry<T> entry, Set<Entry<T>> idle) {
+        if (entry.references++ == 0) {
+            idle.remove(entry);
+        }
+    }
+
+    /**
+     * Starts loading a mesh on the pipeline.
+     */
+    private void loadMeshAsync(Entry<Model> entry) {
+        CompletableFuture<Model> loading = pipeline.load(() -> loader.prepareOBJ(entry.key));
+        entry.loading = loading;
+        loading.whenComplete((model, error) -> meshLoaded(entry, model, error));
+    }
+
+    /**
+     * Starts loading a texture on the pipeline.
+     */
+    private void loadTextureAsync(Entry<Texture> entry) {
+        CompletableFuture<Texture> loading = pipeline.load(() -> loader.prepareTexture(entry.key, entry.name));
+        entry.loading = loading;
+        loading.whenComplete((loaded, error) -> textureLoaded(entry, loaded, error));
+    }
+
+    /**
+     * Loads an evicted mesh again and resolves the placeholders waiting for it.
+     */
+    private void reloadMesh(Entry<Model> entry) throws Exception {
+        entry.asset = loader.importOBJ(entry.key);
+        entry.loadedAt = System.nanoTime();
+        evictedMeshes.remove(entry);
+        resolveWaiting();
+    }
+
+    /**
+     * Loads an evicted texture again and resolves the placeholders waiting for it.
+     */
+    private void reloadTexture(Entry<Texture> entry) throws Exception {
+        entry.asset = loader.importTexture(entry.key, entry.name);
+        entry.loadedAt = System.nanoTime();
+        textureEntries.put(entry.asset, entry);
+        evictedTextures.remove(entry);
+        completeWaiters(entry, null);
+        resolveWaiting();
+    }
+
+    /**
+     * Starts reloading evicted assets that have a model visible since they were evicted.
+     */
+    private void reloadVisible() {
+        for (Entry<Model> mesh : new ArrayList<>(evictedMeshes)) {
+            if (mesh.lastUsed() > mesh.evictedAt) {
+                if (pipeline != null) {
+                    evictedMeshes.remove(mesh);
+                    loadMeshAsync(mesh);
+                } else {
+                    try {
+                        reloadMesh(mesh);
+                    } catch (Exception e) {
+                        System.err.println("Failed to reload model: " + mesh.key + ". " + e.getMessage());
+                    }
+                }
+            }
+        }
+        for (Entry<Texture> texture : new ArrayList<>(evictedTextures)) {
+            if (texture.lastUsed() > texture.evictedAt) {
+                if (pipeline != null) {
+                    evictedTextures.remove(texture);
+                    loadTextureAsync(texture);
+                } else {
+                    try {
+                        reloadTexture(texture);
+                    } catch (Exception e) {
+                        System.err.println("Failed to reload texture: " + texture.key + ". " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks whether a referenced asset may be evicted.
+     */
+    private static boolean isEvictable(Entry<?> entry, long unusedSince) {
+        return entry.references > 0 && entry.pins == 0 && entry.asset != null && entry.lastUsed() < unusedSince;
+    }
+
+    /**
+     * Unloads the idle mesh or texture that was released longest ago.
+     *
+     * @return False if there are no idle assets
+     */
+    private boolean unloadOldestIdle() {
+        Iterator<Entry<Model>> mesh = idleMeshes.iterator();
+        Iterator<Entry<Texture>> texture = idleTextures.iterator();
+        if (!mesh.hasNext() && !texture.hasNext()) {
+            return false;
+        }
+        Entry<Model> oldestMesh = mesh.hasNext() ? mesh.next() : null;
+        Entry<Texture> oldestTexture = texture.hasNext() ? texture.next() : null;
+        if (oldestTexture == null || (oldestMesh != null && oldestMesh.idleSince <= oldestTexture.idleSince)) {
+            idleMeshes.remove(oldestMesh);
+            meshes.remove(oldestMesh.key);
+            loader.unloadModel(oldestMesh.asset);
+        } else {
+            idleTextures.remove(oldestTexture);
+            textures.remove(oldestTexture.key);
+            unloadTexture(oldestTexture);
+        }
+        return true;
+    }
+
+    /**
+     * Unloads a referenced asset and turns the models using it back into placeholders.
+     */
+    @SuppressWarnings("unchecked")
+    private void evict(Entry<?> entry, long now) {
+        if (entry.asset instanceof Model) {
+            Entry<Model> mesh = (Entry<Model>) entry;
+            loader.unloadModel(mesh.asset);
+            evictedMeshes.add(mesh);
+        } else {
+            Entry<Texture> texture = (Entry<Texture>) entry;
+            unloadTexture(texture);
+            evictedTextures.add(texture);
+        }
+        entry.asset = null;
+        entry.evictedAt = now;
+        for (Model model : entry.users) {
+            model.evict();
+            waiting.put(model, handles.get(model));
+        }
+    }
+
+    /**
+     * Unloads a texture entry's texture, or its layer of an array texture.
+     */
+    private void unloadTexture(Entry<Texture> entry) {
+        textureEntries.remove(entry.asset);
+        int textureId = entry.asset.getTextureId();
+        if (!entry.asset.isArrayLayer()) {
+            loader.unloadTexture(textureId);
+        } else if (arrayLayers.merge(textureId, -1, Integer::sum) == 0) {
+            // The last layer in use is gone, so the whole array can go
+            arrayLayers.remove(textureId);
+            loader.unloadTexture(textureId);
+        }
+    }
+
+    /**
+     * Looks up or synchronously loads a mesh and adds a reference to it.
+     */
+    private Entry<Model> acquireMeshEntry(String modelPath) throws Exception {
+        Entry<Model> entry = meshes.get(modelPath);
+        if (entry == null) {
+            entry = new Entry<>(modelPath);
+            entry.asset = loader.importOBJ(modelPath);
+            entry.loadedAt = System.nanoTime();
+            meshes.put(modelPath, entry);
+        } else if (entry.isEvicted()) {
+            reloadMesh(entry);
+        }
+        addReference(entry, idleMeshes);
+        return entry;
+    }
+
+    /**
+     * Looks up or synchronously loads a texture and adds a reference to it.
+     */
+    private Entry<Texture> acquireTextureEntry(String texturePath, String textureName) throws Exception {
+        Entry<Texture> entry = textures.get(texturePath);
+        if (entry == null) {
+            entry = new Entry<>(texturePath);
+            entry.name = textureName;
+            entry.asset = loader.importTexture(texturePath, textureName);
+            entry.loadedAt = System.nanoTime();
+            textures.put(texturePath, entry);
+            textureEntries.put(entry.asset, entry);
+        } else if (entry.isEvicted()) {
+            reloadTexture(entry);
+        }
+        addReference(entry, idleTextures);
+        return entry;
+    }
+
+    /**
+     * Stores an asynchronously loaded mesh and resolves the placeholders waiting for it.
+     */
+    private void meshLoaded(Entry<Model> entry, Model model, Throwable error) {
+        entry.loading = null;
+        if (error != null) {
+            if (!(error instanceof CancellationException)) {
+                System.err.println("Failed to load model: " + entry.key + ". " + error.getMessage());
+                meshFailed(entry);
+            }
+            return;
+        }
+        if (entry.references == 0) {
+            loader.unloadModel(model);
+            return;
+        }
+        entry.asset = model;
+        entry.loadedAt = System.nanoTime();
+        resolveWaiting();
+    }
+
+    /**
+     * Stores an asynchronously loaded texture and resolves the placeholders waiting for it.
+     */
+    private void textureLoaded(Entry<Texture> entry, Texture texture, Throwable error) {
+        entry.loading = null;
+        if (error != null) {
+            if (!(error instanceof CancellationException)) {
+                System.err.println("Failed to load texture: " + entry.key + ". " + error.getMessage());
+                textureFailed(entry);
+            }
+            return;
+        }
+        if (entry.references == 0) {
+            loader.unloadTexture(texture.getTextureId());
+            return;
+        }
+        entry.asset = texture;
+        entry.loadedAt = System.nanoTime();
+        textureEntries.put(entry.asset, entry);
+        completeWaiters(entry, null);
+        resolveWaiting();
+    }
+
+    /**
+     * Forgets a mesh that failed to load and moves the placeholders waiting for it to the error mesh.
+     */
+    private void meshFailed(Entry<Model> entry) {
+        // The next acquire of the path tries the file again instead of finding the dead entry
+        meshes.remove(entry.key, entry);
+        evictedMeshes.remove(entry);
+        Entry<Model> errorMesh = null;
+        if (errorModelPath != null && !errorModelPath.equals(entry.key)) {
+            try {
+                errorMesh = acquireMeshEntry(errorModelPath);
+            } catch (Exception e) {
+                System.err.println("Failed to load error model: " + e.getMessage());
+            }
+        }
+        for (Model model : entry.users) {
+            if (errorMesh == null) {
+                waiting.remove(model); // Never drawn, but can still be released
+                continue;
+            }
+            handles.get(model).mesh = errorMesh;
+            addReference(errorMesh, idleMeshes);
+            errorMesh.users.add(model);
+            entry.references--;
+        }
+        if (errorMesh != null) {
+            entry.users.clear();
+            releaseMesh(errorMesh);
+            resolveWaiting();
+        }
+    }
+
+    /**
+     * Forgets a texture that failed to load and moves the placeholders waiting for it to the error texture.
+     */
+    private void textureFailed(Entry<Texture> entry) {
+        textures.remove(entry.key, entry);
+        evictedTextures.remove(entry);
+        completeWaiters(entry, new Exception("Failed to load texture: " + entry.key));
+        Entry<Texture> errorTexture = null;
+        if (errorTexturePath != null && !errorTexturePath.equals(entry.key)) {
+            try {
+                errorTexture = acquireTextureEntry(errorTexturePath, errorTextureName);
+            } catch (Exception e) {
+                System.err.println("Failed to load error texture: " + e.getMessage());
+            }
+        }
+        for (Model model : entry.users) {
+            if (errorTexture == null) {
+                waiting.remove(model);
+                continue;
+            }
+            handles.get(model).texture = errorTexture;
+            addReference(errorTexture, idleTextures);
+            errorTexture.users.add(model);
+            entry.references--;
+        }
+        if (errorTexture != null) {
+            entry.users.clear();
+            releaseTexture(errorTexture);
+            resolveWaiting();
+        }
+    }
+
+    /**
+     * Completes the futures from {@link #acquireTextureAsync(String, String)} waiting for a texture.
+     *
+     * @param error The reason the texture failed to load, or null if it is loaded
+     */
+    private static void completeWaiters(Entry<Texture> entry, Exception error) {
+        List<CompletableFuture<Texture>> waiters = new ArrayList<>(entry.waiters);
+        entry.waiters.clear();
+        for (CompletableFuture<Texture> waiter : waiters) {
+            if (error == null) {
+                waiter.complete(entry.asset);
+            } else {
+                waiter.completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * Turns placeholders whose mesh and texture are both loaded into resident models.
+     */
+    private void resolveWaiting() {
+        List<Model> resolved = new ArrayList<>();
+        for (Map.Entry<Model, Handle> waitingHandle : waiting.entrySet()) {
+            Handle handle = waitingHandle.getValue();
+            if (handle.mesh.asset != null && handle.texture.asset != null) {
+                Model model = waitingHandle.getKey();
+                model.setGeometry(handle.mesh.asset);
+                model.setTexture(handle.texture.asset);
+                resolved.add(model);
+            }
+        }
+        for (Model model : resolved) {
+            waiting.remove(model);
+        }
+    }
+
+    /**
+     * Drops a reference to a mesh, making it idle or cancelling its load when none are left.
+     */
+    private void releaseMesh(Entry<Model> entry) {
+        if (--entry.references > 0) {
+            return;
+        }
+        if (entry.asset != null) {
+            entry.idleSince = System.nanoTime();
+            idleMeshes.add(entry);
+            return;
+        }
+        meshes.remove(entry.key, entry);
+        evictedMeshes.remove(entry);
+        if (entry.loading != null) {
+            entry.loading.cancel(false);
+        }
+    }
+
+    /**
+     * Drops a reference to a texture, making it idle or cancelling its load when none are left.
+     */
+    private void releaseTexture(Entry<Texture> entry) {
+        if (--entry.references > 0) {
+            return;
+        }
+        if (entry.asset != null) {
+            entry.idleSince = System.nanoTime();
+            idleTextures.add(entry);
+            return;
+        }
+        textures.remove(entry.key, entry);
+        evictedTextures.remove(entry);
+        if (entry.loading != null) {
+            entry.loading.cancel(false);
+        }
+    }
+
+    /**
+     * A cached asset, the references to it and the models drawing it.
+     */
+    private static class Entry<T> {
+        final String key;
+        String name;
+        T asset;
+        CompletableFuture<?> loading;
+        int references;
+        int pins;
+        final List<Model> users = new ArrayList<>();
+        final List<CompletableFuture<T>> waiters = new ArrayList<>();
+        long loadedAt;
+        long idleSince;
+        long evictedAt;
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Checks whether the asset was unloaded while referenced and is not being reloaded.
+         */
+        boolean isEvicted() {
+            return asset == null && loading == null && evictedAt != 0;
+        }
+
+        /**
+         * Gets the last time any model using the asset was visible, or the time it was loaded.
+         */
+        long lastUsed() {
+            long lastUsed = loadedAt;
+            for (Model user : users) {
+                lastUsed = Math.max(lastUsed, user.getLastUsed());
+            }
+            return lastUsed;
+        }
+    }
+
+    /**
+     * A texture read for packing, waiting to become an array layer.
+     */
+    private static class PackedLayer {
+        final String texturePath;
+        final String textureName;
+        final MipChain image;
+
+        PackedLayer(String texturePath, String textureName, MipChain image) {
+            this.texturePath = texturePath;
+            this.textureName = textureName;
+            this.image = image;
+        }
+    }
+
+    /**
+     * The cache entries held by one model handle.
+     */
+    private static class Handle {
+        Entry<Model> mesh;
+        Entry<Texture> texture;
+
+        Handle(Entry<Model> mesh, Entry<Texture> texture) {
+            this.mesh = mesh;
+            this.texture = texture;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.discardsoft.j3D.core.asset;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Loads assets in two stages so the render thread never waits on file I/O or decoding.
+ * <p>
+ * The decode stage (parsing geometry, decoding pixels) runs on a pool of
+ * worker threads and produces a {@link PendingUpload}. The upload stage,
+ * which needs the OpenGL context, is queued for the render thread and
+ * drained by {@link #processUploads(long)} once per frame within a time
+ * budget, so a burst of loads is spread over several frames instead of
+ * stalling one.
+ * </p>
+ * <p>
+ * The futures returned by {@link #load(Callable)} complete on the render
+ * thread, so their callbacks may use OpenGL. Cancelling a future before its
+ * upload runs discards the decoded data.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class AssetPipeline {
+
+    /** Time to sleep while waiting for a worker to finish decoding, in nanoseconds */
+    private static final long WAIT_NANOS = 100_000L;
+
+    /** Worker threads running the decode stage */
+    private final ExecutorService workers;
+
+    /** Upload stages waiting for the render thread */
+    private final ConcurrentLinkedQueue<Runnable> uploads = new ConcurrentLinkedQueue<>();
+
+    /** Number of loads that have not completed yet */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Creates a pipeline with one worker per available core, leaving one for the render thread.
+     */
+    public AssetPipeline() {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    /**
+     * Creates a pipeline with a fixed number of workers.
+     *
+     * @param workerCount The number of decode threads
+     */
+    public AssetPipeline(int workerCount) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, task -> {
+            Thread thread = new Thread(task, "j3D-asset-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts loading an asset.
+     *
+     * @param decode The decode stage, run on a worker thread
+     * @param <T> The type of the uploaded asset
+     * @return A future completed on the render thread with the uploaded asset
+     */
+    public <T> CompletableFuture<T> load(Callable<PendingUpload<T>> decode) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        pending.incrementAndGet();
+        workers.execute(() -> {
+            if (future.isDone()) {
+                pending.decrementAndGet();
+                return; // Cancelled before decoding started
+            }
+            try {
+                PendingUpload<T> upload = decode.call();
+                uploads.add(() -> upload(future, upload));
+            } catch (Throwable e) {
+                uploads.add(() -> {
+                    pending.decrementAndGet();
+                    future.completeExceptionally(e);
+                });
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Runs the upload stage of a load on the render thread.
+     */
+    private <T> void upload(CompletableFuture<T> future, PendingUpload<T> upload) {
+        pending.decrementAndGet();
+        if (future.isDone()) {
+            upload.discard();
+            return;
+        }
+        try {
+            future.complete(upload.upload());
+        } catch (Throwable e) {
+            upload.discard();
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Runs queued upload stages until the time budget is used up.
+     * <p>
+     * Must be called on the thread owning the OpenGL context. At least one
+     * upload runs per call, so loads always make progress.
+     * </p>
+     *
+     * @param budgetNanos The time to spend, in nanoseconds
+     * @return The number of uploads run
+     */
+    public int processUploads(long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int count = 0;
+        Runnable upload;
+        while ((upload = uploads.poll()) != null) {
+            upload.run();
+            count++;
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Waits for a load to complete, running upload stages on the calling thread in the meantime.
+     * <p>
+     * Must be called on the thread owning the OpenGL context. Meant for
+     * loading screens, where the caller cannot continue without the asset;
+     * other loads queued in the meantime are uploaded as well.
+     * </p>
+     *
+     * @param load A future from {@link #load(Callable)}
+     * @param <T> The type of the uploaded asset
+     * @return The uploaded asset
+     * @throws Exception If the load failed or was cancelled
+     */
+    public <T> T await(CompletableFuture<T> load) throws Exception {
+        while (!load.isDone()) {
+            drainUploads();
+        }
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Waits until no load is pending, running upload stages on the calling thread in the meantime.
+     * <p>
+     * Must be called on the thread owning the OpenGL context.
+     * </p>
+     */
+    public void awaitAll() {
+        while (pending.get() > 0) {
+            drainUploads();
+        }
+    }
+
+    /**
+     * Runs every queued upload stage, or sleeps briefly if none is queued.
+     */
+    private void drainUploads() {
+        Runnable upload;
+        boolean ran = false;
+        while ((upload = uploads.poll()) != null) {
+            upload.run();
+            ran = true;
+        }
+        if (!ran) {
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+    }
+
+    /**
+     * Gets the number of loads that are decoding or waiting for upload.
+     *
+     * @return The pending load count
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Stops the worker threads. Queued uploads are dropped.
+     */
+    public void shutdown() {
+        workers.shutdownNow();
+        uploads.clear();
+    }
+}
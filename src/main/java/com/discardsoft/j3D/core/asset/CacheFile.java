@@ -0,0 +1,236 @@
+package com.discardsoft.j3D.core.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * File handling shared by the asset caches.
+ * <p>
+ * Every cache file starts with the same fields, in native byte order:
+ * </p>
+ * <pre>
+ *  0  int    magic as a native-order int
+ *  4  int    format version
+ *  8  long   source file size
+ * 16  long   source modification time (ms)
+ * 24  long   source content hash
+ * 32         format-specific header and data
+ * </pre>
+ * <p>
+ * The last three fields form the stamp of a source file. A stamp matches
+ * when the size and modification time are those of the source. If only
+ * the time differs, the source is hashed and the stamp still matches when
+ * the content is unchanged; the new time is then stored so the source is
+ * not hashed again. Files written on a machine with a different byte order
+ * fail the magic check and are rebuilt.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+final class CacheFile {
+
+    /** Offset of the source stamp in every cache file */
+    static final int STAMP_OFFSET = 8;
+
+    /** Size of a source stamp in bytes */
+    static final int STAMP_BYTES = 24;
+
+    /** Size of the fields shared by every cache file in bytes */
+    static final int COMMON_BYTES = STAMP_OFFSET + STAMP_BYTES;
+
+    private CacheFile() {
+    }
+
+    /**
+     * Gets the cache file of a source file.
+     *
+     * @param directory The directory holding the cache files
+     * @param source The source file
+     * @param extension The extension of the cache format
+     * @return The path of its cache file
+     */
+    static Path path(Path directory, Path source, String extension) {
+        String name = source.normalize().toString().replace('\\', '_').replace('/', '_').replace(':', '_');
+        return directory.resolve(name + extension);
+    }
+
+    /**
+     * Maps a cache file whose magic, version and source stamp are current.
+     *
+     * @param file The cache file
+     * @param source The source file it was written from
+     * @param magic The magic of the cache format
+     * @param version The version of the cache format
+     * @param headerBytes The size of the format's full header
+     * @return The file in native byte order, or null if it is missing, too small or out of date
+     * @throws IOException If a file cannot be read
+     */
+    static MappedByteBuffer open(Path file, Path source, int magic, int version, int headerBytes) throws IOException {
+        if (!Files.isRegularFile(file) || !Files.isRegularFile(source)) {
+            return null;
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < headerBytes || fileSize > Integer.MAX_VALUE) {
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        }
+        buffer.order(ByteOrder.nativeOrder());
+        if (buffer.getInt(0) != magic || buffer.getInt(4) != version || !matches(buffer, STAMP_OFFSET, file, source)) {
+            return null;
+        }
+        return buffer;
+    }
+
+    /**
+     * Checks a source stamp stored in a cache file.
+     *
+     * @param buffer The mapped cache file
+     * @param offset The offset of the stamp
+     * @param file The cache file, updated with the new time when only the time differs
+     * @param source The source file of the stamp
+     * @return True if the source is unchanged
+     * @throws IOException If the source cannot be read
+     */
+    static boolean matches(ByteBuffer buffer, int offset, Path file, Path source) throws IOException {
+        if (!Files.isRegularFile(source)) {
+            return false;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        long modified = attributes.lastModifiedTime().toMillis();
+        if (buffer.getLong(offset) != attributes.size()) {
+            return false;
+        }
+        if (buffer.getLong(offset + 8) != modified) {
+            if (buffer.getLong(offset + 16) != hash(source)) {
+                return false;
+            }
+            // Same content with a new timestamp, so skip the hash next time
+            updateModified(file, offset + 8, modified);
+        }
+        return true;
+    }
+
+    /**
+     * Allocates the contents of a cache file and writes the fields shared by every format.
+     *
+     * @param size The size of the whole file in bytes
+     * @param magic The magic of the cache format
+     * @param version The version of the cache format
+     * @param source The source file the asset was imported from
+     * @return The buffer in native byte order, positioned after the shared fields
+     * @throws IOException If the file would be too large or the source cannot be read
+     */
+    static ByteBuffer allocate(long size, int magic, int version, Path source) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Asset is too large to cache: " + source);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.nativeOrder());
+        buffer.putInt(magic).putInt(version);
+        putStamp(buffer, source);
+        return buffer;
+    }
+
+    /**
+     * Writes the stamp of a source file at the buffer's position.
+     *
+     * @param buffer The cache file contents
+     * @param source The source file
+     * @throws IOException If the source cannot be read
+     */
+    static void putStamp(ByteBuffer buffer, Path source) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+        buffer.putLong(attributes.size())
+              .putLong(attributes.lastModifiedTime().toMillis())
+              .putLong(hash(source));
+    }
+
+    /**
+     * Writes a cache file.
+     * <p>
+     * The file is written next to its final location and moved into place,
+     * so readers never see a partial file.
+     * </p>
+     *
+     * @param directory The directory holding the cache files, created when needed
+     * @param file The cache file
+     * @param buffer The contents, from its position to its limit
+     * @throws IOException If the file cannot be written
+     */
+    static void write(Path directory, Path file, ByteBuffer buffer) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Stores a new source modification time in a cache file.
+     * <p>
+     * Failing to update it only means the source is hashed again next time.
+     * </p>
+     */
+    private static void updateModified(Path file, int offset, long modified) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer time = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder()).putLong(0, modified);
+            channel.write(time, offset);
+        } catch (IOException e) {
+            System.err.println("Could not update cache file " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hashes the content of a file.
+     *
+     * @param file The file to hash
+     * @return A 64-bit hash of its bytes
+     * @throws IOException If the file cannot be read
+     */
+    static long hash(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long hash = 0xCBF29CE484222325L ^ size;
+            long offset = 0;
+            while (offset < size) {
+                long length = Math.min(size - offset, 1L << 30);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                int i = 0;
+                // Mix eight bytes at a time, then the remainder byte by byte
+                for (; i + Long.BYTES <= length; i += Long.BYTES) {
+                    hash = (hash ^ buffer.getLong(i)) * 0x100000001B3L;
+                    hash ^= hash >>> 29;
+                }
+                for (; i < length; i++) {
+                    hash = (hash ^ buffer.get(i)) * 0x100000001B3L;
+                }
+                offset += length;
+            }
+            return hash;
+        }
+    }
+}
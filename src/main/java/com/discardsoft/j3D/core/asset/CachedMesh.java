@@ -0,0 +1,145 @@
+package com.discardsoft.j3D.core.asset;
+
+import org.joml.Vector3f;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A mesh read from a {@code .j3dm} cache file.
+ * <p>
+ * Vertices are interleaved floats (position, texture coordinates, normal)
+ * and indices are 32-bit, both in native byte order, which is the layout of
+ * {@link com.discardsoft.j3D.core.render.GeometryArena}. The buffers are
+ * views of the memory-mapped file and can be handed to OpenGL without
+ * copying.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ * @see MeshCache
+ */
+public class CachedMesh {
+
+    /** Number of floats per interleaved vertex */
+    public static final int VERTEX_FLOATS = 8;
+
+    /** Size of an interleaved vertex in bytes */
+    public static final int VERTEX_BYTES = VERTEX_FLOATS * Float.BYTES;
+
+    /** Interleaved vertex data */
+    private final ByteBuffer vertices;
+
+    /** 32-bit index data */
+    private final ByteBuffer indices;
+
+    /** Number of vertices */
+    private final int vertexCount;
+
+    /** Number of indices */
+    private final int indexCount;
+
+    /** Minimum corner of the model-space bounding box */
+    private final Vector3f boundsMin;
+
+    /** Maximum corner of the model-space bounding box */
+    private final Vector3f boundsMax;
+
+    /**
+     * Creates a cached mesh over buffers in the cache layout.
+     *
+     * @param vertices Interleaved vertex data
+     * @param vertexCount The number of vertices
+     * @param indices 32-bit index data
+     * @param indexCount The number of indices
+     * @param boundsMin The minimum corner of the bounding box
+     * @param boundsMax The maximum corner of the bounding box
+     */
+    CachedMesh(ByteBuffer vertices, int vertexCount, ByteBuffer indices, int indexCount, Vector3f boundsMin, Vector3f boundsMax) {
+        this.vertices = vertices.order(ByteOrder.nativeOrder());
+        this.vertexCount = vertexCount;
+        this.indices = indices.order(ByteOrder.nativeOrder());
+        this.indexCount = indexCount;
+        this.boundsMin = boundsMin;
+        this.boundsMax = boundsMax;
+    }
+
+    /**
+     * Gets the interleaved vertex data.
+     *
+     * @return A direct buffer of {@link #VERTEX_BYTES} bytes per vertex
+     */
+    public ByteBuffer getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Gets the index data.
+     *
+     * @return A direct buffer of 32-bit indices
+     */
+    public ByteBuffer getIndices() {
+        return indices;
+    }
+
+    /**
+     * Gets the number of vertices.
+     *
+     * @return The vertex count
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Gets the number of indices.
+     *
+     * @return The index count
+     */
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    /**
+     * Gets the minimum corner of the model-space bounding box.
+     *
+     * @return The minimum corner
+     */
+    public Vector3f getBoundsMin() {
+        return boundsMin;
+    }
+
+    /**
+     * Gets the maximum corner of the model-space bounding box.
+     *
+     * @return The maximum corner
+     */
+    public Vector3f getBoundsMax() {
+        return boundsMax;
+    }
+
+    /**
+     * Copies the mesh into separate attribute arrays, for uploads that re-encode the vertices.
+     *
+     * @return The mesh as CPU-side arrays
+     */
+    public MeshData toMeshData() {
+        float[] positions = new float[vertexCount * 3];
+        float[] textureCoords = new float[vertexCount * 2];
+        float[] normals = new float[vertexCount * 3];
+        for (int v = 0; v < vertexCount; v++) {
+            int offset = v * VERTEX_BYTES;
+            for (int i = 0; i < 3; i++) {
+                positions[v * 3 + i] = vertices.getFloat(offset + i * Float.BYTES);
+                normals[v * 3 + i] = vertices.getFloat(offset + (5 + i) * Float.BYTES);
+            }
+            textureCoords[v * 2] = vertices.getFloat(offset + 3 * Float.BYTES);
+            textureCoords[v * 2 + 1] = vertices.getFloat(offset + 4 * Float.BYTES);
+        }
+        int[] indexArray = new int[indexCount];
+        for (int i = 0; i < indexCount; i++) {
+            indexArray[i] = indices.getInt(i * Integer.BYTES);
+        }
+        return new MeshData(positions, textureCoords, normals, indexArray);
+    }
+}
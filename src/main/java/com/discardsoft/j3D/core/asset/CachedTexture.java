@@ -0,0 +1,94 @@
+package com.discardsoft.j3D.core.asset;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A texture and its complete mip chain read from a {@code .j3dt} cache file.
+ * <p>
+ * The levels are views of the memory-mapped file and can be handed to
+ * OpenGL without copying. The mapping is released by the garbage collector
+ * once no view is referenced, so {@link #free()} only drops the views.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ * @see TextureCache
+ */
+public class CachedTexture implements MipChain {
+
+    /** Pixel layout of every level */
+    private final TextureFormat format;
+
+    /** Width of the base level in pixels */
+    private final int width;
+
+    /** Height of the base level in pixels */
+    private final int height;
+
+    /** Pixels of each level */
+    private ByteBuffer[] levels;
+
+    /** Whether any source pixel was translucent */
+    private final boolean transparent;
+
+    /**
+     * Creates a cached texture over the levels of a cache file.
+     *
+     * @param format The pixel layout
+     * @param width The base width in pixels
+     * @param height The base height in pixels
+     * @param levels The pixels of each level
+     * @param transparent Whether any source pixel was translucent
+     */
+    CachedTexture(TextureFormat format, int width, int height, ByteBuffer[] levels, boolean transparent) {
+        this.format = format;
+        this.width = width;
+        this.height = height;
+        this.levels = levels;
+        this.transparent = transparent;
+        for (ByteBuffer level : levels) {
+            level.order(ByteOrder.nativeOrder());
+        }
+    }
+
+    @Override
+    public TextureFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public int getLevelCount() {
+        return levels.length;
+    }
+
+    @Override
+    public int getLevelWidth(int level) {
+        return Math.max(1, width >> level);
+    }
+
+    @Override
+    public int getLevelHeight(int level) {
+        return Math.max(1, height >> level);
+    }
+
+    @Override
+    public ByteBuffer getLevelPixels(int level) {
+        return levels[level];
+    }
+
+    /**
+     * Gets the result of the alpha analysis stored when the file was written.
+     *
+     * @return True if any source pixel had an alpha below 255
+     */
+    @Override
+    public boolean hasTransparency() {
+        return transparent;
+    }
+
+    @Override
+    public void free() {
+        levels = new ByteBuffer[0];
+    }
+}
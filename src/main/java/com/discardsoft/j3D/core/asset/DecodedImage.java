@@ -0,0 +1,245 @@
+package com.discardsoft.j3D.core.asset;
+
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * RGBA pixels decoded from an image file, held off-heap until they are uploaded.
+ * <p>
+ * Optionally carries a full mip chain computed on the CPU with a 2x2 box
+ * filter, so a texture can be uploaded level by level without asking the
+ * driver to generate mipmaps.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class DecodedImage implements MipChain {
+
+    /** Mip levels with at least this many pixels are filtered on several threads */
+    private static final int PARALLEL_PIXELS = 128 * 128;
+
+    /** Width in pixels */
+    private final int width;
+
+    /** Height in pixels */
+    private final int height;
+
+    /** RGBA pixels allocated by STB, 4 bytes per pixel */
+    private ByteBuffer pixels;
+
+    /** Mip levels 1 and up, packed one after another, or null if not generated */
+    private ByteBuffer mipPixels;
+
+    /** Byte offset of each mip level in {@link #mipPixels}, indexed by level */
+    private int[] mipOffsets;
+
+    /** Whether any pixel is translucent, or null until analyzed */
+    private Boolean transparency;
+
+    /**
+     * Wraps pixels decoded by {@link STBImage#stbi_load}.
+     *
+     * @param width The width in pixels
+     * @param height The height in pixels
+     * @param pixels The RGBA pixels, owned by this image from now on
+     */
+    public DecodedImage(int width, int height, ByteBuffer pixels) {
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Gets the width.
+     *
+     * @return The width in pixels
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height.
+     *
+     * @return The height in pixels
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the pixels.
+     *
+     * @return The RGBA pixels, or null once freed
+     */
+    public ByteBuffer getPixels() {
+        return pixels;
+    }
+
+    /**
+     * Computes the mip chain down to 1x1 pixel.
+     * <p>
+     * Each level halves the previous one (rounding down, at least one pixel)
+     * and averages 2x2 blocks, clamping at the edges of odd sizes. Rows of
+     * large levels are filtered in parallel on the common fork-join pool.
+     * Can be called on any thread.
+     * </p>
+     */
+    public void generateMipmaps() {
+        if (mipPixels != null) {
+            return;
+        }
+        int levels = getFullLevelCount();
+        mipOffsets = new int[levels];
+        int total = 0;
+        for (int level = 1; level < levels; level++) {
+            mipOffsets[level] = total;
+            total += getLevelWidth(level) * getLevelHeight(level) * 4;
+        }
+        mipPixels = MemoryUtil.memAlloc(Math.max(1, total));
+
+        for (int level = 1; level < levels; level++) {
+            ByteBuffer source = getLevelPixels(level - 1);
+            ByteBuffer target = getLevelPixels(level);
+            int sourceWidth = getLevelWidth(level - 1);
+            int sourceHeight = getLevelHeight(level - 1);
+            int width = getLevelWidth(level);
+            int height = getLevelHeight(level);
+            IntStream rows = IntStream.range(0, height);
+            if (width * height >= PARALLEL_PIXELS) {
+                rows = rows.parallel();
+            }
+            rows.forEach(y -> downsampleRow(source, sourceWidth, sourceHeight, target, width, y));
+        }
+    }
+
+    /**
+     * Averages one row of a mip level from the level above it.
+     */
+    private static void downsampleRow(ByteBuffer source, int sourceWidth, int sourceHeight, ByteBuffer target, int width, int y) {
+        int row0 = Math.min(y * 2, sourceHeight - 1) * sourceWidth;
+        int row1 = Math.min(y * 2 + 1, sourceHeight - 1) * sourceWidth;
+        for (int x = 0; x < width; x++) {
+            int x0 = Math.min(x * 2, sourceWidth - 1);
+            int x1 = Math.min(x * 2 + 1, sourceWidth - 1);
+            // Whole pixels are read as ints; each channel is averaged in its own byte lane
+            int p0 = source.getInt((row0 + x0) * 4);
+            int p1 = source.getInt((row0 + x1) * 4);
+            int p2 = source.getInt((row1 + x0) * 4);
+            int p3 = source.getInt((row1 + x1) * 4);
+            int pixel = 0;
+            for (int shift = 0; shift < 32; shift += 8) {
+                int sum = (p0 >>> shift & 0xFF) + (p1 >>> shift & 0xFF) + (p2 >>> shift & 0xFF) + (p3 >>> shift & 0xFF);
+                pixel |= ((sum + 2) >> 2) << shift;
+            }
+            target.putInt((y * width + x) * 4, pixel);
+        }
+    }
+
+    /**
+     * Checks whether any pixel of the base image has an alpha below 255.
+     * <p>
+     * The result is computed on the first call and remembered.
+     * </p>
+     *
+     * @return True if the image is not fully opaque
+     */
+    @Override
+    public boolean hasTransparency() {
+        if (transparency == null) {
+            boolean found = false;
+            int size = width * height * 4;
+            for (int i = 3; i < size; i += 4) {
+                if (pixels.get(i) != (byte) 0xFF) {
+                    found = true;
+                    break;
+                }
+            }
+            transparency = found;
+        }
+        return transparency;
+    }
+
+    /**
+     * Always {@link TextureFormat#RGBA8}, the layout STB decodes to.
+     */
+    @Override
+    public TextureFormat getFormat() {
+        return TextureFormat.RGBA8;
+    }
+
+    /**
+     * Gets the number of levels available: the full chain after
+     * {@link #generateMipmaps()}, otherwise only the base image.
+     *
+     * @return The level count, including the base level
+     */
+    @Override
+    public int getLevelCount() {
+        return mipPixels != null ? mipOffsets.length : 1;
+    }
+
+    /**
+     * Gets the number of levels of a complete mip chain for this image's size.
+     */
+    private int getFullLevelCount() {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(1, Math.max(width, height)));
+    }
+
+    @Override
+    public int getLevelWidth(int level) {
+        return Math.max(1, width >> level);
+    }
+
+    @Override
+    public int getLevelHeight(int level) {
+        return Math.max(1, height >> level);
+    }
+
+    /**
+     * Gets the RGBA pixels of a mip level.
+     *
+     * @param level The level, 0 for the base image; higher levels require {@link #generateMipmaps()}
+     * @return A view of the level's pixels
+     */
+    @Override
+    public ByteBuffer getLevelPixels(int level) {
+        if (level == 0) {
+            return pixels;
+        }
+        if (mipPixels == null) {
+            throw new IllegalStateException("Mipmaps have not been generated");
+        }
+        int offset = mipOffsets[level];
+        return mipPixels.duplicate().position(offset).limit(offset + getLevelWidth(level) * getLevelHeight(level) * 4)
+                        .slice().order(pixels.order());
+    }
+
+    /**
+     * Checks whether the mip chain has been computed.
+     *
+     * @return True after {@link #generateMipmaps()}
+     */
+    public boolean hasMipmaps() {
+        return mipPixels != null;
+    }
+
+    /**
+     * Releases the pixel memory, including any mip levels. Safe to call more than once.
+     */
+    @Override
+    public void free() {
+        if (pixels != null) {
+            STBImage.stbi_image_free(pixels);
+            pixels = null;
+        }
+        if (mipPixels != null) {
+            MemoryUtil.memFree(mipPixels);
+            mipPixels = null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.discardsoft.j3D.core.asset;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The geometry of a model file imported through {@link SceneImporter}, flattened into one part per material.
+ * <p>
+ * Node transforms are already applied, so every part is in the file's
+ * model space and the parts together form the whole model. Part geometry
+ * uses the {@link CachedMesh} layout, whether it was just imported or read
+ * from a {@link SceneCache} file.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class ImportedScene {
+
+    /** The parts, in material order */
+    private final List<Part> parts;
+
+    /**
+     * Creates an imported scene.
+     *
+     * @param parts The parts, one per material
+     */
+    ImportedScene(List<Part> parts) {
+        this.parts = Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * Gets the parts of the scene.
+     *
+     * @return An unmodifiable list with one part per material
+     */
+    public List<Part> getParts() {
+        return parts;
+    }
+
+    /**
+     * The triangles of one material.
+     */
+    public static class Part {
+
+        /** The merged geometry of every mesh using the material */
+        private final CachedMesh mesh;
+
+        /** Name of the material, empty if it has none */
+        private final String materialName;
+
+        /** Path of the material's diffuse texture, or null if it has none */
+        private final String texturePath;
+
+        /**
+         * Creates a part.
+         *
+         * @param mesh The geometry
+         * @param materialName The material name
+         * @param texturePath The diffuse texture path, or null
+         */
+        Part(CachedMesh mesh, String materialName, String texturePath) {
+            this.mesh = mesh;
+            this.materialName = materialName;
+            this.texturePath = texturePath;
+        }
+
+        /**
+         * Gets the geometry of the part.
+         *
+         * @return The mesh, ready to be uploaded
+         */
+        public CachedMesh getMesh() {
+            return mesh;
+        }
+
+        /**
+         * Gets the name of the part's material.
+         *
+         * @return The material name, empty if it has none
+         */
+        public String getMaterialName() {
+            return materialName;
+        }
+
+        /**
+         * Gets the diffuse texture of the part's material.
+         *
+         * @return The texture path, resolved against the model file's directory, or null if there is none
+         */
+        public String getTexturePath() {
+            return texturePath;
+        }
+    }
+}
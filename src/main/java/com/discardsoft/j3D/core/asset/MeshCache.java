@@ -0,0 +1,156 @@
+package com.discardsoft.j3D.core.asset;
+
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Stores imported meshes as binary {@code .j3dm} files so they are not re-parsed on every run.
+ * <p>
+ * A cache file holds a fixed header followed by the raw vertex and index
+ * blobs of a {@link CachedMesh}, all in native byte order:
+ * </p>
+ * <pre>
+ *  0  int    magic "J3DM" as a native-order int
+ *  4  int    format version
+ *  8  long   source file size
+ * 16  long   source modification time (ms)
+ * 24  long   source content hash
+ * 32  int    vertex layout (0 = interleaved float position, texture coordinates, normal)
+ * 36  int    vertex count
+ * 40  int    index type (0 = 32-bit)
+ * 44  int    index count
+ * 48  float  bounds minimum x, y, z and maximum x, y, z
+ * 72         vertices, then indices
+ * </pre>
+ * <p>
+ * A cache file is used when the source stamp in the header matches, as
+ * described in {@link CacheFile}.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class MeshCache {
+
+    /** File extension of cached meshes */
+    public static final String EXTENSION = ".j3dm";
+
+    /** "J3DM" read as a native-order int */
+    private static final int MAGIC = ('J' << 24) | ('3' << 16) | ('D' << 8) | 'M';
+
+    /** Version of the file layout, increased whenever it changes */
+    private static final int VERSION = 1;
+
+    /** Size of the header in bytes */
+    private static final int HEADER_BYTES = 72;
+
+    /** Vertex layout identifier of interleaved floats */
+    private static final int LAYOUT_INTERLEAVED_FLOAT = 0;
+
+    /** Index type identifier of 32-bit indices */
+    private static final int INDEX_INT = 0;
+
+    /** Directory holding the cache files */
+    private final Path directory;
+
+    /**
+     * Creates a mesh cache.
+     *
+     * @param directory The directory to keep cache files in, created when needed
+     */
+    public MeshCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the cache file of a source file.
+     *
+     * @param source The source OBJ file
+     * @return The path of its cache file
+     */
+    public Path cacheFile(Path source) {
+        return CacheFile.path(directory, source, EXTENSION);
+    }
+
+    /**
+     * Maps the cached mesh of a source file.
+     *
+     * @param source The source OBJ file
+     * @return The cached mesh, or null if there is no up-to-date cache file
+     * @throws IOException If a file cannot be read
+     */
+    public CachedMesh open(Path source) throws IOException {
+        MappedByteBuffer buffer = CacheFile.open(cacheFile(source), source, MAGIC, VERSION, HEADER_BYTES);
+        if (buffer == null || buffer.getInt(32) != LAYOUT_INTERLEAVED_FLOAT || buffer.getInt(40) != INDEX_INT) {
+            return null;
+        }
+
+        int vertexCount = buffer.getInt(36);
+        int indexCount = buffer.getInt(44);
+        long vertexBytes = (long) vertexCount * CachedMesh.VERTEX_BYTES;
+        long indexBytes = (long) indexCount * Integer.BYTES;
+        if (vertexCount < 0 || indexCount < 0 || HEADER_BYTES + vertexBytes + indexBytes != buffer.capacity()) {
+            return null;
+        }
+        Vector3f min = new Vector3f(buffer.getFloat(48), buffer.getFloat(52), buffer.getFloat(56));
+        Vector3f max = new Vector3f(buffer.getFloat(60), buffer.getFloat(64), buffer.getFloat(68));
+        return new CachedMesh(
+            buffer.duplicate().position(HEADER_BYTES).limit(HEADER_BYTES + (int) vertexBytes).slice(), vertexCount,
+            buffer.duplicate().position(HEADER_BYTES + (int) vertexBytes).limit(HEADER_BYTES + (int) (vertexBytes + indexBytes)).slice(), indexCount,
+            min, max
+        );
+    }
+
+    /**
+     * Writes the cache file of a source file.
+     * <p>
+     * The file is written next to its final location and moved into place,
+     * so readers never see a partial file.
+     * </p>
+     *
+     * @param source The source OBJ file the mesh was imported from
+     * @param mesh The imported mesh
+     * @throws IOException If the file cannot be written
+     */
+    public void write(Path source, MeshData mesh) throws IOException {
+        float[] positions = mesh.getPositions();
+        float[] textureCoords = mesh.getTextureCoords();
+        float[] normals = mesh.getNormals();
+        int[] indices = mesh.getIndices();
+        int vertexCount = mesh.getVertexCount();
+
+        long size = HEADER_BYTES + (long) vertexCount * CachedMesh.VERTEX_BYTES + (long) indices.length * Integer.BYTES;
+        ByteBuffer buffer = CacheFile.allocate(size, MAGIC, VERSION, source);
+        buffer.putInt(LAYOUT_INTERLEAVED_FLOAT).putInt(vertexCount)
+              .putInt(INDEX_INT).putInt(indices.length);
+
+        Vector3f min = new Vector3f();
+        Vector3f max = new Vector3f();
+        if (vertexCount > 0) {
+            min.set(Float.POSITIVE_INFINITY);
+            max.set(Float.NEGATIVE_INFINITY);
+            for (int i = 0; i + 2 < positions.length; i += 3) {
+                min.set(Math.min(min.x, positions[i]), Math.min(min.y, positions[i + 1]), Math.min(min.z, positions[i + 2]));
+                max.set(Math.max(max.x, positions[i]), Math.max(max.y, positions[i + 1]), Math.max(max.z, positions[i + 2]));
+            }
+        }
+        buffer.putFloat(min.x).putFloat(min.y).putFloat(min.z)
+              .putFloat(max.x).putFloat(max.y).putFloat(max.z);
+
+        for (int v = 0; v < vertexCount; v++) {
+            buffer.putFloat(positions[v * 3]).putFloat(positions[v * 3 + 1]).putFloat(positions[v * 3 + 2]);
+            buffer.putFloat(textureCoords[v * 2]).putFloat(textureCoords[v * 2 + 1]);
+            buffer.putFloat(normals[v * 3]).putFloat(normals[v * 3 + 1]).putFloat(normals[v * 3 + 2]);
+        }
+        for (int index : indices) {
+            buffer.putInt(index);
+        }
+        buffer.flip();
+
+        CacheFile.write(directory, cacheFile(source), buffer);
+    }
+}
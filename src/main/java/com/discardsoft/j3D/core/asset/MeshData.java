@@ -0,0 +1,89 @@
+package com.discardsoft.j3D.core.asset;
+
+/**
+ * CPU-side geometry of a mesh before it is uploaded to the GPU.
+ * <p>
+ * Holds de-indexed vertex attributes (one entry per unique position,
+ * texture coordinate and normal combination) and the triangle indices
+ * referencing them, in the same layout that
+ * {@link com.discardsoft.j3D.core.ObjectLoader#loadModel(float[], float[], float[], int[])}
+ * expects.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class MeshData {
+
+    /** Vertex positions, 3 floats per vertex */
+    private final float[] positions;
+
+    /** Texture coordinates, 2 floats per vertex */
+    private final float[] textureCoords;
+
+    /** Vertex normals, 3 floats per vertex */
+    private final float[] normals;
+
+    /** Triangle indices into the vertex arrays */
+    private final int[] indices;
+
+    /**
+     * Creates a new mesh from its vertex attributes and indices.
+     *
+     * @param positions Vertex positions, 3 floats per vertex
+     * @param textureCoords Texture coordinates, 2 floats per vertex
+     * @param normals Vertex normals, 3 floats per vertex
+     * @param indices Triangle indices into the vertex arrays
+     */
+    public MeshData(float[] positions, float[] textureCoords, float[] normals, int[] indices) {
+        this.positions = positions;
+        this.textureCoords = textureCoords;
+        this.normals = normals;
+        this.indices = indices;
+    }
+
+    /**
+     * Gets the vertex positions.
+     *
+     * @return The positions, 3 floats per vertex
+     */
+    public float[] getPositions() {
+        return positions;
+    }
+
+    /**
+     * Gets the texture coordinates.
+     *
+     * @return The texture coordinates, 2 floats per vertex
+     */
+    public float[] getTextureCoords() {
+        return textureCoords;
+    }
+
+    /**
+     * Gets the vertex normals.
+     *
+     * @return The normals, 3 floats per vertex
+     */
+    public float[] getNormals() {
+        return normals;
+    }
+
+    /**
+     * Gets the triangle indices.
+     *
+     * @return The indices into the vertex arrays
+     */
+    public int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * Gets the number of unique vertices in this mesh.
+     *
+     * @return The vertex count
+     */
+    public int getVertexCount() {
+        return positions.length / 3;
+    }
+}
@@ -0,0 +1,238 @@
+package com.discardsoft.j3D.core.asset;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Encodes meshes into the compact {@link VertexFormat#PACKED} vertex layout.
+ * <p>
+ * Positions are stored as normalized 16-bit integers relative to the mesh's
+ * bounding box, so the shader reconstructs them as
+ * {@code center + halfExtent * position} using the model bounds. Texture
+ * coordinates become half floats and normals are octahedral-encoded into two
+ * normalized 16-bit integers. Index types are chosen by
+ * {@link #indexType(int)}, which also applies to unpacked meshes.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public final class MeshPacker {
+
+    /** Size of a packed vertex in bytes */
+    public static final int VERTEX_BYTES = 16;
+
+    /** Byte offset of the position (4 shorts, the last one padding) */
+    public static final int POSITION_OFFSET = 0;
+
+    /** Byte offset of the texture coordinates (2 half floats) */
+    public static final int TEXTURE_OFFSET = 8;
+
+    /** Byte offset of the octahedral normal (2 shorts) */
+    public static final int NORMAL_OFFSET = 12;
+
+    /**
+     * Largest texture coordinate magnitude that is packed; half floats beyond it
+     * are coarser than 1/256 of a texture repeat.
+     */
+    public static final float MAX_TEXTURE_COORD = 8.0f;
+
+    /**
+     * Private constructor to prevent instantiation of utility class.
+     */
+    private MeshPacker() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Checks whether a mesh's texture coordinates survive half-float packing.
+     * Heavily repeated textures (such as tiled terrain) should keep the float layout.
+     *
+     * @param textureCoords Texture coordinates, 2 floats per vertex
+     * @return True if every coordinate is within {@link #MAX_TEXTURE_COORD}
+     */
+    public static boolean canPack(float[] textureCoords) {
+        for (float coord : textureCoords) {
+            if (!(Math.abs(coord) <= MAX_TEXTURE_COORD)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Chooses the smallest index type able to address a mesh's vertices.
+     *
+     * @param vertexCount The number of unique vertices
+     * @return GL_UNSIGNED_SHORT if every index fits in 16 bits, otherwise GL_UNSIGNED_INT
+     */
+    public static int indexType(int vertexCount) {
+        return vertexCount <= 1 << 16 ? GL11.GL_UNSIGNED_SHORT : GL11.GL_UNSIGNED_INT;
+    }
+
+    /**
+     * Packs a mesh's indices with the smallest suitable index type.
+     *
+     * @param indices The indices
+     * @param indexType GL_UNSIGNED_SHORT or GL_UNSIGNED_INT
+     * @return An off-heap ShortBuffer or IntBuffer, ready to read, to be freed by the caller
+     */
+    public static Buffer packIndices(int[] indices, int indexType) {
+        if (indexType == GL11.GL_UNSIGNED_SHORT) {
+            ShortBuffer buffer = MemoryUtil.memAllocShort(Math.max(1, indices.length));
+            for (int index : indices) {
+                buffer.put((short) index);
+            }
+            return buffer.flip();
+        }
+        IntBuffer buffer = MemoryUtil.memAllocInt(Math.max(1, indices.length));
+        return buffer.put(indices).flip();
+    }
+
+    /**
+     * Encodes a mesh into the packed layout.
+     *
+     * @param positions Vertex positions, 3 floats per vertex
+     * @param textureCoords Texture coordinates, 2 floats per vertex
+     * @param normals Vertex normals, 3 floats per vertex
+     * @param indices Triangle indices into the vertex arrays
+     * @return The packed mesh
+     */
+    public static PackedMesh pack(float[] positions, float[] textureCoords, float[] normals, int[] indices) {
+        int vertexCount = positions.length / 3;
+
+        // Quantize relative to the bounding box so the full 16-bit range covers the mesh
+        float[] center = new float[3];
+        float[] halfExtent = new float[3];
+        for (int axis = 0; axis < 3; axis++) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int v = 0; v < vertexCount; v++) {
+                float value = positions[v * 3 + axis];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (vertexCount == 0) {
+                min = 0.0f;
+                max = 0.0f;
+            }
+            center[axis] = (min + max) * 0.5f;
+            halfExtent[axis] = (max - min) * 0.5f;
+        }
+
+        ByteBuffer vertices = MemoryUtil.memAlloc(Math.max(1, vertexCount) * VERTEX_BYTES);
+        for (int v = 0; v < vertexCount; v++) {
+            int base = v * VERTEX_BYTES;
+            for (int axis = 0; axis < 3; axis++) {
+                float extent = halfExtent[axis];
+                float normalized = extent > 0.0f ? (positions[v * 3 + axis] - center[axis]) / extent : 0.0f;
+                vertices.putShort(base + POSITION_OFFSET + axis * 2, toSnorm16(normalized));
+            }
+            vertices.putShort(base + POSITION_OFFSET + 6, (short) 0);
+
+            float u = v * 2 + 1 < textureCoords.length ? textureCoords[v * 2] : 0.0f;
+            float t = v * 2 + 1 < textureCoords.length ? textureCoords[v * 2 + 1] : 0.0f;
+            vertices.putShort(base + TEXTURE_OFFSET, toHalf(u));
+            vertices.putShort(base + TEXTURE_OFFSET + 2, toHalf(t));
+
+            float nx = 0.0f;
+            float ny = 0.0f;
+            float nz = 1.0f;
+            if (v * 3 + 2 < normals.length) {
+                nx = normals[v * 3];
+                ny = normals[v * 3 + 1];
+                nz = normals[v * 3 + 2];
+            }
+            encodeOctahedral(nx, ny, nz, vertices, base + NORMAL_OFFSET);
+        }
+
+        int indexType = indexType(vertexCount);
+        return new PackedMesh(vertices, packIndices(indices, indexType), indexType, indices.length);
+    }
+
+    /**
+     * Writes a normal as two octahedral-mapped normalized 16-bit components.
+     *
+     * @param x The normal's x component
+     * @param y The normal's y component
+     * @param z The normal's z component
+     * @param buffer The destination buffer
+     * @param offset The byte offset to write at
+     */
+    private static void encodeOctahedral(float x, float y, float z, ByteBuffer buffer, int offset) {
+        float length = Math.abs(x) + Math.abs(y) + Math.abs(z);
+        float ox = 0.0f;
+        float oy = 0.0f;
+        if (length > 0.0f) {
+            ox = x / length;
+            oy = y / length;
+            if (z < 0.0f) {
+                // Fold the lower hemisphere over the diagonals
+                float fx = (1.0f - Math.abs(oy)) * (ox >= 0.0f ? 1.0f : -1.0f);
+                float fy = (1.0f - Math.abs(ox)) * (oy >= 0.0f ? 1.0f : -1.0f);
+                ox = fx;
+                oy = fy;
+            }
+        }
+        buffer.putShort(offset, toSnorm16(ox));
+        buffer.putShort(offset + 2, toSnorm16(oy));
+    }
+
+    /**
+     * Converts a value in [-1, 1] to a normalized signed 16-bit integer.
+     *
+     * @param value The value to convert
+     * @return The rounded, clamped integer
+     */
+    private static short toSnorm16(float value) {
+        float clamped = Math.max(-1.0f, Math.min(1.0f, value));
+        return (short) Math.round(clamped * 32767.0f);
+    }
+
+    /**
+     * Converts a float to IEEE 754 half precision, rounding to nearest.
+     *
+     * @param value The value to convert
+     * @return The half-float bits
+     */
+    static short toHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = ((bits >>> 23) & 0xFF) - 127 + 15;
+        int mantissa = bits & 0x7FFFFF;
+
+        if (((bits >>> 23) & 0xFF) == 0xFF) {
+            // Infinity or NaN
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0));
+        }
+        if (exponent >= 0x1F) {
+            // Too large, clamp to infinity
+            return (short) (sign | 0x7C00);
+        }
+        if (exponent <= 0) {
+            if (exponent < -10) {
+                // Too small even for a subnormal
+                return (short) sign;
+            }
+            // Subnormal half
+            mantissa |= 0x800000;
+            int shift = 14 - exponent;
+            int half = mantissa >> shift;
+            if (((mantissa >> (shift - 1)) & 1) != 0) {
+                half++;
+            }
+            return (short) (sign | half);
+        }
+        int half = sign | (exponent << 10) | (mantissa >> 13);
+        if ((mantissa & 0x1000) != 0) {
+            // Round up; a carry into the exponent is still the correct result
+            half++;
+        }
+        return (short) half;
+    }
+}
@@ -0,0 +1,68 @@
+package com.discardsoft.j3D.core.asset;
+
+import java.nio.ByteBuffer;
+
+/**
+ * CPU-side texture pixels with one or more mip levels, ready to be uploaded.
+ * <p>
+ * Level 0 is the full-size image and each following level halves both
+ * dimensions (rounding down, at least one pixel).
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ * @see DecodedImage
+ * @see CachedTexture
+ */
+public interface MipChain {
+
+    /**
+     * Gets the pixel layout of every level.
+     *
+     * @return The texture format
+     */
+    TextureFormat getFormat();
+
+    /**
+     * Gets the number of levels available.
+     *
+     * @return The level count, including the base level
+     */
+    int getLevelCount();
+
+    /**
+     * Gets the width of a mip level.
+     *
+     * @param level The level, 0 for the base image
+     * @return The width in pixels
+     */
+    int getLevelWidth(int level);
+
+    /**
+     * Gets the height of a mip level.
+     *
+     * @param level The level, 0 for the base image
+     * @return The height in pixels
+     */
+    int getLevelHeight(int level);
+
+    /**
+     * Gets the pixels of a mip level.
+     *
+     * @param level The level, 0 for the base image
+     * @return A direct buffer of the level's pixels in {@link #getFormat()}
+     */
+    ByteBuffer getLevelPixels(int level);
+
+    /**
+     * Checks whether any pixel is not fully opaque.
+     *
+     * @return True if the image needs alpha blending or testing
+     */
+    boolean hasTransparency();
+
+    /**
+     * Releases the pixel memory. Safe to call more than once.
+     */
+    void free();
+}
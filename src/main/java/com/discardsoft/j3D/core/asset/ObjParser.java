@@ -0,0 +1,708 @@
+package com.discardsoft.j3D.core.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses Wavefront OBJ text into {@link MeshData} without per-token allocation.
+ * <p>
+ * The parser walks the raw bytes of the file, parsing numbers in place and
+ * collecting attributes in growable primitive arrays. Each distinct
+ * position/texture coordinate/normal index triple of the faces becomes one
+ * output vertex, numbered in order of first use, found through an
+ * open-addressing table keyed on the triple. Only {@code v}, {@code vt},
+ * {@code vn} and {@code f} lines are read; faces are emitted as listed,
+ * without triangulation.
+ * </p>
+ * <p>
+ * Files of at least {@link #PARALLEL_THRESHOLD} bytes are memory-mapped and
+ * split into line-aligned chunks that are parsed concurrently. Since OBJ
+ * face indices are absolute, every chunk can deduplicate its own corners;
+ * the chunks' unique triples are then merged in file order, which assigns
+ * output vertices in the same first-use order as a sequential parse. Both
+ * paths produce identical meshes.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public final class ObjParser {
+
+    /** File size from which {@link #parse(Path)} parses in parallel */
+    public static final long PARALLEL_THRESHOLD = 8L << 20;
+
+    /** Smallest chunk a file is split into, in bytes */
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+
+    /** Largest chunk a file is split into, in bytes */
+    private static final long MAX_CHUNK_BYTES = 64L << 20;
+
+    /** Exactly representable powers of ten used by the fast float path */
+    private static final float[] POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    /** Largest mantissa a float holds exactly */
+    private static final long MAX_EXACT_MANTISSA = 1L << 24;
+
+    /** The OBJ text */
+    private final byte[] data;
+
+    /** Read position in {@link #data} */
+    private int position;
+
+    /** End of the text in {@link #data} */
+    private final int end;
+
+    /** Positions declared by {@code v} lines */
+    private final FloatArray vertices = new FloatArray(3 * 1024);
+
+    /** Texture coordinates declared by {@code vt} lines */
+    private final FloatArray textureCoords = new FloatArray(2 * 1024);
+
+    /** Normals declared by {@code vn} lines */
+    private final FloatArray normals = new FloatArray(3 * 1024);
+
+    /** Index triples in order of first use */
+    private final TripleTable triples = new TripleTable();
+
+    /** Face corners as indices into {@link #triples} */
+    private final IntArray indices = new IntArray(4 * 1024);
+
+    /**
+     * Largest amount by which a face reached past the positions declared before it.
+     * Faces are valid if this is negative once the positions of earlier chunks are counted.
+     */
+    private int vertexReach = Integer.MIN_VALUE;
+
+    /** Like {@link #vertexReach}, for texture coordinates */
+    private int textureReach = Integer.MIN_VALUE;
+
+    /** Like {@link #vertexReach}, for normals */
+    private int normalReach = Integer.MIN_VALUE;
+
+    /**
+     * Creates a parser over part of a byte array.
+     */
+    private ObjParser(byte[] data, int offset, int length) {
+        this.data = data;
+        this.position = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * Parses an OBJ file's contents.
+     *
+     * @param data The bytes of the file
+     * @return The de-indexed mesh
+     * @throws Exception If a line is malformed or a face references a missing attribute
+     */
+    public static MeshData parse(byte[] data) throws Exception {
+        return parse(data, 0, data.length);
+    }
+
+    /**
+     * Parses OBJ text from part of a byte array.
+     *
+     * @param data The buffer holding the text
+     * @param offset The start of the text
+     * @param length The length of the text in bytes
+     * @return The de-indexed mesh
+     * @throws Exception If a line is malformed or a face references a missing attribute
+     */
+    public static MeshData parse(byte[] data, int offset, int length) throws Exception {
+        ObjParser parser = new ObjParser(data, offset, length);
+        parser.parseLines();
+        parser.checkReach(0, 0, 0);
+
+        int vertexCount = parser.triples.size();
+        float[] positions = new float[vertexCount * 3];
+        float[] uvs = new float[vertexCount * 2];
+        float[] normals = new float[vertexCount * 3];
+        for (int i = 0; i < vertexCount; i++) {
+            gather(parser.triples.keys, i, i, parser.vertices.values, parser.textureCoords.values,
+                   parser.normals.values, positions, uvs, normals);
+        }
+        return new MeshData(positions, uvs, normals, parser.indices.toArray());
+    }
+
+    /**
+     * Parses an OBJ file, in parallel on the common pool if it is large.
+     *
+     * @param path The OBJ file
+     * @return The de-indexed mesh
+     * @throws Exception If the file cannot be read or is malformed
+     */
+    public static MeshData parse(Path path) throws Exception {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < PARALLEL_THRESHOLD) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // Keep reading until the whole file is in memory
+                }
+                return parse(buffer.array(), 0, buffer.position());
+            }
+            return parseParallel(channel, ForkJoinPool.commonPool());
+        }
+    }
+
+    /**
+     * Parses an OBJ file in line-aligned chunks on a thread pool.
+     * <p>
+     * Each chunk is mapped from the file and parsed independently. The
+     * result is identical to a sequential parse of the whole file.
+     * </p>
+     *
+     * @param path The OBJ file
+     * @param pool The pool to parse on
+     * @return The de-indexed mesh
+     * @throws Exception If the file cannot be read or is malformed
+     */
+    public static MeshData parseParallel(Path path, ForkJoinPool pool) throws Exception {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parseParallel(channel, pool);
+        }
+    }
+
+    /**
+     * Splits an open file into chunks, parses them on a pool and merges the results.
+     */
+    private static MeshData parseParallel(FileChannel channel, ForkJoinPool pool) throws Exception {
+        long size = channel.size();
+        long target = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, size / (pool.getParallelism() * 4L)));
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long start = 0;
+        while (start < size) {
+            long next = start + target < size ? findLineStart(channel, start + target) : size;
+            bounds.add(next);
+            start = next;
+        }
+
+        int chunkCount = bounds.size() - 1;
+        List<Callable<ObjParser>> parseTasks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            long chunkStart = bounds.get(i);
+            int chunkLength = (int) (bounds.get(i + 1) - chunkStart);
+            parseTasks.add(() -> {
+                // Copy the mapped range into the heap so the parser reads a plain array
+                byte[] bytes = new byte[chunkLength];
+                channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkLength).get(bytes);
+                ObjParser parser = new ObjParser(bytes, 0, chunkLength);
+                parser.parseLines();
+                return parser;
+            });
+        }
+        List<ObjParser> chunks = invokeAll(pool, parseTasks);
+        return merge(chunks, pool);
+    }
+
+    /**
+     * Combines independently parsed chunks into one mesh, in file order.
+     */
+    private static MeshData merge(List<ObjParser> chunks, ForkJoinPool pool) throws Exception {
+        int chunkCount = chunks.size();
+
+        // Attribute offsets of each chunk, checking faces only reference attributes declared before them
+        int[] vertexBase = new int[chunkCount + 1];
+        int[] textureBase = new int[chunkCount + 1];
+        int[] normalBase = new int[chunkCount + 1];
+        int[] indexBase = new int[chunkCount + 1];
+        for (int i = 0; i < chunkCount; i++) {
+            ObjParser chunk = chunks.get(i);
+            chunk.checkReach(vertexBase[i], textureBase[i], normalBase[i]);
+            vertexBase[i + 1] = vertexBase[i] + chunk.vertices.size() / 3;
+            textureBase[i + 1] = textureBase[i] + chunk.textureCoords.size() / 2;
+            normalBase[i + 1] = normalBase[i] + chunk.normals.size() / 3;
+            indexBase[i + 1] = indexBase[i] + chunk.indices.size();
+        }
+
+        // Assign output vertices to the chunks' unique triples in first-use order
+        TripleTable global = new TripleTable();
+        int[][] remaps = new int[chunkCount][];
+        int[][] created = new int[chunkCount][];
+        int[] createdBase = new int[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            TripleTable local = chunks.get(i).triples;
+            int[] remap = new int[local.size()];
+            IntArray newTriples = new IntArray(local.size());
+            createdBase[i] = global.size();
+            for (int j = 0; j < local.size(); j++) {
+                int before = global.size();
+                remap[j] = global.add(local.keys.values[j * 3], local.keys.values[j * 3 + 1], local.keys.values[j * 3 + 2]);
+                if (global.size() > before) {
+                    newTriples.add(j);
+                }
+            }
+            remaps[i] = remap;
+            created[i] = newTriples.toArray();
+        }
+
+        float[] allVertices = new float[vertexBase[chunkCount] * 3];
+        float[] allTextureCoords = new float[textureBase[chunkCount] * 2];
+        float[] allNormals = new float[normalBase[chunkCount] * 3];
+        List<Callable<Void>> copyTasks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            ObjParser chunk = chunks.get(i);
+            int chunkIndex = i;
+            copyTasks.add(() -> {
+                System.arraycopy(chunk.vertices.values, 0, allVertices, vertexBase[chunkIndex] * 3, chunk.vertices.size());
+                System.arraycopy(chunk.textureCoords.values, 0, allTextureCoords, textureBase[chunkIndex] * 2, chunk.textureCoords.size());
+                System.arraycopy(chunk.normals.values, 0, allNormals, normalBase[chunkIndex] * 3, chunk.normals.size());
+                return null;
+            });
+        }
+        invokeAll(pool, copyTasks);
+
+        int vertexCount = global.size();
+        float[] positions = new float[vertexCount * 3];
+        float[] uvs = new float[vertexCount * 2];
+        float[] normals = new float[vertexCount * 3];
+        int[] indices = new int[indexBase[chunkCount]];
+        List<Callable<Void>> gatherTasks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            ObjParser chunk = chunks.get(i);
+            int chunkIndex = i;
+            gatherTasks.add(() -> {
+                int[] newTriples = created[chunkIndex];
+                for (int n = 0; n < newTriples.length; n++) {
+                    gather(chunk.triples.keys, newTriples[n], createdBase[chunkIndex] + n,
+                           allVertices, allTextureCoords, allNormals, positions, uvs, normals);
+                }
+                int[] remap = remaps[chunkIndex];
+                int[] localIndices = chunk.indices.values;
+                int offset = indexBase[chunkIndex];
+                for (int n = 0; n < chunk.indices.size(); n++) {
+                    indices[offset + n] = remap[localIndices[n]];
+                }
+                return null;
+            });
+        }
+        invokeAll(pool, gatherTasks);
+
+        return new MeshData(positions, uvs, normals, indices);
+    }
+
+    /**
+     * Writes the attributes referenced by one index triple to an output vertex.
+     */
+    private static void gather(IntArray keys, int triple, int vertex, float[] srcPositions, float[] srcTextureCoords,
+                               float[] srcNormals, float[] positions, float[] textureCoords, float[] normals) {
+        int vertexIndex = keys.values[triple * 3];
+        int textureIndex = keys.values[triple * 3 + 1];
+        int normalIndex = keys.values[triple * 3 + 2];
+
+        System.arraycopy(srcPositions, vertexIndex * 3, positions, vertex * 3, 3);
+        // Missing texture coordinates and normals stay zero
+        if (textureIndex != -1) {
+            System.arraycopy(srcTextureCoords, textureIndex * 2, textureCoords, vertex * 2, 2);
+        }
+        if (normalIndex != -1) {
+            System.arraycopy(srcNormals, normalIndex * 3, normals, vertex * 3, 3);
+        }
+    }
+
+    /**
+     * Runs tasks on a pool and waits for all of them.
+     *
+     * @return The results in task order
+     */
+    private static <T> List<T> invokeAll(ForkJoinPool pool, List<Callable<T>> tasks) throws Exception {
+        List<T> results = new ArrayList<>(tasks.size());
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof Exception ? (Exception) cause : e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Finds the start of the first line beginning after a file position.
+     *
+     * @return The offset just past the next line feed, or the file size if there is none
+     */
+    private static long findLineStart(FileChannel channel, long from) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long offset = from;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Fails if a face referenced an attribute not declared before it.
+     *
+     * @param vertexBase The number of positions declared in earlier chunks
+     * @param textureBase The number of texture coordinates declared in earlier chunks
+     * @param normalBase The number of normals declared in earlier chunks
+     */
+    private void checkReach(int vertexBase, int textureBase, int normalBase) throws Exception {
+        if (vertexReach >= vertexBase) {
+            throw new Exception("Face references a missing position");
+        }
+        if (textureReach >= textureBase) {
+            throw new Exception("Face references a missing texture coordinate");
+        }
+        if (normalReach >= normalBase) {
+            throw new Exception("Face references a missing normal");
+        }
+    }
+
+    /**
+     * Parses every line of the text.
+     */
+    private void parseLines() throws Exception {
+        while (position < end) {
+            // The keyword runs up to the first space, so indented or tab-separated lines are ignored
+            int keywordStart = position;
+            while (position < end && data[position] != ' ' && !isLineEnd(data[position])) {
+                position++;
+            }
+            int keywordLength = position - keywordStart;
+            byte first = data[keywordStart];
+
+            if (keywordLength == 1 && first == 'v') {
+                vertices.add(parseFloat());
+                vertices.add(parseFloat());
+                vertices.add(parseFloat());
+            } else if (keywordLength == 2 && first == 'v' && data[keywordStart + 1] == 't') {
+                textureCoords.add(parseFloat());
+                textureCoords.add(parseFloat());
+            } else if (keywordLength == 2 && first == 'v' && data[keywordStart + 1] == 'n') {
+                normals.add(parseFloat());
+                normals.add(parseFloat());
+                normals.add(parseFloat());
+            } else if (keywordLength == 1 && first == 'f') {
+                parseFace();
+            }
+            skipLine();
+        }
+    }
+
+    /**
+     * Parses the vertex references of a face line.
+     */
+    private void parseFace() throws Exception {
+        while (skipSpaces()) {
+            int vertexIndex = parseInt() - 1;
+            int textureIndex = -1;
+            int normalIndex = -1;
+            if (position < end && data[position] == '/') {
+                position++;
+                if (isTokenEnd()) {
+                    // "v/" has no further parts
+                } else if (data[position] != '/') {
+                    textureIndex = parseInt() - 1;
+                }
+                if (position < end && data[position] == '/') {
+                    position++;
+                    if (!isTokenEnd() && data[position] != '/') {
+                        normalIndex = parseInt() - 1;
+                    }
+                }
+            }
+            // Anything after the third part is ignored
+            while (!isTokenEnd()) {
+                position++;
+            }
+            indices.add(vertexFor(vertexIndex, textureIndex, normalIndex));
+        }
+    }
+
+    /**
+     * Finds or creates the unique vertex of an index triple.
+     *
+     * @return The index of the triple in {@link #triples}
+     */
+    private int vertexFor(int vertexIndex, int textureIndex, int normalIndex) throws Exception {
+        int before = triples.size();
+        int vertex = triples.add(vertexIndex, textureIndex, normalIndex);
+        if (triples.size() == before) {
+            return vertex;
+        }
+
+        // A triple is checked where it is first used, against the attributes declared so far
+        if (vertexIndex < 0 || textureIndex < -1 || normalIndex < -1) {
+            throw new Exception("Face references a missing attribute");
+        }
+        vertexReach = Math.max(vertexReach, vertexIndex - vertices.size() / 3);
+        if (textureIndex != -1) {
+            textureReach = Math.max(textureReach, textureIndex - textureCoords.size() / 2);
+        }
+        if (normalIndex != -1) {
+            normalReach = Math.max(normalReach, normalIndex - normals.size() / 3);
+        }
+        return vertex;
+    }
+
+    /**
+     * Parses the next space-separated number of the line as a float.
+     * <p>
+     * Plain decimals whose digits fit a float exactly are converted with a
+     * single correctly rounded float operation. Anything else, such as very
+     * long mantissas or large exponents, goes through
+     * {@link Float#parseFloat(String)} so the result always matches it.
+     * </p>
+     */
+    private float parseFloat() throws Exception {
+        if (!skipSpaces()) {
+            throw new Exception("Missing number");
+        }
+        int start = position;
+        boolean negative = false;
+        if (data[position] == '-' || data[position] == '+') {
+            negative = data[position] == '-';
+            position++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean exact = true;
+        boolean fraction = false;
+        while (!isTokenEnd()) {
+            byte c = data[position];
+            if (c >= '0' && c <= '9') {
+                if (mantissa > (Long.MAX_VALUE - 9) / 10) {
+                    exact = false;
+                } else {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) {
+                        scale--;
+                    }
+                }
+                digits++;
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                exact = false; // Exponents, NaN, Infinity and malformed input
+            }
+            position++;
+        }
+        if (digits == 0) {
+            exact = false;
+        }
+
+        if (exact) {
+            // Trailing zeros of the fraction do not change the value
+            while (scale < 0 && mantissa != 0 && mantissa % 10 == 0) {
+                mantissa /= 10;
+                scale++;
+            }
+            if (mantissa <= MAX_EXACT_MANTISSA && -scale < POWERS_OF_TEN.length) {
+                float value = scale == 0 ? (float) mantissa : (float) mantissa / POWERS_OF_TEN[-scale];
+                return negative ? -value : value;
+            }
+        }
+        return Float.parseFloat(new String(data, start, position - start, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Parses a decimal integer ending at a slash, space or line end.
+     */
+    private int parseInt() throws Exception {
+        int start = position;
+        boolean negative = false;
+        if (position < end && (data[position] == '-' || data[position] == '+')) {
+            negative = data[position] == '-';
+            position++;
+        }
+        long value = 0;
+        int digitsStart = position;
+        while (position < end && data[position] >= '0' && data[position] <= '9' && value <= Integer.MAX_VALUE) {
+            value = value * 10 + (data[position] - '0');
+            position++;
+        }
+        if (position == digitsStart || value > Integer.MAX_VALUE || !(isTokenEnd() || data[position] == '/')) {
+            throw new Exception("Malformed index: " + new String(data, start, Math.min(end, position + 1) - start, StandardCharsets.US_ASCII));
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Skips spaces before the next token of the line.
+     *
+     * @return True if a token follows, false at the end of the line
+     */
+    private boolean skipSpaces() {
+        while (position < end && data[position] == ' ') {
+            position++;
+        }
+        return position < end && !isLineEnd(data[position]);
+    }
+
+    /**
+     * Moves to the start of the next line.
+     */
+    private void skipLine() {
+        while (position < end && !isLineEnd(data[position])) {
+            position++;
+        }
+        if (position < end && data[position] == '\r') {
+            position++;
+        }
+        if (position < end && data[position] == '\n') {
+            position++;
+        }
+    }
+
+    /**
+     * Checks whether the read position is at a space or the end of the line.
+     */
+    private boolean isTokenEnd() {
+        return position >= end || data[position] == ' ' || isLineEnd(data[position]);
+    }
+
+    /**
+     * Checks whether a byte ends a line.
+     */
+    private static boolean isLineEnd(byte c) {
+        return c == '\n' || c == '\r';
+    }
+
+    /**
+     * An insertion-ordered set of index triples, numbered from 0.
+     * <p>
+     * Triples are stored packed, three ints each, in insertion order. An
+     * open-addressing table with linear probing maps them to their number.
+     * </p>
+     */
+    private static final class TripleTable {
+        private final IntArray keys = new IntArray(3 * 1024);
+        private int[] slots = newSlots(2048);
+
+        /**
+         * Finds a triple, adding it if it is new.
+         *
+         * @return The number of the triple
+         */
+        int add(int a, int b, int c) {
+            int mask = slots.length - 1;
+            int slot = hash(a, b, c) & mask;
+            int[] stored = keys.values;
+            while (slots[slot] != -1) {
+                int key = slots[slot] * 3;
+                if (stored[key] == a && stored[key + 1] == b && stored[key + 2] == c) {
+                    return slots[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            int number = size();
+            keys.add(a);
+            keys.add(b);
+            keys.add(c);
+            slots[slot] = number;
+            if (size() * 2 > slots.length) {
+                rehash(slots.length * 2);
+            }
+            return number;
+        }
+
+        int size() {
+            return keys.size() / 3;
+        }
+
+        private void rehash(int capacity) {
+            slots = newSlots(capacity);
+            int mask = capacity - 1;
+            int[] stored = keys.values;
+            for (int number = 0; number < size(); number++) {
+                int key = number * 3;
+                int slot = hash(stored[key], stored[key + 1], stored[key + 2]) & mask;
+                while (slots[slot] != -1) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = number;
+            }
+        }
+
+        private static int[] newSlots(int capacity) {
+            int[] slots = new int[capacity];
+            Arrays.fill(slots, -1);
+            return slots;
+        }
+
+        private static int hash(int a, int b, int c) {
+            int h = a * 0x9E3779B1;
+            h = (h ^ b) * 0x85EBCA6B;
+            h = (h ^ c) * 0xC2B2AE35;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * A growable array of floats.
+     */
+    private static final class FloatArray {
+        private float[] values;
+        private int size;
+
+        FloatArray(int capacity) {
+            values = new float[capacity];
+        }
+
+        void add(float value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * A growable array of ints.
+     */
+    private static final class IntArray {
+        private int[] values;
+        private int size;
+
+        IntArray(int capacity) {
+            values = new int[Math.max(1, capacity)];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.discardsoft.j3D.core.asset;
+
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Mesh data encoded in the {@link VertexFormat#PACKED} layout, ready for upload.
+ * <p>
+ * The buffers are allocated off-heap and must be released with {@link #free()}
+ * once they have been uploaded.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ * @see MeshPacker
+ */
+public class PackedMesh {
+
+    /** Interleaved vertex data, {@link MeshPacker#VERTEX_BYTES} per vertex */
+    private final ByteBuffer vertices;
+
+    /** Index data, either a ShortBuffer or an IntBuffer depending on the index type */
+    private final Buffer indices;
+
+    /** The OpenGL type of the indices (GL_UNSIGNED_SHORT or GL_UNSIGNED_INT) */
+    private final int indexType;
+
+    /** The number of indices */
+    private final int indexCount;
+
+    /**
+     * Creates a packed mesh.
+     *
+     * @param vertices Interleaved vertex data
+     * @param indices Index data
+     * @param indexType The OpenGL type of the indices
+     * @param indexCount The number of indices
+     */
+    public PackedMesh(ByteBuffer vertices, Buffer indices, int indexType, int indexCount) {
+        this.vertices = vertices;
+        this.indices = indices;
+        this.indexType = indexType;
+        this.indexCount = indexCount;
+    }
+
+    /**
+     * Gets the interleaved vertex data.
+     *
+     * @return The vertex buffer
+     */
+    public ByteBuffer getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Gets the index data.
+     *
+     * @return A ShortBuffer or IntBuffer matching {@link #getIndexType()}
+     */
+    public Buffer getIndices() {
+        return indices;
+    }
+
+    /**
+     * Gets the OpenGL type of the indices.
+     *
+     * @return GL_UNSIGNED_SHORT or GL_UNSIGNED_INT
+     */
+    public int getIndexType() {
+        return indexType;
+    }
+
+    /**
+     * Gets the number of indices.
+     *
+     * @return The index count
+     */
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    /**
+     * Releases the off-heap buffers.
+     */
+    public void free() {
+        MemoryUtil.memFree(vertices);
+        MemoryUtil.memFree(indices);
+    }
+}
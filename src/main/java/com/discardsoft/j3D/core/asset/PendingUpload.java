@@ -0,0 +1,31 @@
+package com.discardsoft.j3D.core.asset;
+
+/**
+ * CPU-side asset data that is ready to be uploaded to the GPU.
+ * <p>
+ * Produced off the render thread by the decode stage of an asset load.
+ * Exactly one of {@link #upload()} and {@link #discard()} must be called,
+ * on the thread owning the OpenGL context.
+ * </p>
+ *
+ * @param <T> The type of the uploaded asset
+ * @author DiscardSoft
+ * @version 0.1
+ * @see AssetPipeline
+ */
+public interface PendingUpload<T> {
+
+    /**
+     * Creates the GPU objects of the asset and releases the CPU-side data.
+     *
+     * @return The uploaded asset
+     * @throws Exception If the upload fails
+     */
+    T upload() throws Exception;
+
+    /**
+     * Releases the CPU-side data without uploading it, for loads that are no longer needed.
+     */
+    default void discard() {
+    }
+}
@@ -0,0 +1,284 @@
+package com.discardsoft.j3D.core.asset;
+
+import org.joml.Vector3f;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stores scenes imported through {@link SceneImporter} as binary {@code .j3ds} files,
+ * so later loads skip Assimp entirely.
+ * <p>
+ * A cache file holds a fixed header followed by one record per part, all
+ * in native byte order:
+ * </p>
+ * <pre>
+ *  0  int    magic "J3DS" as a native-order int
+ *  4  int    format version
+ *  8  long   source file size
+ * 16  long   source modification time (ms)
+ * 24  long   source content hash
+ * 32  int    import flags (bit 0 = optimized)
+ * 36  int    part count
+ * 40  int    dependency count
+ * 44  int    reserved
+ * 48         dependencies, then parts
+ *
+ * dependency:
+ *  0  long   file size
+ *  8  long   modification time (ms)
+ * 16  long   content hash
+ * 24  int    path length in bytes
+ * 28         path in UTF-8, padded to 4 bytes
+ *
+ * part:
+ *  0  int    vertex count
+ *  4  int    index count
+ *  8  float  bounds minimum x, y, z and maximum x, y, z
+ * 32  int    material name length in bytes
+ * 36  int    texture path length in bytes, -1 if there is no texture
+ * 40         material name and texture path in UTF-8, padded to 4 bytes,
+ *            then vertices in the {@link CachedMesh} layout, then 32-bit indices
+ * </pre>
+ * <p>
+ * Validation uses the source stamp described in {@link CacheFile}, and
+ * the same stamp of every other file the import read: the external
+ * buffers and images of glTF files and the textures of the parts. A
+ * scene is only cached when these files can be determined, see
+ * {@link SceneImporter#externalFiles(Path)}. A file written with other
+ * import flags is rebuilt, so changing whether imports are optimized takes
+ * effect on the next load.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class SceneCache {
+
+    /** File extension of cached scenes */
+    public static final String EXTENSION = ".j3ds";
+
+    /** "J3DS" read as a native-order int */
+    private static final int MAGIC = ('J' << 24) | ('3' << 16) | ('D' << 8) | 'S';
+
+    /** Version of the file layout, increased whenever it changes */
+    private static final int VERSION = 2;
+
+    /** Size of the header in bytes */
+    private static final int HEADER_BYTES = 48;
+
+    /** Size of a dependency's fixed fields in bytes */
+    private static final int DEPENDENCY_BYTES = CacheFile.STAMP_BYTES + 4;
+
+    /** Size of a part's fixed fields in bytes */
+    private static final int PART_BYTES = 40;
+
+    /** Import flag of scenes with joined vertices and cache-optimized triangles */
+    private static final int FLAG_OPTIMIZED = 1;
+
+    /** Directory holding the cache files */
+    private final Path directory;
+
+    /**
+     * Creates a scene cache.
+     *
+     * @param directory The directory to keep cache files in, created when needed
+     */
+    public SceneCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the cache file of a source file.
+     *
+     * @param source The source model file
+     * @return The path of its cache file
+     */
+    public Path cacheFile(Path source) {
+        return CacheFile.path(directory, source, EXTENSION);
+    }
+
+    /**
+     * Maps the cached scene of a source file.
+     *
+     * @param source The source model file
+     * @param optimized Whether the scene must have been imported with optimization
+     * @return The cached scene, or null if there is no up-to-date cache file
+     * @throws IOException If a file cannot be read
+     */
+    public ImportedScene open(Path source, boolean optimized) throws IOException {
+        Path file = cacheFile(source);
+        MappedByteBuffer buffer = CacheFile.open(file, source, MAGIC, VERSION, HEADER_BYTES);
+        if (buffer == null || buffer.getInt(32) != (optimized ? FLAG_OPTIMIZED : 0)) {
+            return null;
+        }
+        long fileSize = buffer.capacity();
+        int partCount = buffer.getInt(36);
+        int dependencyCount = buffer.getInt(40);
+        if (partCount < 0 || dependencyCount < 0) {
+            return null;
+        }
+        long offset = HEADER_BYTES;
+        for (int i = 0; i < dependencyCount; i++) {
+            if (offset + DEPENDENCY_BYTES > fileSize) {
+                return null;
+            }
+            int dependency = (int) offset;
+            int pathBytes = buffer.getInt(dependency + CacheFile.STAMP_BYTES);
+            long end = offset + DEPENDENCY_BYTES + align(Math.max(0, pathBytes));
+            if (pathBytes < 0 || end > fileSize) {
+                return null;
+            }
+            Path path = Path.of(readString(buffer, dependency + DEPENDENCY_BYTES, pathBytes));
+            if (!CacheFile.matches(buffer, dependency, file, path)) {
+                return null;
+            }
+            offset = end;
+        }
+
+        List<ImportedScene.Part> parts = new ArrayList<>();
+        for (int i = 0; i < partCount; i++) {
+            if (offset + PART_BYTES > fileSize) {
+                return null;
+            }
+            int part = (int) offset;
+            int vertexCount = buffer.getInt(part);
+            int indexCount = buffer.getInt(part + 4);
+            int nameBytes = buffer.getInt(part + 32);
+            int textureBytes = buffer.getInt(part + 36);
+            if (vertexCount < 0 || indexCount < 0 || nameBytes < 0 || textureBytes < -1) {
+                return null;
+            }
+            long stringBytes = align((long) nameBytes + Math.max(0, textureBytes));
+            long vertexBytes = (long) vertexCount * CachedMesh.VERTEX_BYTES;
+            long indexBytes = (long) indexCount * Integer.BYTES;
+            long end = offset + PART_BYTES + stringBytes + vertexBytes + indexBytes;
+            if (end > fileSize) {
+                return null;
+            }
+
+            int strings = part + PART_BYTES;
+            String materialName = readString(buffer, strings, nameBytes);
+            String texturePath = textureBytes >= 0 ? readString(buffer, strings + nameBytes, textureBytes) : null;
+            int vertices = strings + (int) stringBytes;
+            Vector3f min = new Vector3f(buffer.getFloat(part + 8), buffer.getFloat(part + 12), buffer.getFloat(part + 16));
+            Vector3f max = new Vector3f(buffer.getFloat(part + 20), buffer.getFloat(part + 24), buffer.getFloat(part + 28));
+            CachedMesh mesh = new CachedMesh(
+                buffer.duplicate().position(vertices).limit(vertices + (int) vertexBytes).slice(), vertexCount,
+                buffer.duplicate().position(vertices + (int) vertexBytes).limit(vertices + (int) (vertexBytes + indexBytes)).slice(), indexCount,
+                min, max
+            );
+            parts.add(new ImportedScene.Part(mesh, materialName, texturePath));
+            offset = end;
+        }
+        if (offset != fileSize) {
+            return null;
+        }
+        return new ImportedScene(parts);
+    }
+
+    /**
+     * Writes the cache file of a source file.
+     * <p>
+     * The file is written next to its final location and moved into place.
+     * Nothing is written if the other files the import read cannot be
+     * determined, so such scenes are always imported.
+     * </p>
+     *
+     * @param source The source model file the scene was imported from
+     * @param scene The imported scene
+     * @param optimized Whether the scene was imported with optimization
+     * @throws IOException If the file cannot be written
+     */
+    public void write(Path source, ImportedScene scene, boolean optimized) throws IOException {
+        List<ImportedScene.Part> parts = scene.getParts();
+        List<Path> external = SceneImporter.externalFiles(source);
+        if (external == null) {
+            return;
+        }
+        Set<Path> dependencies = new LinkedHashSet<>(external);
+        for (ImportedScene.Part part : parts) {
+            if (part.getTexturePath() != null) {
+                dependencies.add(Path.of(part.getTexturePath()));
+            }
+        }
+        // A missing texture is loaded as the error texture each time, so it cannot go stale
+        dependencies.removeIf(dependency -> !Files.isRegularFile(dependency) && !external.contains(dependency));
+
+        long size = HEADER_BYTES;
+        for (Path dependency : dependencies) {
+            size += DEPENDENCY_BYTES + align(utf8(dependency.toString()).length);
+        }
+        for (ImportedScene.Part part : parts) {
+            size += PART_BYTES + align(utf8(part.getMaterialName()).length
+                                       + (part.getTexturePath() != null ? utf8(part.getTexturePath()).length : 0))
+                  + (long) part.getMesh().getVertexCount() * CachedMesh.VERTEX_BYTES
+                  + (long) part.getMesh().getIndexCount() * Integer.BYTES;
+        }
+        ByteBuffer buffer = CacheFile.allocate(size, MAGIC, VERSION, source);
+        buffer.putInt(optimized ? FLAG_OPTIMIZED : 0).putInt(parts.size())
+              .putInt(dependencies.size()).putInt(0);
+
+        for (Path dependency : dependencies) {
+            byte[] path = utf8(dependency.toString());
+            CacheFile.putStamp(buffer, dependency);
+            buffer.putInt(path.length);
+            int start = buffer.position();
+            buffer.put(path);
+            buffer.position(start + (int) align(path.length));
+        }
+
+        for (ImportedScene.Part part : parts) {
+            CachedMesh mesh = part.getMesh();
+            byte[] name = utf8(part.getMaterialName());
+            byte[] texture = part.getTexturePath() != null ? utf8(part.getTexturePath()) : null;
+            buffer.putInt(mesh.getVertexCount()).putInt(mesh.getIndexCount());
+            buffer.putFloat(mesh.getBoundsMin().x).putFloat(mesh.getBoundsMin().y).putFloat(mesh.getBoundsMin().z)
+                  .putFloat(mesh.getBoundsMax().x).putFloat(mesh.getBoundsMax().y).putFloat(mesh.getBoundsMax().z);
+            buffer.putInt(name.length).putInt(texture != null ? texture.length : -1);
+
+            int strings = buffer.position();
+            buffer.put(name);
+            if (texture != null) {
+                buffer.put(texture);
+            }
+            buffer.position(strings + (int) align(buffer.position() - strings));
+            buffer.put(mesh.getVertices().duplicate());
+            buffer.put(mesh.getIndices().duplicate());
+        }
+        buffer.flip();
+
+        CacheFile.write(directory, cacheFile(source), buffer);
+    }
+
+    /**
+     * Reads a UTF-8 string at an absolute position.
+     */
+    private static String readString(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.duplicate().position(offset).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes a string as UTF-8.
+     */
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Rounds a size up to a multiple of 4 bytes, so the vertex data that follows stays aligned.
+     */
+    private static long align(long bytes) {
+        return (bytes + 3) & ~3L;
+    }
+}
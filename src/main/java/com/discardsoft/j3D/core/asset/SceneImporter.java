@@ -0,0 +1,315 @@
+package com.discardsoft.j3D.core.asset;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import org.joml.Vector3f;
+import org.lwjgl.PointerBuffer;
+import org.lwjgl.assimp.AIFace;
+import org.lwjgl.assimp.AIMaterial;
+import org.lwjgl.assimp.AIMesh;
+import org.lwjgl.assimp.AIScene;
+import org.lwjgl.assimp.AIString;
+import org.lwjgl.assimp.AIVector3D;
+import org.lwjgl.assimp.Assimp;
+import org.lwjgl.system.MemoryStack;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Imports glTF 2.0, FBX and the other formats supported by Assimp.
+ * <p>
+ * The node hierarchy is flattened with every node's transform applied, and
+ * all triangle meshes sharing a material are merged into one
+ * {@link ImportedScene.Part}, so a file becomes one drawable model per
+ * material. Points and lines are dropped. Optionally, identical vertices
+ * are joined and triangles are reordered for the post-transform vertex
+ * cache, which makes the import slower and the meshes faster to draw.
+ * </p>
+ * <p>
+ * Importing only touches memory, so it can run on a worker thread.
+ * Texture coordinates keep Assimp's convention, which matches the engine's
+ * OBJ loader. Textures embedded in the file are not supported, so their
+ * parts are imported without a texture.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public final class SceneImporter {
+
+    /** Post-processing applied to every import */
+    private static final int IMPORT_FLAGS = Assimp.aiProcess_Triangulate
+                                          | Assimp.aiProcess_GenSmoothNormals
+                                          | Assimp.aiProcess_PreTransformVertices
+                                          | Assimp.aiProcess_SortByPType
+                                          | Assimp.aiProcess_RemoveRedundantMaterials;
+
+    /** Post-processing added by optimized imports */
+    private static final int OPTIMIZE_FLAGS = Assimp.aiProcess_JoinIdenticalVertices
+                                            | Assimp.aiProcess_ImproveCacheLocality;
+
+    /** "glTF" read as a little-endian int, the magic of binary glTF files */
+    private static final int GLB_MAGIC = 0x46546C67;
+
+    /** "JSON" read as a little-endian int, the type of a binary glTF file's first chunk */
+    private static final int GLB_JSON = 0x4E4F534A;
+
+    /**
+     * Private constructor to prevent instantiation of utility class.
+     */
+    private SceneImporter() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Imports a model file.
+     *
+     * @param source The model file
+     * @param optimize True to join identical vertices and optimize for the vertex cache
+     * @return The scene, with one part per material that has triangles
+     * @throws Exception If Assimp cannot read the file
+     */
+    public static ImportedScene importFile(Path source, boolean optimize) throws Exception {
+        AIScene scene;
+        // Assimp keeps the last error in a global, so imports run one at a time
+        synchronized (SceneImporter.class) {
+            scene = Assimp.aiImportFile(source.toString(), IMPORT_FLAGS | (optimize ? OPTIMIZE_FLAGS : 0));
+            if (scene == null) {
+                throw new Exception("Failed to import " + source + ": " + Assimp.aiGetErrorString());
+            }
+        }
+
+        try {
+            // Group the triangle meshes by material, in material order
+            Map<Integer, List<AIMesh>> groups = new TreeMap<>();
+            PointerBuffer meshes = scene.mMeshes();
+            for (int i = 0; meshes != null && i < scene.mNumMeshes(); i++) {
+                AIMesh mesh = AIMesh.create(meshes.get(i));
+                if ((mesh.mPrimitiveTypes() & Assimp.aiPrimitiveType_TRIANGLE) != 0) {
+                    groups.computeIfAbsent(mesh.mMaterialIndex(), material -> new ArrayList<>()).add(mesh);
+                }
+            }
+
+            PointerBuffer materials = scene.mMaterials();
+            List<ImportedScene.Part> parts = new ArrayList<>();
+            for (Map.Entry<Integer, List<AIMesh>> group : groups.entrySet()) {
+                int materialIndex = group.getKey();
+                AIMaterial material = materials != null && materialIndex < scene.mNumMaterials()
+                        ? AIMaterial.create(materials.get(materialIndex)) : null;
+                parts.add(new ImportedScene.Part(
+                    merge(group.getValue(), source),
+                    material != null ? materialName(material) : "",
+                    material != null ? texturePath(material, source) : null
+                ));
+            }
+            return new ImportedScene(parts);
+        } finally {
+            Assimp.aiReleaseImport(scene);
+        }
+    }
+
+    /**
+     * Lists the files other than the model file itself that an import reads.
+     * <p>
+     * These are the external buffers and images of glTF files. FBX files
+     * hold their geometry and materials themselves, and only reference
+     * textures, which are listed by the imported parts. For other formats
+     * the files cannot be determined without importing.
+     * </p>
+     *
+     * @param source The model file
+     * @return The files, resolved against the model file's directory, or null if they cannot be determined
+     * @throws IOException If the model file cannot be read
+     */
+    static List<Path> externalFiles(Path source) throws IOException {
+        String name = source.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".fbx")) {
+            return List.of();
+        }
+        JsonObject gltf;
+        try {
+            if (name.endsWith(".gltf")) {
+                gltf = JsonParser.parseString(Files.readString(source)).getAsJsonObject();
+            } else if (name.endsWith(".glb")) {
+                gltf = JsonParser.parseString(readGlbJson(source)).getAsJsonObject();
+            } else {
+                return null;
+            }
+        } catch (JsonParseException | IllegalStateException e) {
+            throw new IOException("Invalid glTF file " + source + ": " + e.getMessage(), e);
+        }
+
+        List<Path> files = new ArrayList<>();
+        Path directory = source.getParent();
+        for (String property : new String[] {"buffers", "images"}) {
+            if (!gltf.has(property) || !gltf.get(property).isJsonArray()) {
+                continue;
+            }
+            for (JsonElement element : gltf.getAsJsonArray(property)) {
+                JsonObject entry = element.isJsonObject() ? element.getAsJsonObject() : null;
+                if (entry == null || !entry.has("uri") || !entry.get("uri").isJsonPrimitive()
+                        || entry.get("uri").getAsString().startsWith("data:")) {
+                    continue; // Stored in the file itself
+                }
+                // URIs are percent-encoded, but a literal '+' is not a space
+                String uri = URLDecoder.decode(entry.get("uri").getAsString().replace("+", "%2B"), StandardCharsets.UTF_8);
+                Path file = directory != null ? directory.resolve(uri) : Path.of(uri);
+                files.add(file.normalize());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Reads the JSON chunk of a binary glTF file.
+     */
+    private static String readGlbJson(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(20).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != GLB_MAGIC || header.getInt(16) != GLB_JSON) {
+                throw new IOException("Invalid binary glTF file " + source);
+            }
+            long length = Integer.toUnsignedLong(header.getInt(12));
+            if (length > channel.size() - 20) {
+                throw new IOException("Invalid binary glTF file " + source);
+            }
+            ByteBuffer json = ByteBuffer.allocate((int) length);
+            while (json.hasRemaining() && channel.read(json) >= 0) {
+                // Keep reading until the chunk is complete
+            }
+            return new String(json.array(), 0, json.position(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Merges meshes into one mesh in the cache layout.
+     */
+    private static CachedMesh merge(List<AIMesh> meshes, Path source) throws Exception {
+        long vertexCount = 0;
+        long indexCount = 0;
+        for (AIMesh mesh : meshes) {
+            vertexCount += mesh.mNumVertices();
+            indexCount += (long) mesh.mNumFaces() * 3;
+        }
+        if (vertexCount * CachedMesh.VERTEX_BYTES > Integer.MAX_VALUE || indexCount * Integer.BYTES > Integer.MAX_VALUE) {
+            throw new Exception("Mesh is too large to import: " + source);
+        }
+
+        ByteBuffer vertices = ByteBuffer.allocateDirect((int) vertexCount * CachedMesh.VERTEX_BYTES).order(ByteOrder.nativeOrder());
+        ByteBuffer indices = ByteBuffer.allocateDirect((int) indexCount * Integer.BYTES).order(ByteOrder.nativeOrder());
+        Vector3f min = new Vector3f(Float.POSITIVE_INFINITY);
+        Vector3f max = new Vector3f(Float.NEGATIVE_INFINITY);
+        int baseVertex = 0;
+        int triangleIndices = 0;
+
+        for (AIMesh mesh : meshes) {
+            AIVector3D.Buffer positions = mesh.mVertices();
+            AIVector3D.Buffer normals = mesh.mNormals();
+            AIVector3D.Buffer textureCoords = mesh.mTextureCoords(0);
+            for (int v = 0; v < mesh.mNumVertices(); v++) {
+                AIVector3D position = positions.get(v);
+                float x = position.x();
+                float y = position.y();
+                float z = position.z();
+                vertices.putFloat(x).putFloat(y).putFloat(z);
+                min.set(Math.min(min.x, x), Math.min(min.y, y), Math.min(min.z, z));
+                max.set(Math.max(max.x, x), Math.max(max.y, y), Math.max(max.z, z));
+                if (textureCoords != null) {
+                    AIVector3D textureCoord = textureCoords.get(v);
+                    vertices.putFloat(textureCoord.x()).putFloat(textureCoord.y());
+                } else {
+                    vertices.putFloat(0.0f).putFloat(0.0f);
+                }
+                if (normals != null) {
+                    AIVector3D normal = normals.get(v);
+                    vertices.putFloat(normal.x()).putFloat(normal.y()).putFloat(normal.z());
+                } else {
+                    vertices.putFloat(0.0f).putFloat(0.0f).putFloat(0.0f);
+                }
+            }
+
+            AIFace.Buffer faces = mesh.mFaces();
+            for (int f = 0; f < mesh.mNumFaces(); f++) {
+                AIFace face = faces.get(f);
+                if (face.mNumIndices() != 3) {
+                    continue; // Points and lines left in a mixed mesh
+                }
+                IntBuffer faceIndices = face.mIndices();
+                indices.putInt(baseVertex + faceIndices.get(0))
+                       .putInt(baseVertex + faceIndices.get(1))
+                       .putInt(baseVertex + faceIndices.get(2));
+                triangleIndices += 3;
+            }
+            baseVertex += mesh.mNumVertices();
+        }
+
+        if (baseVertex == 0) {
+            min.zero();
+            max.zero();
+        }
+        vertices.flip();
+        indices.flip();
+        return new CachedMesh(vertices, baseVertex, indices, triangleIndices, min, max);
+    }
+
+    /**
+     * Gets the name of a material.
+     */
+    private static String materialName(AIMaterial material) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            AIString name = AIString.calloc(stack);
+            if (Assimp.aiGetMaterialString(material, Assimp.AI_MATKEY_NAME, Assimp.aiTextureType_NONE, 0, name) != Assimp.aiReturn_SUCCESS) {
+                return "";
+            }
+            return name.dataString();
+        }
+    }
+
+    /**
+     * Gets the diffuse or base color texture of a material, resolved against the model file's directory.
+     */
+    private static String texturePath(AIMaterial material, Path source) {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            AIString path = AIString.calloc(stack);
+            int result = Assimp.aiGetMaterialTexture(material, Assimp.aiTextureType_DIFFUSE, 0, path,
+                                                     (IntBuffer) null, null, null, null, null, null);
+            if (result != Assimp.aiReturn_SUCCESS) {
+                result = Assimp.aiGetMaterialTexture(material, Assimp.aiTextureType_BASE_COLOR, 0, path,
+                                                     (IntBuffer) null, null, null, null, null, null);
+            }
+            if (result != Assimp.aiReturn_SUCCESS) {
+                return null;
+            }
+            String texture = path.dataString();
+            if (texture.isEmpty()) {
+                return null;
+            }
+            if (texture.startsWith("*")) {
+                System.err.println("Ignoring embedded texture " + texture + " of " + source);
+                return null;
+            }
+            Path directory = source.getParent();
+            Path resolved = directory != null ? directory.resolve(texture.replace('\\', '/')) : Path.of(texture);
+            return resolved.normalize().toString().replace('\\', '/');
+        }
+    }
+}
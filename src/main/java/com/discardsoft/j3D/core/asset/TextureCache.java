@@ -0,0 +1,182 @@
+package com.discardsoft.j3D.core.asset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+/**
+ * Stores decoded textures with their full mip chain as binary {@code .j3dt} files,
+ * so images are not decoded and filtered on every run.
+ * <p>
+ * A cache file holds a fixed header followed by every mip level from the
+ * base image down to 1x1, all in native byte order:
+ * </p>
+ * <pre>
+ *  0  int    magic "J3DT" as a native-order int
+ *  4  int    format version
+ *  8  long   source file size
+ * 16  long   source modification time (ms)
+ * 24  long   source content hash
+ * 32  int    width
+ * 36  int    height
+ * 40  int    pixel format ({@link TextureFormat} ordinal)
+ * 44  int    level count
+ * 48  int    flags (bit 0 = transparent)
+ * 52  int    reserved
+ * 56         levels, largest first
+ * </pre>
+ * <p>
+ * Validation uses the source stamp described in {@link CacheFile}. The transparency flag is the result of scanning the
+ * decoded alpha channel, so it holds even when the stored format has no
+ * alpha.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class TextureCache {
+
+    /** File extension of cached textures */
+    public static final String EXTENSION = ".j3dt";
+
+    /** "J3DT" read as a native-order int */
+    private static final int MAGIC = ('J' << 24) | ('3' << 16) | ('D' << 8) | 'T';
+
+    /** Version of the file layout, increased whenever it changes */
+    private static final int VERSION = 1;
+
+    /** Size of the header in bytes */
+    private static final int HEADER_BYTES = 56;
+
+    /** Header flag of textures with translucent pixels */
+    private static final int FLAG_TRANSPARENT = 1;
+
+    /** Directory holding the cache files */
+    private final Path directory;
+
+    /** Whether to store textures in 16-bit formats */
+    private final boolean compact;
+
+    /**
+     * Creates a texture cache.
+     *
+     * @param directory The directory to keep cache files in, created when needed
+     * @param compact True to store opaque textures as {@link TextureFormat#RGB565}
+     *                and translucent ones as {@link TextureFormat#RGBA4}, false
+     *                to keep {@link TextureFormat#RGBA8}
+     */
+    public TextureCache(Path directory, boolean compact) {
+        this.directory = directory;
+        this.compact = compact;
+    }
+
+    /**
+     * Gets the cache file of a source file.
+     *
+     * @param source The source image file
+     * @return The path of its cache file
+     */
+    public Path cacheFile(Path source) {
+        return CacheFile.path(directory, source, EXTENSION);
+    }
+
+    /**
+     * Maps the cached texture of a source file.
+     *
+     * @param source The source image file
+     * @return The cached texture, or null if there is no up-to-date cache file
+     * @throws IOException If a file cannot be read
+     */
+    public CachedTexture open(Path source) throws IOException {
+        MappedByteBuffer buffer = CacheFile.open(cacheFile(source), source, MAGIC, VERSION, HEADER_BYTES);
+        if (buffer == null) {
+            return null;
+        }
+        long fileSize = buffer.capacity();
+        int width = buffer.getInt(32);
+        int height = buffer.getInt(36);
+        int formatIndex = buffer.getInt(40);
+        int levelCount = buffer.getInt(44);
+        int flags = buffer.getInt(48);
+        TextureFormat[] formats = TextureFormat.values();
+        if (width <= 0 || height <= 0 || formatIndex < 0 || formatIndex >= formats.length
+                || levelCount != fullLevelCount(width, height)) {
+            return null;
+        }
+        TextureFormat format = formats[formatIndex];
+
+        ByteBuffer[] levels = new ByteBuffer[levelCount];
+        long offset = HEADER_BYTES;
+        for (int level = 0; level < levelCount; level++) {
+            long bytes = (long) Math.max(1, width >> level) * Math.max(1, height >> level) * format.getBytesPerPixel();
+            if (offset + bytes > fileSize) {
+                return null;
+            }
+            levels[level] = buffer.duplicate().position((int) offset).limit((int) (offset + bytes)).slice();
+            offset += bytes;
+        }
+        if (offset != fileSize) {
+            return null;
+        }
+        return new CachedTexture(format, width, height, levels, (flags & FLAG_TRANSPARENT) != 0);
+    }
+
+    /**
+     * Writes the cache file of a source file.
+     * <p>
+     * The image's mip chain is generated if it has not been already, and
+     * every level is converted to the stored format. The file is written next
+     * to its final location and moved into place.
+     * </p>
+     *
+     * @param source The source image file the pixels were decoded from
+     * @param image The decoded image
+     * @throws IOException If the file cannot be written
+     */
+    public void write(Path source, DecodedImage image) throws IOException {
+        image.generateMipmaps();
+        boolean transparent = image.hasTransparency();
+        TextureFormat format = !compact ? TextureFormat.RGBA8 : transparent ? TextureFormat.RGBA4 : TextureFormat.RGB565;
+        int levelCount = image.getLevelCount();
+
+        long size = HEADER_BYTES;
+        for (int level = 0; level < levelCount; level++) {
+            size += (long) image.getLevelWidth(level) * image.getLevelHeight(level) * format.getBytesPerPixel();
+        }
+        ByteBuffer buffer = CacheFile.allocate(size, MAGIC, VERSION, source);
+        buffer.putInt(image.getLevelWidth(0)).putInt(image.getLevelHeight(0))
+              .putInt(format.ordinal()).putInt(levelCount)
+              .putInt(transparent ? FLAG_TRANSPARENT : 0).putInt(0);
+
+        for (int level = 0; level < levelCount; level++) {
+            ByteBuffer pixels = image.getLevelPixels(level);
+            int pixelCount = image.getLevelWidth(level) * image.getLevelHeight(level);
+            if (format == TextureFormat.RGBA8) {
+                buffer.duplicate().put(pixels.duplicate().position(0).limit(pixelCount * 4));
+            } else {
+                ByteBuffer target = buffer.duplicate().limit(buffer.position() + pixelCount * 2).slice().order(ByteOrder.nativeOrder());
+                IntStream indices = IntStream.range(0, pixelCount);
+                if (pixelCount >= 128 * 128) {
+                    indices = indices.parallel();
+                }
+                indices.forEach(i -> target.putShort(i * 2, format.pack(
+                    pixels.get(i * 4) & 0xFF, pixels.get(i * 4 + 1) & 0xFF,
+                    pixels.get(i * 4 + 2) & 0xFF, pixels.get(i * 4 + 3) & 0xFF)));
+            }
+            buffer.position(buffer.position() + pixelCount * format.getBytesPerPixel());
+        }
+        buffer.flip();
+
+        CacheFile.write(directory, cacheFile(source), buffer);
+    }
+
+    /**
+     * Gets the number of levels of a complete mip chain.
+     */
+    private static int fullLevelCount(int width, int height) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(width, height));
+    }
+}
@@ -0,0 +1,99 @@
+package com.discardsoft.j3D.core.asset;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+
+/**
+ * Pixel layouts a texture can be stored and uploaded with.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public enum TextureFormat {
+
+    /** 8 bits per channel, red to alpha in byte order (4 bytes per pixel). */
+    RGBA8(4, GL11.GL_RGBA8, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE),
+
+    /** One native-order 16-bit value per pixel with 5 bits red, 6 green and 5 blue, for opaque textures. */
+    RGB565(2, GL11.GL_RGB5, GL11.GL_RGB, GL12.GL_UNSIGNED_SHORT_5_6_5),
+
+    /** One native-order 16-bit value per pixel with 4 bits per channel, red in the highest bits. */
+    RGBA4(2, GL11.GL_RGBA4, GL11.GL_RGBA, GL12.GL_UNSIGNED_SHORT_4_4_4_4);
+
+    /** Size of a pixel in bytes */
+    private final int bytesPerPixel;
+
+    /** OpenGL internal format of textures in this layout */
+    private final int internalFormat;
+
+    /** OpenGL pixel format of uploaded data */
+    private final int pixelFormat;
+
+    /** OpenGL pixel type of uploaded data */
+    private final int pixelType;
+
+    TextureFormat(int bytesPerPixel, int internalFormat, int pixelFormat, int pixelType) {
+        this.bytesPerPixel = bytesPerPixel;
+        this.internalFormat = internalFormat;
+        this.pixelFormat = pixelFormat;
+        this.pixelType = pixelType;
+    }
+
+    /**
+     * Gets the size of a pixel.
+     *
+     * @return The number of bytes per pixel
+     */
+    public int getBytesPerPixel() {
+        return bytesPerPixel;
+    }
+
+    /**
+     * Gets the internal format for {@code glTexImage2D}.
+     *
+     * @return The OpenGL internal format
+     */
+    public int getInternalFormat() {
+        return internalFormat;
+    }
+
+    /**
+     * Gets the format of uploaded pixel data.
+     *
+     * @return The OpenGL pixel format
+     */
+    public int getPixelFormat() {
+        return pixelFormat;
+    }
+
+    /**
+     * Gets the type of uploaded pixel data.
+     *
+     * @return The OpenGL pixel type
+     */
+    public int getPixelType() {
+        return pixelType;
+    }
+
+    /**
+     * Encodes one pixel in this layout.
+     *
+     * @param r The red channel, 0 to 255
+     * @param g The green channel, 0 to 255
+     * @param b The blue channel, 0 to 255
+     * @param a The alpha channel, 0 to 255
+     * @return The 16-bit pixel value
+     * @throws IllegalStateException If this is not a 16-bit layout
+     */
+    public short pack(int r, int g, int b, int a) {
+        switch (this) {
+            case RGB565:
+                return (short) (((r * 31 + 127) / 255) << 11 | ((g * 63 + 127) / 255) << 5 | ((b * 31 + 127) / 255));
+            case RGBA4:
+                return (short) (((r * 15 + 127) / 255) << 12 | ((g * 15 + 127) / 255) << 8
+                              | ((b * 15 + 127) / 255) << 4 | ((a * 15 + 127) / 255));
+            default:
+                throw new IllegalStateException(this + " is not a packed format");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.discardsoft.j3D.core.asset;
+
+/**
+ * Vertex layouts a mesh can be uploaded with.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public enum VertexFormat {
+
+    /**
+     * Full-precision floats in separate buffers: 3 floats position,
+     * 2 floats texture coordinates and 3 floats normal (32 bytes per vertex).
+     */
+    FLOAT,
+
+    /**
+     * One interleaved buffer of quantized attributes (16 bytes per vertex):
+     * position as three normalized 16-bit integers relative to the mesh bounds
+     * plus padding, texture coordinates as two half floats, and the normal
+     * octahedral-encoded as two normalized 16-bit integers.
+     *
+     * @see MeshPacker
+     */
+    PACKED
+}
@@ -1,5 +1,7 @@
 package com.discardsoft.j3D.core.entity;
 
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
 import org.joml.Vector3f;
 
 /**
@@ -8,6 +10,12 @@ import org.joml.Vector3f;
  * An entity represents a 3D object with position, rotation, and scale.
  * It references a 3D model that defines its visual appearance.
  * </p>
+ * <p>
+ * The model-to-world matrix is cached and only rebuilt after the transform
+ * changes. All setters mark it dirty; code that modifies the vectors returned
+ * by {@link #getPosition()}, {@link #getRotation()} or {@link #getScale()}
+ * in place must call {@link #markTransformDirty()} afterwards.
+ * </p>
  *
  * @author DiscardSoft
  * @version 0.1
@@ -34,6 +42,21 @@ public class Entity {
     
     /** Flag for full billboarding (faces camera completely) */
     private boolean billboardFull;
+    
+    /** Flag indicating this entity never moves after load and may be merged into a static batch */
+    private boolean isStatic;
+
+    /** Cached model-to-world matrix built from position, rotation and scale */
+    private final Matrix4f worldMatrix = new Matrix4f();
+
+    /** Flag indicating the cached world matrix no longer matches the transform */
+    private boolean transformDirty = true;
+
+    /** Cached inverse transpose of the world matrix's 3x3 part, for transforming normals */
+    private final Matrix3f normalMatrix = new Matrix3f();
+
+    /** Flag indicating the cached normal matrix no longer matches the world matrix */
+    private boolean normalMatrixDirty = true;
 
     /**
      * Constructs a new entity with the specified model and transform parameters.
@@ -163,6 +186,26 @@ public class Entity {
         }
     }
 
+    /**
+     * Checks if this entity is static.
+     *
+     * @return True if the entity never moves after load
+     */
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    /**
+     * Sets whether this entity is static.
+     * Static entities may be pre-transformed and merged into shared batches at level load,
+     * after which changes to their transform are no longer reflected on screen.
+     *
+     * @param isStatic True if the entity never moves after load
+     */
+    public void setStatic(boolean isStatic) {
+        this.isStatic = isStatic;
+    }
+
     /**
      * Increments the position of this entity.
      *
@@ -174,6 +217,7 @@ public class Entity {
         position.x += dx;
         position.y += dy;
         position.z += dz;
+        transformDirty = true;
     }
 
     /**
@@ -187,6 +231,7 @@ public class Entity {
         rotation.x += dx;
         rotation.y += dy;
         rotation.z += dz;
+        transformDirty = true;
     }
 
     /**
@@ -200,6 +245,7 @@ public class Entity {
         position.x = x;
         position.y = y;
         position.z = z;
+        transformDirty = true;
     }
 
     /**
@@ -209,6 +255,7 @@ public class Entity {
      */
     public void setPosition(Vector3f position) {
         this.position.set(position);
+        transformDirty = true;
     }
 
     /**
@@ -222,6 +269,7 @@ public class Entity {
         rotation.x = x;
         rotation.y = y;
         rotation.z = z;
+        transformDirty = true;
     }
 
     /**
@@ -231,6 +279,7 @@ public class Entity {
      */
     public void setRotation(Vector3f rotation) {
         this.rotation.set(rotation);
+        transformDirty = true;
     }
 
     /**
@@ -244,6 +293,65 @@ public class Entity {
         scale.x = x;
         scale.y = y;
         scale.z = z;
+        transformDirty = true;
+    }
+
+    /**
+     * Sets the absolute scale of this entity.
+     *
+     * @param scale The new scale vector
+     */
+    public void setScale(Vector3f scale) {
+        this.scale.set(scale);
+        transformDirty = true;
+    }
+
+    /**
+     * Marks the cached world matrix as out of date.
+     * Only needed after modifying the position, rotation or scale vectors directly.
+     */
+    public void markTransformDirty() {
+        transformDirty = true;
+    }
+
+    /**
+     * Gets the model-to-world matrix of this entity, ignoring billboarding.
+     * <p>
+     * The matrix is rebuilt only when the transform has changed since the last
+     * call. The returned instance is owned by the entity and must not be modified.
+     * </p>
+     *
+     * @return The cached world matrix
+     */
+    public Matrix4f getWorldMatrix() {
+        if (transformDirty) {
+            worldMatrix.translation(position)
+                       .rotateX((float) Math.toRadians(rotation.x))
+                       .rotateY((float) Math.toRadians(rotation.y))
+                       .rotateZ((float) Math.toRadians(rotation.z))
+                       .scale(scale);
+            transformDirty = false;
+            normalMatrixDirty = true;
+        }
+        return worldMatrix;
+    }
+
+    /**
+     * Gets the matrix transforming this entity's normals to world space, ignoring billboarding.
+     * <p>
+     * Like the world matrix, it is cached and only recomputed after the transform
+     * changes. The returned instance is owned by the entity and must not be modified.
+     * </p>
+     *
+     * @return The cached normal matrix
+     */
+    public Matrix3f getNormalMatrix() {
+        Matrix4f world = getWorldMatrix();
+        if (normalMatrixDirty) {
+            world.normal(normalMatrix);
+            normalMatrixDirty = false;
+        }
+        return normalMatrix;
     }
     
     // Legacy method aliases for backward compatibility
@@ -1,10 +1,20 @@
 package com.discardsoft.j3D.core.entity;
 
+import org.joml.Vector3f;
+import org.lwjgl.opengl.GL11;
+
 /**
  * Represents a 3D model with texture in the rendering system.
  * <p>
  * This class holds the OpenGL references for a vertex array object (VAO) and
- * a vertex count for rendering, along with an optional texture.
+ * a vertex count for rendering, along with an optional texture. It also keeps
+ * the model-space bounding volumes (axis-aligned box and sphere) used for
+ * visibility culling.
+ * </p>
+ * <p>
+ * Models loaded into a {@link com.discardsoft.j3D.core.render.GeometryArena}
+ * share their VAO with other models and are located by a base vertex and a
+ * first index within the shared buffers.
  * </p>
  *
  * @author DiscardSoft
@@ -14,14 +24,50 @@ package com.discardsoft.j3D.core.entity;
 public class Model {
 
     /** The OpenGL VAO ID for this model */
-    private final int vaoId;
+    private int vaoId;
     
     /** The number of vertices in this model */
-    private final int vertexCount;
+    private int vertexCount;
     
     /** The texture applied to this model */
     private Texture texture;
 
+    /** Offset added to every index, for geometry in a shared vertex buffer */
+    private int baseVertex;
+
+    /** Position of the first index in the element buffer */
+    private int firstIndex;
+
+    /** Number of unique vertices reserved in a shared vertex buffer */
+    private int arenaVertexCount;
+
+    /** Flag indicating this model's geometry lives in a shared geometry arena */
+    private boolean arenaAllocated;
+
+    /** The OpenGL type of the model's indices (GL_UNSIGNED_SHORT or GL_UNSIGNED_INT) */
+    private int indexType;
+
+    /** Flag indicating the vertices use the quantized packed layout, decoded with the model bounds */
+    private boolean packedVertices;
+
+    /** Minimum corner of the model-space axis-aligned bounding box */
+    private final Vector3f boundsMin = new Vector3f();
+
+    /** Maximum corner of the model-space axis-aligned bounding box */
+    private final Vector3f boundsMax = new Vector3f();
+
+    /** Center of the model-space bounding sphere */
+    private final Vector3f boundsCenter = new Vector3f();
+
+    /** Radius of the model-space bounding sphere */
+    private float boundsRadius;
+
+    /** Flag indicating the geometry has been uploaded and the model can be drawn */
+    private boolean resident = true;
+
+    /** Time this model was last found visible, from {@link System#nanoTime()}, or 0 if never */
+    private long lastUsed;
+
     /**
      * Constructs a new model with no texture.
      *
@@ -29,8 +75,47 @@ public class Model {
      * @param vertexCount The number of vertices in this model
      */
     public Model(int vaoId, int vertexCount) {
+        this(vaoId, vertexCount, GL11.GL_UNSIGNED_INT, false);
+    }
+
+    /**
+     * Constructs a new model with its own VAO and a specific vertex and index layout.
+     *
+     * @param vaoId The OpenGL VAO ID for this model
+     * @param vertexCount The number of indices drawn for this model
+     * @param indexType The OpenGL type of the indices (GL_UNSIGNED_SHORT or GL_UNSIGNED_INT)
+     * @param packedVertices True if the vertices use the packed layout
+     * @see com.discardsoft.j3D.core.asset.MeshPacker
+     */
+    public Model(int vaoId, int vertexCount, int indexType, boolean packedVertices) {
         this.vaoId = vaoId;
         this.vertexCount = vertexCount;
+        this.baseVertex = 0;
+        this.firstIndex = 0;
+        this.arenaVertexCount = 0;
+        this.arenaAllocated = false;
+        this.indexType = indexType;
+        this.packedVertices = packedVertices;
+    }
+
+    /**
+     * Constructs a new model occupying a range of a shared geometry arena.
+     *
+     * @param vaoId The arena's shared VAO ID
+     * @param vertexCount The number of indices drawn for this model
+     * @param baseVertex The offset of the model's first vertex in the shared vertex buffer
+     * @param arenaVertexCount The number of unique vertices reserved for the model
+     * @param firstIndex The position of the model's first index in the shared index buffer
+     */
+    public Model(int vaoId, int vertexCount, int baseVertex, int arenaVertexCount, int firstIndex) {
+        this.vaoId = vaoId;
+        this.vertexCount = vertexCount;
+        this.baseVertex = baseVertex;
+        this.firstIndex = firstIndex;
+        this.arenaVertexCount = arenaVertexCount;
+        this.arenaAllocated = true;
+        this.indexType = GL11.GL_UNSIGNED_INT;
+        this.packedVertices = false;
     }
 
     /**
@@ -41,8 +126,7 @@ public class Model {
      * @param texture The texture to apply to this model
      */
     public Model(int vaoId, int vertexCount, Texture texture) {
-        this.vaoId = vaoId;
-        this.vertexCount = vertexCount;
+        this(vaoId, vertexCount);
         this.texture = texture;
     }
 
@@ -55,7 +139,98 @@ public class Model {
     public Model(Model model, Texture texture) {
         this.vaoId = model.vaoId;
         this.vertexCount = model.vertexCount;
+        this.baseVertex = model.baseVertex;
+        this.firstIndex = model.firstIndex;
+        this.arenaVertexCount = model.arenaVertexCount;
+        this.arenaAllocated = model.arenaAllocated;
+        this.indexType = model.indexType;
+        this.packedVertices = model.packedVertices;
         this.texture = texture;
+        this.boundsMin.set(model.boundsMin);
+        this.boundsMax.set(model.boundsMax);
+        this.boundsCenter.set(model.boundsCenter);
+        this.boundsRadius = model.boundsRadius;
+        this.resident = model.resident;
+    }
+
+    /**
+     * Creates a model whose geometry is still being loaded.
+     * <p>
+     * The placeholder is not drawn until {@link #setGeometry(Model)} makes it
+     * resident. Its texture may also be a stand-in that only carries the
+     * name, so entities created from it already know whether they are transparent.
+     * </p>
+     *
+     * @param texture The texture, or a stand-in for it
+     * @return A model that is not resident
+     */
+    public static Model placeholder(Texture texture) {
+        Model model = new Model(0, 0, texture);
+        model.resident = false;
+        return model;
+    }
+
+    /**
+     * Takes over the geometry and bounds of another model and makes this model resident.
+     * <p>
+     * Used to swap loaded geometry into a {@link #placeholder(Texture) placeholder}
+     * that entities already reference. The texture is left unchanged.
+     * </p>
+     *
+     * @param model The model to copy geometry from
+     */
+    public void setGeometry(Model model) {
+        this.vaoId = model.vaoId;
+        this.vertexCount = model.vertexCount;
+        this.baseVertex = model.baseVertex;
+        this.firstIndex = model.firstIndex;
+        this.arenaVertexCount = model.arenaVertexCount;
+        this.arenaAllocated = model.arenaAllocated;
+        this.indexType = model.indexType;
+        this.packedVertices = model.packedVertices;
+        this.boundsMin.set(model.boundsMin);
+        this.boundsMax.set(model.boundsMax);
+        this.boundsCenter.set(model.boundsCenter);
+        this.boundsRadius = model.boundsRadius;
+        this.resident = true;
+    }
+
+    /**
+     * Checks whether this model's geometry is loaded and can be drawn.
+     *
+     * @return False for placeholders that are still loading
+     */
+    public boolean isResident() {
+        return resident;
+    }
+
+    /**
+     * Marks this model as no longer drawable because its geometry or texture was unloaded.
+     * <p>
+     * The bounds are kept, so the model is still tested for visibility and
+     * its use can be noticed. {@link #setGeometry(Model)} makes it resident again.
+     * </p>
+     */
+    public void evict() {
+        resident = false;
+    }
+
+    /**
+     * Records that this model was visible in a frame, whether or not it could be drawn.
+     *
+     * @param time The frame time from {@link System#nanoTime()}
+     */
+    public void markUsed(long time) {
+        lastUsed = time;
+    }
+
+    /**
+     * Gets the time this model was last visible.
+     *
+     * @return The time from {@link System#nanoTime()}, or 0 if it was never visible
+     */
+    public long getLastUsed() {
+        return lastUsed;
     }
 
     /**
@@ -76,6 +251,125 @@ public class Model {
         return vertexCount;
     }
 
+    /**
+     * Gets the offset added to every index of this model.
+     *
+     * @return The base vertex, 0 for models with their own VAO
+     */
+    public int getBaseVertex() {
+        return baseVertex;
+    }
+
+    /**
+     * Gets the position of this model's first index in its element buffer.
+     *
+     * @return The first index, 0 for models with their own VAO
+     */
+    public int getFirstIndex() {
+        return firstIndex;
+    }
+
+    /**
+     * Gets the number of unique vertices this model reserves in a geometry arena.
+     *
+     * @return The vertex count, 0 for models with their own VAO
+     */
+    public int getArenaVertexCount() {
+        return arenaVertexCount;
+    }
+
+    /**
+     * Checks whether this model's geometry lives in a shared geometry arena.
+     *
+     * @return True if the model shares its VAO with other models
+     */
+    public boolean isArenaAllocated() {
+        return arenaAllocated;
+    }
+
+    /**
+     * Gets the OpenGL type of this model's indices.
+     *
+     * @return GL_UNSIGNED_SHORT or GL_UNSIGNED_INT
+     */
+    public int getIndexType() {
+        return indexType;
+    }
+
+    /**
+     * Gets the size of one index in bytes.
+     *
+     * @return 2 for 16-bit indices, 4 for 32-bit indices
+     */
+    public int getIndexSize() {
+        return indexType == GL11.GL_UNSIGNED_SHORT ? Short.BYTES : Integer.BYTES;
+    }
+
+    /**
+     * Checks whether this model's vertices use the quantized packed layout.
+     * <p>
+     * Packed positions are relative to the bounding box and are decoded in the
+     * shader as {@code boundsCenter + halfExtent * position}.
+     * </p>
+     *
+     * @return True if the vertices are packed
+     */
+    public boolean hasPackedVertices() {
+        return packedVertices;
+    }
+
+    /**
+     * Sets the model-space bounding volumes from an axis-aligned box.
+     * <p>
+     * The bounding sphere is centered on the box and encloses all of its corners.
+     * </p>
+     *
+     * @param min The minimum corner of the box
+     * @param max The maximum corner of the box
+     */
+    public void setBounds(Vector3f min, Vector3f max) {
+        boundsMin.set(min);
+        boundsMax.set(max);
+        boundsCenter.set(min).add(max).mul(0.5f);
+        boundsRadius = boundsCenter.distance(max);
+    }
+
+    /**
+     * Gets the minimum corner of the model-space bounding box.
+     *
+     * @return The minimum corner
+     */
+    public Vector3f getBoundsMin() {
+        return boundsMin;
+    }
+
+    /**
+     * Gets the maximum corner of the model-space bounding box.
+     *
+     * @return The maximum corner
+     */
+    public Vector3f getBoundsMax() {
+        return boundsMax;
+    }
+
+    /**
+     * Gets the center of the model-space bounding sphere.
+     *
+     * @return The sphere center
+     */
+    public Vector3f getBoundsCenter() {
+        return boundsCenter;
+    }
+
+    /**
+     * Gets the radius of the model-space bounding sphere.
+     *
+     * @return The sphere radius
+     */
+    public float getBoundsRadius() {
+        return boundsRadius;
+    }
+
     /**
      * Gets the texture applied to this model.
      *
@@ -97,15 +391,22 @@ public class Model {
     /**
      * Checks if this model has a texture that contains transparency.
      * <p>
-     * Currently this is determined by looking at the texture name.
-     * Textures containing "grass" or "T_" prefixes are considered transparent.
+     * Textures whose alpha channel was analyzed at load time report that
+     * result. Otherwise this is determined by looking at the texture name:
+     * textures containing "grass" or "T_" prefixes are considered transparent.
      * </p>
      *
      * @return True if the model's texture contains transparency
      */
     public boolean hasTransparentTexture() {
         // If there's no texture, there can't be transparency
-        if (texture == null || texture.getName() == null) {
+        if (texture == null) {
+            return false;
+        }
+        if (texture.isTransparencyAnalyzed()) {
+            return texture.hasTransparency();
+        }
+        if (texture.getName() == null) {
             return false;
         }
         
@@ -18,6 +18,12 @@ public class Texture {
     /** The texture name/path (used for identification) */
     private String name;
 
+    /** Whether the pixels contain alpha, or null if they were not analyzed */
+    private final Boolean transparent;
+
+    /** Layer of the array texture holding the pixels, or -1 for a regular 2D texture */
+    private final int layer;
+
     /**
      * Constructs a new texture with the specified OpenGL texture ID.
      *
@@ -25,6 +31,8 @@ public class Texture {
      */
     public Texture(int textureId) {
         this.textureId = textureId;
+        this.transparent = null;
+        this.layer = -1;
     }
     
     /**
@@ -36,6 +44,38 @@ public class Texture {
     public Texture(int textureId, String name) {
         this.textureId = textureId;
         this.name = name;
+        this.transparent = null;
+        this.layer = -1;
+    }
+
+    /**
+     * Constructs a new texture whose transparency is known from its pixels.
+     *
+     * @param textureId The OpenGL texture ID
+     * @param name The texture name or path
+     * @param transparent True if any pixel has an alpha below 255
+     */
+    public Texture(int textureId, String name, boolean transparent) {
+        this(textureId, name, transparent, -1);
+    }
+
+    /**
+     * Constructs a new texture stored as one layer of an array texture.
+     * <p>
+     * All layers of an array share its texture ID, so models using any of
+     * them can be drawn together; the layer is passed per instance.
+     * </p>
+     *
+     * @param textureId The OpenGL ID of the array texture
+     * @param name The texture name or path
+     * @param transparent True if any pixel has an alpha below 255
+     * @param layer The layer holding this texture, or -1 for a regular 2D texture
+     */
+    public Texture(int textureId, String name, boolean transparent, int layer) {
+        this.textureId = textureId;
+        this.name = name;
+        this.transparent = transparent;
+        this.layer = layer;
     }
 
     /**
@@ -47,6 +87,24 @@ public class Texture {
         return textureId;
     }
     
+    /**
+     * Gets the layer of the array texture holding this texture.
+     *
+     * @return The layer index, or -1 for a regular 2D texture
+     */
+    public int getLayer() {
+        return layer;
+    }
+
+    /**
+     * Checks if this texture is a layer of an array texture.
+     *
+     * @return true if the texture ID refers to a GL_TEXTURE_2D_ARRAY
+     */
+    public boolean isArrayLayer() {
+        return layer >= 0;
+    }
+
     /**
      * Gets the texture name or path.
      *
@@ -65,6 +123,15 @@ public class Texture {
         this.name = name;
     }
     
+    /**
+     * Checks if the transparency of this texture comes from analyzing its pixels.
+     *
+     * @return true if the alpha channel was analyzed, false if only the name is known
+     */
+    public boolean isTransparencyAnalyzed() {
+        return transparent != null;
+    }
+
     /**
      * @deprecated Use {@link #getTextureId()} instead
      */
@@ -76,14 +143,18 @@ public class Texture {
     /**
      * Checks if this texture has transparency.
      * <p>
-     * Transparency is determined by examining the texture name.
-     * Textures with names containing "T_" prefix or certain keywords
-     * are considered to have transparency.
+     * Textures loaded with an alpha analysis report its result. For other
+     * textures, transparency is determined by examining the texture name:
+     * names with a "T_" prefix or certain keywords are considered to have
+     * transparency.
      * </p>
      * 
      * @return true if the texture has transparency, false otherwise
      */
     public boolean hasTransparency() {
+        if (transparent != null) {
+            return transparent;
+        }
         if (name == null) {
             return false;
         }
@@ -0,0 +1,648 @@
+package com.discardsoft.j3D.core.level;
+
+import com.google.gson.JsonObject;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The contents of a binary {@code .j3db} level, the shipping counterpart of a JSON {@code .j3dl} level.
+ * <p>
+ * Every name, ID and tag is stored once in a string table and referenced
+ * by index, and per-entity data is stored as one array per field so the
+ * loader can bulk-read it. All values are little-endian:
+ * </p>
+ * <pre>
+ * header     int magic "J3DB", int version, int sections (bit 0 = metadata,
+ *            bit 1 = lighting, bit 2 = terrain), int string count,
+ *            int entity count, int spawn count, int tag count, int reserved
+ * strings    int offsets[string count + 1] into the UTF-8 bytes that follow,
+ *            padded to 4 bytes
+ * metadata   int name, description, version, author, created, modified
+ * lighting   float position[3], color[3], ambient[3]
+ * terrain    float size, int grid count, float height, float position[3],
+ *            int texture, float texture repeat
+ * entities   int id[n], name[n], model[n], texture[n]
+ *            float position[3n], rotation[3n], scale[3n]
+ *            int properties[n], int tag start[n + 1], int tags[tag count]
+ * spawns     int id[m], name[m], float position[3m], rotation[3m]
+ * </pre>
+ * <p>
+ * Optional sections are only present when their bit is set. String
+ * references are indices into the string table, or -1 for none. Entity
+ * properties are the {@code PROPERTY_} bits.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ * @see LevelConverter
+ */
+final class BinaryLevel {
+
+    /** File extension of binary levels */
+    static final String EXTENSION = ".j3db";
+
+    /** String reference meaning none */
+    static final int NONE = -1;
+
+    /** Property bit set when the level overrides the transparency detected from the texture */
+    static final int PROPERTY_TRANSPARENCY_OVERRIDE = 1;
+
+    /** Property bit holding the overridden transparency */
+    static final int PROPERTY_TRANSPARENT = 1 << 1;
+
+    /** Property bit of entities that rotate around the Y axis to face the camera */
+    static final int PROPERTY_BILLBOARD_Y = 1 << 2;
+
+    /** Property bit of entities that always fully face the camera */
+    static final int PROPERTY_BILLBOARD_FULL = 1 << 3;
+
+    /** Property bit of entities that never move after load */
+    static final int PROPERTY_STATIC = 1 << 4;
+
+    /** "J3DB" read as a little-endian int */
+    private static final int MAGIC = 'J' | ('3' << 8) | ('D' << 16) | ('B' << 24);
+
+    /** Version of the file layout, increased whenever it changes */
+    private static final int VERSION = 1;
+
+    /** Size of the header in bytes */
+    private static final int HEADER_BYTES = 32;
+
+    /** Section bit of the metadata block */
+    private static final int SECTION_METADATA = 1;
+
+    /** Section bit of the lighting block */
+    private static final int SECTION_LIGHTING = 1 << 1;
+
+    /** Section bit of the terrain block */
+    private static final int SECTION_TERRAIN = 1 << 2;
+
+    /** The string table */
+    String[] strings;
+
+    /** Name, description, version, author, created and modified strings, or null if there is no metadata */
+    int[] metadata;
+
+    /** Light position, color and ambient, or null for the default light */
+    float[] lighting;
+
+    /** Whether the level has terrain */
+    boolean terrainEnabled;
+
+    /** Terrain size in world units */
+    float terrainSize;
+
+    /** Terrain grid cells per axis */
+    int terrainGridCount;
+
+    /** Terrain height */
+    float terrainHeight;
+
+    /** Terrain position */
+    float[] terrainPosition = new float[3];
+
+    /** Terrain texture string */
+    int terrainTexture = NONE;
+
+    /** Times the terrain texture repeats */
+    float terrainTextureRepeat;
+
+    /** Number of entities */
+    int entityCount;
+
+    /** Entity ID, name, model and custom texture strings */
+    int[] entityIds, entityNames, entityModels, entityTextures;
+
+    /** Entity positions, rotations in degrees and scales, 3 floats per entity */
+    float[] entityPositions, entityRotations, entityScales;
+
+    /** Entity property bits */
+    int[] entityProperties;
+
+    /** Start of each entity's tags in {@link #tags}, with one extra entry marking the end */
+    int[] tagStarts;
+
+    /** Tag strings of all entities */
+    int[] tags;
+
+    /** Number of spawn points */
+    int spawnCount;
+
+    /** Spawn point ID and name strings */
+    int[] spawnIds, spawnNames;
+
+    /** Spawn point positions and rotations, 3 floats per spawn point */
+    float[] spawnPositions, spawnRotations;
+
+    /**
+     * Gets a string from the table.
+     *
+     * @param index The string reference
+     * @return The string, or null for {@link #NONE}
+     */
+    String string(int index) {
+        return index == NONE ? null : strings[index];
+    }
+
+    /**
+     * Converts the JSON properties of an entity to property bits.
+     *
+     * @param properties The "properties" object, or null
+     * @return The property bits
+     */
+    static int readProperties(JsonObject properties) {
+        int bits = 0;
+        if (properties == null) {
+            return bits;
+        }
+        if (properties.has("hasTransparentTexture")) {
+            bits |= PROPERTY_TRANSPARENCY_OVERRIDE;
+            if (properties.get("hasTransparentTexture").getAsBoolean()) {
+                bits |= PROPERTY_TRANSPARENT;
+            }
+        }
+        if (properties.has("billboardY") && properties.get("billboardY").getAsBoolean()) {
+            bits |= PROPERTY_BILLBOARD_Y;
+        }
+        if (properties.has("billboardFull") && properties.get("billboardFull").getAsBoolean()) {
+            bits |= PROPERTY_BILLBOARD_FULL;
+        }
+        if (properties.has("static") && properties.get("static").getAsBoolean()) {
+            bits |= PROPERTY_STATIC;
+        }
+        return bits;
+    }
+
+    /**
+     * Reads a binary level.
+     * <p>
+     * Every count and offset is checked against the bytes left in the buffer
+     * before anything is allocated for it, so a corrupt file fails cleanly
+     * instead of exhausting memory.
+     * </p>
+     *
+     * @param buffer The file contents, for example memory-mapped
+     * @return The level
+     * @throws IOException If the data is not a valid binary level
+     */
+    static BinaryLevel read(ByteBuffer buffer) throws IOException {
+        buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a binary level file");
+            }
+            if (buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported binary level version");
+            }
+            int sections = buffer.getInt();
+            int stringCount = buffer.getInt();
+            int entityCount = buffer.getInt();
+            int spawnCount = buffer.getInt();
+            int tagCount = buffer.getInt();
+            buffer.getInt();
+            if (stringCount < 0 || entityCount < 0 || spawnCount < 0 || tagCount < 0) {
+                throw new IOException("Invalid binary level header");
+            }
+
+            BinaryLevel level = new BinaryLevel();
+            int[] offsets = readInts(buffer, stringCount + 1L);
+            int stringsStart = buffer.position();
+            if (offsets[0] != 0 || offsets[stringCount] < 0 || offsets[stringCount] > buffer.remaining()) {
+                throw new IOException("Invalid binary level string table");
+            }
+            level.strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                if (offsets[i] > offsets[i + 1] || offsets[i + 1] > offsets[stringCount]) {
+                    throw new IOException("Invalid binary level string table");
+                }
+                byte[] bytes = new byte[offsets[i + 1] - offsets[i]];
+                buffer.duplicate().position(stringsStart + offsets[i]).get(bytes);
+                level.strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            if (align(offsets[stringCount]) > buffer.remaining()) {
+                throw new IOException("Truncated binary level file");
+            }
+            buffer.position(stringsStart + align(offsets[stringCount]));
+
+            if ((sections & SECTION_METADATA) != 0) {
+                level.metadata = readInts(buffer, 6);
+            }
+            if ((sections & SECTION_LIGHTING) != 0) {
+                level.lighting = readFloats(buffer, 9);
+            }
+            if ((sections & SECTION_TERRAIN) != 0) {
+                level.terrainEnabled = true;
+                level.terrainSize = buffer.getFloat();
+                level.terrainGridCount = buffer.getInt();
+                level.terrainHeight = buffer.getFloat();
+                level.terrainPosition = readFloats(buffer, 3);
+                level.terrainTexture = buffer.getInt();
+                level.terrainTextureRepeat = buffer.getFloat();
+            }
+
+            level.entityCount = entityCount;
+            level.entityIds = readInts(buffer, entityCount);
+            level.entityNames = readInts(buffer, entityCount);
+            level.entityModels = readInts(buffer, entityCount);
+            level.entityTextures = readInts(buffer, entityCount);
+            level.entityPositions = readFloats(buffer, entityCount * 3L);
+            level.entityRotations = readFloats(buffer, entityCount * 3L);
+            level.entityScales = readFloats(buffer, entityCount * 3L);
+            level.entityProperties = readInts(buffer, entityCount);
+            level.tagStarts = readInts(buffer, entityCount + 1L);
+            level.tags = readInts(buffer, tagCount);
+
+            level.spawnCount = spawnCount;
+            level.spawnIds = readInts(buffer, spawnCount);
+            level.spawnNames = readInts(buffer, spawnCount);
+            level.spawnPositions = readFloats(buffer, spawnCount * 3L);
+            level.spawnRotations = readFloats(buffer, spawnCount * 3L);
+
+            level.validate();
+            return level;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated binary level file", e);
+        }
+    }
+
+    /**
+     * Writes this level to a file.
+     *
+     * @param file The file to write
+     * @throws IOException If the file cannot be written
+     */
+    void write(Path file) throws IOException {
+        ByteBuffer buffer = encode();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Encodes this level in the file layout.
+     *
+     * @return A buffer holding the whole file, ready to be read
+     * @throws IOException If the level is too large for one file
+     */
+    ByteBuffer encode() throws IOException {
+        byte[][] encoded = new byte[strings.length][];
+        int[] offsets = new int[strings.length + 1];
+        for (int i = 0; i < strings.length; i++) {
+            encoded[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+            offsets[i + 1] = offsets[i] + encoded[i].length;
+        }
+
+        long size = HEADER_BYTES + (long) offsets.length * Integer.BYTES + align(offsets[strings.length])
+                  + (metadata != null ? 6 * Integer.BYTES : 0)
+                  + (lighting != null ? 9 * Float.BYTES : 0)
+                  + (terrainEnabled ? 8 * Integer.BYTES : 0)
+                  + (long) entityCount * (4 + 9 + 1 + 1) * Integer.BYTES + Integer.BYTES
+                  + (long) tags.length * Integer.BYTES
+                  + (long) spawnCount * (2 + 6) * Integer.BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Level is too large: " + size + " bytes");
+        }
+        int sections = (metadata != null ? SECTION_METADATA : 0)
+                     | (lighting != null ? SECTION_LIGHTING : 0)
+                     | (terrainEnabled ? SECTION_TERRAIN : 0);
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(sections)
+              .putInt(strings.length).putInt(entityCount).putInt(spawnCount).putInt(tags.length).putInt(0);
+        writeInts(buffer, offsets);
+        int stringsStart = buffer.position();
+        for (byte[] string : encoded) {
+            buffer.put(string);
+        }
+        buffer.position(stringsStart + align(offsets[strings.length]));
+
+        if (metadata != null) {
+            writeInts(buffer, metadata);
+        }
+        if (lighting != null) {
+            writeFloats(buffer, lighting);
+        }
+        if (terrainEnabled) {
+            buffer.putFloat(terrainSize).putInt(terrainGridCount).putFloat(terrainHeight);
+            writeFloats(buffer, terrainPosition);
+            buffer.putInt(terrainTexture).putFloat(terrainTextureRepeat);
+        }
+
+        writeInts(buffer, entityIds);
+        writeInts(buffer, entityNames);
+        writeInts(buffer, entityModels);
+        writeInts(buffer, entityTextures);
+        writeFloats(buffer, entityPositions);
+        writeFloats(buffer, entityRotations);
+        writeFloats(buffer, entityScales);
+        writeInts(buffer, entityProperties);
+        writeInts(buffer, tagStarts);
+        writeInts(buffer, tags);
+
+        writeInts(buffer, spawnIds);
+        writeInts(buffer, spawnNames);
+        writeFloats(buffer, spawnPositions);
+        writeFloats(buffer, spawnRotations);
+        return buffer.flip();
+    }
+
+    /**
+     * Checks that every string reference and tag range is within bounds.
+     */
+    private void validate() throws IOException {
+        checkStrings(metadata);
+        checkString(terrainTexture);
+        checkStrings(entityIds);
+        checkStrings(entityNames);
+        checkStrings(entityModels);
+        checkStrings(entityTextures);
+        checkStrings(tags);
+        checkStrings(spawnIds);
+        checkStrings(spawnNames);
+        for (int i = 0; i < entityCount; i++) {
+            if (entityModels[i] == NONE) {
+                throw new IOException("Binary level entity without a model");
+            }
+            if (tagStarts[i] < 0 || tagStarts[i] > tagStarts[i + 1]) {
+                throw new IOException("Invalid binary level tag range");
+            }
+        }
+        if (tagStarts[entityCount] != tags.length) {
+            throw new IOException("Invalid binary level tag range");
+        }
+    }
+
+    /**
+     * Checks the string references of an array.
+     */
+    private void checkStrings(int[] references) throws IOException {
+        if (references != null) {
+            for (int reference : references) {
+                checkString(reference);
+            }
+        }
+    }
+
+    /**
+     * Checks a string reference.
+     */
+    private void checkString(int reference) throws IOException {
+        if (reference < NONE || reference >= strings.length) {
+            throw new IOException("Invalid binary level string reference");
+        }
+    }
+
+    /**
+     * Bulk-reads ints and advances the buffer past them.
+     */
+    private static int[] readInts(ByteBuffer buffer, long count) throws IOException {
+        int[] values = new int[checkRemaining(buffer, count, Integer.BYTES)];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+        return values;
+    }
+
+    /**
+     * Bulk-reads floats and advances the buffer past them.
+     */
+    private static float[] readFloats(ByteBuffer buffer, long count) throws IOException {
+        float[] values = new float[checkRemaining(buffer, count, Float.BYTES)];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + values.length * Float.BYTES);
+        return values;
+    }
+
+    /**
+     * Checks that the buffer holds a number of values before they are allocated.
+     *
+     * @return The count, known to fit the buffer
+     */
+    private static int checkRemaining(ByteBuffer buffer, long count, int bytes) throws IOException {
+        if (count < 0 || count * bytes > buffer.remaining()) {
+            throw new IOException("Truncated binary level file");
+        }
+        return (int) count;
+    }
+
+    /**
+     * Bulk-writes ints and advances the buffer past them.
+     */
+    private static void writeInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+
+    /**
+     * Bulk-writes floats and advances the buffer past them.
+     */
+    private static void writeFloats(ByteBuffer buffer, float[] values) {
+        buffer.asFloatBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Float.BYTES);
+    }
+
+    /**
+     * Rounds a size up to a multiple of 4 bytes.
+     */
+    private static int align(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+
+    /**
+     * Collects a level entity by entity, interning every string.
+     */
+    static class Builder {
+
+        /** The level being built */
+        private final BinaryLevel level = new BinaryLevel();
+
+        /** Index of every string added so far */
+        private final Map<String, Integer> stringIndices = new HashMap<>();
+
+        /** Strings in table order */
+        private String[] strings = new String[64];
+
+        /** Entity fields, grown as entities are added */
+        private int[] entityIds = new int[64], entityNames = new int[64], entityModels = new int[64],
+                      entityTextures = new int[64], entityProperties = new int[64], tagStarts = new int[65], tags = new int[64];
+
+        /** Entity transforms, grown as entities are added */
+        private float[] entityPositions = new float[192], entityRotations = new float[192], entityScales = new float[192];
+
+        /** Spawn point fields, grown as spawn points are added */
+        private int[] spawnIds = new int[8], spawnNames = new int[8];
+
+        /** Spawn point transforms, grown as spawn points are added */
+        private float[] spawnPositions = new float[24], spawnRotations = new float[24];
+
+        /** Number of strings, entities, tags and spawn points added */
+        private int stringCount, entityCount, tagCount, spawnCount;
+
+        /**
+         * Adds a string to the table.
+         *
+         * @param value The string, or null
+         * @return Its reference, or {@link #NONE} for null
+         */
+        int string(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            Integer index = stringIndices.get(value);
+            if (index == null) {
+                if (stringCount == strings.length) {
+                    strings = Arrays.copyOf(strings, stringCount * 2);
+                }
+                index = stringCount;
+                strings[stringCount++] = value;
+                stringIndices.put(value, index);
+            }
+            return index;
+        }
+
+        /**
+         * Sets the level metadata.
+         */
+        void metadata(String name, String description, String version, String author, String created, String modified) {
+            level.metadata = new int[] {
+                string(name), string(description), string(version), string(author), string(created), string(modified)
+            };
+        }
+
+        /**
+         * Sets the light.
+         */
+        void lighting(float[] position, float[] color, float[] ambient) {
+            level.lighting = new float[9];
+            System.arraycopy(position, 0, level.lighting, 0, 3);
+            System.arraycopy(color, 0, level.lighting, 3, 3);
+            System.arraycopy(ambient, 0, level.lighting, 6, 3);
+        }
+
+        /**
+         * Enables terrain.
+         */
+        void terrain(float size, int gridCount, float height, float[] position, String texture, float textureRepeat) {
+            level.terrainEnabled = true;
+            level.terrainSize = size;
+            level.terrainGridCount = gridCount;
+            level.terrainHeight = height;
+            level.terrainPosition = position.clone();
+            level.terrainTexture = string(texture);
+            level.terrainTextureRepeat = textureRepeat;
+        }
+
+        /**
+         * Adds an entity.
+         */
+        void entity(String id, String name, String model, String texture, float[] position, float[] rotation,
+                    float[] scale, int properties, List<String> entityTags) {
+            if (entityCount == entityIds.length) {
+                int capacity = entityCount * 2;
+                entityIds = Arrays.copyOf(entityIds, capacity);
+                entityNames = Arrays.copyOf(entityNames, capacity);
+                entityModels = Arrays.copyOf(entityModels, capacity);
+                entityTextures = Arrays.copyOf(entityTextures, capacity);
+                entityProperties = Arrays.copyOf(entityProperties, capacity);
+                tagStarts = Arrays.copyOf(tagStarts, capacity + 1);
+                entityPositions = Arrays.copyOf(entityPositions, capacity * 3);
+                entityRotations = Arrays.copyOf(entityRotations, capacity * 3);
+                entityScales = Arrays.copyOf(entityScales, capacity * 3);
+            }
+            int i = entityCount++;
+            entityIds[i] = string(id);
+            entityNames[i] = string(name);
+            entityModels[i] = string(model);
+            entityTextures[i] = string(texture);
+            entityProperties[i] = properties;
+            System.arraycopy(position, 0, entityPositions, i * 3, 3);
+            System.arraycopy(rotation, 0, entityRotations, i * 3, 3);
+            System.arraycopy(scale, 0, entityScales, i * 3, 3);
+            tagStarts[i] = tagCount;
+            for (String tag : entityTags) {
+                if (tagCount == tags.length) {
+                    tags = Arrays.copyOf(tags, tagCount * 2);
+                }
+                tags[tagCount++] = string(tag);
+            }
+            tagStarts[i + 1] = tagCount;
+        }
+
+        /**
+         * Copies an entity from another level.
+         */
+        void entity(BinaryLevel source, int i) {
+            List<String> entityTags = new ArrayList<>();
+            for (int t = source.tagStarts[i]; t < source.tagStarts[i + 1]; t++) {
+                entityTags.add(source.strings[source.tags[t]]);
+            }
+            int v = i * 3;
+            entity(
+                source.string(source.entityIds[i]), source.string(source.entityNames[i]),
+                source.string(source.entityModels[i]), source.string(source.entityTextures[i]),
+                Arrays.copyOfRange(source.entityPositions, v, v + 3),
+                Arrays.copyOfRange(source.entityRotations, v, v + 3),
+                Arrays.copyOfRange(source.entityScales, v, v + 3),
+                source.entityProperties[i], entityTags
+            );
+        }
+
+        /**
+         * Adds a spawn point.
+         */
+        void spawn(String id, String name, float[] position, float[] rotation) {
+            if (spawnCount == spawnIds.length) {
+                int capacity = spawnCount * 2;
+                spawnIds = Arrays.copyOf(spawnIds, capacity);
+                spawnNames = Arrays.copyOf(spawnNames, capacity);
+                spawnPositions = Arrays.copyOf(spawnPositions, capacity * 3);
+                spawnRotations = Arrays.copyOf(spawnRotations, capacity * 3);
+            }
+            int i = spawnCount++;
+            spawnIds[i] = string(id);
+            spawnNames[i] = string(name);
+            System.arraycopy(position, 0, spawnPositions, i * 3, 3);
+            System.arraycopy(rotation, 0, spawnRotations, i * 3, 3);
+        }
+
+        /**
+         * Finishes the level.
+         *
+         * @return The level with every array trimmed to its contents
+         */
+        BinaryLevel build() {
+            level.strings = Arrays.copyOf(strings, stringCount);
+            level.entityCount = entityCount;
+            level.entityIds = Arrays.copyOf(entityIds, entityCount);
+            level.entityNames = Arrays.copyOf(entityNames, entityCount);
+            level.entityModels = Arrays.copyOf(entityModels, entityCount);
+            level.entityTextures = Arrays.copyOf(entityTextures, entityCount);
+            level.entityPositions = Arrays.copyOf(entityPositions, entityCount * 3);
+            level.entityRotations = Arrays.copyOf(entityRotations, entityCount * 3);
+            level.entityScales = Arrays.copyOf(entityScales, entityCount * 3);
+            level.entityProperties = Arrays.copyOf(entityProperties, entityCount);
+            level.tagStarts = Arrays.copyOf(tagStarts, entityCount + 1);
+            level.tags = Arrays.copyOf(tags, tagCount);
+            level.spawnCount = spawnCount;
+            level.spawnIds = Arrays.copyOf(spawnIds, spawnCount);
+            level.spawnNames = Arrays.copyOf(spawnNames, spawnCount);
+            level.spawnPositions = Arrays.copyOf(spawnPositions, spawnCount * 3);
+            level.spawnRotations = Arrays.copyOf(spawnRotations, spawnCount * 3);
+            return level;
+        }
+    }
+}
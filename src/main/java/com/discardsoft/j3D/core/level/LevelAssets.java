@@ -0,0 +1,247 @@
+package com.discardsoft.j3D.core.level;
+
+import com.discardsoft.j3D.core.ObjectLoader;
+import com.discardsoft.j3D.core.asset.AssetPipeline;
+import com.discardsoft.j3D.core.asset.MeshData;
+import com.discardsoft.j3D.core.asset.PendingUpload;
+import com.discardsoft.j3D.core.entity.Model;
+import com.discardsoft.j3D.core.entity.Texture;
+import com.discardsoft.j3D.core.scene.StaticBatcher;
+import com.discardsoft.j3D.core.utils.LoadModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The unique assets of a level or region, collected before any entity is created.
+ * <p>
+ * Loading a level entity by entity loads each model on first use, one
+ * after another on the render thread. Collecting the distinct models,
+ * textures and static geometry first lets {@link #load(ObjectLoader)}
+ * decode all of them in parallel on the asset pipeline's workers and
+ * upload each once, after which creating the entities only hits the
+ * cache. Load time then depends on the number of distinct assets and
+ * cores rather than on the number of entities.
+ * </p>
+ * <p>
+ * Entities that will be merged into static batches only need their
+ * texture and CPU-side geometry, so no model is loaded for them.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+final class LevelAssets {
+
+    /** Texture names, in first use order */
+    private final Set<String> textures = new LinkedHashSet<>();
+
+    /** Texture names used with each model name by entities that are not batched */
+    private final Map<String, Set<String>> models = new LinkedHashMap<>();
+
+    /** Names of the models used by entities that may be batched */
+    private final Set<String> staticModels = new LinkedHashSet<>();
+
+    /** Names of the textures used by entities that may be batched */
+    private final Set<String> staticTextures = new LinkedHashSet<>();
+
+    /** Array textures packed by {@link #load(ObjectLoader)}, holding one reference each */
+    private List<Texture> packedTextures = Collections.emptyList();
+
+    /** One model per model and texture, holding its assets while they load */
+    private final List<Model> requested = new ArrayList<>();
+
+    /** Loads of the textures of batched entities, each holding a reference once complete, by name */
+    private final Map<String, CompletableFuture<Texture>> textureLoads = new LinkedHashMap<>();
+
+    /** Parsed geometry of the static models, by model name */
+    private final Map<String, MeshData> meshes = new HashMap<>();
+
+    /**
+     * Collects the assets of every entity of a binary level or region.
+     *
+     * @param level The level
+     * @return The assets
+     */
+    static LevelAssets of(BinaryLevel level) {
+        LevelAssets assets = new LevelAssets();
+        for (int i = 0; i < level.entityCount; i++) {
+            assets.add(level.string(level.entityModels[i]), level.string(level.entityTextures[i]),
+                       level.entityProperties[i]);
+        }
+        return assets;
+    }
+
+    /**
+     * Adds the assets of an entity.
+     *
+     * @param model The model name
+     * @param customTexture The texture name, or null to use the model name
+     * @param properties The entity's {@code BinaryLevel.PROPERTY_} bits
+     */
+    void add(String model, String customTexture, int properties) {
+        String texture = customTexture != null ? customTexture : model;
+        textures.add(texture);
+        // Entities whose texture turns out to be transparent load their model when they are created
+        boolean transparent = (properties & BinaryLevel.PROPERTY_TRANSPARENCY_OVERRIDE) != 0
+                           && (properties & BinaryLevel.PROPERTY_TRANSPARENT) != 0;
+        boolean billboard = (properties & (BinaryLevel.PROPERTY_BILLBOARD_Y | BinaryLevel.PROPERTY_BILLBOARD_FULL)) != 0;
+        if (StaticBatcher.canBatch((properties & BinaryLevel.PROPERTY_STATIC) != 0, billboard, transparent)) {
+            staticModels.add(model);
+            staticTextures.add(texture);
+        } else {
+            models.computeIfAbsent(model, name -> new LinkedHashSet<>()).add(texture);
+        }
+    }
+
+    /**
+     * Loads every asset, decoding on the asset pipeline's workers and uploading on the calling thread.
+     * <p>
+     * Small textures are packed into array textures first, so the models
+     * use the layers. Returns once everything is uploaded. Must be called
+     * on the thread owning the OpenGL context, and {@link #release()} must
+     * be called once the entities have been created.
+     * </p>
+     *
+     * @param objectLoader The loader reading the geometry of static models
+     * @throws Exception If the geometry of a static model cannot be read
+     */
+    void load(ObjectLoader objectLoader) throws Exception {
+        AssetPipeline pipeline = LoadModel.getPipeline();
+        // Read the batching geometry on the workers while the textures are packed
+        Map<String, CompletableFuture<MeshData>> parsing = new LinkedHashMap<>();
+        for (String model : staticModels) {
+            parsing.put(model, pipeline.load(() -> {
+                MeshData mesh = objectLoader.readOBJ(LoadModel.MODELS_PATH + model + ".obj");
+                return (PendingUpload<MeshData>) () -> mesh;
+            }));
+        }
+        packedTextures = LoadModel.packTextures(textures);
+        request();
+        pipeline.awaitAll();
+        for (Map.Entry<String, CompletableFuture<MeshData>> mesh : parsing.entrySet()) {
+            meshes.put(mesh.getKey(), pipeline.await(mesh.getValue()));
+        }
+        releaseUnresolved();
+    }
+
+    /**
+     * Starts loading every model with each of its textures, and the textures of batched entities, without waiting for them.
+     */
+    void request() {
+        for (Map.Entry<String, Set<String>> model : models.entrySet()) {
+            for (String texture : model.getValue()) {
+                requested.add(LoadModel.modelAsync(model.getKey(), texture));
+            }
+        }
+        for (String texture : staticTextures) {
+            textureLoads.put(texture, LoadModel.textureAsync(texture));
+        }
+    }
+
+    /**
+     * Checks whether every requested model and texture has been uploaded.
+     *
+     * @return True if no requested model is still a placeholder and no texture is still loading
+     */
+    boolean isResident() {
+        for (Model model : requested) {
+            if (!model.isResident()) {
+                return false;
+            }
+        }
+        for (CompletableFuture<Texture> texture : textureLoads.values()) {
+            if (!texture.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gives back the requested models and textures that are not loaded, so they
+     * are tried again, or fall back to the error model, when the entities are created.
+     */
+    void releaseUnresolved() {
+        Iterator<Model> models = requested.iterator();
+        while (models.hasNext()) {
+            Model model = models.next();
+            if (!model.isResident()) {
+                LoadModel.release(model);
+                models.remove();
+            }
+        }
+        Iterator<CompletableFuture<Texture>> textures = textureLoads.values().iterator();
+        while (textures.hasNext()) {
+            CompletableFuture<Texture> texture = textures.next();
+            if (texture.cancel(false) || texture.isCompletedExceptionally()) {
+                textures.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets a loaded texture of a batched entity.
+     *
+     * @param name The texture name
+     * @return The texture, or null if it was not requested or did not load
+     */
+    Texture getTexture(String name) {
+        CompletableFuture<Texture> texture = textureLoads.get(name);
+        return texture != null && texture.isDone() && !texture.isCompletedExceptionally() ? texture.join() : null;
+    }
+
+    /**
+     * Reads the geometry of the static models on the calling thread, which may be a worker,
+     * through the loader's mesh cache.
+     *
+     * @param objectLoader The loader reading the geometry
+     * @return The geometry by model name
+     * @throws Exception If a model cannot be read
+     */
+    Map<String, MeshData> readStaticMeshes(ObjectLoader objectLoader) throws Exception {
+        for (String model : staticModels) {
+            meshes.put(model, objectLoader.readOBJ(LoadModel.MODELS_PATH + model + ".obj"));
+        }
+        return meshes;
+    }
+
+    /**
+     * Gets the parsed geometry of the static models.
+     *
+     * @return The geometry by model name, to be filled in with any model still missing
+     */
+    Map<String, MeshData> getMeshes() {
+        return meshes;
+    }
+
+    /**
+     * Gives back the references held on the packed textures and requested models,
+     * once the entities hold their own.
+     */
+    void release() {
+        LoadModel.releaseTextures(packedTextures);
+        packedTextures = Collections.emptyList();
+        for (Model model : requested) {
+            LoadModel.release(model);
+        }
+        requested.clear();
+        List<Texture> loaded = new ArrayList<>();
+        for (CompletableFuture<Texture> texture : textureLoads.values()) {
+            // A load that is cancelled gives its reference back itself
+            if (!texture.cancel(false) && !texture.isCompletedExceptionally()) {
+                loaded.add(texture.join());
+            }
+        }
+        LoadModel.releaseTextures(loaded);
+        textureLoads.clear();
+    }
+}
@@ -0,0 +1,366 @@
+package com.discardsoft.j3D.core.level;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts levels between the JSON authoring format and the binary {@code .j3db} shipping format.
+ * <p>
+ * Levels are edited as JSON and converted to binary for shipping builds,
+ * which {@link LevelLoader} loads without parsing. Converting back gives
+ * JSON in the format {@link LevelLoader} writes. JSON vectors may be
+ * objects ({@code {"x": 0, "y": 0, "z": 0}} or {@code {"r", "g", "b"}}) or
+ * arrays ({@code [0, 0, 0]}).
+ * </p>
+ * <p>
+ * Large levels can instead be converted to a region level ({@code .j3dr}),
+ * whose regions are compressed separately and loaded on demand. Region
+ * levels cannot be converted back, so the JSON stays the source.
+ * </p>
+ * <p>
+ * Run from the command line with the input and output files, and
+ * optionally the region size; the conversion follows from the extensions:
+ * </p>
+ * <pre>
+ * java com.discardsoft.j3D.core.level.LevelConverter level.j3dl level.j3db
+ * java com.discardsoft.j3D.core.level.LevelConverter level.j3dl level.j3dr 256
+ * </pre>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public final class LevelConverter {
+
+    /**
+     * Private constructor to prevent instantiation of utility class.
+     */
+    private LevelConverter() {
+        throw new UnsupportedOperationException("Utility class cannot be instantiated");
+    }
+
+    /**
+     * Converts level files given on the command line.
+     *
+     * @param args The input file, the output file and optionally the region size
+     * @throws Exception If a level cannot be read or written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length > 3 || args[0].endsWith(RegionLevel.EXTENSION)) {
+            System.err.println("Usage: LevelConverter <input.j3dl|input.j3db> <output.j3dl|output.j3db|output.j3dr> [region size]");
+            System.exit(1);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        boolean binaryInput = args[0].endsWith(BinaryLevel.EXTENSION);
+        if (args[1].endsWith(RegionLevel.EXTENSION)) {
+            float regionSize = args.length == 3 ? Float.parseFloat(args[2]) : RegionLevel.DEFAULT_REGION_SIZE;
+            RegionLevel.write(output, binaryInput ? readBinary(input) : readJson(input), regionSize);
+        } else if (binaryInput) {
+            binaryToJson(input, output);
+        } else {
+            jsonToBinary(input, output);
+        }
+        System.out.println("Converted " + input + " to " + output);
+    }
+
+    /**
+     * Converts a JSON level to a binary level.
+     * <p>
+     * The JSON is streamed, so only one entity is held as JSON at a time.
+     * </p>
+     *
+     * @param json The JSON level file
+     * @param binary The binary level file to write
+     * @throws Exception If the JSON cannot be read or is not a valid level
+     */
+    public static void jsonToBinary(Path json, Path binary) throws Exception {
+        readJson(json).write(binary);
+    }
+
+    /**
+     * Converts a JSON level to a region level.
+     *
+     * @param json The JSON level file
+     * @param regions The region level file to write
+     * @param regionSize The edge length of a region in world units
+     * @throws Exception If the JSON cannot be read or is not a valid level
+     */
+    public static void jsonToRegions(Path json, Path regions, float regionSize) throws Exception {
+        RegionLevel.write(regions, readJson(json), regionSize);
+    }
+
+    /**
+     * Streams a JSON level into a binary level.
+     */
+    private static BinaryLevel readJson(Path json) throws Exception {
+        BinaryLevel.Builder builder = new BinaryLevel.Builder();
+        try (Reader input = Files.newBufferedReader(json, StandardCharsets.UTF_8)) {
+            JsonReader reader = new JsonReader(input);
+            reader.setLenient(true);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "metadata":
+                        JsonObject metadata = JsonParser.parseReader(reader).getAsJsonObject();
+                        builder.metadata(
+                            getString(metadata, "name"), getString(metadata, "description"),
+                            getString(metadata, "version"), getString(metadata, "author"),
+                            getString(metadata, "created"), getString(metadata, "modified")
+                        );
+                        break;
+                    case "lighting":
+                        JsonObject lighting = JsonParser.parseReader(reader).getAsJsonObject();
+                        builder.lighting(
+                            readVector(lighting, "position", "lighting", "x", "y", "z"),
+                            readVector(lighting, "color", "lighting", "r", "g", "b"),
+                            readVector(lighting, "ambient", "lighting", "r", "g", "b")
+                        );
+                        break;
+                    case "terrain":
+                        JsonObject terrain = JsonParser.parseReader(reader).getAsJsonObject();
+                        if (terrain.has("enabled") && terrain.get("enabled").getAsBoolean()) {
+                            builder.terrain(
+                                require(terrain, "size", "terrain").getAsFloat(),
+                                require(terrain, "gridCount", "terrain").getAsInt(),
+                                require(terrain, "height", "terrain").getAsFloat(),
+                                readVector(terrain, "position", "terrain", "x", "y", "z"),
+                                require(terrain, "texture", "terrain").getAsString(),
+                                require(terrain, "textureRepeat", "terrain").getAsFloat()
+                            );
+                        }
+                        break;
+                    case "entities":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            addEntity(builder, JsonParser.parseReader(reader).getAsJsonObject());
+                        }
+                        reader.endArray();
+                        break;
+                    case "spawns":
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            JsonObject spawn = JsonParser.parseReader(reader).getAsJsonObject();
+                            String owner = "spawn " + getString(spawn, "id");
+                            builder.spawn(
+                                getString(spawn, "id"), getString(spawn, "name"),
+                                readVector(spawn, "position", owner, "x", "y", "z"),
+                                readVector(spawn, "rotation", owner, "x", "y", "z")
+                            );
+                        }
+                        reader.endArray();
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | UnsupportedOperationException | NumberFormatException e) {
+            throw new Exception("Invalid level file " + json + ": " + e.getMessage(), e);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Reads a binary level file.
+     */
+    private static BinaryLevel readBinary(Path binary) throws Exception {
+        try (FileChannel channel = FileChannel.open(binary, StandardOpenOption.READ)) {
+            return BinaryLevel.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Converts a binary level to a pretty-printed JSON level.
+     *
+     * @param binary The binary level file
+     * @param json The JSON level file to write
+     * @throws Exception If the binary level cannot be read or the JSON cannot be written
+     */
+    public static void binaryToJson(Path binary, Path json) throws Exception {
+        BinaryLevel level = readBinary(binary);
+
+        JsonObject levelData = new JsonObject();
+        if (level.metadata != null) {
+            String[] keys = {"name", "description", "version", "author", "created", "modified"};
+            JsonObject metadata = new JsonObject();
+            for (int i = 0; i < keys.length; i++) {
+                if (level.metadata[i] != BinaryLevel.NONE) {
+                    metadata.addProperty(keys[i], level.string(level.metadata[i]));
+                }
+            }
+            levelData.add("metadata", metadata);
+        }
+
+        if (level.lighting != null) {
+            JsonObject lighting = new JsonObject();
+            lighting.add("position", vectorToJson(level.lighting, 0, "x", "y", "z"));
+            lighting.add("color", vectorToJson(level.lighting, 3, "r", "g", "b"));
+            lighting.add("ambient", vectorToJson(level.lighting, 6, "r", "g", "b"));
+            levelData.add("lighting", lighting);
+        }
+
+        JsonObject terrain = new JsonObject();
+        terrain.addProperty("enabled", level.terrainEnabled);
+        if (level.terrainEnabled) {
+            terrain.addProperty("size", level.terrainSize);
+            terrain.addProperty("gridCount", level.terrainGridCount);
+            terrain.addProperty("height", level.terrainHeight);
+            terrain.add("position", vectorToJson(level.terrainPosition, 0, "x", "y", "z"));
+            terrain.addProperty("texture", level.string(level.terrainTexture));
+            terrain.addProperty("textureRepeat", level.terrainTextureRepeat);
+        }
+        levelData.add("terrain", terrain);
+
+        JsonArray entities = new JsonArray();
+        for (int i = 0; i < level.entityCount; i++) {
+            JsonObject entity = new JsonObject();
+            entity.addProperty("id", level.string(level.entityIds[i]));
+            entity.addProperty("name", level.string(level.entityNames[i]));
+            entity.addProperty("model", level.string(level.entityModels[i]));
+            entity.add("position", vectorToJson(level.entityPositions, i * 3, "x", "y", "z"));
+            entity.add("rotation", vectorToJson(level.entityRotations, i * 3, "x", "y", "z"));
+            entity.add("scale", vectorToJson(level.entityScales, i * 3, "x", "y", "z"));
+
+            int bits = level.entityProperties[i];
+            JsonObject properties = new JsonObject();
+            if ((bits & BinaryLevel.PROPERTY_TRANSPARENCY_OVERRIDE) != 0) {
+                properties.addProperty("hasTransparentTexture", (bits & BinaryLevel.PROPERTY_TRANSPARENT) != 0);
+            }
+            properties.addProperty("billboardY", (bits & BinaryLevel.PROPERTY_BILLBOARD_Y) != 0);
+            properties.addProperty("billboardFull", (bits & BinaryLevel.PROPERTY_BILLBOARD_FULL) != 0);
+            properties.addProperty("static", (bits & BinaryLevel.PROPERTY_STATIC) != 0);
+            entity.add("properties", properties);
+
+            if (level.entityTextures[i] != BinaryLevel.NONE) {
+                entity.addProperty("customTexture", level.string(level.entityTextures[i]));
+            }
+            JsonArray tags = new JsonArray();
+            for (int t = level.tagStarts[i]; t < level.tagStarts[i + 1]; t++) {
+                tags.add(level.string(level.tags[t]));
+            }
+            entity.add("tags", tags);
+            entities.add(entity);
+        }
+        levelData.add("entities", entities);
+
+        JsonArray spawns = new JsonArray();
+        for (int i = 0; i < level.spawnCount; i++) {
+            JsonObject spawn = new JsonObject();
+            spawn.addProperty("id", level.string(level.spawnIds[i]));
+            spawn.addProperty("name", level.string(level.spawnNames[i]));
+            spawn.add("position", vectorToJson(level.spawnPositions, i * 3, "x", "y", "z"));
+            spawn.add("rotation", vectorToJson(level.spawnRotations, i * 3, "x", "y", "z"));
+            spawns.add(spawn);
+        }
+        levelData.add("spawns", spawns);
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = Files.newBufferedWriter(json, StandardCharsets.UTF_8)) {
+            gson.toJson(levelData, writer);
+        }
+    }
+
+    /**
+     * Adds a JSON entity to a binary level.
+     */
+    private static void addEntity(BinaryLevel.Builder builder, JsonObject entity) throws Exception {
+        String owner = "entity " + getString(entity, "id");
+        if (getString(entity, "model") == null) {
+            throw new Exception("Entity " + getString(entity, "id") + " has no model");
+        }
+        List<String> tags = new ArrayList<>();
+        if (entity.has("tags")) {
+            for (JsonElement tag : entity.getAsJsonArray("tags")) {
+                tags.add(tag.getAsString());
+            }
+        }
+        builder.entity(
+            getString(entity, "id"), getString(entity, "name"),
+            getString(entity, "model"), getString(entity, "customTexture"),
+            readVector(entity, "position", owner, "x", "y", "z"),
+            readVector(entity, "rotation", owner, "x", "y", "z"),
+            readVector(entity, "scale", owner, "x", "y", "z"),
+            BinaryLevel.readProperties(entity.getAsJsonObject("properties")),
+            tags
+        );
+    }
+
+    /**
+     * Reads a vector member written as an object with the given keys or as an array.
+     *
+     * @param object The object holding the vector
+     * @param key The name of the vector member
+     * @param owner What the object is, for error messages
+     * @throws Exception If the vector or one of its components is missing
+     */
+    private static float[] readVector(JsonObject object, String key, String owner, String x, String y, String z) throws Exception {
+        JsonElement element = require(object, key, owner);
+        if (element.isJsonArray()) {
+            JsonArray array = element.getAsJsonArray();
+            if (array.size() != 3) {
+                throw new Exception("Field " + key + " of " + owner + " must have 3 components");
+            }
+            return new float[] {array.get(0).getAsFloat(), array.get(1).getAsFloat(), array.get(2).getAsFloat()};
+        }
+        JsonObject vector = element.getAsJsonObject();
+        String vectorOwner = owner + " " + key;
+        return new float[] {
+            require(vector, x, vectorOwner).getAsFloat(),
+            require(vector, y, vectorOwner).getAsFloat(),
+            require(vector, z, vectorOwner).getAsFloat()
+        };
+    }
+
+    /**
+     * Gets a member that a valid level must have.
+     *
+     * @param object The object holding the member
+     * @param key The name of the member
+     * @param owner What the object is, for error messages
+     * @return The member, never null or JSON null
+     * @throws Exception If the member is missing
+     */
+    private static JsonElement require(JsonObject object, String key, String owner) throws Exception {
+        JsonElement element = object.get(key);
+        if (element == null || element.isJsonNull()) {
+            throw new Exception("Missing field " + key + " of " + owner);
+        }
+        return element;
+    }
+
+    /**
+     * Writes 3 floats of an array as an object with the given keys.
+     */
+    private static JsonObject vectorToJson(float[] values, int offset, String x, String y, String z) {
+        JsonObject object = new JsonObject();
+        object.addProperty(x, values[offset]);
+        object.addProperty(y, values[offset + 1]);
+        object.addProperty(z, values[offset + 2]);
+        return object;
+    }
+
+    /**
+     * Gets a string member, or null if it is missing or null.
+     */
+    private static String getString(JsonObject object, String key) {
+        JsonElement element = object.get(key);
+        return element != null && !element.isJsonNull() ? element.getAsString() : null;
+    }
+}
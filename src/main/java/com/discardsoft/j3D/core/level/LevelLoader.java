@@ -1,26 +1,42 @@
 package com.discardsoft.j3D.core.level;
 
 import com.discardsoft.j3D.core.ObjectLoader;
+import com.discardsoft.j3D.core.asset.MeshData;
 import com.discardsoft.j3D.core.entity.Entity;
 import com.discardsoft.j3D.core.entity.Light;
 import com.discardsoft.j3D.core.entity.Model;
+import com.discardsoft.j3D.core.entity.Texture;
 import com.discardsoft.j3D.core.entity.terrain.Terrain;
 import com.discardsoft.j3D.core.entity.terrain.TerrainEntity;
 import com.discardsoft.j3D.core.scene.BaseScene;
+import com.discardsoft.j3D.core.scene.StaticBatcher;
 import com.discardsoft.j3D.core.utils.LoadModel;
-import com.discardsoft.j3D.core.utils.Utils;
 import org.joml.Vector3f;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Handles loading and saving of j3D level files.
@@ -38,6 +54,12 @@ public class LevelLoader {
     private final Gson gson;
     private final ObjectLoader objectLoader;
     
+    /** The region level loaded last, whose regions {@link #loadRegion(int, int)} loads */
+    private RegionLevel regions;
+    
+    /** The level the regions are added to */
+    private LoadedLevel regionLevel;
+    
     /**
      * Creates a new level loader with the specified object loader.
      *
@@ -51,84 +73,516 @@ public class LevelLoader {
     }
     
     /**
-     * Loads a level from a JSON file and creates a scene.
+     * Loads a level from a JSON or binary file and creates a scene.
+     * <p>
+     * JSON files are streamed, so entities, spawn points and terrain are
+     * created as they are read and only one entity's JSON is held at a time.
+     * The file is read twice: first to collect its distinct models and
+     * textures, which are decoded in parallel on the asset pipeline's
+     * workers and uploaded once, then to create the entities.
+     * </p>
+     * <p>
+     * Files ending in {@code .j3db} are binary levels written by
+     * {@link LevelConverter}. They are memory-mapped when on the filesystem
+     * and read one array per field, without any parsing.
+     * </p>
+     * <p>
+     * Files ending in {@code .j3dr} are region levels. Only the metadata,
+     * lighting, terrain and spawn points are loaded; entities are loaded a
+     * region at a time with {@link #loadRegion(int, int)} or
+     * {@link #loadRegionsAround(Vector3f, float)}.
+     * </p>
+     * <p>
+     * Any load closes the region level loaded before, so streaming from it
+     * must be stopped first.
+     * </p>
      *
      * @param levelPath The path to the level file
      * @return A loaded scene containing all level data
      * @throws Exception If the level file cannot be loaded or parsed
+     * @see #openLevel(String)
      */
     public LoadedLevel loadLevel(String levelPath) throws Exception {
-        String jsonContent;
-        
-        // Check if the path is a filesystem path (starts with a drive letter, slash, or relative path)
-        if (levelPath.startsWith("/") || levelPath.contains(":") || levelPath.startsWith("src/")) {
-            // Load from filesystem
+        closeRegionLevel();
+        if (levelPath.endsWith(BinaryLevel.EXTENSION)) {
+            return loadLevel(BinaryLevel.read(readLevelData(levelPath)));
+        }
+        if (levelPath.endsWith(RegionLevel.EXTENSION)) {
+            RegionLevel level = openRegionLevel(levelPath);
+            try {
+                LoadedLevel loadedLevel = loadLevel(level.readGlobal());
+                regions = level;
+                regionLevel = loadedLevel;
+                return loadedLevel;
+            } catch (Exception e) {
+                level.close();
+                throw e;
+            }
+        }
+        LevelAssets assets;
+        try (InputStream input = openLevel(levelPath)) {
+            assets = readAssets(input);
+        }
+        try {
+            // Load every distinct asset once, in parallel, so creating the entities only hits the cache
+            assets.load(objectLoader);
+            try (InputStream input = openLevel(levelPath)) {
+                return loadLevel(input, assets);
+            }
+        } finally {
+            assets.release();
+        }
+    }
+
+    /**
+     * Loads a level from a stream of JSON and creates a scene.
+     * <p>
+     * Entities, spawn points and terrain are created as their tokens are
+     * read, so memory use does not grow with the size of the file beyond the
+     * loaded objects themselves. Unlike {@link #loadLevel(String)}, assets
+     * are neither loaded ahead in parallel nor packed into array textures,
+     * since the stream cannot be read twice. The stream is not closed, but
+     * the region level loaded before is.
+     * </p>
+     *
+     * @param input The level file's bytes in UTF-8, for example from {@link #openLevel(String)}
+     * @return A loaded scene containing all level data
+     * @throws Exception If the level cannot be read or parsed
+     */
+    public LoadedLevel loadLevel(InputStream input) throws Exception {
+        closeRegionLevel();
+        return loadLevel(input, new LevelAssets());
+    }
+
+    /**
+     * Loads the entities of one region of the region level loaded last.
+     * <p>
+     * Only the region's block is decompressed, so the time and memory this
+     * takes depend on the region, not on the size of the world. The
+     * entities are added to the scene of the level returned by
+     * {@link #loadLevel(String)}, and static ones are batched per region so
+     * the region can be unloaded again.
+     * </p>
+     *
+     * @param x The region X coordinate, the world X position divided by the region size and rounded down
+     * @param z The region Z coordinate, the world Z position divided by the region size and rounded down
+     * @return The loaded region, or null if the region holds no entities
+     * @throws Exception If no region level is loaded or the region cannot be read
+     * @see #unloadRegion(LoadedRegion)
+     */
+    public LoadedRegion loadRegion(int x, int z) throws Exception {
+        if (regions == null) {
+            throw new Exception("No region level is loaded");
+        }
+        RegionLevel.Region region = regions.getRegion(x, z);
+        if (region == null) {
+            return null;
+        }
+        return loadRegion(region);
+    }
+
+    /**
+     * Checks whether the level loaded last is a region level.
+     *
+     * @return True if regions can be loaded
+     * @see WorldStreamer
+     */
+    public boolean hasRegionLevel() {
+        return regions != null;
+    }
+
+    /**
+     * Loads every region of the region level loaded last whose entities are near a position.
+     *
+     * @param position The position, for example a spawn point
+     * @param distance The distance on the XZ plane within which regions are loaded, in world units
+     * @return The loaded regions
+     * @throws Exception If no region level is loaded or a region cannot be read
+     */
+    public List<LoadedRegion> loadRegionsAround(Vector3f position, float distance) throws Exception {
+        if (regions == null) {
+            throw new Exception("No region level is loaded");
+        }
+        List<LoadedRegion> loaded = new ArrayList<>();
+        for (RegionLevel.Region region : regions.getRegions()) {
+            if (region.distanceSquared(position.x, position.z) <= distance * distance) {
+                loaded.add(loadRegion(region));
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Removes the entities of a region from the scene and releases their assets.
+     *
+     * @param region A region from {@link #loadRegion(int, int)}
+     */
+    public void unloadRegion(LoadedRegion region) {
+        LoadedScene scene = region.level.scene;
+        for (Entity entity : region.sceneEntities) {
+            scene.removeEntity(entity);
+            LoadModel.release(entity.getModel());
+        }
+        for (Entity batch : region.batches) {
+            scene.removeStaticBatch(batch);
+            Texture texture = batch.getModel().getTexture();
+            if (texture != null) {
+                LoadModel.getAssets().releaseTexture(texture);
+            }
+            objectLoader.unloadModel(batch.getModel());
+        }
+        region.level.entities.removeAll(new HashSet<>(region.entities));
+        region.level.staticEntities.removeAll(new HashSet<>(region.staticEntities));
+        region.sceneEntities.clear();
+        region.batches.clear();
+        region.entities.clear();
+        region.staticEntities.clear();
+    }
+
+    /**
+     * Gets the region level loaded last.
+     */
+    RegionLevel getRegionLevel() {
+        return regions;
+    }
+
+    /**
+     * Reads the geometry of every model used by a static entity of a region, for batching,
+     * through the mesh cache.
+     * Only reads files, so it can run on a worker thread.
+     */
+    void readStaticMeshes(LevelAssets assets) throws Exception {
+        assets.readStaticMeshes(objectLoader);
+    }
+
+    /**
+     * Reads a region and loads its assets before creating its entities.
+     */
+    private LoadedRegion loadRegion(RegionLevel.Region region) throws Exception {
+        BinaryLevel data = regions.readRegion(region);
+        LevelAssets assets = LevelAssets.of(data);
+        try {
+            assets.load(objectLoader);
+            return addRegion(region, data, assets);
+        } finally {
+            assets.release();
+        }
+    }
+
+    /**
+     * Creates the entities of a decompressed region and adds them to the region level's scene.
+     * Must be called on the thread owning the GL context, with the region's assets loaded or loading.
+     *
+     * @param assets The region's assets; missing geometry and textures are loaded as needed
+     */
+    private LoadedRegion addRegion(RegionLevel.Region region, BinaryLevel data, LevelAssets assets) throws Exception {
+        LoadedRegion loaded = new LoadedRegion(region.x, region.z, regionLevel);
+        addEntities(data, new StaticEntities(regionLevel, loaded, assets, false));
+        return loaded;
+    }
+
+    /**
+     * Starts adding a decompressed region to the region level's scene a few entities at a time.
+     * Nothing is loaded on the calling thread: assets that are not resident are
+     * acquired as placeholders, so the region's assets should be resident first.
+     *
+     * @param assets The region's assets
+     * @return The insertion, to be advanced once per frame on the thread owning the GL context
+     */
+    RegionInsertion insertRegion(RegionLevel.Region region, BinaryLevel data, LevelAssets assets) {
+        LoadedRegion loaded = new LoadedRegion(region.x, region.z, regionLevel);
+        return new RegionInsertion(data, loaded, new StaticEntities(regionLevel, loaded, assets, true));
+    }
+
+    /**
+     * Opens a level file as a stream.
+     * <p>
+     * Filesystem paths (absolute, with a drive letter, or starting with
+     * {@code src/}) are read through a file channel, falling back to the
+     * classpath when the file cannot be opened. Other paths are classpath
+     * resources.
+     * </p>
+     *
+     * @param levelPath The path to the level file
+     * @return The stream, to be closed by the caller
+     * @throws Exception If the level file cannot be found
+     */
+    public static InputStream openLevel(String levelPath) throws Exception {
+        if (isFilePath(levelPath)) {
             try {
-                jsonContent = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(levelPath)));
+                return Channels.newInputStream(FileChannel.open(Paths.get(levelPath), StandardOpenOption.READ));
             } catch (Exception e) {
                 // If filesystem loading fails, try classpath loading as fallback
                 System.out.println("Filesystem loading failed for " + levelPath + ", trying classpath...");
-                jsonContent = Utils.loadResource(levelPath.startsWith("/") ? levelPath : "/" + levelPath);
             }
-        } else {
-            // Load from classpath resources
-            jsonContent = Utils.loadResource(levelPath.startsWith("/") ? levelPath : "/" + levelPath);
         }
-        
-        JsonObject levelData = gson.fromJson(jsonContent, JsonObject.class);
-        
-        LoadedLevel level = new LoadedLevel();
-        
-        // Load metadata
-        if (levelData.has("metadata")) {
-            JsonObject metadata = levelData.getAsJsonObject("metadata");
-            level.metadata = new LevelMetadata();
-            level.metadata.name = getStringOrDefault(metadata, "name", "Untitled Level");
-            level.metadata.description = getStringOrDefault(metadata, "description", "");
-            level.metadata.version = getStringOrDefault(metadata, "version", "1.0");
-            level.metadata.author = getStringOrDefault(metadata, "author", "Unknown");
-            level.metadata.created = getStringOrDefault(metadata, "created", "");
-            level.metadata.modified = getStringOrDefault(metadata, "modified", "");
-        }
-        
-        // Load lighting
-        Light light = loadLight(levelData);
-        level.scene = new LoadedScene(light);
-        
-        // Load terrain
-        if (levelData.has("terrain")) {
-            JsonObject terrainData = levelData.getAsJsonObject("terrain");
-            if (terrainData.get("enabled").getAsBoolean()) {
-                TerrainEntity terrain = loadTerrain(terrainData);
+        String resource = levelPath.startsWith("/") ? levelPath : "/" + levelPath;
+        InputStream input = LevelLoader.class.getResourceAsStream(resource);
+        if (input == null) {
+            throw new Exception("Resource not found: " + resource);
+        }
+        return input;
+    }
+
+    /**
+     * Checks if a level path is a filesystem path (starts with a drive letter, slash, or relative path).
+     */
+    private static boolean isFilePath(String levelPath) {
+        return levelPath.startsWith("/") || levelPath.contains(":") || levelPath.startsWith("src/");
+    }
+
+    /**
+     * Opens a region level, reading its regions through the file when it is on the filesystem.
+     */
+    private static RegionLevel openRegionLevel(String levelPath) throws Exception {
+        if (isFilePath(levelPath) && Files.isRegularFile(Paths.get(levelPath))) {
+            return RegionLevel.open(Paths.get(levelPath));
+        }
+        return RegionLevel.open(readLevelData(levelPath));
+    }
+
+    /**
+     * Forgets the region level loaded last and closes its file.
+     */
+    private void closeRegionLevel() {
+        if (regions != null) {
+            try {
+                regions.close();
+            } catch (IOException e) {
+                System.err.println("Could not close region level: " + e.getMessage());
+            }
+        }
+        regions = null;
+        regionLevel = null;
+    }
+
+    /**
+     * Reads a binary or region level file, memory-mapping it when it is on the filesystem.
+     */
+    private static ByteBuffer readLevelData(String levelPath) throws Exception {
+        if (isFilePath(levelPath)) {
+            try (FileChannel channel = FileChannel.open(Paths.get(levelPath), StandardOpenOption.READ)) {
+                // The mapping stays valid after the channel is closed
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (IOException e) {
+                System.out.println("Filesystem loading failed for " + levelPath + ", trying classpath...");
+            }
+        }
+        String resource = levelPath.startsWith("/") ? levelPath : "/" + levelPath;
+        try (InputStream input = LevelLoader.class.getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new Exception("Resource not found: " + resource);
+            }
+            return ByteBuffer.wrap(input.readAllBytes());
+        }
+    }
+
+    /**
+     * Creates the objects of a binary level.
+     */
+    private LoadedLevel loadLevel(BinaryLevel data) throws Exception {
+        LevelAssets assets = LevelAssets.of(data);
+        try {
+            assets.load(objectLoader);
+            LoadedLevel level = new LoadedLevel();
+            level.scene = new LoadedScene(new Light());
+            if (data.metadata != null) {
+                LevelMetadata metadata = new LevelMetadata();
+                metadata.name = stringOrDefault(data.string(data.metadata[0]), "Untitled Level");
+                metadata.description = stringOrDefault(data.string(data.metadata[1]), "");
+                metadata.version = stringOrDefault(data.string(data.metadata[2]), "1.0");
+                metadata.author = stringOrDefault(data.string(data.metadata[3]), "Unknown");
+                metadata.created = stringOrDefault(data.string(data.metadata[4]), "");
+                metadata.modified = stringOrDefault(data.string(data.metadata[5]), "");
+                level.metadata = metadata;
+            }
+            if (data.lighting != null) {
+                float[] lighting = data.lighting;
+                Light light = level.scene.getLight();
+                light.setPosition(new Vector3f(lighting[0], lighting[1], lighting[2]));
+                light.setColor(new Vector3f(lighting[3], lighting[4], lighting[5]));
+                light.setAmbient(new Vector3f(lighting[6], lighting[7], lighting[8]));
+            }
+            if (data.terrainEnabled) {
+                float[] position = data.terrainPosition;
+                TerrainEntity terrain = createTerrain(data.terrainSize, data.terrainGridCount, data.terrainHeight,
+                                                      new Vector3f(position[0], position[1], position[2]),
+                                                      data.string(data.terrainTexture), data.terrainTextureRepeat);
                 level.scene.addEntity(terrain);
                 level.terrain = terrain;
             }
+
+            addEntities(data, new StaticEntities(level, null, assets, false));
+
+            for (int i = 0; i < data.spawnCount; i++) {
+                int v = i * 3;
+                level.spawns.add(new SpawnPoint(
+                    data.string(data.spawnIds[i]), data.string(data.spawnNames[i]),
+                    new Vector3f(data.spawnPositions[v], data.spawnPositions[v + 1], data.spawnPositions[v + 2]),
+                    new Vector3f(data.spawnRotations[v], data.spawnRotations[v + 1], data.spawnRotations[v + 2])
+                ));
+            }
+            return level;
+        } finally {
+            assets.release();
         }
-        
-        // Load entities
-        if (levelData.has("entities")) {
-            JsonArray entitiesArray = levelData.getAsJsonArray("entities");
-            for (JsonElement entityElement : entitiesArray) {
-                JsonObject entityData = entityElement.getAsJsonObject();
-                Entity entity = loadEntity(entityData);
-                level.scene.addEntity(entity);
-                level.entities.add(new LoadedEntity(entity, entityData));
+    }
+
+    /**
+     * Creates the entities of a binary level or region.
+     */
+    private void addEntities(BinaryLevel data, StaticEntities staticEntities) throws Exception {
+        for (int i = 0; i < data.entityCount; i++) {
+            addEntity(data, i, staticEntities);
+        }
+        staticEntities.finish();
+    }
+
+    /**
+     * Creates one entity of a binary level or region.
+     */
+    private void addEntity(BinaryLevel data, int i, StaticEntities staticEntities) throws Exception {
+        float[] positions = data.entityPositions;
+        float[] rotations = data.entityRotations;
+        float[] scales = data.entityScales;
+        int v = i * 3;
+        String modelName = data.string(data.entityModels[i]);
+        String texture = data.string(data.entityTextures[i]);
+        JsonArray tags = null;
+        if (data.tagStarts[i] < data.tagStarts[i + 1]) {
+            tags = new JsonArray();
+            for (int t = data.tagStarts[i]; t < data.tagStarts[i + 1]; t++) {
+                tags.add(data.string(data.tags[t]));
             }
         }
-        
-        // Load spawn points
-        if (levelData.has("spawns")) {
-            JsonArray spawnsArray = levelData.getAsJsonArray("spawns");
-            for (JsonElement spawnElement : spawnsArray) {
-                JsonObject spawnData = spawnElement.getAsJsonObject();
-                SpawnPoint spawn = loadSpawnPoint(spawnData);
-                level.spawns.add(spawn);
+        staticEntities.add(
+            data.string(data.entityIds[i]), data.string(data.entityNames[i]), modelName, texture,
+            new Vector3f(positions[v], positions[v + 1], positions[v + 2]),
+            new Vector3f(rotations[v], rotations[v + 1], rotations[v + 2]),
+            new Vector3f(scales[v], scales[v + 1], scales[v + 2]),
+            data.entityProperties[i], tags
+        );
+    }
+
+    /**
+     * Streams a level.
+     *
+     * @param assets The level's assets; missing geometry and textures are loaded as needed
+     */
+    private LoadedLevel loadLevel(InputStream input, LevelAssets assets) throws Exception {
+        JsonReader reader = new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        reader.setLenient(true);
+
+        LoadedLevel level = new LoadedLevel();
+        // Lighting may come after the entities, so it is applied to the scene's light when it is read
+        level.scene = new LoadedScene(new Light());
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "metadata":
+                    level.metadata = loadMetadata(JsonParser.parseReader(reader).getAsJsonObject());
+                    break;
+                case "lighting":
+                    loadLight(JsonParser.parseReader(reader).getAsJsonObject(), level.scene.getLight());
+                    break;
+                case "terrain":
+                    JsonObject terrainData = JsonParser.parseReader(reader).getAsJsonObject();
+                    if (terrainData.get("enabled").getAsBoolean()) {
+                        TerrainEntity terrain = loadTerrain(terrainData);
+                        level.scene.addEntity(terrain);
+                        level.terrain = terrain;
+                    }
+                    break;
+                case "entities":
+                    loadEntities(reader, level, assets);
+                    break;
+                case "spawns":
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        level.spawns.add(loadSpawnPoint(JsonParser.parseReader(reader).getAsJsonObject()));
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
             }
         }
-        
+        reader.endObject();
         return level;
     }
-    
+
+    /**
+     * Reads the model, texture and properties of every entity, without creating anything.
+     *
+     * @param input The level file's bytes in UTF-8
+     * @return The distinct assets of the level
+     * @throws IOException If the level cannot be read or parsed
+     */
+    private static LevelAssets readAssets(InputStream input) throws IOException {
+        LevelAssets assets = new LevelAssets();
+        JsonReader reader = new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        reader.setLenient(true);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!reader.nextName().equals("entities")) {
+                reader.skipValue();
+                continue;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String modelName = null;
+                String customTexture = null;
+                int properties = 0;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if (name.equals("model")) {
+                        modelName = reader.nextString();
+                    } else if (name.equals("customTexture") && reader.peek() == JsonToken.STRING) {
+                        customTexture = reader.nextString();
+                    } else if (name.equals("properties") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        properties = BinaryLevel.readProperties(JsonParser.parseReader(reader).getAsJsonObject());
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                if (modelName != null) {
+                    assets.add(modelName, customTexture, properties);
+                }
+            }
+            reader.endArray();
+        }
+        reader.endObject();
+        return assets;
+    }
+
+    /**
+     * Streams the entity array, merging static entities into shared batches owned by the scene.
+     */
+    private void loadEntities(JsonReader reader, LoadedLevel level, LevelAssets assets) throws Exception {
+        StaticEntities staticEntities = new StaticEntities(level, null, assets, false);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            JsonObject entityData = JsonParser.parseReader(reader).getAsJsonObject();
+            // Only the fields saving needs are kept, so the parsed object is dropped after each entity
+            String customTexture = entityData.has("customTexture") && entityData.get("customTexture").isJsonPrimitive()
+                    ? entityData.get("customTexture").getAsString() : null;
+            staticEntities.add(
+                stringOrNull(entityData, "id"), stringOrNull(entityData, "name"),
+                entityData.get("model").getAsString(), customTexture,
+                jsonObjectToVector(entityData.getAsJsonObject("position")),
+                jsonObjectToVector(entityData.getAsJsonObject("rotation")),
+                jsonObjectToVector(entityData.getAsJsonObject("scale")),
+                BinaryLevel.readProperties(entityData.getAsJsonObject("properties")),
+                entityData.has("tags") ? entityData.getAsJsonArray("tags") : null
+            );
+        }
+        reader.endArray();
+        staticEntities.finish();
+    }
+
     /**
      * Saves a level to a JSON file.
      *
@@ -177,6 +631,9 @@ public class LevelLoader {
             JsonObject entityData = saveEntityToJson(loadedEntity);
             entitiesArray.add(entityData);
         }
+        for (StaticEntity staticEntity : level.staticEntities) {
+            entitiesArray.add(saveStaticEntityToJson(staticEntity));
+        }
         levelData.add("entities", entitiesArray);
         
         // Save spawn points
@@ -197,27 +654,36 @@ public class LevelLoader {
         }
     }
     
-    private Light loadLight(JsonObject levelData) {
-        if (!levelData.has("lighting")) {
-            return new Light(); // Default light
-        }
-        
-        JsonObject lighting = levelData.getAsJsonObject("lighting");
-        Vector3f position = jsonObjectToVector(lighting.getAsJsonObject("position"));
-        Vector3f color = jsonObjectToColorVector(lighting.getAsJsonObject("color"));
-        Vector3f ambient = jsonObjectToColorVector(lighting.getAsJsonObject("ambient"));
-        
-        return new Light(position, color, ambient);
+    private LevelMetadata loadMetadata(JsonObject metadata) {
+        LevelMetadata levelMetadata = new LevelMetadata();
+        levelMetadata.name = getStringOrDefault(metadata, "name", "Untitled Level");
+        levelMetadata.description = getStringOrDefault(metadata, "description", "");
+        levelMetadata.version = getStringOrDefault(metadata, "version", "1.0");
+        levelMetadata.author = getStringOrDefault(metadata, "author", "Unknown");
+        levelMetadata.created = getStringOrDefault(metadata, "created", "");
+        levelMetadata.modified = getStringOrDefault(metadata, "modified", "");
+        return levelMetadata;
+    }
+    
+    private void loadLight(JsonObject lighting, Light light) {
+        light.setPosition(jsonObjectToVector(lighting.getAsJsonObject("position")));
+        light.setColor(jsonObjectToColorVector(lighting.getAsJsonObject("color")));
+        light.setAmbient(jsonObjectToColorVector(lighting.getAsJsonObject("ambient")));
     }
     
     private TerrainEntity loadTerrain(JsonObject terrainData) throws Exception {
-        float size = terrainData.get("size").getAsFloat();
-        int gridCount = terrainData.get("gridCount").getAsInt();
-        float height = terrainData.get("height").getAsFloat();
-        Vector3f position = jsonObjectToVector(terrainData.getAsJsonObject("position"));
-        String texture = terrainData.get("texture").getAsString();
-        float textureRepeat = terrainData.get("textureRepeat").getAsFloat();
-        
+        return createTerrain(
+            terrainData.get("size").getAsFloat(),
+            terrainData.get("gridCount").getAsInt(),
+            terrainData.get("height").getAsFloat(),
+            jsonObjectToVector(terrainData.getAsJsonObject("position")),
+            terrainData.get("texture").getAsString(),
+            terrainData.get("textureRepeat").getAsFloat()
+        );
+    }
+    
+    private TerrainEntity createTerrain(float size, int gridCount, float height, Vector3f position,
+                                        String texture, float textureRepeat) throws Exception {
         String texturePath = "src/main/resources/textures/" + texture;
         
         Terrain terrain = new Terrain(
@@ -233,27 +699,24 @@ public class LevelLoader {
         return new TerrainEntity(terrain);
     }
     
-    private Entity loadEntity(JsonObject entityData) {
-        String modelName = entityData.get("model").getAsString();
-        Vector3f position = jsonObjectToVector(entityData.getAsJsonObject("position"));
-        Vector3f rotation = jsonObjectToVector(entityData.getAsJsonObject("rotation"));
-        Vector3f scale = jsonObjectToVector(entityData.getAsJsonObject("scale"));
-        
-        Model model = LoadModel.model(modelName);
+    private Entity createEntity(String modelName, String customTexture, Vector3f position, Vector3f rotation,
+                                Vector3f scale, int properties, boolean async) {
+        String texture = customTexture != null ? customTexture : modelName;
+        Model model = async ? LoadModel.modelAsync(modelName, texture) : LoadModel.model(modelName, texture);
         Entity entity = new Entity(model, position, rotation, scale);
         
-        // Load properties
-        if (entityData.has("properties")) {
-            JsonObject properties = entityData.getAsJsonObject("properties");
-            if (properties.has("hasTransparentTexture")) {
-                entity.setHasTransparentTexture(properties.get("hasTransparentTexture").getAsBoolean());
-            }
-            if (properties.has("billboardY")) {
-                entity.setBillboardY(properties.get("billboardY").getAsBoolean());
-            }
-            if (properties.has("billboardFull")) {
-                entity.setBillboardFull(properties.get("billboardFull").getAsBoolean());
-            }
+        // Apply properties
+        if ((properties & BinaryLevel.PROPERTY_TRANSPARENCY_OVERRIDE) != 0) {
+            entity.setHasTransparentTexture((properties & BinaryLevel.PROPERTY_TRANSPARENT) != 0);
+        }
+        if ((properties & BinaryLevel.PROPERTY_BILLBOARD_Y) != 0) {
+            entity.setBillboardY(true);
+        }
+        if ((properties & BinaryLevel.PROPERTY_BILLBOARD_FULL) != 0) {
+            entity.setBillboardFull(true);
+        }
+        if ((properties & BinaryLevel.PROPERTY_STATIC) != 0) {
+            entity.setStatic(true);
         }
         
         return entity;
@@ -287,8 +750,8 @@ public class LevelLoader {
         JsonObject entityData = new JsonObject();
         Entity entity = loadedEntity.entity;
         
-        entityData.addProperty("id", loadedEntity.originalData.get("id").getAsString());
-        entityData.addProperty("name", loadedEntity.originalData.get("name").getAsString());
+        entityData.addProperty("id", loadedEntity.id);
+        entityData.addProperty("name", loadedEntity.name);
         entityData.addProperty("model", "suzanne"); // TODO: Get actual model name
         entityData.add("position", positionVectorToJson(entity.getPosition()));
         entityData.add("rotation", positionVectorToJson(entity.getRotation()));
@@ -298,11 +761,39 @@ public class LevelLoader {
         properties.addProperty("hasTransparentTexture", entity.hasTransparentTexture());
         properties.addProperty("billboardY", entity.isBillboardY());
         properties.addProperty("billboardFull", entity.isBillboardFull());
+        properties.addProperty("static", entity.isStatic());
         entityData.add("properties", properties);
         
         // Copy tags if they exist
-        if (loadedEntity.originalData.has("tags")) {
-            entityData.add("tags", loadedEntity.originalData.get("tags"));
+        if (loadedEntity.tags != null) {
+            entityData.add("tags", loadedEntity.tags);
+        }
+        
+        return entityData;
+    }
+    
+    private JsonObject saveStaticEntityToJson(StaticEntity staticEntity) {
+        JsonObject entityData = new JsonObject();
+        entityData.addProperty("id", staticEntity.id);
+        entityData.addProperty("name", staticEntity.name);
+        entityData.addProperty("model", staticEntity.model);
+        if (staticEntity.customTexture != null) {
+            entityData.addProperty("customTexture", staticEntity.customTexture);
+        }
+        entityData.add("position", positionVectorToJson(staticEntity.position));
+        entityData.add("rotation", positionVectorToJson(staticEntity.rotation));
+        entityData.add("scale", positionVectorToJson(staticEntity.scale));
+        
+        // Only static, opaque entities without billboarding are batched
+        JsonObject properties = new JsonObject();
+        properties.addProperty("hasTransparentTexture", false);
+        properties.addProperty("billboardY", false);
+        properties.addProperty("billboardFull", false);
+        properties.addProperty("static", true);
+        entityData.add("properties", properties);
+        
+        if (staticEntity.tags != null) {
+            entityData.add("tags", staticEntity.tags);
         }
         
         return entityData;
@@ -360,6 +851,209 @@ public class LevelLoader {
         return object.has(key) ? object.get(key).getAsString() : defaultValue;
     }
     
+    private static String stringOrDefault(String value, String defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+    
+    private static String stringOrNull(JsonObject object, String key) {
+        return object.has(key) && object.get(key).isJsonPrimitive() ? object.get(key).getAsString() : null;
+    }
+    
+    /**
+     * Adds loaded entities to a level, merging static ones into shared batches owned by the scene.
+     * Merged entities only need their texture and parsed geometry, never a model of their own,
+     * and are kept as {@link StaticEntity} records for saving.
+     * Entities of a region are also recorded in the region, so they can be unloaded together.
+     */
+    private class StaticEntities {
+        private final LoadedLevel level;
+        private final LoadedRegion region;
+        private final LevelAssets assets;
+        private final StaticBatcher batcher = new StaticBatcher(objectLoader);
+        
+        /** Whether missing assets are acquired as placeholders instead of loaded on the calling thread */
+        private final boolean async;
+        
+        /** Textures of merged entities by name, each holding one reference, or null if it failed to load */
+        private final Map<String, Texture> textures = new HashMap<>();
+        
+        StaticEntities(LoadedLevel level, LoadedRegion region, LevelAssets assets, boolean async) {
+            this.level = level;
+            this.region = region;
+            this.assets = assets;
+            this.async = async;
+        }
+        
+        void add(String id, String name, String modelName, String customTexture,
+                 Vector3f position, Vector3f rotation, Vector3f scale, int properties, JsonArray tags) throws Exception {
+            boolean billboard = (properties & (BinaryLevel.PROPERTY_BILLBOARD_Y | BinaryLevel.PROPERTY_BILLBOARD_FULL)) != 0;
+            if ((properties & BinaryLevel.PROPERTY_STATIC) != 0 && !billboard
+                    && batch(modelName, customTexture, position, rotation, scale, properties)) {
+                StaticEntity staticEntity = new StaticEntity(
+                    id, name, modelName, customTexture, position, rotation, scale, tags
+                );
+                level.staticEntities.add(staticEntity);
+                if (region != null) {
+                    region.staticEntities.add(staticEntity);
+                }
+                return;
+            }
+            Entity entity = createEntity(modelName, customTexture, position, rotation, scale, properties, async);
+            level.scene.addEntity(entity);
+            LoadedEntity loadedEntity = new LoadedEntity(entity, id, name, tags);
+            level.entities.add(loadedEntity);
+            if (region != null) {
+                region.sceneEntities.add(entity);
+                region.entities.add(loadedEntity);
+            }
+        }
+        
+        /**
+         * Queues a static, non-billboarded entity for batching if its texture is opaque and its geometry valid.
+         */
+        private boolean batch(String modelName, String customTexture, Vector3f position, Vector3f rotation,
+                              Vector3f scale, int properties) throws Exception {
+            Texture texture = texture(customTexture != null ? customTexture : modelName);
+            if (texture == null) {
+                return false; // Loaded as a regular entity, which falls back to the error model
+            }
+            boolean transparent = (properties & BinaryLevel.PROPERTY_TRANSPARENCY_OVERRIDE) != 0
+                ? (properties & BinaryLevel.PROPERTY_TRANSPARENT) != 0
+                : texture.hasTransparency();
+            if (!StaticBatcher.canBatch(true, false, transparent)) {
+                return false;
+            }
+            MeshData mesh = assets.getMeshes().get(modelName);
+            if (mesh == null) {
+                mesh = objectLoader.readOBJ(LoadModel.MODELS_PATH + modelName + ".obj");
+                assets.getMeshes().put(modelName, mesh);
+            }
+            try {
+                batcher.add(mesh, texture, position, rotation, scale);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Not batching model " + modelName + ": " + e.getMessage());
+                return false;
+            }
+            return true;
+        }
+        
+        /**
+         * Gets the texture of a merged entity, from the level's loaded assets or else loading it now.
+         * Asynchronous additions do not load it, so the entity is not merged.
+         */
+        private Texture texture(String name) {
+            if (textures.containsKey(name)) {
+                return textures.get(name);
+            }
+            Texture texture = assets.getTexture(name);
+            if (texture != null) {
+                LoadModel.getAssets().retainTexture(texture);
+            } else if (!async) {
+                texture = LoadModel.texture(name);
+            }
+            textures.put(name, texture);
+            return texture;
+        }
+        
+        void finish() {
+            while (buildNext()) {
+                // Build every batch
+            }
+            releaseTextures();
+        }
+        
+        /**
+         * Builds and adds one merged mesh.
+         *
+         * @return False if there was nothing left to build
+         */
+        boolean buildNext() {
+            Entity batch = batcher.buildNext();
+            if (batch == null) {
+                return false;
+            }
+            // The batch keeps drawing with the cached texture after the references of the merged entities are given back
+            LoadModel.getAssets().retainTexture(batch.getModel().getTexture());
+            level.scene.addStaticBatch(batch);
+            if (region != null) {
+                region.batches.add(batch);
+            }
+            return true;
+        }
+        
+        /**
+         * Gives back the textures held for merging, once the batches hold their own.
+         */
+        void releaseTextures() {
+            List<Texture> held = new ArrayList<>();
+            for (Texture texture : textures.values()) {
+                if (texture != null) {
+                    held.add(texture);
+                }
+            }
+            LoadModel.releaseTextures(held);
+            textures.clear();
+        }
+    }
+    
+    /**
+     * A region being added to the scene over several frames.
+     * <p>
+     * Each call to {@link #advance(long)} creates entities, and once they
+     * are all created builds the merged static meshes one at a time, until
+     * its deadline passes. At least one step is taken per call, so a frame
+     * never exceeds its budget by more than one entity or one batch.
+     * </p>
+     */
+    final class RegionInsertion {
+        private final BinaryLevel data;
+        private final LoadedRegion region;
+        private final StaticEntities staticEntities;
+        
+        /** Index of the next entity to create */
+        private int next;
+        
+        private RegionInsertion(BinaryLevel data, LoadedRegion region, StaticEntities staticEntities) {
+            this.data = data;
+            this.region = region;
+            this.staticEntities = staticEntities;
+        }
+        
+        /**
+         * Adds more of the region.
+         *
+         * @param deadline The {@link System#nanoTime()} after which no further step is started
+         * @return True once the whole region has been added
+         * @throws Exception If an entity cannot be created
+         */
+        boolean advance(long deadline) throws Exception {
+            do {
+                if (next < data.entityCount) {
+                    addEntity(data, next++, staticEntities);
+                } else if (!staticEntities.buildNext()) {
+                    staticEntities.releaseTextures();
+                    return true;
+                }
+            } while (System.nanoTime() < deadline);
+            return false;
+        }
+        
+        /**
+         * Gets the region, which is complete once {@link #advance(long)} returned true.
+         */
+        LoadedRegion getRegion() {
+            return region;
+        }
+        
+        /**
+         * Removes what has been added so far and gives back the held textures.
+         */
+        void cancel() {
+            unloadRegion(region);
+            staticEntities.releaseTextures();
+        }
+    }
+    
     /**
      * A scene implementation that can be loaded from level files.
      */
@@ -387,9 +1081,29 @@ public class LevelLoader {
         public LoadedScene scene;
         public TerrainEntity terrain;
         public List<LoadedEntity> entities = new ArrayList<>();
+        public List<StaticEntity> staticEntities = new ArrayList<>();
         public List<SpawnPoint> spawns = new ArrayList<>();
     }
     
+    /**
+     * The entities of one region of a region level.
+     */
+    public static class LoadedRegion {
+        public final int x;
+        public final int z;
+        public final List<LoadedEntity> entities = new ArrayList<>();
+        public final List<StaticEntity> staticEntities = new ArrayList<>();
+        private final LoadedLevel level;
+        private final List<Entity> sceneEntities = new ArrayList<>();
+        private final List<Entity> batches = new ArrayList<>();
+        
+        private LoadedRegion(int x, int z, LoadedLevel level) {
+            this.x = x;
+            this.z = z;
+            this.level = level;
+        }
+    }
+    
     /**
      * Metadata for a level.
      */
@@ -403,15 +1117,57 @@ public class LevelLoader {
     }
     
     /**
-     * Container for an entity and its original JSON data.
+     * Container for an entity and the fields of its original JSON data that saving writes back.
      */
     public static class LoadedEntity {
         public Entity entity;
-        public JsonObject originalData;
+        public String id;
+        public String name;
+        public JsonArray tags;
         
-        public LoadedEntity(Entity entity, JsonObject originalData) {
+        public LoadedEntity(Entity entity, String id, String name, JsonArray tags) {
             this.entity = entity;
-            this.originalData = originalData;
+            this.id = id;
+            this.name = name;
+            this.tags = tags;
+        }
+        
+        /**
+         * Keeps the saved fields of an entity's JSON data, without holding on to the object itself.
+         */
+        public LoadedEntity(Entity entity, JsonObject originalData) {
+            this(entity, stringOrNull(originalData, "id"), stringOrNull(originalData, "name"),
+                 originalData.has("tags") ? originalData.getAsJsonArray("tags") : null);
+        }
+    }
+    
+    /**
+     * An entity that was merged into a static batch.
+     * <p>
+     * It is not in the scene on its own and holds no model, so only what
+     * saving the level needs is kept.
+     * </p>
+     */
+    public static class StaticEntity {
+        public final String id;
+        public final String name;
+        public final String model;
+        public final String customTexture;
+        public final Vector3f position;
+        public final Vector3f rotation;
+        public final Vector3f scale;
+        public final JsonArray tags;
+        
+        public StaticEntity(String id, String name, String model, String customTexture,
+                            Vector3f position, Vector3f rotation, Vector3f scale, JsonArray tags) {
+            this.id = id;
+            this.name = name;
+            this.model = model;
+            this.customTexture = customTexture;
+            this.position = new Vector3f(position);
+            this.rotation = new Vector3f(rotation);
+            this.scale = new Vector3f(scale);
+            this.tags = tags;
         }
     }
     
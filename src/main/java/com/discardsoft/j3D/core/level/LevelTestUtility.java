@@ -68,6 +68,7 @@ public class LevelTestUtility {
                 System.out.println("    Rotation: " + entity.entity.getRotation());
                 System.out.println("    Scale: " + entity.entity.getScale());
             }
+            System.out.println("\nStatic entities merged into batches: " + level.staticEntities.size());
             
             // Print spawn points
             System.out.println("\nSpawn Points (" + level.spawns.size() + " total):");
@@ -0,0 +1,484 @@
+package com.discardsoft.j3D.core.level;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A region level ({@code .j3dr}), a binary level split into square regions on the XZ plane
+ * that are compressed and loaded independently.
+ * <p>
+ * The file starts with an index of every region that holds entities, so
+ * a region can be found and read without touching the rest of the file.
+ * Each region, and the global block holding metadata, lighting, terrain
+ * and spawn points, is a {@link BinaryLevel} compressed with
+ * {@link Deflater}. All values are little-endian:
+ * </p>
+ * <pre>
+ * header   int magic "J3DR", int version, float region size, int region count,
+ *          int global block compressed size, int global block size
+ * index    per region: long offset, int x, int z, int entity count,
+ *          int compressed size, int size, float bounds minimum x, y, z
+ *          and maximum x, y, z
+ * global   the compressed global block
+ * regions  the compressed regions, in index order
+ * </pre>
+ * <p>
+ * An entity belongs to the region containing its position, and the
+ * bounds in the index enclose the positions of a region's entities.
+ * Files are not mapped; each block is read from its offset through the
+ * file channel, so files may be larger than 2 GiB. Reading is thread-safe,
+ * so regions can be decompressed on worker threads.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ * @see LevelLoader#loadRegion(int, int)
+ */
+final class RegionLevel implements Closeable {
+
+    /** File extension of region levels */
+    static final String EXTENSION = ".j3dr";
+
+    /** Default edge length of a region in world units */
+    static final float DEFAULT_REGION_SIZE = 128.0f;
+
+    /** "J3DR" read as a little-endian int */
+    private static final int MAGIC = 'J' | ('3' << 8) | ('D' << 16) | ('R' << 24);
+
+    /** Version of the file layout, increased whenever it changes */
+    private static final int VERSION = 1;
+
+    /** Size of the header in bytes */
+    private static final int HEADER_BYTES = 24;
+
+    /** Size of an index entry in bytes */
+    private static final int INDEX_ENTRY_BYTES = 52;
+
+    /** Largest region count whose index can be read into one buffer */
+    private static final int MAX_REGIONS = Integer.MAX_VALUE / INDEX_ENTRY_BYTES;
+
+    /** The file, or null if the level was read into memory */
+    private final FileChannel channel;
+
+    /** The whole file when it was read into memory, otherwise null */
+    private final ByteBuffer buffer;
+
+    /** Edge length of a region in world units */
+    private final float regionSize;
+
+    /** Every region holding entities, in file order */
+    private final List<Region> regions;
+
+    /** Regions by packed coordinates */
+    private final Map<Long, Region> regionsByKey = new HashMap<>();
+
+    /** Compressed size of the global block */
+    private final int globalCompressedBytes;
+
+    /** Size of the global block */
+    private final int globalBytes;
+
+    private RegionLevel(FileChannel channel, ByteBuffer buffer, float regionSize, List<Region> regions,
+                        int globalCompressedBytes, int globalBytes) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.regionSize = regionSize;
+        this.regions = Collections.unmodifiableList(regions);
+        this.globalCompressedBytes = globalCompressedBytes;
+        this.globalBytes = globalBytes;
+        for (Region region : regions) {
+            regionsByKey.put(key(region.x, region.z), region);
+        }
+    }
+
+    /**
+     * Opens a region level file and reads its header and index.
+     *
+     * @param file The region level file
+     * @return The region level, reading regions from the file on demand until it is closed
+     * @throws Exception If the file cannot be read or is not a valid region level
+     */
+    static RegionLevel open(Path file) throws Exception {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return open(channel, null, channel.size());
+        } catch (Exception e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the header and index of a region level held in memory.
+     *
+     * @param buffer The file contents
+     * @return The region level, reading regions from the buffer on demand
+     * @throws Exception If the data is not a valid region level
+     */
+    static RegionLevel open(ByteBuffer buffer) throws Exception {
+        buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        return open(null, buffer, buffer.limit());
+    }
+
+    /**
+     * Reads the header and index from a file or a buffer.
+     */
+    private static RegionLevel open(FileChannel channel, ByteBuffer buffer, long size) throws Exception {
+        try {
+            ByteBuffer header = read(channel, buffer, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC) {
+                throw new Exception("Not a region level file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new Exception("Unsupported region level version");
+            }
+            float regionSize = header.getFloat(8);
+            int regionCount = header.getInt(12);
+            int globalCompressedBytes = header.getInt(16);
+            int globalBytes = header.getInt(20);
+            long dataStart = HEADER_BYTES + (long) regionCount * INDEX_ENTRY_BYTES;
+            if (!(regionSize > 0.0f) || regionCount < 0 || regionCount > MAX_REGIONS
+                    || globalCompressedBytes < 0 || globalBytes < 0 || dataStart + globalCompressedBytes > size) {
+                throw new Exception("Invalid region level header");
+            }
+
+            ByteBuffer index = read(channel, buffer, HEADER_BYTES, regionCount * INDEX_ENTRY_BYTES);
+            List<Region> regions = new ArrayList<>(regionCount);
+            for (int i = 0; i < regionCount; i++) {
+                int entry = i * INDEX_ENTRY_BYTES;
+                float[] bounds = new float[6];
+                for (int b = 0; b < 6; b++) {
+                    bounds[b] = index.getFloat(entry + 28 + b * Float.BYTES);
+                }
+                Region region = new Region(
+                    index.getInt(entry + 8), index.getInt(entry + 12), index.getInt(entry + 16),
+                    index.getLong(entry), index.getInt(entry + 20), index.getInt(entry + 24), bounds
+                );
+                if (region.offset < dataStart || region.compressedBytes < 0 || region.bytes < 0
+                        || region.offset + region.compressedBytes > size) {
+                    throw new Exception("Invalid region level index");
+                }
+                regions.add(region);
+            }
+            return new RegionLevel(channel, buffer, regionSize, regions, globalCompressedBytes, globalBytes);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new Exception("Truncated region level file", e);
+        }
+    }
+
+    /**
+     * Gets the edge length of the regions.
+     *
+     * @return The region size in world units
+     */
+    float getRegionSize() {
+        return regionSize;
+    }
+
+    /**
+     * Gets the coordinate of the region containing a world position on one axis.
+     *
+     * @param position The world X or Z position
+     * @return The region X or Z coordinate
+     */
+    int toRegion(float position) {
+        return (int) Math.floor(position / regionSize);
+    }
+
+    /**
+     * Gets every region holding entities.
+     *
+     * @return An unmodifiable list in file order
+     */
+    List<Region> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Gets a region by its coordinates.
+     *
+     * @param x The region X coordinate
+     * @param z The region Z coordinate
+     * @return The region, or null if it holds no entities
+     */
+    Region getRegion(int x, int z) {
+        return regionsByKey.get(key(x, z));
+    }
+
+    /**
+     * Reads the metadata, lighting, terrain and spawn points.
+     *
+     * @return A level without entities
+     * @throws Exception If the block is corrupt
+     */
+    BinaryLevel readGlobal() throws Exception {
+        return inflate(HEADER_BYTES + (long) regions.size() * INDEX_ENTRY_BYTES, globalCompressedBytes, globalBytes);
+    }
+
+    /**
+     * Decompresses and reads the entities of a region.
+     *
+     * @param region The region, from this level
+     * @return A level holding only the region's entities
+     * @throws Exception If the region is corrupt
+     */
+    BinaryLevel readRegion(Region region) throws Exception {
+        return inflate(region.offset, region.compressedBytes, region.bytes);
+    }
+
+    /**
+     * Closes the file. Regions cannot be read afterwards.
+     *
+     * @throws IOException If the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Splits a level into regions and writes it as a region level.
+     *
+     * @param file The file to write
+     * @param level The level to split
+     * @param regionSize The edge length of a region in world units
+     * @throws IOException If the file cannot be written
+     */
+    static void write(Path file, BinaryLevel level, float regionSize) throws IOException {
+        if (!(regionSize > 0.0f)) {
+            throw new IOException("Invalid region size: " + regionSize);
+        }
+        // Group the entities by region, row by row
+        Map<Long, List<Integer>> groups = new TreeMap<>();
+        for (int i = 0; i < level.entityCount; i++) {
+            int x = (int) Math.floor(level.entityPositions[i * 3] / regionSize);
+            int z = (int) Math.floor(level.entityPositions[i * 3 + 2] / regionSize);
+            groups.computeIfAbsent(key(x, z), k -> new ArrayList<>()).add(i);
+        }
+
+        BinaryLevel.Builder global = new BinaryLevel.Builder();
+        if (level.metadata != null) {
+            global.metadata(level.string(level.metadata[0]), level.string(level.metadata[1]),
+                            level.string(level.metadata[2]), level.string(level.metadata[3]),
+                            level.string(level.metadata[4]), level.string(level.metadata[5]));
+        }
+        if (level.lighting != null) {
+            global.lighting(Arrays.copyOfRange(level.lighting, 0, 3), Arrays.copyOfRange(level.lighting, 3, 6),
+                            Arrays.copyOfRange(level.lighting, 6, 9));
+        }
+        if (level.terrainEnabled) {
+            global.terrain(level.terrainSize, level.terrainGridCount, level.terrainHeight, level.terrainPosition,
+                           level.string(level.terrainTexture), level.terrainTextureRepeat);
+        }
+        for (int i = 0; i < level.spawnCount; i++) {
+            global.spawn(level.string(level.spawnIds[i]), level.string(level.spawnNames[i]),
+                         Arrays.copyOfRange(level.spawnPositions, i * 3, i * 3 + 3),
+                         Arrays.copyOfRange(level.spawnRotations, i * 3, i * 3 + 3));
+        }
+        ByteBuffer globalData = global.build().encode();
+        int globalBytes = globalData.remaining();
+        byte[] globalCompressed = deflate(globalData);
+
+        List<Region> regions = new ArrayList<>();
+        List<byte[]> payloads = new ArrayList<>();
+        long offset = HEADER_BYTES + (long) groups.size() * INDEX_ENTRY_BYTES + globalCompressed.length;
+        for (List<Integer> members : groups.values()) {
+            BinaryLevel.Builder builder = new BinaryLevel.Builder();
+            float[] bounds = {
+                Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.NEGATIVE_INFINITY
+            };
+            for (int i : members) {
+                builder.entity(level, i);
+                for (int axis = 0; axis < 3; axis++) {
+                    float position = level.entityPositions[i * 3 + axis];
+                    bounds[axis] = Math.min(bounds[axis], position);
+                    bounds[axis + 3] = Math.max(bounds[axis + 3], position);
+                }
+            }
+            int first = members.get(0);
+            ByteBuffer data = builder.build().encode();
+            int bytes = data.remaining();
+            byte[] compressed = deflate(data);
+            regions.add(new Region(
+                (int) Math.floor(level.entityPositions[first * 3] / regionSize),
+                (int) Math.floor(level.entityPositions[first * 3 + 2] / regionSize),
+                members.size(), offset, compressed.length, bytes, bounds
+            ));
+            payloads.add(compressed);
+            offset += compressed.length;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + regions.size() * INDEX_ENTRY_BYTES)
+                                      .order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putFloat(regionSize).putInt(regions.size())
+              .putInt(globalCompressed.length).putInt(globalBytes);
+        for (Region region : regions) {
+            header.putLong(region.offset).putInt(region.x).putInt(region.z).putInt(region.entityCount)
+                  .putInt(region.compressedBytes).putInt(region.bytes);
+            for (float bound : region.bounds) {
+                header.putFloat(bound);
+            }
+        }
+        header.flip();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, header);
+            write(channel, ByteBuffer.wrap(globalCompressed));
+            for (byte[] payload : payloads) {
+                write(channel, ByteBuffer.wrap(payload));
+            }
+        }
+    }
+
+    /**
+     * Decompresses a block and reads it as a binary level.
+     */
+    private BinaryLevel inflate(long offset, int compressedBytes, int bytes) throws Exception {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(read(channel, buffer, offset, compressedBytes));
+            byte[] data = new byte[bytes];
+            int read = 0;
+            while (read < bytes) {
+                int inflated = inflater.inflate(data, read, bytes - read);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != bytes) {
+                throw new Exception("Truncated region level block");
+            }
+            return BinaryLevel.read(ByteBuffer.wrap(data));
+        } catch (DataFormatException e) {
+            throw new Exception("Corrupt region level block", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Reads a block from the file, or slices it from the buffer when there is no file.
+     * <p>
+     * Positional reads and absolute slices leave the shared channel's and
+     * buffer's positions alone, so worker threads can read at once.
+     * </p>
+     */
+    private static ByteBuffer read(FileChannel channel, ByteBuffer buffer, long offset, int length) throws Exception {
+        if (channel == null) {
+            if (offset + length > buffer.limit()) {
+                throw new Exception("Truncated region level file");
+            }
+            return buffer.duplicate().position((int) offset).limit((int) offset + length).slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+        ByteBuffer block = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (block.hasRemaining()) {
+            if (channel.read(block, offset + block.position()) < 0) {
+                throw new Exception("Truncated region level file");
+            }
+        }
+        return block.flip();
+    }
+
+    /**
+     * Compresses a block.
+     */
+    private static byte[] deflate(ByteBuffer data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            byte[] output = new byte[Math.max(64, data.remaining() / 2)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                length += deflater.deflate(output, length, output.length - length);
+            }
+            return Arrays.copyOf(output, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Writes a whole buffer to a channel.
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Packs region coordinates into a map key.
+     */
+    private static long key(int x, int z) {
+        return ((long) z << 32) | (x & 0xFFFFFFFFL);
+    }
+
+    /**
+     * An entry of the region index.
+     */
+    static final class Region {
+
+        /** Region coordinates, the world position divided by the region size and rounded down */
+        final int x, z;
+
+        /** Number of entities in the region */
+        final int entityCount;
+
+        /** Position of the compressed region in the file */
+        final long offset;
+
+        /** Compressed and decompressed size of the region */
+        final int compressedBytes, bytes;
+
+        /** Minimum and maximum of the entity positions, x, y and z each */
+        final float[] bounds;
+
+        Region(int x, int z, int entityCount, long offset, int compressedBytes, int bytes, float[] bounds) {
+            this.x = x;
+            this.z = z;
+            this.entityCount = entityCount;
+            this.offset = offset;
+            this.compressedBytes = compressedBytes;
+            this.bytes = bytes;
+            this.bounds = bounds;
+        }
+
+        /**
+         * Gets the squared distance from a point to the region's bounds on the XZ plane.
+         *
+         * @param px The world X position
+         * @param pz The world Z position
+         * @return The squared distance, 0 if the point is within the bounds
+         */
+        float distanceSquared(float px, float pz) {
+            float dx = Math.max(0.0f, Math.max(bounds[0] - px, px - bounds[3]));
+            float dz = Math.max(0.0f, Math.max(bounds[2] - pz, pz - bounds[5]));
+            return dx * dx + dz * dz;
+        }
+    }
+}
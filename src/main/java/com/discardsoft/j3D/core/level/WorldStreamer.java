@@ -0,0 +1,290 @@
+package com.discardsoft.j3D.core.level;
+
+import com.discardsoft.j3D.core.asset.PendingUpload;
+import com.discardsoft.j3D.core.level.LevelLoader.LoadedRegion;
+import com.discardsoft.j3D.core.level.LevelLoader.RegionInsertion;
+import com.discardsoft.j3D.core.utils.LoadModel;
+import com.discardsoft.j3D.core.utils.Settings;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Streams the regions of a region level in and out around the player.
+ * <p>
+ * Every frame, regions whose entities are within the load radius start
+ * loading and loaded regions beyond the unload radius are unloaded. A
+ * region loads in three steps, so the render thread never waits on a
+ * whole region:
+ * </p>
+ * <ol>
+ *   <li>Its block is decompressed and the geometry of its static models
+ *       is parsed on the {@link LoadModel#getPipeline() asset pipeline}'s
+ *       worker threads.</li>
+ *   <li>Its models and textures are loaded with
+ *       {@link LoadModel#modelAsync(String, String)}, so any that are not
+ *       cached yet are decoded on the workers and uploaded within the
+ *       pipeline's per-frame budget. The region waits for all of them,
+ *       including failed loads, which resolve to the error assets.</li>
+ *   <li>Once they are resident, its entities are created and its static
+ *       batches built in {@link #update(Vector3f)}, an entity or a batch
+ *       at a time within {@link Settings#WORLD_STREAM_BUDGET_MS} per frame,
+ *       so a large region is added over several frames. Nothing is loaded
+ *       on the render thread in this step.</li>
+ * </ol>
+ * <p>
+ * Regions moving out of range while loading are cancelled. All methods
+ * must be called on the thread owning the OpenGL context.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ * @see LevelLoader#loadRegion(int, int)
+ */
+public class WorldStreamer {
+
+    /** Loader that loaded the region level and adds its regions */
+    private final LevelLoader loader;
+
+    /** The region level being streamed */
+    private final RegionLevel regions;
+
+    /** Distance within which regions are loaded */
+    private final float loadRadius;
+
+    /** Distance beyond which regions are unloaded */
+    private final float unloadRadius;
+
+    /** Regions in the scene */
+    private final Map<RegionLevel.Region, LoadedRegion> loaded = new HashMap<>();
+
+    /** Regions being loaded, in the order they were requested */
+    private final Map<RegionLevel.Region, PendingRegion> pending = new LinkedHashMap<>();
+
+    /** Regions that failed to load, which are not retried */
+    private final Set<RegionLevel.Region> failed = new HashSet<>();
+
+    /**
+     * Creates a streamer with the radii from {@link Settings}.
+     *
+     * @param loader The loader that loaded the region level
+     */
+    public WorldStreamer(LevelLoader loader) {
+        this(loader, Settings.WORLD_LOAD_RADIUS, Settings.WORLD_UNLOAD_RADIUS);
+    }
+
+    /**
+     * Creates a streamer.
+     *
+     * @param loader The loader that loaded the region level
+     * @param loadRadius The distance from the player within which regions are loaded, in world units
+     * @param unloadRadius The distance from the player beyond which regions are unloaded, at least the load radius
+     */
+    public WorldStreamer(LevelLoader loader, float loadRadius, float unloadRadius) {
+        if (!loader.hasRegionLevel()) {
+            throw new IllegalStateException("Streaming requires a loaded region level");
+        }
+        if (unloadRadius < loadRadius) {
+            throw new IllegalArgumentException("Unload radius must not be smaller than the load radius");
+        }
+        this.loader = loader;
+        this.regions = loader.getRegionLevel();
+        this.loadRadius = loadRadius;
+        this.unloadRadius = unloadRadius;
+    }
+
+    /**
+     * Loads and unloads regions around the player and adds regions that finished loading to the scene.
+     *
+     * @param position The position of the player
+     */
+    public void update(Vector3f position) {
+        float unloadSquared = unloadRadius * unloadRadius;
+
+        // Unload regions that are out of range, and stop loading those that moved out of range
+        Iterator<Map.Entry<RegionLevel.Region, LoadedRegion>> loadedRegions = loaded.entrySet().iterator();
+        while (loadedRegions.hasNext()) {
+            Map.Entry<RegionLevel.Region, LoadedRegion> entry = loadedRegions.next();
+            if (entry.getKey().distanceSquared(position.x, position.z) > unloadSquared) {
+                loader.unloadRegion(entry.getValue());
+                loadedRegions.remove();
+            }
+        }
+        Iterator<PendingRegion> pendingRegions = pending.values().iterator();
+        while (pendingRegions.hasNext()) {
+            PendingRegion region = pendingRegions.next();
+            if (region.region.distanceSquared(position.x, position.z) > unloadSquared) {
+                region.cancel();
+                pendingRegions.remove();
+            }
+        }
+
+        requestRegions(position);
+
+        // Add regions whose assets are ready, nearest request first, until the budget is used up
+        long deadline = System.nanoTime() + (long) (Settings.WORLD_STREAM_BUDGET_MS * 1_000_000L);
+        pendingRegions = pending.values().iterator();
+        while (pendingRegions.hasNext() && System.nanoTime() < deadline) {
+            PendingRegion region = pendingRegions.next();
+            try {
+                if (!region.isReady()) {
+                    continue;
+                }
+                if (region.insertion == null) {
+                    region.insertion = loader.insertRegion(region.region, region.decoded.level, region.decoded.assets);
+                }
+                if (!region.insertion.advance(deadline)) {
+                    continue; // Out of time, carry on next frame
+                }
+                loaded.put(region.region, region.insertion.getRegion());
+                region.releaseAssets();
+            } catch (Exception e) {
+                System.err.println("Failed to stream region " + region.region.x + ", " + region.region.z + ": " + e.getMessage());
+                region.cancel();
+                failed.add(region.region);
+            }
+            pendingRegions.remove();
+        }
+    }
+
+    /**
+     * Starts loading every region in range that is not loaded or loading yet, nearest first.
+     */
+    private void requestRegions(Vector3f position) {
+        float loadSquared = loadRadius * loadRadius;
+        List<RegionLevel.Region> requested = new ArrayList<>();
+        int minX = regions.toRegion(position.x - loadRadius);
+        int maxX = regions.toRegion(position.x + loadRadius);
+        int minZ = regions.toRegion(position.z - loadRadius);
+        int maxZ = regions.toRegion(position.z + loadRadius);
+        for (int z = minZ; z <= maxZ; z++) {
+            for (int x = minX; x <= maxX; x++) {
+                RegionLevel.Region region = regions.getRegion(x, z);
+                if (region != null && !loaded.containsKey(region) && !pending.containsKey(region)
+                        && !failed.contains(region) && region.distanceSquared(position.x, position.z) <= loadSquared) {
+                    requested.add(region);
+                }
+            }
+        }
+        requested.sort((a, b) -> Float.compare(a.distanceSquared(position.x, position.z),
+                                               b.distanceSquared(position.x, position.z)));
+        for (RegionLevel.Region region : requested) {
+            PendingRegion pendingRegion = new PendingRegion(region);
+            pendingRegion.decoding = LoadModel.getPipeline().load(() -> {
+                DecodedRegion decoded = new DecodedRegion(regions.readRegion(region));
+                loader.readStaticMeshes(decoded.assets);
+                return (PendingUpload<DecodedRegion>) () -> decoded;
+            });
+            pending.put(region, pendingRegion);
+        }
+    }
+
+    /**
+     * Gets the number of regions in the scene.
+     *
+     * @return The loaded region count
+     */
+    public int getLoadedCount() {
+        return loaded.size();
+    }
+
+    /**
+     * Gets the number of regions that are decoding or waiting for their assets.
+     *
+     * @return The pending region count
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stops loading and unloads every streamed region.
+     */
+    public void cleanup() {
+        for (PendingRegion region : pending.values()) {
+            region.cancel();
+        }
+        pending.clear();
+        for (LoadedRegion region : loaded.values()) {
+            loader.unloadRegion(region);
+        }
+        loaded.clear();
+    }
+
+    /**
+     * A region read and parsed on a worker thread.
+     */
+    private static class DecodedRegion {
+        final BinaryLevel level;
+        final LevelAssets assets;
+
+        DecodedRegion(BinaryLevel level) {
+            this.level = level;
+            this.assets = LevelAssets.of(level);
+        }
+    }
+
+    /**
+     * A region that is loading.
+     */
+    private class PendingRegion {
+        final RegionLevel.Region region;
+        CompletableFuture<DecodedRegion> decoding;
+        DecodedRegion decoded;
+
+        /** The region being added to the scene, once its assets are resident */
+        RegionInsertion insertion;
+
+        PendingRegion(RegionLevel.Region region) {
+            this.region = region;
+        }
+
+        /**
+         * Advances the region's loading.
+         *
+         * @return True once it is decoded and its assets are resident
+         * @throws Exception If decoding failed
+         */
+        boolean isReady() throws Exception {
+            if (decoded == null) {
+                if (!decoding.isDone()) {
+                    return false;
+                }
+                decoded = decoding.join();
+                decoded.assets.request();
+                return false;
+            }
+            return insertion != null || decoded.assets.isResident();
+        }
+
+        /**
+         * Gives back the models held while loading, once the region's entities hold their own.
+         */
+        void releaseAssets() {
+            if (decoded != null) {
+                decoded.assets.release();
+            }
+        }
+
+        /**
+         * Stops loading the region, removing any part of it already in the scene.
+         */
+        void cancel() {
+            if (decoding != null) {
+                decoding.cancel(false);
+            }
+            if (insertion != null) {
+                insertion.cancel();
+            }
+            releaseAssets();
+        }
+    }
+}
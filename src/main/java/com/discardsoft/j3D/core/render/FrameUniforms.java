@@ -0,0 +1,74 @@
+package com.discardsoft.j3D.core.render;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+/**
+ * Per-frame camera state shared by all shader programs.
+ * <p>
+ * Matches this block, which shaders declare to read the values:
+ * </p>
+ * <pre>
+ * layout (std140) uniform FrameData {
+ *     mat4 projectionMatrix;
+ *     mat4 viewMatrix;
+ *     mat4 orthographicMatrix;
+ *     vec4 cameraPosition;
+ * };
+ * </pre>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class FrameUniforms extends UniformBuffer {
+
+    /** Name of the uniform block in GLSL */
+    public static final String BLOCK_NAME = "FrameData";
+
+    /** Binding point the block is attached to in every program */
+    public static final int BINDING = 0;
+
+    /** std140 byte offsets of the block members */
+    private static final int PROJECTION_OFFSET = 0;
+    private static final int VIEW_OFFSET = 64;
+    private static final int ORTHOGRAPHIC_OFFSET = 128;
+    private static final int CAMERA_POSITION_OFFSET = 192;
+
+    /** Total size of the block in bytes */
+    private static final int SIZE = 208;
+
+    /**
+     * Creates the per-frame uniform buffer.
+     */
+    public FrameUniforms() {
+        super(BINDING, SIZE);
+    }
+
+    /**
+     * Writes the orthographic projection used for screen-space UI and uploads the block.
+     * <p>
+     * The orthographic matrix rarely changes, so it is kept across frames
+     * instead of being passed to {@link #update}.
+     * </p>
+     *
+     * @param orthographicMatrix The UI projection matrix
+     */
+    public void setOrthographicMatrix(Matrix4f orthographicMatrix) {
+        putMatrix(ORTHOGRAPHIC_OFFSET, orthographicMatrix);
+        upload();
+    }
+
+    /**
+     * Writes the camera state of a frame and uploads the block.
+     *
+     * @param projectionMatrix The perspective projection matrix
+     * @param viewMatrix The camera view matrix
+     * @param cameraPosition The camera position in world space
+     */
+    public void update(Matrix4f projectionMatrix, Matrix4f viewMatrix, Vector3f cameraPosition) {
+        putMatrix(PROJECTION_OFFSET, projectionMatrix);
+        putMatrix(VIEW_OFFSET, viewMatrix);
+        putVector(CAMERA_POSITION_OFFSET, cameraPosition, 1.0f);
+        upload();
+    }
+}
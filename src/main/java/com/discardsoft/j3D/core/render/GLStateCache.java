@@ -0,0 +1,286 @@
+package com.discardsoft.j3D.core.render;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL13;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+
+import java.util.Arrays;
+
+/**
+ * Shadows the OpenGL state touched by the renderer and skips redundant calls.
+ * <p>
+ * Every bind, enable and mask change goes through this tracker, which only
+ * forwards it to OpenGL when the value actually changes. Applied and skipped
+ * changes are counted in the frame's {@link RenderStats}. Because other code
+ * (UI, tools) changes the same state directly, the cache must be
+ * {@link #reset() reset} at the start of every frame, which marks all
+ * tracked state as unknown.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class GLStateCache {
+
+    /** Marker for state whose current value is not known */
+    private static final int UNKNOWN = -1;
+
+    /** Number of texture units tracked */
+    private static final int TEXTURE_UNITS = 16;
+
+    /** Capabilities tracked by {@link #enable(int)} and {@link #disable(int)} */
+    private static final int[] CAPABILITIES = {GL11.GL_DEPTH_TEST, GL11.GL_BLEND, GL11.GL_CULL_FACE};
+
+    /** Counters receiving applied and skipped state changes */
+    private final RenderStats stats;
+
+    /** Currently bound shader program */
+    private int program;
+
+    /** Currently bound vertex array object */
+    private int vertexArray;
+
+    /** Currently active texture unit, as an index from 0 */
+    private int activeTextureUnit;
+
+    /** Texture bound to GL_TEXTURE_2D on each unit */
+    private final int[] boundTextures = new int[TEXTURE_UNITS];
+
+    /** Texture bound to GL_TEXTURE_2D_ARRAY on each unit */
+    private final int[] boundTextureArrays = new int[TEXTURE_UNITS];
+
+    /** Enabled state of each tracked capability (1, 0 or unknown) */
+    private final int[] capabilityStates = new int[CAPABILITIES.length];
+
+    /** Depth write mask (1, 0 or unknown) */
+    private int depthMask;
+
+    /** Blend source factor */
+    private int blendSource;
+
+    /** Blend destination factor */
+    private int blendDestination;
+
+    /** Bitmask of vertex attribute arrays known to be enabled, indexed by VAO ID */
+    private int[] enabledAttributes = new int[64];
+
+    /**
+     * Creates a new state cache.
+     *
+     * @param stats The counters receiving applied and skipped state changes
+     */
+    public GLStateCache(RenderStats stats) {
+        this.stats = stats;
+        reset();
+    }
+
+    /**
+     * Forgets all tracked state so the next change of every kind is applied.
+     */
+    public void reset() {
+        program = UNKNOWN;
+        vertexArray = UNKNOWN;
+        activeTextureUnit = UNKNOWN;
+        Arrays.fill(boundTextures, UNKNOWN);
+        Arrays.fill(boundTextureArrays, UNKNOWN);
+        Arrays.fill(capabilityStates, UNKNOWN);
+        depthMask = UNKNOWN;
+        blendSource = UNKNOWN;
+        blendDestination = UNKNOWN;
+        Arrays.fill(enabledAttributes, 0);
+    }
+
+    /**
+     * Binds a shader program.
+     *
+     * @param programId The program to bind, or 0 to unbind
+     */
+    public void useProgram(int programId) {
+        if (program == programId) {
+            stats.countStateChangeSkipped();
+            return;
+        }
+        GL20.glUseProgram(programId);
+        program = programId;
+        stats.countStateChange();
+    }
+
+    /**
+     * Binds a vertex array object.
+     *
+     * @param vaoId The VAO to bind, or 0 to unbind
+     */
+    public void bindVertexArray(int vaoId) {
+        if (vertexArray == vaoId) {
+            stats.countStateChangeSkipped();
+            return;
+        }
+        GL30.glBindVertexArray(vaoId);
+        vertexArray = vaoId;
+        stats.countStateChange();
+    }
+
+    /**
+     * Enables a vertex attribute array on the currently bound VAO.
+     *
+     * @param location The attribute location (0-31)
+     */
+    public void enableVertexAttribArray(int location) {
+        if (vertexArray < 0) {
+            GL20.glEnableVertexAttribArray(location);
+            stats.countStateChange();
+            return;
+        }
+        if (vertexArray >= enabledAttributes.length) {
+            enabledAttributes = Arrays.copyOf(enabledAttributes, Math.max(vertexArray + 1, enabledAttributes.length * 2));
+        }
+        int bit = 1 << location;
+        if ((enabledAttributes[vertexArray] & bit) != 0) {
+            stats.countStateChangeSkipped();
+            return;
+        }
+        GL20.glEnableVertexAttribArray(location);
+        enabledAttributes[vertexArray] |= bit;
+        stats.countStateChange();
+    }
+
+    /**
+     * Binds a 2D texture to a texture unit.
+     *
+     * @param unit The texture unit index (0 for GL_TEXTURE0)
+     * @param textureId The texture to bind
+     */
+    public void bindTexture(int unit, int textureId) {
+        if (boundTextures[unit] == textureId) {
+            stats.countStateChangeSkipped();
+            return;
+        }
+        activeTexture(unit);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+        boundTextures[unit] = textureId;
+        stats.countStateChange();
+    }
+
+    /**
+     * Binds an array texture to a texture unit.
+     *
+     * @param unit The texture unit index (0 for GL_TEXTURE0)
+     * @param textureId The array texture to bind
+     */
+    public void bindTextureArray(int unit, int textureId) {
+        if (boundTextureArrays[unit] == textureId) {
+            stats.countStateChangeSkipped();
+            return;
+        }
+        activeTexture(unit);
+        GL11.glBindTexture(GL30.GL_TEXTURE_2D_ARRAY, textureId);
+        boundTextureArrays[unit] = textureId;
+        stats.countStateChange();
+    }
+
+    /**
+     * Selects the active texture unit.
+     *
+     * @param unit The texture unit index (0 for GL_TEXTURE0)
+     */
+    public void activeTexture(int unit) {
+        if (activeTextureUnit == unit) {
+            stats.countStateChangeSkipped();
+            return;
+        }
+        GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
+        activeTextureUnit = unit;
+        stats.countStateChange();
+    }
+
+    /**
+     * Enables an OpenGL capability.
+     *
+     * @param capability The capability, such as GL_DEPTH_TEST or GL_BLEND
+     */
+    public void enable(int capability) {
+        setCapability(capability, true);
+    }
+
+    /**
+     * Disables an OpenGL capability.
+     *
+     * @param capability The capability, such as GL_DEPTH_TEST or GL_BLEND
+     */
+    public void disable(int capability) {
+        setCapability(capability, false);
+    }
+
+    /**
+     * Enables or disables a capability, skipping the call if it is already in that state.
+     *
+     * @param capability The capability to change
+     * @param enabled The requested state
+     */
+    private void setCapability(int capability, boolean enabled) {
+        int slot = capabilitySlot(capability);
+        int state = enabled ? 1 : 0;
+        if (slot >= 0 && capabilityStates[slot] == state) {
+            stats.countStateChangeSkipped();
+            return;
+        }
+        if (enabled) {
+            GL11.glEnable(capability);
+        } else {
+            GL11.glDisable(capability);
+        }
+        if (slot >= 0) {
+            capabilityStates[slot] = state;
+        }
+        stats.countStateChange();
+    }
+
+    /**
+     * Finds the tracking slot of a capability.
+     *
+     * @param capability The capability
+     * @return The slot index, or -1 if the capability is not tracked
+     */
+    private static int capabilitySlot(int capability) {
+        for (int i = 0; i < CAPABILITIES.length; i++) {
+            if (CAPABILITIES[i] == capability) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Enables or disables writing to the depth buffer.
+     *
+     * @param enabled True to write depth values
+     */
+    public void depthMask(boolean enabled) {
+        int state = enabled ? 1 : 0;
+        if (depthMask == state) {
+            stats.countStateChangeSkipped();
+            return;
+        }
+        GL11.glDepthMask(enabled);
+        depthMask = state;
+        stats.countStateChange();
+    }
+
+    /**
+     * Sets the blend factors.
+     *
+     * @param source The source factor
+     * @param destination The destination factor
+     */
+    public void blendFunc(int source, int destination) {
+        if (blendSource == source && blendDestination == destination) {
+            stats.countStateChangeSkipped();
+            return;
+        }
+        GL11.glBlendFunc(source, destination);
+        blendSource = source;
+        blendDestination = destination;
+        stats.countStateChange();
+    }
+}
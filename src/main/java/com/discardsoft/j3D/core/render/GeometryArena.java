@@ -0,0 +1,459 @@
+package com.discardsoft.j3D.core.render;
+
+import com.discardsoft.j3D.core.entity.Model;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared vertex and index storage for many models.
+ * <p>
+ * All meshes loaded through an arena live in one interleaved vertex buffer
+ * (position, texture coordinates, normal) and one 32-bit index buffer,
+ * referenced by a single VAO. Each model owns a range of both buffers and is
+ * drawn with its base vertex and first index, so switching between arena
+ * models never rebinds a VAO, and whole groups of them can be submitted with
+ * one multi-draw call. Ranges are handed out first-fit from free lists that
+ * merge neighbouring ranges when models are released. When a buffer runs out
+ * of space it is reallocated at twice the size and the old contents copied on
+ * the GPU, which keeps existing ranges valid. When releasing models leaves the
+ * last three quarters of a buffer free, it is reallocated at a smaller size
+ * the same way, never below its initial capacity. Ranges are never moved, so
+ * a buffer only shrinks as far as its last allocated range.
+ * </p>
+ * <p>
+ * The arena reports its capacity to the {@link GpuResourceRegistry}, since
+ * that is what the buffers occupy whether or not their ranges are in use.
+ * </p>
+ * <p>
+ * GPU objects are created on the first allocation, so an arena can be
+ * constructed before the OpenGL context exists.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class GeometryArena {
+
+    /** Number of floats per interleaved vertex: position (3), texture coordinates (2), normal (3) */
+    public static final int VERTEX_FLOATS = 8;
+
+    /** Size of an interleaved vertex in bytes */
+    public static final int VERTEX_BYTES = VERTEX_FLOATS * Float.BYTES;
+
+    /** Default initial vertex capacity */
+    private static final int DEFAULT_VERTEX_CAPACITY = 1 << 18;
+
+    /** Default initial index capacity */
+    private static final int DEFAULT_INDEX_CAPACITY = 1 << 20;
+
+    /** The VAO describing the interleaved layout of the vertex buffer */
+    private int vaoId;
+
+    /** The shared vertex buffer */
+    private int vertexBufferId;
+
+    /** The shared index buffer */
+    private int indexBufferId;
+
+    /** Free vertex ranges, sorted by offset */
+    private final FreeList freeVertices;
+
+    /** Free index ranges, sorted by offset */
+    private final FreeList freeIndices;
+
+    /** Registry the allocated bytes are reported to */
+    private final GpuResourceRegistry registry = GpuResourceRegistry.getShared();
+
+    /**
+     * Creates an arena with the default initial capacity.
+     */
+    public GeometryArena() {
+        this(DEFAULT_VERTEX_CAPACITY, DEFAULT_INDEX_CAPACITY);
+    }
+
+    /**
+     * Creates an arena with the given initial capacity.
+     *
+     * @param vertexCapacity The number of vertices to reserve space for
+     * @param indexCapacity The number of indices to reserve space for
+     */
+    public GeometryArena(int vertexCapacity, int indexCapacity) {
+        freeVertices = new FreeList(Math.max(1, vertexCapacity));
+        freeIndices = new FreeList(Math.max(1, indexCapacity));
+    }
+
+    /**
+     * Uploads a mesh into the arena.
+     *
+     * @param positions Vertex positions, 3 floats per vertex
+     * @param textureCoords Texture coordinates, 2 floats per vertex
+     * @param normals Vertex normals, 3 floats per vertex
+     * @param indices Triangle indices into the vertex arrays
+     * @return A model referencing the mesh's ranges of the shared buffers
+     */
+    public Model allocate(float[] positions, float[] textureCoords, float[] normals, int[] indices) {
+        // Interleave the attributes into one upload
+        int vertexCount = positions.length / 3;
+        FloatBuffer vertices = MemoryUtil.memAllocFloat(Math.max(1, vertexCount * VERTEX_FLOATS));
+        for (int v = 0; v < vertexCount; v++) {
+            vertices.put(positions[v * 3]).put(positions[v * 3 + 1]).put(positions[v * 3 + 2]);
+            if (v * 2 + 1 < textureCoords.length) {
+                vertices.put(textureCoords[v * 2]).put(textureCoords[v * 2 + 1]);
+            } else {
+                vertices.put(0.0f).put(0.0f);
+            }
+            if (v * 3 + 2 < normals.length) {
+                vertices.put(normals[v * 3]).put(normals[v * 3 + 1]).put(normals[v * 3 + 2]);
+            } else {
+                vertices.put(0.0f).put(0.0f).put(0.0f);
+            }
+        }
+        vertices.flip();
+        IntBuffer indexData = MemoryUtil.memAllocInt(Math.max(1, indices.length));
+        indexData.put(indices).flip();
+
+        Model model = allocate(MemoryUtil.memByteBuffer(vertices), vertexCount, MemoryUtil.memByteBuffer(indexData), indices.length);
+
+        MemoryUtil.memFree(vertices);
+        MemoryUtil.memFree(indexData);
+        return model;
+    }
+
+    /**
+     * Uploads a mesh that is already in the arena's layout.
+     * <p>
+     * The buffers are passed to OpenGL as they are, so they may be
+     * memory-mapped from a file.
+     * </p>
+     *
+     * @param vertices Interleaved vertices of {@link #VERTEX_BYTES} bytes each, in native byte order
+     * @param vertexCount The number of vertices
+     * @param indices 32-bit indices in native byte order
+     * @param indexCount The number of indices
+     * @return A model referencing the mesh's ranges of the shared buffers
+     */
+    public Model allocate(ByteBuffer vertices, int vertexCount, ByteBuffer indices, int indexCount) {
+        if (vaoId == 0) {
+            createBuffers();
+        }
+
+        int baseVertex = freeVertices.allocate(vertexCount);
+        if (baseVertex < 0) {
+            growVertices(vertexCount);
+            baseVertex = freeVertices.allocate(vertexCount);
+        }
+        int firstIndex = freeIndices.allocate(indexCount);
+        if (firstIndex < 0) {
+            growIndices(indexCount);
+            firstIndex = freeIndices.allocate(indexCount);
+        }
+        registry.register(GpuResourceRegistry.Kind.ARENA, vaoId, getCapacityBytes());
+
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vertexBufferId);
+        GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, (long) baseVertex * VERTEX_BYTES,
+                             vertices.duplicate().limit(vertices.position() + vertexCount * VERTEX_BYTES).slice());
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, indexBufferId);
+        GL15.glBufferSubData(GL31.GL_COPY_WRITE_BUFFER, (long) firstIndex * Integer.BYTES,
+                             indices.duplicate().limit(indices.position() + indexCount * Integer.BYTES).slice());
+        GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, 0);
+
+        return new Model(vaoId, indexCount, baseVertex, vertexCount, firstIndex);
+    }
+
+    /**
+     * Returns a model's ranges to the arena, shrinking the buffers when they are mostly free.
+     * <p>
+     * The model, and every model sharing its geometry, must not be drawn afterwards.
+     * </p>
+     *
+     * @param model A model allocated from this arena
+     */
+    public void free(Model model) {
+        if (!model.isArenaAllocated() || model.getVaoId() != vaoId) {
+            return;
+        }
+        freeVertices.release(model.getBaseVertex(), model.getArenaVertexCount());
+        freeIndices.release(model.getFirstIndex(), model.getVertexCount());
+
+        int vertexCapacity = freeVertices.capacity;
+        int newVertexCapacity = freeVertices.shrink();
+        if (newVertexCapacity < vertexCapacity) {
+            vertexBufferId = reallocate(vertexBufferId, (long) newVertexCapacity * VERTEX_BYTES, (long) newVertexCapacity * VERTEX_BYTES);
+        }
+        int indexCapacity = freeIndices.capacity;
+        int newIndexCapacity = freeIndices.shrink();
+        if (newIndexCapacity < indexCapacity) {
+            indexBufferId = reallocate(indexBufferId, (long) newIndexCapacity * Integer.BYTES, (long) newIndexCapacity * Integer.BYTES);
+        }
+        if (newVertexCapacity < vertexCapacity || newIndexCapacity < indexCapacity) {
+            attachBuffers();
+            registry.register(GpuResourceRegistry.Kind.ARENA, vaoId, getCapacityBytes());
+        }
+    }
+
+    /**
+     * Gets the VAO shared by all models of this arena.
+     *
+     * @return The VAO ID, or 0 if nothing has been allocated yet
+     */
+    public int getVaoId() {
+        return vaoId;
+    }
+
+    /**
+     * Gets the GPU memory currently reserved by the arena's buffers.
+     *
+     * @return The size of both buffers in bytes
+     */
+    public long getCapacityBytes() {
+        return (long) freeVertices.capacity * VERTEX_BYTES + (long) freeIndices.capacity * Integer.BYTES;
+    }
+
+    /**
+     * Gets the GPU memory occupied by allocated geometry.
+     *
+     * @return The size of all allocated ranges in bytes
+     */
+    public long getUsedBytes() {
+        return (long) freeVertices.used() * VERTEX_BYTES + (long) freeIndices.used() * Integer.BYTES;
+    }
+
+    /**
+     * Creates the VAO and both buffers with their initial capacity.
+     */
+    private void createBuffers() {
+        vertexBufferId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vertexBufferId);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, (long) freeVertices.capacity * VERTEX_BYTES, GL15.GL_STATIC_DRAW);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+        indexBufferId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, indexBufferId);
+        GL15.glBufferData(GL31.GL_COPY_WRITE_BUFFER, (long) freeIndices.capacity * Integer.BYTES, GL15.GL_STATIC_DRAW);
+        GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, 0);
+
+        vaoId = GL30.glGenVertexArrays();
+        attachBuffers();
+        registry.register(GpuResourceRegistry.Kind.ARENA, vaoId, getCapacityBytes());
+    }
+
+    /**
+     * Points the VAO's vertex attributes and element buffer at the current buffers.
+     */
+    private void attachBuffers() {
+        GL30.glBindVertexArray(vaoId);
+        GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, indexBufferId);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vertexBufferId);
+        GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, VERTEX_BYTES, 0);
+        GL20.glVertexAttribPointer(1, 2, GL11.GL_FLOAT, false, VERTEX_BYTES, 3L * Float.BYTES);
+        GL20.glVertexAttribPointer(2, 3, GL11.GL_FLOAT, false, VERTEX_BYTES, 5L * Float.BYTES);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        GL30.glBindVertexArray(0);
+    }
+
+    /**
+     * Reallocates the vertex buffer so it has room for at least the given number of extra vertices.
+     *
+     * @param required The number of vertices that must fit in one range
+     */
+    private void growVertices(int required) {
+        int oldCapacity = freeVertices.capacity;
+        int newCapacity = freeVertices.grow(required);
+        vertexBufferId = reallocate(vertexBufferId, (long) oldCapacity * VERTEX_BYTES, (long) newCapacity * VERTEX_BYTES);
+        attachBuffers();
+    }
+
+    /**
+     * Reallocates the index buffer so it has room for at least the given number of extra indices.
+     *
+     * @param required The number of indices that must fit in one range
+     */
+    private void growIndices(int required) {
+        int oldCapacity = freeIndices.capacity;
+        int newCapacity = freeIndices.grow(required);
+        indexBufferId = reallocate(indexBufferId, (long) oldCapacity * Integer.BYTES, (long) newCapacity * Integer.BYTES);
+        attachBuffers();
+    }
+
+    /**
+     * Creates a buffer of a new size, copies the start of the old contents into it on the GPU and deletes the old buffer.
+     *
+     * @param oldBuffer The buffer to replace
+     * @param copySize The number of bytes to keep from the start of the old buffer
+     * @param newSize The size of the new buffer in bytes
+     * @return The new buffer
+     */
+    private static int reallocate(int oldBuffer, long copySize, long newSize) {
+        int newBuffer = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, newBuffer);
+        GL15.glBufferData(GL31.GL_COPY_WRITE_BUFFER, newSize, GL15.GL_STATIC_DRAW);
+        GL15.glBindBuffer(GL31.GL_COPY_READ_BUFFER, oldBuffer);
+        GL31.glCopyBufferSubData(GL31.GL_COPY_READ_BUFFER, GL31.GL_COPY_WRITE_BUFFER, 0, 0, copySize);
+        GL15.glBindBuffer(GL31.GL_COPY_READ_BUFFER, 0);
+        GL15.glBindBuffer(GL31.GL_COPY_WRITE_BUFFER, 0);
+        GL15.glDeleteBuffers(oldBuffer);
+        return newBuffer;
+    }
+
+    /**
+     * Releases the VAO and both buffers.
+     */
+    public void cleanup() {
+        if (vaoId != 0) {
+            GL30.glDeleteVertexArrays(vaoId);
+            GL15.glDeleteBuffers(vertexBufferId);
+            GL15.glDeleteBuffers(indexBufferId);
+            registry.unregister(GpuResourceRegistry.Kind.ARENA, vaoId);
+            vaoId = 0;
+        }
+    }
+
+    /**
+     * First-fit allocator over a range of element slots.
+     */
+    private static class FreeList {
+
+        /** Free ranges as (offset, length) pairs, sorted by offset */
+        private final List<int[]> ranges = new ArrayList<>();
+
+        /** Total number of slots */
+        int capacity;
+
+        /** Capacity the list never shrinks below */
+        private final int minimumCapacity;
+
+        FreeList(int capacity) {
+            this.capacity = capacity;
+            this.minimumCapacity = capacity;
+            ranges.add(new int[] {0, capacity});
+        }
+
+        /**
+         * Takes the first free range that fits.
+         *
+         * @param length The number of slots
+         * @return The offset of the range, or -1 if no free range is large enough
+         */
+        int allocate(int length) {
+            for (int i = 0; i < ranges.size(); i++) {
+                int[] range = ranges.get(i);
+                if (range[1] >= length) {
+                    int offset = range[0];
+                    range[0] += length;
+                    range[1] -= length;
+                    if (range[1] == 0) {
+                        ranges.remove(i);
+                    }
+                    return offset;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns a range, merging it with adjacent free ranges.
+         *
+         * @param offset The offset of the range
+         * @param length The number of slots
+         */
+        void release(int offset, int length) {
+            if (length <= 0) {
+                return;
+            }
+            int i = 0;
+            while (i < ranges.size() && ranges.get(i)[0] < offset) {
+                i++;
+            }
+            ranges.add(i, new int[] {offset, length});
+
+            // Merge with the following range, then with the preceding one
+            if (i + 1 < ranges.size() && offset + length == ranges.get(i + 1)[0]) {
+                ranges.get(i)[1] += ranges.remove(i + 1)[1];
+            }
+            if (i > 0 && ranges.get(i - 1)[0] + ranges.get(i - 1)[1] == offset) {
+                ranges.get(i - 1)[1] += ranges.remove(i)[1];
+            }
+        }
+
+        /**
+         * Doubles the capacity until a range of the given length fits at the end.
+         *
+         * @param required The number of slots that must fit in one range
+         * @return The new capacity
+         */
+        int grow(int required) {
+            int oldCapacity = capacity;
+            int tail = 0;
+            if (!ranges.isEmpty()) {
+                int[] last = ranges.get(ranges.size() - 1);
+                if (last[0] + last[1] == oldCapacity) {
+                    tail = last[1];
+                }
+            }
+            int newCapacity = oldCapacity;
+            while (newCapacity - oldCapacity + tail < required) {
+                newCapacity *= 2;
+            }
+            capacity = newCapacity;
+            release(oldCapacity, newCapacity - oldCapacity);
+            return newCapacity;
+        }
+
+        /**
+         * Halves the capacity while the slots after the last allocated range cover three quarters of it.
+         * <p>
+         * Shrinking only once a buffer is a quarter used, to half its size,
+         * keeps a buffer from being reallocated back and forth by models
+         * that are loaded and released repeatedly.
+         * </p>
+         *
+         * @return The new capacity
+         */
+        int shrink() {
+            if (ranges.isEmpty()) {
+                return capacity;
+            }
+            int[] last = ranges.get(ranges.size() - 1);
+            if (last[0] + last[1] != capacity) {
+                return capacity;
+            }
+            int end = last[0];
+            int newCapacity = capacity;
+            while (newCapacity / 2 >= minimumCapacity && end <= newCapacity / 4) {
+                newCapacity /= 2;
+            }
+            if (newCapacity < capacity) {
+                capacity = newCapacity;
+                last[1] = newCapacity - end;
+                if (last[1] == 0) {
+                    ranges.remove(ranges.size() - 1);
+                }
+            }
+            return capacity;
+        }
+
+        /**
+         * Gets the number of allocated slots.
+         *
+         * @return The used slot count
+         */
+        int used() {
+            int free = 0;
+            for (int[] range : ranges) {
+                free += range[1];
+            }
+            return capacity - free;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.discardsoft.j3D.core.render;
+
+import com.discardsoft.j3D.core.utils.Settings;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps an estimate of the GPU memory held by every texture and buffer the engine creates.
+ * <p>
+ * Loaders register each object with its size when they upload it and
+ * unregister it when they delete it, so the totals always describe what is
+ * resident. The registry only counts; {@link com.discardsoft.j3D.core.asset.AssetManager}
+ * compares the total with the budget and evicts assets when it is exceeded.
+ * Sizes are estimates from the uploaded data, without driver padding or
+ * alignment.
+ * </p>
+ * <p>
+ * Geometry arenas register their capacity, which is what their buffers
+ * occupy however many of their ranges are allocated. Releasing an arena
+ * model only lowers it when the arena shrinks.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class GpuResourceRegistry {
+
+    /**
+     * Kinds of tracked GPU objects, whose IDs are separate namespaces in OpenGL.
+     */
+    public enum Kind {
+        /** A texture or array texture, identified by its texture ID */
+        TEXTURE,
+        /** A vertex or index buffer, identified by its buffer ID */
+        BUFFER,
+        /** The buffers of a geometry arena, identified by its VAO ID */
+        ARENA
+    }
+
+    /** Registry shared by all loaders */
+    private static GpuResourceRegistry shared;
+
+    /** Size of each tracked object in bytes, by kind and ID */
+    private final Map<Long, Long> sizes = new HashMap<>();
+
+    /** Total size of the tracked objects of each kind */
+    private final long[] kindBytes = new long[Kind.values().length];
+
+    /** Total size of all tracked objects */
+    private long totalBytes;
+
+    /** Memory the assets are allowed to occupy */
+    private long budgetBytes;
+
+    /**
+     * Creates a registry.
+     *
+     * @param budgetBytes The memory budget in bytes
+     */
+    public GpuResourceRegistry(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Gets the registry shared by all loaders, created with the budget from {@link Settings#GPU_MEMORY_BUDGET_MB}.
+     *
+     * @return The shared registry
+     */
+    public static GpuResourceRegistry getShared() {
+        if (shared == null) {
+            shared = new GpuResourceRegistry(Settings.GPU_MEMORY_BUDGET_MB * 1024L * 1024L);
+        }
+        return shared;
+    }
+
+    /**
+     * Records the size of an object, replacing any size recorded for it before.
+     *
+     * @param kind The kind of object
+     * @param id The OpenGL ID of the object
+     * @param bytes The estimated size in bytes
+     */
+    public void register(Kind kind, int id, long bytes) {
+        Long previous = sizes.put(key(kind, id), bytes);
+        long change = bytes - (previous != null ? previous : 0L);
+        kindBytes[kind.ordinal()] += change;
+        totalBytes += change;
+    }
+
+    /**
+     * Forgets a deleted object.
+     *
+     * @param kind The kind of object
+     * @param id The OpenGL ID of the object
+     */
+    public void unregister(Kind kind, int id) {
+        Long previous = sizes.remove(key(kind, id));
+        if (previous != null) {
+            kindBytes[kind.ordinal()] -= previous;
+            totalBytes -= previous;
+        }
+    }
+
+    /**
+     * Gets the recorded size of an object.
+     *
+     * @param kind The kind of object
+     * @param id The OpenGL ID of the object
+     * @return The size in bytes, or 0 if the object is not tracked
+     */
+    public long getBytes(Kind kind, int id) {
+        Long bytes = sizes.get(key(kind, id));
+        return bytes != null ? bytes : 0L;
+    }
+
+    /**
+     * Gets the total size of the tracked objects of one kind.
+     *
+     * @param kind The kind of object
+     * @return The size in bytes
+     */
+    public long getBytes(Kind kind) {
+        return kindBytes[kind.ordinal()];
+    }
+
+    /**
+     * Gets the total size of all tracked objects.
+     *
+     * @return The size in bytes
+     */
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Gets the number of tracked objects.
+     *
+     * @return The object count
+     */
+    public int getResourceCount() {
+        return sizes.size();
+    }
+
+    /**
+     * Gets the memory budget.
+     *
+     * @return The budget in bytes
+     */
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * Sets the memory budget.
+     *
+     * @param budgetBytes The budget in bytes
+     */
+    public void setBudgetBytes(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Checks whether the tracked objects exceed the budget.
+     *
+     * @return True if assets should be evicted
+     */
+    public boolean isOverBudget() {
+        return totalBytes > budgetBytes;
+    }
+
+    /**
+     * Combines a kind and an ID into a map key.
+     */
+    private static long key(Kind kind, int id) {
+        return ((long) kind.ordinal() << 32) | (id & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,135 @@
+package com.discardsoft.j3D.core.render;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL40;
+import org.lwjgl.opengl.GL43;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.IntBuffer;
+
+/**
+ * Collects indexed draw commands and submits them with glMultiDrawElementsIndirect.
+ * <p>
+ * Commands are appended for draws that share a VAO and texture, then
+ * {@link #submit()} uploads the pending commands behind the ones already used
+ * this frame and issues them with a single call. The buffer is orphaned at
+ * the start of every frame. Requires OpenGL 4.3, or 4.2 with
+ * ARB_multi_draw_indirect, since each command's base instance selects its
+ * range of the instance buffer.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class IndirectDrawBuffer {
+
+    /** Number of ints per DrawElementsIndirectCommand */
+    private static final int COMMAND_INTS = 5;
+
+    /** Size of one command in bytes */
+    private static final int COMMAND_BYTES = COMMAND_INTS * Integer.BYTES;
+
+    /** The OpenGL draw indirect buffer */
+    private final int bufferId;
+
+    /** Number of commands the GPU buffer can hold */
+    private int capacity;
+
+    /** CPU-side staging for commands not yet submitted */
+    private IntBuffer pending;
+
+    /** Number of commands waiting to be submitted */
+    private int pendingCount;
+
+    /** Number of commands already written to the GPU buffer this frame */
+    private int writtenCount;
+
+    /**
+     * Creates a new indirect draw buffer.
+     *
+     * @param initialCapacity The number of commands to reserve space for per frame
+     */
+    public IndirectDrawBuffer(int initialCapacity) {
+        capacity = Math.max(1, initialCapacity);
+        bufferId = GL15.glGenBuffers();
+        pending = MemoryUtil.memAllocInt(capacity * COMMAND_INTS);
+    }
+
+    /**
+     * Discards all commands of the previous frame.
+     */
+    public void begin() {
+        GL15.glBindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, bufferId);
+        GL15.glBufferData(GL40.GL_DRAW_INDIRECT_BUFFER, (long) capacity * COMMAND_BYTES, GL15.GL_STREAM_DRAW);
+        GL15.glBindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, 0);
+        pendingCount = 0;
+        writtenCount = 0;
+    }
+
+    /**
+     * Appends a draw command.
+     *
+     * @param indexCount The number of indices per instance
+     * @param instanceCount The number of instances
+     * @param firstIndex The position of the first index in the element buffer
+     * @param baseVertex The offset added to every index
+     * @param baseInstance The index of the first instance in the instance buffer
+     */
+    public void add(int indexCount, int instanceCount, int firstIndex, int baseVertex, int baseInstance) {
+        if ((pendingCount + 1) * COMMAND_INTS > pending.capacity()) {
+            pending = MemoryUtil.memRealloc(pending, pending.capacity() * 2);
+        }
+        int offset = pendingCount * COMMAND_INTS;
+        pending.put(offset, indexCount)
+               .put(offset + 1, instanceCount)
+               .put(offset + 2, firstIndex)
+               .put(offset + 3, baseVertex)
+               .put(offset + 4, baseInstance);
+        pendingCount++;
+    }
+
+    /**
+     * Checks whether any commands are waiting to be submitted.
+     *
+     * @return True if {@link #submit()} would issue a draw
+     */
+    public boolean hasPending() {
+        return pendingCount > 0;
+    }
+
+    /**
+     * Uploads the pending commands and draws them with one call, using the bound VAO and program.
+     */
+    public void submit() {
+        if (pendingCount == 0) {
+            return;
+        }
+        GL15.glBindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, bufferId);
+        if (writtenCount + pendingCount > capacity) {
+            // Grow and orphan; commands already issued keep their old storage
+            while (pendingCount > capacity) {
+                capacity *= 2;
+            }
+            GL15.glBufferData(GL40.GL_DRAW_INDIRECT_BUFFER, (long) capacity * COMMAND_BYTES, GL15.GL_STREAM_DRAW);
+            writtenCount = 0;
+        }
+        pending.position(0).limit(pendingCount * COMMAND_INTS);
+        GL15.glBufferSubData(GL40.GL_DRAW_INDIRECT_BUFFER, (long) writtenCount * COMMAND_BYTES, pending);
+        pending.clear();
+
+        GL43.glMultiDrawElementsIndirect(GL11.GL_TRIANGLES, GL11.GL_UNSIGNED_INT, (long) writtenCount * COMMAND_BYTES, pendingCount, 0);
+        GL15.glBindBuffer(GL40.GL_DRAW_INDIRECT_BUFFER, 0);
+
+        writtenCount += pendingCount;
+        pendingCount = 0;
+    }
+
+    /**
+     * Releases the GPU buffer and the staging memory.
+     */
+    public void cleanup() {
+        GL15.glDeleteBuffers(bufferId);
+        MemoryUtil.memFree(pending);
+    }
+}
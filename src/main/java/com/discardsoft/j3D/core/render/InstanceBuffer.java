@@ -0,0 +1,172 @@
+package com.discardsoft.j3D.core.render;
+
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL33;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Streams per-instance data for instanced draw calls.
+ * <p>
+ * Each frame the renderer clears the buffer, appends one transformation matrix,
+ * one normal matrix and one texture layer per visible entity, uploads
+ * everything with a single buffer update and then points the instanced
+ * vertex attributes at the range belonging to each draw. The transformation
+ * matrix occupies attribute locations {@link #MATRIX_ATTRIBUTE} to
+ * {@link #MATRIX_ATTRIBUTE} + 3, the normal matrix locations
+ * {@link #NORMAL_MATRIX_ATTRIBUTE} to {@link #NORMAL_MATRIX_ATTRIBUTE} + 2,
+ * the layer location {@link #LAYER_ATTRIBUTE}, and all advance once per
+ * instance.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class InstanceBuffer {
+
+    /** First vertex attribute location used by the instance matrix */
+    public static final int MATRIX_ATTRIBUTE = 3;
+
+    /** First vertex attribute location used by the instance normal matrix */
+    public static final int NORMAL_MATRIX_ATTRIBUTE = 7;
+
+    /** Vertex attribute location of the instance's array texture layer */
+    public static final int LAYER_ATTRIBUTE = 10;
+
+    /** Number of floats of the transformation matrix, which starts each instance */
+    private static final int MATRIX_FLOATS = 16;
+
+    /** Number of floats of the normal matrix, which follows the transformation matrix */
+    private static final int NORMAL_MATRIX_FLOATS = 9;
+
+    /** Number of floats stored per instance: a 4x4 transformation, a 3x3 normal matrix and a texture layer */
+    private static final int INSTANCE_FLOATS = MATRIX_FLOATS + NORMAL_MATRIX_FLOATS + 1;
+
+    /** Number of bytes stored per instance */
+    private static final int INSTANCE_BYTES = INSTANCE_FLOATS * Float.BYTES;
+
+    /** The OpenGL buffer holding the instance data */
+    private final int vboId;
+
+    /** CPU-side staging memory for the current frame */
+    private FloatBuffer data;
+
+    /** Number of instances written since the last clear */
+    private int instanceCount;
+
+    /**
+     * Creates a new instance buffer.
+     *
+     * @param initialCapacity The number of instances to reserve space for
+     */
+    public InstanceBuffer(int initialCapacity) {
+        vboId = GL15.glGenBuffers();
+        data = MemoryUtil.memAllocFloat(Math.max(1, initialCapacity) * INSTANCE_FLOATS);
+    }
+
+    /**
+     * Discards all instances written for the previous frame.
+     */
+    public void clear() {
+        instanceCount = 0;
+    }
+
+    /**
+     * Appends an instance transformation matrix together with its normal matrix.
+     *
+     * @param matrix The model-to-world matrix of the instance
+     * @param normalMatrix The inverse transpose of the upper 3x3 part of the matrix
+     * @param textureLayer The layer of the instance's array texture, or 0 for regular textures
+     * @return The index of the new instance
+     */
+    public int add(Matrix4f matrix, Matrix3f normalMatrix, int textureLayer) {
+        ensureCapacity(instanceCount + 1);
+        int offset = instanceCount * INSTANCE_FLOATS;
+        matrix.get(offset, data);
+        normalMatrix.get(offset + MATRIX_FLOATS, data);
+        data.put(offset + MATRIX_FLOATS + NORMAL_MATRIX_FLOATS, textureLayer);
+        return instanceCount++;
+    }
+
+    /**
+     * Gets the number of instances written since the last clear.
+     *
+     * @return The instance count
+     */
+    public int size() {
+        return instanceCount;
+    }
+
+    /**
+     * Uploads all written instances to the GPU.
+     * <p>
+     * The previous contents are orphaned so the driver does not have to wait
+     * for draw calls of the last frame that may still read them.
+     * </p>
+     */
+    public void upload() {
+        data.position(0).limit(instanceCount * INSTANCE_FLOATS);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, data, GL15.GL_STREAM_DRAW);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+        data.clear();
+    }
+
+    /**
+     * Points the instanced attributes of the bound VAO at a range of instances.
+     * <p>
+     * The attribute arrays are enabled through the state cache, so a VAO only
+     * has them enabled once per frame.
+     * </p>
+     *
+     * @param state The state cache tracking the bound VAO
+     * @param firstInstance The index of the first instance used by the next draw
+     */
+    public void bindAttributes(GLStateCache state, int firstInstance) {
+        long offset = (long) firstInstance * INSTANCE_BYTES;
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, vboId);
+        for (int column = 0; column < 4; column++) {
+            int location = MATRIX_ATTRIBUTE + column;
+            state.enableVertexAttribArray(location);
+            GL20.glVertexAttribPointer(location, 4, GL11.GL_FLOAT, false, INSTANCE_BYTES, offset + column * 4L * Float.BYTES);
+            GL33.glVertexAttribDivisor(location, 1);
+        }
+        long normalOffset = offset + (long) MATRIX_FLOATS * Float.BYTES;
+        for (int column = 0; column < 3; column++) {
+            int location = NORMAL_MATRIX_ATTRIBUTE + column;
+            state.enableVertexAttribArray(location);
+            GL20.glVertexAttribPointer(location, 3, GL11.GL_FLOAT, false, INSTANCE_BYTES, normalOffset + column * 3L * Float.BYTES);
+            GL33.glVertexAttribDivisor(location, 1);
+        }
+        long layerOffset = normalOffset + (long) NORMAL_MATRIX_FLOATS * Float.BYTES;
+        state.enableVertexAttribArray(LAYER_ATTRIBUTE);
+        GL20.glVertexAttribPointer(LAYER_ATTRIBUTE, 1, GL11.GL_FLOAT, false, INSTANCE_BYTES, layerOffset);
+        GL33.glVertexAttribDivisor(LAYER_ATTRIBUTE, 1);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+    }
+
+    /**
+     * Grows the staging memory so it can hold the given number of instances.
+     *
+     * @param instances The required instance capacity
+     */
+    private void ensureCapacity(int instances) {
+        int required = instances * INSTANCE_FLOATS;
+        if (required > data.capacity()) {
+            data = MemoryUtil.memRealloc(data, Math.max(required, data.capacity() * 2));
+        }
+    }
+
+    /**
+     * Releases the GPU buffer and the staging memory.
+     */
+    public void cleanup() {
+        GL15.glDeleteBuffers(vboId);
+        MemoryUtil.memFree(data);
+    }
+}
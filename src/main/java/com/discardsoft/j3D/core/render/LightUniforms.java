@@ -0,0 +1,55 @@
+package com.discardsoft.j3D.core.render;
+
+import com.discardsoft.j3D.core.entity.Light;
+
+/**
+ * Scene light state shared by all shader programs.
+ * <p>
+ * Matches this block, which shaders declare to read the values:
+ * </p>
+ * <pre>
+ * layout (std140) uniform LightData {
+ *     vec4 lightPosition;
+ *     vec4 lightColor;
+ *     vec4 ambientLight;
+ * };
+ * </pre>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class LightUniforms extends UniformBuffer {
+
+    /** Name of the uniform block in GLSL */
+    public static final String BLOCK_NAME = "LightData";
+
+    /** Binding point the block is attached to in every program */
+    public static final int BINDING = 1;
+
+    /** std140 byte offsets of the block members */
+    private static final int POSITION_OFFSET = 0;
+    private static final int COLOR_OFFSET = 16;
+    private static final int AMBIENT_OFFSET = 32;
+
+    /** Total size of the block in bytes */
+    private static final int SIZE = 48;
+
+    /**
+     * Creates the light uniform buffer.
+     */
+    public LightUniforms() {
+        super(BINDING, SIZE);
+    }
+
+    /**
+     * Writes a light's properties and uploads the block.
+     *
+     * @param light The scene light
+     */
+    public void update(Light light) {
+        putVector(POSITION_OFFSET, light.getPosition(), 1.0f);
+        putVector(COLOR_OFFSET, light.getColor(), 0.0f);
+        putVector(AMBIENT_OFFSET, light.getAmbient(), 0.0f);
+        upload();
+    }
+}
@@ -0,0 +1,214 @@
+package com.discardsoft.j3D.core.render;
+
+import com.discardsoft.j3D.core.entity.Entity;
+
+import java.util.Arrays;
+
+/**
+ * A list of entities to draw, ordered by 64-bit sort keys.
+ * <p>
+ * Opaque entities are keyed by render state so that entities sharing a
+ * program, texture and geometry end up next to each other (and can be drawn
+ * with one instanced call), then front to back within each state group
+ * for early depth rejection. Transparent entities are keyed purely by
+ * distance, back to front. Keys are ordered with an LSD radix sort, which
+ * runs in linear time and allocates nothing once the queue has grown to
+ * its working size.
+ * </p>
+ * <p>
+ * Opaque key layout, from the most significant bit:
+ * 8 bits program, 20 bits texture, 20 bits geometry, 16 bits depth.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class RenderQueue {
+
+    /** Bit offset of the program field in an opaque key */
+    private static final int PROGRAM_SHIFT = 56;
+
+    /** Bit offset of the texture field in an opaque key */
+    private static final int TEXTURE_SHIFT = 36;
+
+    /** Bit offset of the geometry field in an opaque key */
+    private static final int GEOMETRY_SHIFT = 16;
+
+    /** Mask of the 8-bit program field */
+    private static final long PROGRAM_MASK = 0xFFL;
+
+    /** Mask of the 20-bit texture and geometry fields */
+    private static final long ID_MASK = 0xFFFFFL;
+
+    /** Sort keys, in insertion order */
+    private long[] keys = new long[256];
+
+    /** Entities, in insertion order */
+    private Entity[] entities = new Entity[256];
+
+    /** Insertion indices in sorted order */
+    private int[] order = new int[256];
+
+    /** Scratch keys for the radix sort */
+    private long[] scratchKeys = new long[256];
+
+    /** Scratch indices for the radix sort */
+    private int[] scratchOrder = new int[256];
+
+    /** Sorted copy of the keys, parallel to {@link #order} */
+    private long[] sortedKeys = new long[256];
+
+    /** Digit histogram for one radix pass */
+    private final int[] counts = new int[256];
+
+    /** Number of queued entities */
+    private int size;
+
+    /**
+     * Builds the sort key of an opaque draw.
+     *
+     * @param programId The shader program
+     * @param textureId The texture
+     * @param geometryKey A value identifying the geometry, such as the VAO
+     * @param distanceSquared The squared distance from the camera
+     * @return A key ordering by state first, then front to back
+     */
+    public static long opaqueKey(int programId, int textureId, int geometryKey, float distanceSquared) {
+        return ((programId & PROGRAM_MASK) << PROGRAM_SHIFT)
+            | ((textureId & ID_MASK) << TEXTURE_SHIFT)
+            | ((geometryKey & ID_MASK) << GEOMETRY_SHIFT)
+            | depthBits(distanceSquared);
+    }
+
+    /**
+     * Builds the sort key of a transparent draw.
+     *
+     * @param distanceSquared The squared distance from the camera
+     * @return A key ordering back to front
+     */
+    public static long backToFrontKey(float distanceSquared) {
+        // Bits of a non-negative float order like the float itself, so invert them for descending order
+        return ~Float.floatToRawIntBits(Math.max(0.0f, distanceSquared)) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Quantizes a squared distance to 16 bits, keeping relative precision at all ranges.
+     *
+     * @param distanceSquared The squared distance from the camera
+     * @return The top 16 bits of the float's exponent and mantissa
+     */
+    private static long depthBits(float distanceSquared) {
+        return (Float.floatToRawIntBits(Math.max(0.0f, distanceSquared)) >>> 15) & 0xFFFFL;
+    }
+
+    /**
+     * Removes all queued entities.
+     */
+    public void clear() {
+        Arrays.fill(entities, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Queues an entity.
+     *
+     * @param key The sort key of the entity's draw
+     * @param entity The entity to draw
+     */
+    public void add(long key, Entity entity) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            entities = Arrays.copyOf(entities, capacity);
+            order = new int[capacity];
+            scratchKeys = new long[capacity];
+            scratchOrder = new int[capacity];
+            sortedKeys = new long[capacity];
+        }
+        keys[size] = key;
+        entities[size] = entity;
+        size++;
+    }
+
+    /**
+     * Sorts the queued entities by ascending key.
+     * <p>
+     * Performs one counting pass per key byte, skipping bytes that are the
+     * same for every entry. The sort is stable.
+     * </p>
+     */
+    public void sort() {
+        long[] srcKeys = sortedKeys;
+        int[] srcOrder = order;
+        long[] dstKeys = scratchKeys;
+        int[] dstOrder = scratchOrder;
+        System.arraycopy(keys, 0, srcKeys, 0, size);
+        for (int i = 0; i < size; i++) {
+            srcOrder[i] = i;
+        }
+
+        for (int shift = 0; shift < 64; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                counts[(int) (srcKeys[i] >>> shift) & 0xFF]++;
+            }
+            if (size == 0 || counts[(int) (srcKeys[0] >>> shift) & 0xFF] == size) {
+                continue; // Every key has the same digit, this pass would not move anything
+            }
+
+            int total = 0;
+            for (int digit = 0; digit < 256; digit++) {
+                int count = counts[digit];
+                counts[digit] = total;
+                total += count;
+            }
+            for (int i = 0; i < size; i++) {
+                int slot = counts[(int) (srcKeys[i] >>> shift) & 0xFF]++;
+                dstKeys[slot] = srcKeys[i];
+                dstOrder[slot] = srcOrder[i];
+            }
+
+            long[] swapKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = swapKeys;
+            int[] swapOrder = srcOrder;
+            srcOrder = dstOrder;
+            dstOrder = swapOrder;
+        }
+
+        // Keep the sorted result in the fields used for lookups
+        sortedKeys = srcKeys;
+        order = srcOrder;
+        scratchKeys = dstKeys;
+        scratchOrder = dstOrder;
+    }
+
+    /**
+     * Gets the number of queued entities.
+     *
+     * @return The queue size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets an entity by its position in sorted order.
+     *
+     * @param index The sorted position
+     * @return The entity
+     */
+    public Entity get(int index) {
+        return entities[order[index]];
+    }
+
+    /**
+     * Gets a sort key by its position in sorted order.
+     *
+     * @param index The sorted position
+     * @return The key
+     */
+    public long getKey(int index) {
+        return sortedKeys[index];
+    }
+}
@@ -0,0 +1,121 @@
+package com.discardsoft.j3D.core.render;
+
+/**
+ * Per-frame rendering counters.
+ * <p>
+ * The render manager resets these at the start of every frame and fills them
+ * in while drawing, so tools such as the debug HUD can show what the renderer
+ * actually did on the last frame.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class RenderStats {
+
+    /** Number of entities that passed frustum culling */
+    private int visibleEntities;
+
+    /** Number of entities rejected by frustum culling */
+    private int culledEntities;
+
+    /** Number of draw calls issued */
+    private int drawCalls;
+
+    /** Number of OpenGL state changes that were applied */
+    private int stateChanges;
+
+    /** Number of OpenGL state changes skipped because the state was already set */
+    private int stateChangesSkipped;
+
+    /**
+     * Resets all counters for a new frame.
+     */
+    public void reset() {
+        visibleEntities = 0;
+        culledEntities = 0;
+        drawCalls = 0;
+        stateChanges = 0;
+        stateChangesSkipped = 0;
+    }
+
+    /**
+     * Records an entity that passed frustum culling.
+     */
+    public void countVisible() {
+        visibleEntities++;
+    }
+
+    /**
+     * Records an entity that was rejected by frustum culling.
+     */
+    public void countCulled() {
+        culledEntities++;
+    }
+
+    /**
+     * Records an issued draw call.
+     */
+    public void countDrawCall() {
+        drawCalls++;
+    }
+
+    /**
+     * Records an OpenGL state change that was applied.
+     */
+    public void countStateChange() {
+        stateChanges++;
+    }
+
+    /**
+     * Records a redundant OpenGL state change that was skipped.
+     */
+    public void countStateChangeSkipped() {
+        stateChangesSkipped++;
+    }
+
+    /**
+     * Gets the number of entities that were drawn on the last frame.
+     *
+     * @return The visible entity count
+     */
+    public int getVisibleEntities() {
+        return visibleEntities;
+    }
+
+    /**
+     * Gets the number of entities skipped by frustum culling on the last frame.
+     *
+     * @return The culled entity count
+     */
+    public int getCulledEntities() {
+        return culledEntities;
+    }
+
+    /**
+     * Gets the number of draw calls issued on the last frame.
+     *
+     * @return The draw call count
+     */
+    public int getDrawCalls() {
+        return drawCalls;
+    }
+
+    /**
+     * Gets the number of OpenGL state changes applied on the last frame.
+     *
+     * @return The applied state change count
+     */
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    /**
+     * Gets the number of redundant OpenGL state changes skipped on the last frame.
+     *
+     * @return The skipped state change count
+     */
+    public int getStateChangesSkipped() {
+        return stateChangesSkipped;
+    }
+}
@@ -0,0 +1,276 @@
+package com.discardsoft.j3D.core.render;
+
+import com.discardsoft.j3D.core.asset.MipChain;
+import com.discardsoft.j3D.core.asset.TextureFormat;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL12;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL21;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Uploads textures through a ring of pixel buffer objects, a few mip levels per frame.
+ * <p>
+ * {@link #begin(MipChain)} allocates the texture and returns its ID
+ * immediately. Every {@link #update()} then copies pixels into the next free
+ * PBO of the ring and issues {@code glTexSubImage2D} from it, so the driver
+ * transfers them without stalling the render thread. The smallest level is
+ * uploaded directly when the texture is allocated, and the others are
+ * streamed up to the base level. The texture's base and max levels only
+ * ever cover levels whose pixels have arrived, so a texture can be drawn at
+ * low resolution right away and sharpens over the following frames.
+ * Levels larger than a PBO are sent in strips of rows. A fence after each
+ * upload tells when its PBO can be reused; if none is free, streaming
+ * continues next frame.
+ * </p>
+ * <p>
+ * GPU objects are created on the first upload, so a streamer can be
+ * constructed before the OpenGL context exists.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class TextureStreamer {
+
+    /** Number of PBOs in the ring */
+    private static final int RING_SIZE = 3;
+
+    /** Initial size of each PBO in bytes, grown to at least one row of the widest level */
+    private static final int BUFFER_BYTES = 4 << 20;
+
+    /** The PBOs of the ring */
+    private final int[] buffers = new int[RING_SIZE];
+
+    /** Size of each PBO in bytes */
+    private final int[] bufferSizes = new int[RING_SIZE];
+
+    /** Fence of the last upload from each PBO, or 0 if it is free */
+    private final long[] fences = new long[RING_SIZE];
+
+    /** The PBO to use next */
+    private int nextBuffer;
+
+    /** Textures still being streamed, in the order they were started */
+    private final ArrayDeque<Job> jobs = new ArrayDeque<>();
+
+    /**
+     * Allocates a texture for an image and queues its pixels for streaming.
+     * <p>
+     * Only the levels the image provides are allocated and streamed. The
+     * smallest level is uploaded right away, since it is tiny, so the texture
+     * never samples a level without pixels. The streamer frees the image
+     * once all of it has been copied.
+     * </p>
+     *
+     * @param image The pixels and their mip levels
+     * @return The texture ID, valid immediately
+     */
+    public int begin(MipChain image) {
+        TextureFormat format = image.getFormat();
+        int levels = image.getLevelCount();
+
+        int textureId = GL11.glGenTextures();
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+        for (int level = 0; level < levels; level++) {
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, level, format.getInternalFormat(), image.getLevelWidth(level), image.getLevelHeight(level),
+                              0, format.getPixelFormat(), format.getPixelType(), (ByteBuffer) null);
+        }
+        int smallest = levels - 1;
+        GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+        GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, smallest, 0, 0, image.getLevelWidth(smallest), image.getLevelHeight(smallest),
+                             format.getPixelFormat(), format.getPixelType(), image.getLevelPixels(smallest));
+        // Sample only the uploaded level until the streamed ones arrive
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL12.GL_TEXTURE_BASE_LEVEL, smallest);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL12.GL_TEXTURE_MAX_LEVEL, smallest);
+        // Nearest filtering (pixelated look), matching ObjectLoader.loadTexture
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+
+        if (smallest == 0) {
+            image.free(); // A single level is already complete
+        } else {
+            jobs.add(new Job(textureId, image));
+        }
+        return textureId;
+    }
+
+    /**
+     * Streams as many pixels as the free PBOs of the ring can hold.
+     * <p>
+     * Must be called once per frame on the thread owning the OpenGL context.
+     * </p>
+     *
+     * @return The number of bytes handed to the driver
+     */
+    public int update() {
+        if (jobs.isEmpty()) {
+            return 0;
+        }
+        if (buffers[0] == 0) {
+            createBuffers();
+        }
+
+        int streamed = 0;
+        while (!jobs.isEmpty()) {
+            int slot = acquireBuffer();
+            if (slot < 0) {
+                break; // Every PBO is still in flight
+            }
+            Job job = jobs.peek();
+            streamed += uploadStrip(job, slot);
+            if (job.level < 0) {
+                job.image.free();
+                jobs.poll();
+            }
+        }
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        return streamed;
+    }
+
+    /**
+     * Stops streaming a texture, for textures deleted before they finished.
+     *
+     * @param textureId The texture ID returned by {@link #begin(MipChain)}
+     */
+    public void cancel(int textureId) {
+        Iterator<Job> iterator = jobs.iterator();
+        while (iterator.hasNext()) {
+            Job job = iterator.next();
+            if (job.textureId == textureId) {
+                job.image.free();
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of textures that are not fully uploaded yet.
+     *
+     * @return The active texture count
+     */
+    public int getActiveCount() {
+        return jobs.size();
+    }
+
+    /**
+     * Copies the next rows of a job's current level into a PBO and uploads them.
+     *
+     * @return The number of bytes uploaded
+     */
+    private int uploadStrip(Job job, int slot) {
+        MipChain image = job.image;
+        TextureFormat format = image.getFormat();
+        int width = image.getLevelWidth(job.level);
+        int height = image.getLevelHeight(job.level);
+        int rowBytes = width * format.getBytesPerPixel();
+
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, buffers[slot]);
+        if (bufferSizes[slot] < rowBytes) {
+            bufferSizes[slot] = rowBytes;
+            GL15.glBufferData(GL21.GL_PIXEL_UNPACK_BUFFER, rowBytes, GL15.GL_STREAM_DRAW);
+        }
+        int rows = Math.min(height - job.row, bufferSizes[slot] / rowBytes);
+        int bytes = rows * rowBytes;
+
+        ByteBuffer target = GL30.glMapBufferRange(GL21.GL_PIXEL_UNPACK_BUFFER, 0, bytes,
+                                                  GL30.GL_MAP_WRITE_BIT | GL30.GL_MAP_INVALIDATE_BUFFER_BIT);
+        if (target != null) {
+            ByteBuffer source = image.getLevelPixels(job.level);
+            MemoryUtil.memCopy(MemoryUtil.memAddress(source) + (long) job.row * rowBytes, MemoryUtil.memAddress(target), bytes);
+            GL15.glUnmapBuffer(GL21.GL_PIXEL_UNPACK_BUFFER);
+
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, job.textureId);
+            GL11.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+            GL11.glTexSubImage2D(GL11.GL_TEXTURE_2D, job.level, 0, job.row, width, rows, format.getPixelFormat(), format.getPixelType(), 0L);
+            fences[slot] = GL32.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+        }
+
+        job.row += rows;
+        if (job.row >= height) {
+            // The level is complete, so draws may sample it from now on
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, job.textureId);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL12.GL_TEXTURE_BASE_LEVEL, job.level);
+            job.level--;
+            job.row = 0;
+        }
+        return bytes;
+    }
+
+    /**
+     * Takes the next PBO of the ring if the GPU has finished reading it.
+     *
+     * @return The ring slot, or -1 if the next PBO is still in use
+     */
+    private int acquireBuffer() {
+        int slot = nextBuffer;
+        if (fences[slot] != 0) {
+            int status = GL32.glClientWaitSync(fences[slot], 0, 0);
+            if (status == GL32.GL_TIMEOUT_EXPIRED) {
+                return -1;
+            }
+            GL32.glDeleteSync(fences[slot]);
+            fences[slot] = 0;
+        }
+        nextBuffer = (nextBuffer + 1) % RING_SIZE;
+        return slot;
+    }
+
+    /**
+     * Creates the PBOs of the ring.
+     */
+    private void createBuffers() {
+        for (int i = 0; i < RING_SIZE; i++) {
+            buffers[i] = GL15.glGenBuffers();
+            bufferSizes[i] = BUFFER_BYTES;
+            GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, buffers[i]);
+            GL15.glBufferData(GL21.GL_PIXEL_UNPACK_BUFFER, BUFFER_BYTES, GL15.GL_STREAM_DRAW);
+        }
+        GL15.glBindBuffer(GL21.GL_PIXEL_UNPACK_BUFFER, 0);
+    }
+
+    /**
+     * Releases the PBOs, fences and any pixels not streamed yet.
+     */
+    public void cleanup() {
+        for (Job job : jobs) {
+            job.image.free();
+        }
+        jobs.clear();
+        for (int i = 0; i < RING_SIZE; i++) {
+            if (fences[i] != 0) {
+                GL32.glDeleteSync(fences[i]);
+                fences[i] = 0;
+            }
+            if (buffers[i] != 0) {
+                GL15.glDeleteBuffers(buffers[i]);
+                buffers[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * A texture being streamed.
+     */
+    private static class Job {
+        final int textureId;
+        final MipChain image;
+        int level;
+        int row;
+
+        Job(int textureId, MipChain image) {
+            this.textureId = textureId;
+            this.image = image;
+            this.level = image.getLevelCount() - 2; // The smallest level is uploaded by begin
+        }
+    }
+}
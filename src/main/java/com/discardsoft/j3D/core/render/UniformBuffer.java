@@ -0,0 +1,88 @@
+package com.discardsoft.j3D.core.render;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.system.MemoryUtil;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A std140 uniform buffer object attached to a fixed binding point.
+ * <p>
+ * Subclasses describe one uniform block: they write its members into CPU-side
+ * staging memory at their std140 offsets and call {@link #upload()} once per
+ * change. Every program created by
+ * {@link com.discardsoft.j3D.core.ShaderManager} has its blocks attached to
+ * the same binding points at link time, so one upload is seen by all shaders.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public abstract class UniformBuffer {
+
+    /** The OpenGL buffer holding the block data */
+    private final int uboId;
+
+    /** CPU-side copy of the block in std140 layout */
+    private final ByteBuffer data;
+
+    /**
+     * Creates the buffer and attaches it to its binding point.
+     *
+     * @param binding The uniform block binding point
+     * @param size The size of the block in bytes
+     */
+    protected UniformBuffer(int binding, int size) {
+        data = MemoryUtil.memCalloc(size);
+        uboId = GL15.glGenBuffers();
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, uboId);
+        GL15.glBufferData(GL31.GL_UNIFORM_BUFFER, size, GL15.GL_DYNAMIC_DRAW);
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, 0);
+        GL30.glBindBufferBase(GL31.GL_UNIFORM_BUFFER, binding, uboId);
+    }
+
+    /**
+     * Writes a 4x4 matrix member.
+     *
+     * @param offset The std140 byte offset of the member
+     * @param value The matrix to write
+     */
+    protected void putMatrix(int offset, Matrix4f value) {
+        value.get(offset, data);
+    }
+
+    /**
+     * Writes a vec3 member padded to a vec4, as std140 lays out vec3 members.
+     *
+     * @param offset The std140 byte offset of the member
+     * @param value The vector to write
+     * @param w The value of the padding component
+     */
+    protected void putVector(int offset, Vector3f value, float w) {
+        data.putFloat(offset, value.x)
+            .putFloat(offset + 4, value.y)
+            .putFloat(offset + 8, value.z)
+            .putFloat(offset + 12, w);
+    }
+
+    /**
+     * Uploads the whole block to the GPU with a single call.
+     */
+    protected void upload() {
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, uboId);
+        GL15.glBufferSubData(GL31.GL_UNIFORM_BUFFER, 0, data);
+        GL15.glBindBuffer(GL31.GL_UNIFORM_BUFFER, 0);
+    }
+
+    /**
+     * Releases the GPU buffer and the staging memory.
+     */
+    public void cleanup() {
+        GL15.glDeleteBuffers(uboId);
+        MemoryUtil.memFree(data);
+    }
+}
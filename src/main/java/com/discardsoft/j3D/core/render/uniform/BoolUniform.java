@@ -0,0 +1,39 @@
+package com.discardsoft.j3D.core.render.uniform;
+
+import org.lwjgl.opengl.GL20;
+
+/**
+ * Handle to a boolean uniform, uploaded as 1.0 or 0.0 like
+ * {@link com.discardsoft.j3D.core.ShaderManager#setUniform(String, boolean)}.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class BoolUniform extends Uniform {
+
+    /** The last uploaded value */
+    private boolean value;
+
+    /**
+     * Creates a handle for a boolean uniform location.
+     *
+     * @param location The uniform location
+     */
+    public BoolUniform(int location) {
+        super(location);
+    }
+
+    /**
+     * Sets the uniform value, skipping the upload if it is unchanged.
+     *
+     * @param value The value to set
+     */
+    public void set(boolean value) {
+        if (!unset && this.value == value) {
+            return;
+        }
+        this.value = value;
+        unset = false;
+        GL20.glUniform1f(location, value ? 1.0f : 0.0f);
+    }
+}
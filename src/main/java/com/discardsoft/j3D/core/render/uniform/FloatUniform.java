@@ -0,0 +1,38 @@
+package com.discardsoft.j3D.core.render.uniform;
+
+import org.lwjgl.opengl.GL20;
+
+/**
+ * Handle to a float uniform.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class FloatUniform extends Uniform {
+
+    /** The last uploaded value */
+    private float value;
+
+    /**
+     * Creates a handle for a float uniform location.
+     *
+     * @param location The uniform location
+     */
+    public FloatUniform(int location) {
+        super(location);
+    }
+
+    /**
+     * Sets the uniform value, skipping the upload if it is unchanged.
+     *
+     * @param value The value to set
+     */
+    public void set(float value) {
+        if (!unset && this.value == value) {
+            return;
+        }
+        this.value = value;
+        unset = false;
+        GL20.glUniform1f(location, value);
+    }
+}
@@ -0,0 +1,38 @@
+package com.discardsoft.j3D.core.render.uniform;
+
+import org.lwjgl.opengl.GL20;
+
+/**
+ * Handle to an int or sampler uniform.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class IntUniform extends Uniform {
+
+    /** The last uploaded value */
+    private int value;
+
+    /**
+     * Creates a handle for an int uniform location.
+     *
+     * @param location The uniform location
+     */
+    public IntUniform(int location) {
+        super(location);
+    }
+
+    /**
+     * Sets the uniform value, skipping the upload if it is unchanged.
+     *
+     * @param value The value to set
+     */
+    public void set(int value) {
+        if (!unset && this.value == value) {
+            return;
+        }
+        this.value = value;
+        unset = false;
+        GL20.glUniform1i(location, value);
+    }
+}
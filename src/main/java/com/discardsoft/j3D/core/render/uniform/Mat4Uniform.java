@@ -0,0 +1,45 @@
+package com.discardsoft.j3D.core.render.uniform;
+
+import org.joml.Matrix4f;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.GL20;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Handle to a mat4 uniform.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class Mat4Uniform extends Uniform {
+
+    /** The last uploaded value */
+    private final Matrix4f value = new Matrix4f();
+
+    /** Upload buffer, allocated once per handle */
+    private final FloatBuffer buffer = BufferUtils.createFloatBuffer(16);
+
+    /**
+     * Creates a handle for a mat4 uniform location.
+     *
+     * @param location The uniform location
+     */
+    public Mat4Uniform(int location) {
+        super(location);
+    }
+
+    /**
+     * Sets the uniform value, skipping the upload if it is unchanged.
+     *
+     * @param matrix The matrix to set
+     */
+    public void set(Matrix4f matrix) {
+        if (!unset && value.equals(matrix)) {
+            return;
+        }
+        value.set(matrix);
+        unset = false;
+        GL20.glUniformMatrix4fv(location, false, matrix.get(buffer));
+    }
+}
@@ -0,0 +1,43 @@
+package com.discardsoft.j3D.core.render.uniform;
+
+/**
+ * Handle to a uniform variable of a linked shader program.
+ * <p>
+ * Handles are created by {@link com.discardsoft.j3D.core.ShaderManager} and
+ * cache the uniform's location, so setting a value needs no name lookup.
+ * Subclasses also remember the last uploaded value and skip the OpenGL call
+ * when the same value is set again. Since uniform values belong to the
+ * program, the cached value stays valid while other programs are in use.
+ * As with any uniform upload, the owning program must be bound when a
+ * value is set.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public abstract class Uniform {
+
+    /** The location of the uniform in its program */
+    protected final int location;
+
+    /** Flag indicating that no value has been uploaded yet */
+    protected boolean unset = true;
+
+    /**
+     * Creates a handle for a uniform location.
+     *
+     * @param location The uniform location
+     */
+    protected Uniform(int location) {
+        this.location = location;
+    }
+
+    /**
+     * Gets the location of the uniform in its program.
+     *
+     * @return The uniform location
+     */
+    public int getLocation() {
+        return location;
+    }
+}
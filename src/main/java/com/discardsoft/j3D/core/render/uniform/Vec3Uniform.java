@@ -0,0 +1,50 @@
+package com.discardsoft.j3D.core.render.uniform;
+
+import org.joml.Vector3f;
+import org.lwjgl.opengl.GL20;
+
+/**
+ * Handle to a vec3 uniform.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class Vec3Uniform extends Uniform {
+
+    /** The last uploaded value */
+    private final Vector3f value = new Vector3f();
+
+    /**
+     * Creates a handle for a vec3 uniform location.
+     *
+     * @param location The uniform location
+     */
+    public Vec3Uniform(int location) {
+        super(location);
+    }
+
+    /**
+     * Sets the uniform value, skipping the upload if it is unchanged.
+     *
+     * @param vector The vector to set
+     */
+    public void set(Vector3f vector) {
+        set(vector.x, vector.y, vector.z);
+    }
+
+    /**
+     * Sets the uniform value, skipping the upload if it is unchanged.
+     *
+     * @param x The x component
+     * @param y The y component
+     * @param z The z component
+     */
+    public void set(float x, float y, float z) {
+        if (!unset && value.x == x && value.y == y && value.z == z) {
+            return;
+        }
+        value.set(x, y, z);
+        unset = false;
+        GL20.glUniform3f(location, x, y, z);
+    }
+}
@@ -0,0 +1,39 @@
+package com.discardsoft.j3D.core.render.uniform;
+
+import org.joml.Vector4f;
+import org.lwjgl.opengl.GL20;
+
+/**
+ * Handle to a vec4 uniform.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class Vec4Uniform extends Uniform {
+
+    /** The last uploaded value */
+    private final Vector4f value = new Vector4f();
+
+    /**
+     * Creates a handle for a vec4 uniform location.
+     *
+     * @param location The uniform location
+     */
+    public Vec4Uniform(int location) {
+        super(location);
+    }
+
+    /**
+     * Sets the uniform value, skipping the upload if it is unchanged.
+     *
+     * @param vector The vector to set
+     */
+    public void set(Vector4f vector) {
+        if (!unset && value.equals(vector)) {
+            return;
+        }
+        value.set(vector);
+        unset = false;
+        GL20.glUniform4f(location, vector.x, vector.y, vector.z, vector.w);
+    }
+}
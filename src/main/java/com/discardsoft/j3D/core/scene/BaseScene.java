@@ -1,7 +1,10 @@
 package com.discardsoft.j3D.core.scene;
 
+import com.discardsoft.j3D.core.asset.AssetManager;
 import com.discardsoft.j3D.core.entity.Entity;
 import com.discardsoft.j3D.core.entity.Light;
+import com.discardsoft.j3D.core.entity.Texture;
+import com.discardsoft.j3D.core.utils.LoadModel;
 import org.joml.Vector3f;
 
 import java.util.ArrayList;
@@ -21,7 +24,16 @@ import java.util.List;
 public abstract class BaseScene implements IScene {
     
     /** List of entities in the scene */
-    private final List<Entity> entities;
+    private final List<Entity> entities = new ArrayList<>();
+    
+    /** Read-only view of the entities, created once so the render loop does not allocate */
+    private final List<Entity> entitiesView = Collections.unmodifiableList(entities);
+    
+    /** Merged static geometry owned by the scene, rendered alongside the entities */
+    private final List<Entity> staticBatches = new ArrayList<>();
+    
+    /** Read-only view of the static batches */
+    private final List<Entity> staticBatchesView = Collections.unmodifiableList(staticBatches);
     
     /** Light source for the scene */
     private final Light light;
@@ -33,7 +45,6 @@ public abstract class BaseScene implements IScene {
      * </p>
      */
     public BaseScene() {
-        entities = new ArrayList<>();
         light = new Light(
             new Vector3f(10.0f, 10.0f, 10.0f),  // position
             new Vector3f(1.0f, 1.0f, 1.0f),     // color (white)
@@ -50,7 +61,6 @@ public abstract class BaseScene implements IScene {
      * @param light The light source for this scene
      */
     public BaseScene(Light light) {
-        entities = new ArrayList<>();
         this.light = light;
     }
 
@@ -67,11 +77,67 @@ public abstract class BaseScene implements IScene {
     @Override
     public void clearEntities() {
         entities.clear();
+        staticBatches.clear();
+    }
+
+    /**
+     * Removes all entities and static batches and releases the cached assets they hold.
+     * <p>
+     * Unlike {@link #clearEntities()}, models loaded through {@link LoadModel}
+     * are given back to the asset cache, so meshes and textures no other
+     * scene uses are unloaded from the GPU.
+     * </p>
+     */
+    public void unloadEntities() {
+        AssetManager assets = LoadModel.getAssets();
+        for (Entity entity : entities) {
+            assets.release(entity.getModel());
+        }
+        for (Entity batch : staticBatches) {
+            Texture texture = batch.getModel().getTexture();
+            if (texture != null) {
+                assets.releaseTexture(texture);
+            }
+        }
+        clearEntities();
     }
 
     @Override
     public List<Entity> getEntities() {
-        return Collections.unmodifiableList(entities);
+        return entitiesView;
+    }
+
+    /**
+     * Adds a merged static geometry batch to the scene.
+     * <p>
+     * Static batches are rendered like entities but are not part of
+     * {@link #getEntities()}, since they replace the individual static
+     * entities they were built from.
+     * </p>
+     *
+     * @param batch The batch entity to add
+     * @see StaticBatcher
+     */
+    public void addStaticBatch(Entity batch) {
+        staticBatches.add(batch);
+    }
+
+    /**
+     * Removes a merged static geometry batch from the scene.
+     *
+     * @param batch The batch entity to remove
+     */
+    public void removeStaticBatch(Entity batch) {
+        staticBatches.remove(batch);
+    }
+    
+    /**
+     * Gets the merged static geometry batches of the scene.
+     *
+     * @return An unmodifiable list of batch entities
+     */
+    public List<Entity> getStaticBatches() {
+        return staticBatchesView;
     }
 
     @Override
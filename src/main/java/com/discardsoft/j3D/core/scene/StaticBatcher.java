@@ -0,0 +1,280 @@
+package com.discardsoft.j3D.core.scene;
+
+import com.discardsoft.j3D.core.ObjectLoader;
+import com.discardsoft.j3D.core.asset.MeshData;
+import com.discardsoft.j3D.core.entity.Entity;
+import com.discardsoft.j3D.core.entity.Model;
+import com.discardsoft.j3D.core.entity.Texture;
+import org.joml.Matrix3f;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges static entities into a small number of pre-transformed meshes.
+ * <p>
+ * Entities that never move after load are transformed into world space once
+ * and appended to a shared mesh per texture and spatial cell. Each merged mesh
+ * is uploaded as a single VAO and rendered as one entity with an identity
+ * transform, replacing the per-entity uniform, bind and draw overhead of the
+ * original entities. Grouping by cell keeps the batches small enough to be
+ * frustum culled.
+ * </p>
+ * <p>
+ * The batcher works from CPU-side geometry, so the merged entities never
+ * need their own upload; only their texture has to be loaded.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+public class StaticBatcher {
+
+    /** Edge length of the square cells static geometry is grouped into, in world units */
+    public static final float CELL_SIZE = 64.0f;
+
+    /** Maximum number of vertices merged into a single batch */
+    public static final int MAX_BATCH_VERTICES = 1 << 20;
+
+    /** Loader used to upload the merged meshes */
+    private final ObjectLoader loader;
+
+    /** Pending entities grouped by texture ID and array layer, then by packed cell coordinates */
+    private final Map<Long, Map<Long, List<Member>>> groups = new LinkedHashMap<>();
+
+    /**
+     * Creates a new static batcher.
+     *
+     * @param loader The loader used to upload merged meshes
+     */
+    public StaticBatcher(ObjectLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Checks whether an entity with the given properties can be merged into a static batch.
+     * <p>
+     * Only static, opaque, non-billboarded entities qualify. Billboards depend
+     * on the camera and transparent entities must be sorted every frame, so
+     * both keep the regular render path.
+     * </p>
+     *
+     * @param isStatic Whether the entity is static
+     * @param billboard Whether the entity is billboarded in any way
+     * @param transparent Whether the entity is drawn with transparency
+     * @return True if the entity can be batched
+     */
+    public static boolean canBatch(boolean isStatic, boolean billboard, boolean transparent) {
+        return isStatic && !billboard && !transparent;
+    }
+
+    /**
+     * Queues a static entity for batching.
+     * <p>
+     * The transform is applied like {@link Entity#getWorldMatrix()}: translation,
+     * then rotation around X, Y and Z in degrees, then scale.
+     * </p>
+     *
+     * @param mesh The model-space geometry of the entity's model
+     * @param texture The entity's texture
+     * @param position The entity's position
+     * @param rotation The entity's rotation in degrees
+     * @param scale The entity's scale
+     * @throws IllegalArgumentException If the mesh's indices are not whole triangles within its vertices
+     */
+    public void add(MeshData mesh, Texture texture, Vector3f position, Vector3f rotation, Vector3f scale) {
+        validate(mesh);
+        Matrix4f transform = new Matrix4f()
+            .translation(position)
+            .rotateX((float) Math.toRadians(rotation.x))
+            .rotateY((float) Math.toRadians(rotation.y))
+            .rotateZ((float) Math.toRadians(rotation.z))
+            .scale(scale);
+
+        long cellX = (long) Math.floor(position.x / CELL_SIZE);
+        long cellZ = (long) Math.floor(position.z / CELL_SIZE);
+        long cell = (cellX << 32) | (cellZ & 0xFFFFFFFFL);
+
+        // Layers of one array texture share its ID but must not be merged
+        long textureKey = ((long) texture.getLayer() << 32) | (texture.getTextureId() & 0xFFFFFFFFL);
+        groups.computeIfAbsent(textureKey, key -> new LinkedHashMap<>())
+              .computeIfAbsent(cell, key -> new ArrayList<>())
+              .add(new Member(mesh, texture, transform));
+    }
+
+    /**
+     * Checks that a mesh's indices form whole triangles that reference its vertices.
+     */
+    private static void validate(MeshData mesh) {
+        int[] indices = mesh.getIndices();
+        if (indices.length % 3 != 0) {
+            throw new IllegalArgumentException("Mesh has " + indices.length + " indices, which is not whole triangles");
+        }
+        int vertexCount = mesh.getVertexCount();
+        for (int index : indices) {
+            if (index < 0 || index >= vertexCount) {
+                throw new IllegalArgumentException("Mesh index " + index + " is outside its " + vertexCount + " vertices");
+            }
+        }
+    }
+
+    /**
+     * Checks whether any entities are waiting to be batched.
+     *
+     * @return True if no entities have been queued
+     */
+    public boolean isEmpty() {
+        return groups.isEmpty();
+    }
+
+    /**
+     * Builds and uploads the merged meshes for all queued entities.
+     * <p>
+     * The queue is cleared afterwards.
+     * </p>
+     *
+     * @return One entity per merged mesh, positioned at the origin
+     */
+    public List<Entity> build() {
+        List<Entity> batches = new ArrayList<>();
+        Entity batch;
+        while ((batch = buildNext()) != null) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * Builds and uploads one merged mesh from the queued entities.
+     * <p>
+     * The merged entities are removed from the queue, so building can be
+     * spread over several frames.
+     * </p>
+     *
+     * @return An entity rendering the merged mesh, positioned at the origin, or null if the queue is empty
+     */
+    public Entity buildNext() {
+        if (groups.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, Map<Long, List<Member>>> group = groups.entrySet().iterator().next();
+        Map<Long, List<Member>> cells = group.getValue();
+        Map.Entry<Long, List<Member>> cell = cells.entrySet().iterator().next();
+        List<Member> members = cell.getValue();
+
+        // Take as many members as fit under the vertex limit (always at least one)
+        int end = 0;
+        int vertexTotal = 0;
+        int indexTotal = 0;
+        while (end < members.size()) {
+            MeshData mesh = members.get(end).mesh;
+            if (end > 0 && vertexTotal + mesh.getVertexCount() > MAX_BATCH_VERTICES) {
+                break;
+            }
+            vertexTotal += mesh.getVertexCount();
+            indexTotal += mesh.getIndices().length;
+            end++;
+        }
+        Entity batch = buildBatch(members.subList(0, end), vertexTotal, indexTotal);
+
+        members.subList(0, end).clear();
+        if (members.isEmpty()) {
+            cells.remove(cell.getKey());
+            if (cells.isEmpty()) {
+                groups.remove(group.getKey());
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Pre-transforms and merges a group of entities sharing a texture into one model.
+     * Their meshes were validated when they were added.
+     *
+     * @param members The entities to merge
+     * @param vertexTotal The total number of vertices of all members
+     * @param indexTotal The total number of indices of all members
+     * @return An entity rendering the merged model
+     */
+    private Entity buildBatch(List<Member> members, int vertexTotal, int indexTotal) {
+        float[] positions = new float[vertexTotal * 3];
+        float[] textureCoords = new float[vertexTotal * 2];
+        float[] normals = new float[vertexTotal * 3];
+        int[] indices = new int[indexTotal];
+
+        Matrix3f normalMatrix = new Matrix3f();
+        Vector3f vector = new Vector3f();
+        int vertexOffset = 0;
+        int indexOffset = 0;
+
+        for (Member member : members) {
+            MeshData mesh = member.mesh;
+            Matrix4f transform = member.transform;
+            transform.normal(normalMatrix);
+
+            float[] srcPositions = mesh.getPositions();
+            float[] srcNormals = mesh.getNormals();
+            int vertexCount = mesh.getVertexCount();
+            for (int v = 0; v < vertexCount; v++) {
+                int src = v * 3;
+                int dst = (vertexOffset + v) * 3;
+
+                transform.transformPosition(vector.set(srcPositions[src], srcPositions[src + 1], srcPositions[src + 2]));
+                positions[dst] = vector.x;
+                positions[dst + 1] = vector.y;
+                positions[dst + 2] = vector.z;
+
+                normalMatrix.transform(vector.set(srcNormals[src], srcNormals[src + 1], srcNormals[src + 2]));
+                if (vector.lengthSquared() > 0.0f) {
+                    vector.normalize();
+                }
+                normals[dst] = vector.x;
+                normals[dst + 1] = vector.y;
+                normals[dst + 2] = vector.z;
+            }
+            System.arraycopy(mesh.getTextureCoords(), 0, textureCoords, vertexOffset * 2, vertexCount * 2);
+
+            // Mirrored transforms flip the triangle winding, so swap two corners to keep front faces
+            int[] srcIndices = mesh.getIndices();
+            boolean mirrored = transform.determinant3x3() < 0.0f;
+            for (int i = 0; i < srcIndices.length; i++) {
+                int corner = i;
+                if (mirrored && i % 3 != 0) {
+                    corner = i % 3 == 1 ? i + 1 : i - 1;
+                }
+                indices[indexOffset + i] = srcIndices[corner] + vertexOffset;
+            }
+
+            vertexOffset += vertexCount;
+            indexOffset += srcIndices.length;
+        }
+
+        Texture texture = members.get(0).texture;
+        Model model = loader.loadModel(positions, textureCoords, normals, indices);
+        model.setTexture(texture);
+
+        Entity batch = new Entity(model, new Vector3f(), new Vector3f(), new Vector3f(1.0f, 1.0f, 1.0f));
+        batch.setHasTransparentTexture(false);
+        batch.setStatic(true);
+        return batch;
+    }
+
+    /**
+     * An entity queued for batching: its model-space geometry, texture and world transform.
+     */
+    private static class Member {
+        final MeshData mesh;
+        final Texture texture;
+        final Matrix4f transform;
+
+        Member(MeshData mesh, Texture texture, Matrix4f transform) {
+            this.mesh = mesh;
+            this.texture = texture;
+            this.transform = transform;
+        }
+    }
+}
@@ -132,7 +132,7 @@ public class Panel extends UIElement {
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
         
         // Draw the mesh
-        GL11.glDrawElements(GL11.GL_TRIANGLES, model.getVertexCount(), GL11.GL_UNSIGNED_INT, 0);
+        GL11.glDrawElements(GL11.GL_TRIANGLES, model.getVertexCount(), model.getIndexType(), 0);
         
         // Cleanup - disable attribute arrays and unbind vertex array
         GL20.glDisableVertexAttribArray(0);
@@ -2,6 +2,8 @@ package com.discardsoft.j3D.core.ui;
 
 import com.discardsoft.j3D.core.WindowManager;
 import com.discardsoft.j3D.core.ShaderManager;
+import com.discardsoft.j3D.core.render.uniform.IntUniform;
+import com.discardsoft.j3D.core.render.uniform.Mat4Uniform;
 import com.discardsoft.j3D.core.utils.Utils;
 import org.joml.Matrix4f;
 import org.lwjgl.opengl.GL11;
@@ -33,6 +35,15 @@ public class UIManager {
     /** Shader program manager for UI rendering */
     private final ShaderManager uiShader;
     
+    /** Per-element model matrix uniform */
+    private final Mat4Uniform modelMatrix;
+    
+    /** Texture unit uniform */
+    private final IntUniform textureSampler;
+    
+    /** Per-element transparency flag uniform */
+    private final IntUniform useTransparency;
+    
     /**
      * Creates a new UI manager.
      * 
@@ -49,11 +60,10 @@ public class UIManager {
         uiShader.createFragmentShader(Utils.loadResource("/shaders/ui/ui_fragment.glsl"));
         uiShader.link();
         
-        // Create uniforms
-        uiShader.createUniform("projectionMatrix");
-        uiShader.createUniform("modelMatrix");
-        uiShader.createUniform("textureSampler");
-        uiShader.createUniform("useTransparency");
+        // Create uniforms (the orthographic projection comes from the shared FrameData block)
+        modelMatrix = uiShader.createMat4Uniform("modelMatrix");
+        textureSampler = uiShader.createIntUniform("textureSampler");
+        useTransparency = uiShader.createIntUniform("useTransparency");
     }
     
     /**
@@ -106,9 +116,8 @@ public class UIManager {
         // Bind UI shader
         uiShader.bind();
         
-        // Set orthographic projection matrix for 2D rendering
-        uiShader.setUniform("projectionMatrix", window.getOrthographicMatrix());
-        uiShader.setUniform("textureSampler", 0);
+        // The orthographic projection for 2D rendering is read from the shared FrameData block
+        textureSampler.set(0);
         
         // Set up OpenGL state for UI rendering
         // Save previous state
@@ -128,10 +137,10 @@ public class UIManager {
             }
             
             // Set transparency flag based on the element
-            uiShader.setUniform("useTransparency", element.hasTransparency() ? 1 : 0);
+            useTransparency.set(element.hasTransparency() ? 1 : 0);
             
             // Set model matrix for this element
-            uiShader.setUniform("modelMatrix", element.getModelMatrix());
+            modelMatrix.set(element.getModelMatrix());
             
             // Render the element if it's a Panel
             if (element instanceof Panel) {
@@ -1,7 +1,11 @@
 package com.discardsoft.j3D.core.utils;
 
+import com.discardsoft.j3D.core.asset.AssetManager;
 import com.discardsoft.j3D.core.entity.Camera;
 import com.discardsoft.j3D.core.entity.Player;
+import com.discardsoft.j3D.core.render.GeometryArena;
+import com.discardsoft.j3D.core.render.GpuResourceRegistry;
+import com.discardsoft.j3D.core.render.RenderStats;
 import com.discardsoft.j3D.core.scene.BaseScene;
 import org.joml.Vector3f;
 
@@ -54,6 +58,19 @@ public class DebugHUD {
      * @param cameraMoveSpeed Current camera movement speed
      */
     public void render(int fps, Player player, BaseScene scene, float cameraMoveSpeed) {
+        render(fps, player, scene, cameraMoveSpeed, null);
+    }
+    
+    /**
+     * Renders the debug HUD with current game information and renderer counters.
+     *
+     * @param fps Current frames per second
+     * @param player The player entity
+     * @param scene The current game scene
+     * @param cameraMoveSpeed Current camera movement speed
+     * @param stats Counters from the last rendered frame, or null to omit them
+     */
+    public void render(int fps, Player player, BaseScene scene, float cameraMoveSpeed, RenderStats stats) {
         StringBuilder debugInfo = new StringBuilder();
         
         // Game information
@@ -81,6 +98,32 @@ public class DebugHUD {
         int entityCount = scene.getEntities().size();
         debugInfo.append("Entities: ").append(entityCount).append("\n");
         
+        // Frustum culling results from the last frame
+        if (stats != null) {
+            debugInfo.append("Visible/Culled: ").append(stats.getVisibleEntities())
+                     .append(" / ").append(stats.getCulledEntities()).append("\n");
+            debugInfo.append("Draw calls: ").append(stats.getDrawCalls()).append("\n");
+            debugInfo.append("State changes: ").append(stats.getStateChanges())
+                     .append(" (").append(stats.getStateChangesSkipped()).append(" skipped)\n");
+        }
+        
+        // Shared model geometry in GPU memory
+        GeometryArena arena = LoadModel.getArena();
+        debugInfo.append("Geometry: ").append(arena.getUsedBytes() / 1024).append(" / ")
+                 .append(arena.getCapacityBytes() / 1024).append(" KB\n");
+        AssetManager assets = LoadModel.getAssets();
+        debugInfo.append("Assets: ").append(assets.getMeshCount()).append(" meshes, ")
+                 .append(assets.getTextureCount()).append(" textures, ")
+                 .append(assets.getHandleCount()).append(" handles\n");
+        debugInfo.append("Streaming: ").append(LoadModel.getPipeline().getPendingCount()).append(" loads, ")
+                 .append(assets.getWaitingCount()).append(" placeholders, ")
+                 .append(LoadModel.getTextureStreamer().getActiveCount()).append(" textures\n");
+        GpuResourceRegistry registry = GpuResourceRegistry.getShared();
+        debugInfo.append("GPU memory: ").append(registry.getTotalBytes() / (1024 * 1024)).append(" / ")
+                 .append(registry.getBudgetBytes() / (1024 * 1024)).append(" MB, ")
+                 .append(assets.getIdleCount()).append(" idle, ")
+                 .append(assets.getEvictedCount()).append(" evicted\n");
+        
         // Render the debug information
         textRenderer.renderText(debugInfo.toString(), PADDING, PADDING, TEXT_COLOR);
     }
@@ -1,8 +1,23 @@
 package com.discardsoft.j3D.core.utils;
 
 import com.discardsoft.j3D.core.ObjectLoader;
+import com.discardsoft.j3D.core.asset.AssetManager;
+import com.discardsoft.j3D.core.asset.AssetPipeline;
 import com.discardsoft.j3D.core.entity.Model;
 import com.discardsoft.j3D.core.entity.Texture;
+import com.discardsoft.j3D.core.render.GeometryArena;
+import com.discardsoft.j3D.core.render.TextureStreamer;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Utility class for loading 3D models and their textures.
@@ -16,8 +31,36 @@ import com.discardsoft.j3D.core.entity.Texture;
  */
 public final class LoadModel {
     
-    /** Shared instance of the object loader */
-    private static final ObjectLoader loader = new ObjectLoader();
+    /** Shared geometry storage for all models loaded through this class */
+    private static final GeometryArena arena = new GeometryArena();
+
+    /** Shared instance of the object loader, placing all geometry in the arena */
+    private static final ObjectLoader loader = new ObjectLoader(arena);
+
+    /** Streams asynchronously loaded textures in over several frames */
+    private static final TextureStreamer textureStreamer = new TextureStreamer();
+
+    static {
+        loader.setTextureStreamer(textureStreamer);
+    }
+
+    /** Worker threads and upload queue for asynchronous loads */
+    private static final AssetPipeline pipeline = new AssetPipeline();
+
+    /** Reference-counted cache of the meshes and textures loaded through this class */
+    private static final AssetManager assets = new AssetManager(loader, pipeline);
+
+    /** Name of the model shown when a model cannot be loaded */
+    private static final String ERROR_MODEL = "errmodels";
+
+    /** Name of the texture shown when a texture cannot be loaded */
+    private static final String ERROR_TEXTURE = "errtex";
+
+    /** Loader for UI quads, which are drawn from offset 0 of their own VAO */
+    private static final ObjectLoader quadLoader = new ObjectLoader();
+
+    /** Quad models already uploaded, by vertex data */
+    private static final Map<String, Model> quads = new HashMap<>();
     
     /** Path to model resources */
     public static final String MODELS_PATH = "src/main/resources/models/";
@@ -25,6 +68,10 @@ public final class LoadModel {
     /** Path to texture resources */
     public static final String TEXTURES_PATH = "src/main/resources/textures/";
 
+    static {
+        assets.setErrorAssets(MODELS_PATH + ERROR_MODEL + ".obj", TEXTURES_PATH + ERROR_TEXTURE + ".png", ERROR_TEXTURE);
+    }
+
     /**
      * Private constructor to prevent instantiation of utility class.
      */
@@ -36,57 +83,143 @@ public final class LoadModel {
      * Loads a named model with its matching texture.
      * <p>
      * The method looks for an OBJ file and a matching PNG texture
-     * with the same name in the resources directories.
+     * with the same name in the resources directories. Both are cached,
+     * so loading the same name again shares the GPU data.
      * </p>
      *
      * @param name The name of the model and texture (without extensions)
      * @return The loaded model with its texture, or an error model if loading fails
+     * @see #release(Model)
      */
     public static Model model(String name) {
-        try {
-            String modelPath = MODELS_PATH + name + ".obj";
-            String texturePath = TEXTURES_PATH + name + ".png";
-            
-            Model model = loader.importOBJ(modelPath);
-            int textureId = loader.loadTexture(texturePath);
-            // Create texture with name so we can identify it for transparency
-            Texture texture = new Texture(textureId, name);
-            model.setTexture(texture);
-            return model;
-        } catch (Exception e) {
-            System.err.println("Failed to load model: " + name + ". " + e.getMessage());
-            return getErrorModel();
-        }
+        return model(name, name);
     }
     
     /**
      * Loads a named model with its specified texture.
      * <p>
      * The method looks for an OBJ file and a PNG texture
-     * with respective names in the resources directories.
+     * with respective names in the resources directories. Both are cached,
+     * so loading the same names again shares the GPU data.
      * </p>
      *
      * @param name The name of the model and texture (without extensions)
      * @param texture The name of the texture (without extension)
      * @return The loaded model with its texture, or an error model if loading fails
+     * @see #release(Model)
      */
     public static Model model(String name, String texture) {
         try {
-            String modelPath = MODELS_PATH + name + ".obj";
-            String texturePath = TEXTURES_PATH + texture + ".png";
-            
-            Model model = loader.importOBJ(modelPath);
-            int textureId = loader.loadTexture(texturePath);
-            // Create texture with name so we can identify it for transparency
-            Texture textureObj = new Texture(textureId, texture);
-            model.setTexture(textureObj);
-            return model;
+            // Texture is named so we can identify it for transparency
+            return assets.acquire(MODELS_PATH + name + ".obj", TEXTURES_PATH + texture + ".png", texture);
         } catch (Exception e) {
             System.err.println("Failed to load model: " + name + ". " + e.getMessage());
             return getErrorModel();
         }
     }
 
+    /**
+     * Starts loading a named model with its matching texture without blocking.
+     *
+     * @param name The name of the model and texture (without extensions)
+     * @return The model, which stays a placeholder that is not drawn until its assets are uploaded
+     * @see #modelAsync(String, String)
+     */
+    public static Model modelAsync(String name) {
+        return modelAsync(name, name);
+    }
+
+    /**
+     * Starts loading a named model with its specified texture without blocking.
+     * <p>
+     * The files are decoded on worker threads and uploaded over the next
+     * frames, within the budget of {@link AssetPipeline#processUploads(long)}.
+     * The returned model can be given to an entity right away.
+     * </p>
+     *
+     * @param name The name of the model (without extension)
+     * @param texture The name of the texture (without extension)
+     * @return The model, which stays a placeholder that is not drawn until its assets are uploaded
+     * @see #release(Model)
+     */
+    public static Model modelAsync(String name, String texture) {
+        return assets.acquireAsync(MODELS_PATH + name + ".obj", TEXTURES_PATH + texture + ".png", texture);
+    }
+
+    /**
+     * Loads a named texture on its own, without a model.
+     *
+     * @param name The name of the texture (without extension)
+     * @return The texture, to be given back with {@link #releaseTextures(List)}, or null if it cannot be loaded
+     */
+    public static Texture texture(String name) {
+        try {
+            return assets.acquireTexture(TEXTURES_PATH + name + ".png", name);
+        } catch (Exception e) {
+            System.err.println("Failed to load texture: " + name + ". " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Starts loading a named texture on its own without blocking.
+     *
+     * @param name The name of the texture (without extension)
+     * @return The texture once it is uploaded, to be given back with {@link #releaseTextures(List)}
+     * @see AssetManager#acquireTextureAsync(String, String)
+     */
+    public static CompletableFuture<Texture> textureAsync(String name) {
+        return assets.acquireTextureAsync(TEXTURES_PATH + name + ".png", name);
+    }
+
+    /**
+     * Imports a glTF, FBX or other Assimp-supported model file as one model per material.
+     * <p>
+     * The models are not shared with other callers and must be given back
+     * with {@link #releaseScene(List)}.
+     * </p>
+     *
+     * @param fileName The name of the file in the models directory, with its extension
+     * @return The models, or an empty list if the file cannot be imported
+     */
+    public static List<Model> scene(String fileName) {
+        try {
+            return loader.importScene(MODELS_PATH + fileName);
+        } catch (Exception e) {
+            System.err.println("Failed to import model: " + fileName + ". " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Imports a model file like {@link #scene(String)}, with Assimp running on a worker thread.
+     * <p>
+     * The future completes on the render thread once the models are
+     * uploaded, within the budget of {@link AssetPipeline#processUploads(long)}.
+     * </p>
+     *
+     * @param fileName The name of the file in the models directory, with its extension
+     * @return The models once they are uploaded
+     */
+    public static CompletableFuture<List<Model>> sceneAsync(String fileName) {
+        return pipeline.load(() -> loader.prepareScene(MODELS_PATH + fileName));
+    }
+
+    /**
+     * Unloads the models of an imported scene and their textures.
+     *
+     * @param models The models from {@link #scene(String)} or {@link #sceneAsync(String)}
+     */
+    public static void releaseScene(List<Model> models) {
+        Set<Integer> textures = new HashSet<>();
+        for (Model model : models) {
+            loader.unloadModel(model);
+            if (model.getTexture() != null && textures.add(model.getTexture().getTextureId())) {
+                loader.unloadTexture(model.getTexture().getTextureId());
+            }
+        }
+    }
+
     /**
      * Gets the error model used when model loading fails.
      *
@@ -94,18 +227,107 @@ public final class LoadModel {
      */
     public static Model getErrorModel() {
         try {
-            Model model = loader.importOBJ(MODELS_PATH + "errmodels.obj");
-            int textureId = loader.loadTexture(TEXTURES_PATH + "errtex.png");
-            model.setTexture(new Texture(textureId, "errtex"));
-            return model;
+            return assets.acquire(MODELS_PATH + ERROR_MODEL + ".obj", TEXTURES_PATH + ERROR_TEXTURE + ".png", ERROR_TEXTURE);
         } catch (Exception e) {
             System.err.println("Critical error: Failed to load error model: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Releases a model obtained from this class.
+     * <p>
+     * Its geometry and texture are unloaded once no other model uses them.
+     * Models from other sources are ignored.
+     * </p>
+     *
+     * @param model The model to release, may be null
+     */
+    public static void release(Model model) {
+        if (model != null) {
+            assets.release(model);
+        }
+    }
+
+    /**
+     * Packs named textures of the same size into shared array textures before their models are loaded.
+     * <p>
+     * Models loaded afterwards with these texture names use the packed
+     * layers and can be drawn together. The returned textures hold one
+     * reference each and must be given back with {@link #releaseTextures(List)}
+     * once the models are loaded. Does nothing when
+     * {@link Settings#TEXTURE_ARRAYS} is off.
+     * </p>
+     *
+     * @param textures The names of the textures (without extension)
+     * @return The packed textures
+     */
+    public static List<Texture> packTextures(Collection<String> textures) {
+        if (!Settings.TEXTURE_ARRAYS) {
+            return Collections.emptyList();
+        }
+        Map<String, String> texturePaths = new LinkedHashMap<>();
+        for (String texture : textures) {
+            texturePaths.put(TEXTURES_PATH + texture + ".png", texture);
+        }
+        return assets.packTextures(texturePaths, Settings.TEXTURE_ARRAY_MAX_SIZE);
+    }
+
+    /**
+     * Gives back the references held by textures from {@link #packTextures(Collection)},
+     * {@link #texture(String)} or {@link #textureAsync(String)}.
+     *
+     * @param textures The packed textures
+     */
+    public static void releaseTextures(List<Texture> textures) {
+        for (Texture texture : textures) {
+            assets.releaseTexture(texture);
+        }
+    }
+
+    /**
+     * Gets the pipeline that loads assets in the background.
+     *
+     * @return The shared asset pipeline
+     */
+    public static AssetPipeline getPipeline() {
+        return pipeline;
+    }
+
+    /**
+     * Gets the streamer uploading asynchronously loaded textures.
+     *
+     * @return The shared texture streamer
+     */
+    public static TextureStreamer getTextureStreamer() {
+        return textureStreamer;
+    }
+
+    /**
+     * Gets the asset cache behind the models loaded through this class.
+     *
+     * @return The shared asset manager
+     */
+    public static AssetManager getAssets() {
+        return assets;
+    }
+
+    /**
+     * Gets the geometry arena holding all models loaded through this class.
+     *
+     * @return The shared geometry arena
+     */
+    public static GeometryArena getArena() {
+        return arena;
+    }
+
     /**
      * Utility method for creating a quad model for UI elements.
+     * <p>
+     * Quads with the same vertex data share one upload, so rebuilding UI
+     * panels does not allocate new buffers. Each call returns its own model,
+     * whose texture can be set independently.
+     * </p>
      * 
      * @param positions The positions of the vertices
      * @param textureCoords The texture coordinates
@@ -113,16 +335,32 @@ public final class LoadModel {
      * @return A Model representation of the quad
      */
     public static Model loadQuadModel(float[] positions, float[] textureCoords, int[] indices) {
-        // Create the normals (all pointing forward for UI quads)
-        float[] normals = new float[positions.length];
-        for (int i = 0; i < positions.length / 3; i++) {
-            normals[i * 3] = 0;
-            normals[i * 3 + 1] = 0;
-            normals[i * 3 + 2] = 1;
+        String key = Arrays.toString(positions) + Arrays.toString(textureCoords) + Arrays.toString(indices);
+        Model quad = quads.get(key);
+        if (quad == null) {
+            // Create the normals (all pointing forward for UI quads)
+            float[] normals = new float[positions.length];
+            for (int i = 0; i < positions.length / 3; i++) {
+                normals[i * 3] = 0;
+                normals[i * 3 + 1] = 0;
+                normals[i * 3 + 2] = 1;
+            }
+            quad = quadLoader.loadModel(positions, textureCoords, normals, indices);
+            quads.put(key, quad);
         }
-        
-        // Create the model using ObjectLoader
-        ObjectLoader loader = new ObjectLoader();
-        return loader.loadModel(positions, textureCoords, normals, indices);
+        return new Model(quad, null);
+    }
+
+    /**
+     * Frees the GPU storage of every model, texture and quad loaded through this class.
+     * <p>
+     * Must be called on the render thread before the OpenGL context is destroyed.
+     * </p>
+     */
+    public static void cleanup() {
+        loader.cleanup();
+        quadLoader.cleanup();
+        arena.cleanup();
+        quads.clear();
     }
 }
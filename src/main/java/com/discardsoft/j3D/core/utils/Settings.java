@@ -46,4 +46,50 @@ public final class Settings {
     
     /** Global scale multiplier for UI elements. Higher values make UI elements larger. */
     public static float UI_SCALE = 1.4f;
+
+    //---------- Asset Settings ----------//
+    
+    /** Mesh cache flag. When true, imported OBJ files are cached as binary .j3dm meshes, and glTF/FBX files as .j3ds scenes, and loaded from the cache on later runs. */
+    public static final boolean MESH_CACHE = true;
+    
+    /** Directory holding the binary mesh cache, relative to the working directory. */
+    public static final String MESH_CACHE_PATH = ".j3dcache/meshes/";
+
+    /** Import optimization flag. When true, models imported through Assimp have identical vertices joined and triangles reordered for the vertex cache. */
+    public static final boolean MODEL_IMPORT_OPTIMIZE = true;
+
+    /** Texture cache flag. When true, decoded textures and their mip chains are cached as binary .j3dt files. */
+    public static final boolean TEXTURE_CACHE = true;
+
+    /** Directory holding the binary texture cache, relative to the working directory. */
+    public static final String TEXTURE_CACHE_PATH = ".j3dcache/textures/";
+
+    /** Compact texture flag. When true, cached textures are stored as RGB565 (opaque) or RGBA4 (translucent) instead of RGBA8. */
+    public static final boolean TEXTURE_CACHE_COMPACT = false;
+
+    /** Texture array flag. When true, small level textures of the same size are packed into array textures at load. */
+    public static final boolean TEXTURE_ARRAYS = true;
+
+    /** Largest width or height of a texture packed into an array texture, in pixels. */
+    public static final int TEXTURE_ARRAY_MAX_SIZE = 256;
+
+    /** Time per frame spent uploading assets loaded in the background, in milliseconds. */
+    public static final float ASSET_UPLOAD_BUDGET_MS = 4.0f;
+
+    /** Estimated GPU memory textures and meshes may occupy before unused ones are evicted, in megabytes. */
+    public static final int GPU_MEMORY_BUDGET_MB = 512;
+
+    /** Time an asset must go undrawn before it can be evicted while still referenced, in seconds. */
+    public static final float GPU_EVICT_UNUSED_SECONDS = 10.0f;
+
+    //---------- World Streaming Settings ----------//
+
+    /** Distance from the player within which regions of a region level are streamed in, in world units. */
+    public static final float WORLD_LOAD_RADIUS = 256.0f;
+
+    /** Distance from the player beyond which streamed regions are unloaded, in world units. Larger than the load radius so regions at the edge are not reloaded back and forth. */
+    public static final float WORLD_UNLOAD_RADIUS = 320.0f;
+
+    /** Time per frame spent adding streamed regions to the scene, in milliseconds. */
+    public static final float WORLD_STREAM_BUDGET_MS = 2.0f;
 }
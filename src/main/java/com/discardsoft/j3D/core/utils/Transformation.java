@@ -26,95 +26,101 @@ public final class Transformation {
         throw new UnsupportedOperationException("Utility class cannot be instantiated");
     }
 
+    /** Scratch matrix holding the last billboard transformation, reused every call */
+    private static final Matrix4f billboardMatrix = new Matrix4f();
+
+    /** Scratch matrix for the camera-facing rotation of full billboards */
+    private static final Matrix4f lookAtMatrix = new Matrix4f();
+
     /**
      * Creates a transformation matrix for an entity.
      * <p>
      * Combines the entity's position, rotation, and scale into a single 4x4 matrix
      * that transforms the entity's model from model space to world space.
+     * This allocates a new matrix; per-frame code should use
+     * {@link #getWorldMatrix(Entity)} instead.
      * </p>
      *
      * @param entity The entity to create a transformation matrix for
      * @return A matrix representing the entity's transformation
      */
     public static Matrix4f createTransformationMatrix(Entity entity) {
-        Matrix4f matrix = new Matrix4f();
+        return new Matrix4f(getWorldMatrix(entity));
+    }
+
+    /**
+     * Gets the current transformation matrix of an entity without allocating.
+     * <p>
+     * Regular entities return their cached world matrix, which is only rebuilt
+     * after their transform changes. Billboarded entities depend on the camera,
+     * so their matrix is recomputed into a shared scratch matrix that is only
+     * valid until the next call. The result must therefore be consumed (for
+     * example copied into an instance buffer) right away and never modified.
+     * This method must only be called from the render thread.
+     * </p>
+     *
+     * @param entity The entity to get the transformation matrix for
+     * @return A read-only matrix representing the entity's transformation
+     */
+    public static Matrix4f getWorldMatrix(Entity entity) {
+        if (!entity.isBillboardY() && !entity.isBillboardFull()) {
+            return entity.getWorldMatrix();
+        }
+
+        // We need camera information for billboarding
+        Camera camera = Main.getCurrentCamera();
+        if (camera == null) {
+            return entity.getWorldMatrix();
+        }
+
         Vector3f position = entity.getPosition();
         Vector3f rotation = entity.getRotation();
-        Vector3f scale = entity.getScale();
-        
-        // Translate to the entity position first (common for all modes)
-        matrix.identity().translate(position);
-        
-        // Handle different billboard modes
-        if (!entity.isBillboardY() && !entity.isBillboardFull()) {
-            // Standard rotation (no billboarding)
+        Vector3f cameraPos = camera.getPosition();
+        Matrix4f matrix = billboardMatrix.translation(position);
+
+        if (entity.isBillboardY()) {
+            // Y-axis only billboarding (horizontal rotation only)
+            // Calculate the angle between the camera and entity in the XZ plane
+            float angleY = (float) Math.atan2(cameraPos.x - position.x, cameraPos.z - position.z);
+
+            // Apply the calculated Y rotation, but keep entity's original X and Z rotations
             matrix.rotateX((float) Math.toRadians(rotation.x))
-                  .rotateY((float) Math.toRadians(rotation.y))
+                  .rotateY(angleY)
                   .rotateZ((float) Math.toRadians(rotation.z));
         } else {
-            // We need camera information for billboarding
-            Camera camera = Main.getCurrentCamera();
-            if (camera != null) {
-                if (entity.isBillboardY()) {
-                    // Y-axis only billboarding (horizontal rotation only)
-                    // Calculate the angle between the camera and entity in the XZ plane
-                    Vector3f cameraPos = camera.getPosition();
-                    float dx = cameraPos.x - position.x;
-                    float dz = cameraPos.z - position.z;
-                    float angleY = (float) Math.toDegrees(Math.atan2(dx, dz));
-                    
-                    // Apply the calculated Y rotation, but keep entity's original X and Z rotations
-                    matrix.rotateX((float) Math.toRadians(rotation.x))
-                          .rotateY((float) Math.toRadians(angleY))
-                          .rotateZ((float) Math.toRadians(rotation.z));
-                } else if (entity.isBillboardFull()) {
-                    // Full billboarding - entity always fully faces the camera
-                    // Get camera position
-                    Vector3f cameraPos = camera.getPosition();
-                    Vector3f direction = new Vector3f();
-                    
-                    // Calculate direction from entity to camera
-                    direction.x = cameraPos.x - position.x;
-                    direction.y = cameraPos.y - position.y;
-                    direction.z = cameraPos.z - position.z;
-                    direction.normalize();
-                    
-                    // Create a look-at matrix for the entity to face the camera
-                    // Calculate right vector as cross product of up and direction
-                    Vector3f right = new Vector3f();
-                    Vector3f up = new Vector3f(0, 1, 0); // World up
-                    right.x = direction.z;
-                    right.y = 0;
-                    right.z = -direction.x;
-                    right.normalize();
-                    
-                    // Calculate corrected up vector to ensure orthogonality
-                    Vector3f correctedUp = new Vector3f();
-                    correctedUp.x = direction.y * right.z - direction.z * right.y;
-                    correctedUp.y = direction.z * right.x - direction.x * right.z;
-                    correctedUp.z = direction.x * right.y - direction.y * right.x;
-                    correctedUp.normalize();
-                    
-                    // Create a rotation matrix based on these vectors (right, up, forward)
-                    // Using set() method instead of constructor with array
-                    Matrix4f lookAt = new Matrix4f();
-                    lookAt.set(
-                        right.x, right.y, right.z, 0,
-                        correctedUp.x, correctedUp.y, correctedUp.z, 0,
-                        -direction.x, -direction.y, -direction.z, 0,
-                        0, 0, 0, 1
-                    );
-                    
-                    // Apply this rotation to our transformation
-                    matrix.mul(lookAt);
-                }
-            }
+            // Full billboarding - entity always fully faces the camera
+            // Calculate direction from entity to camera
+            float dx = cameraPos.x - position.x;
+            float dy = cameraPos.y - position.y;
+            float dz = cameraPos.z - position.z;
+            float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+            dx /= length;
+            dy /= length;
+            dz /= length;
+
+            // Right vector is the cross product of world up and direction
+            float rightLength = (float) Math.sqrt(dz * dz + dx * dx);
+            float rx = dz / rightLength;
+            float rz = -dx / rightLength;
+
+            // Corrected up vector (direction x right) to ensure orthogonality
+            float ux = dy * rz;
+            float uy = dz * rx - dx * rz;
+            float uz = -dy * rx;
+            float upLength = (float) Math.sqrt(ux * ux + uy * uy + uz * uz);
+
+            // Rotation with columns (right, up, -forward)
+            lookAtMatrix.set(
+                rx, 0, rz, 0,
+                ux / upLength, uy / upLength, uz / upLength, 0,
+                -dx, -dy, -dz, 0,
+                0, 0, 0, 1
+            );
+            matrix.mul(lookAtMatrix);
         }
-        
+
         // Scale is always applied last
-        matrix.scale(scale);
-        
-        return matrix;
+        return matrix.scale(entity.getScale());
     }
 
     /**
@@ -128,20 +134,26 @@ public final class Transformation {
      * @return A matrix representing the camera's view transformation
      */
     public static Matrix4f getViewMatrix(Camera camera) {
+        return getViewMatrix(camera, new Matrix4f());
+    }
+
+    /**
+     * Writes the view matrix of a camera into an existing matrix.
+     *
+     * @param camera The camera to create a view matrix for
+     * @param dest The matrix receiving the view transformation
+     * @return The destination matrix
+     */
+    public static Matrix4f getViewMatrix(Camera camera, Matrix4f dest) {
         Vector3f position = camera.getPosition();
         Vector3f rotation = camera.getRotation();
-        
-        // Start with identity matrix
-        Matrix4f matrix = new Matrix4f().identity();
-        
+
         // Apply camera rotation (in reverse order compared to entity rotation)
-        matrix.rotate((float) Math.toRadians(rotation.x), new Vector3f(1, 0, 0))
-              .rotate((float) Math.toRadians(rotation.y), new Vector3f(0, 1, 0))
-              .rotate((float) Math.toRadians(rotation.z), new Vector3f(0, 0, 1));
-        
+        dest.rotationX((float) Math.toRadians(rotation.x))
+            .rotateY((float) Math.toRadians(rotation.y))
+            .rotateZ((float) Math.toRadians(rotation.z));
+
         // Apply camera translation (with negative values to move the world in the opposite direction)
-        matrix.translate(-position.x, -position.y, -position.z);
-        
-        return matrix;
+        return dest.translate(-position.x, -position.y, -position.z);
     }
 }
@@ -2,6 +2,7 @@ package com.discardsoft.j3D.game;
 
 import com.discardsoft.j3D.Main;
 import com.discardsoft.j3D.core.*;
+import com.discardsoft.j3D.core.asset.VertexFormat;
 import com.discardsoft.j3D.core.entity.Camera;
 import com.discardsoft.j3D.core.entity.Entity;
 import com.discardsoft.j3D.core.entity.Model;
@@ -22,6 +23,7 @@ import com.discardsoft.j3D.core.ui.PauseMenu;
 // Add the level loading imports
 import com.discardsoft.j3D.core.level.LevelLoader;
 import com.discardsoft.j3D.core.level.LevelLoader.LoadedLevel;
+import com.discardsoft.j3D.core.level.WorldStreamer;
 
 /**
  * Test implementation of game logic.
@@ -79,6 +81,9 @@ public class TestGame implements IGameLogic {
     
     /** The player entity */
     private Player player;
+    
+    /** Streams the regions of a region level around the player, or null for other levels */
+    private WorldStreamer worldStreamer;
 
     /** Vector for camera movement increments (used in free camera mode) */
     private final Vector3f cameraInc;
@@ -106,6 +111,8 @@ public class TestGame implements IGameLogic {
         renderer = new RenderManager();
         window = Main.getWindow();
         loader = new ObjectLoader();
+        // Terrain and merged static geometry only need 16-bit precision relative to their bounds
+        loader.setVertexFormat(VertexFormat.PACKED);
         cameraInc = new Vector3f(0.0f, 0.0f, 0.0f);
     }
 
@@ -123,6 +130,10 @@ public class TestGame implements IGameLogic {
             
             // Set the loaded scene
             scene = loadedLevel.scene;
+            if (levelLoader.hasRegionLevel()) {
+                // Region levels only load their entities around the player
+                worldStreamer = new WorldStreamer(levelLoader);
+            }
             
             System.out.println("Successfully loaded level: " + loadedLevel.metadata.name);
             System.out.println("Description: " + loadedLevel.metadata.description);
@@ -424,6 +435,11 @@ public class TestGame implements IGameLogic {
             );
         }
 
+        // Stream level regions around whatever the camera follows
+        if (worldStreamer != null) {
+            worldStreamer.update(player.isFreeCameraMode() ? player.getCamera().getPosition() : player.getPosition());
+        }
+
         // Update scene entities
         scene.update(deltaTime);
     }
@@ -457,12 +473,17 @@ public class TestGame implements IGameLogic {
         
         // render debug HUD if enabled
         if (showDebugHUD && debugHUD != null) {
-            debugHUD.render(currentFps, player, scene, player.isFreeCameraMode() ? currentCameraMoveSpeed : DEFAULT_CAMERA_MOVE_SPEED);
+            debugHUD.render(currentFps, player, scene,
+                    player.isFreeCameraMode() ? currentCameraMoveSpeed : DEFAULT_CAMERA_MOVE_SPEED,
+                    renderer.getStats());
         }
     }
 
     @Override
     public void cleanup() {
+        if (worldStreamer != null) {
+            worldStreamer.cleanup();
+        }
         scene.cleanup();
         renderer.cleanup();
         loader.cleanup();
@@ -526,7 +547,8 @@ public class TestGame implements IGameLogic {
         
         // For now, let's just add a test entity to the scene
         try {
-            Model cubeModel = com.discardsoft.j3D.core.utils.LoadModel.model("P_Cube");
+            // Streams in over the next frames instead of stalling this one
+            Model cubeModel = com.discardsoft.j3D.core.utils.LoadModel.modelAsync("P_Cube");
             Entity testEntity = new Entity(
                 cubeModel,
                 new Vector3f(2.0f, 1.0f, -3.0f), // Position it near the Suzanne model
@@ -546,7 +568,7 @@ public class TestGame implements IGameLogic {
     private void unloadCurrentLevel() {
         System.out.println("Unloading current level...");
         // Example: Remove all entities from the scene or reset the level
-        scene.clearEntities();
+        scene.unloadEntities();
     }
     
     /**
@@ -590,20 +612,22 @@ public class TestGame implements IGameLogic {
             String loadPath = "src/main/resources/levels/saved_level.j3dl";
             
             // Clear current scene first
-            scene.clearEntities();
+            if (worldStreamer != null) {
+                worldStreamer.cleanup();
+                worldStreamer = null;
+            }
+            scene.unloadEntities();
             
             // Load the level
             LevelLoader.LoadedLevel loadedLevel = levelLoader.loadLevel(loadPath);
             
-            // Apply loaded entities to current scene
+            // Apply loaded entities (including terrain) and static batches to current scene
             if (loadedLevel.scene != null) {
-                for (LevelLoader.LoadedEntity loadedEntity : loadedLevel.entities) {
-                    scene.addEntity(loadedEntity.entity);
+                for (Entity entity : loadedLevel.scene.getEntities()) {
+                    scene.addEntity(entity);
                 }
-                
-                // Add terrain if it exists
-                if (loadedLevel.terrain != null) {
-                    scene.addEntity(loadedLevel.terrain);
+                for (Entity batch : loadedLevel.scene.getStaticBatches()) {
+                    scene.addStaticBatch(batch);
                 }
             }
             
@@ -1,7 +1,7 @@
 #version 400 core
 
 in vec2 fragTextureCoord;
-in vec3 color;
+flat in float fragTextureLayer;
 in vec3 fragNormal;
 in vec3 fragPosition;
 in vec3 toLightVector;
@@ -10,15 +10,26 @@ in vec3 toCameraVector;
 out vec4 fragColor;
 
 uniform sampler2D textureSampler;
-uniform vec3 lightPosition;
-uniform vec3 lightColor;
-uniform vec3 ambientLight;
-uniform vec3 cameraPosition;
+uniform sampler2DArray textureArraySampler;
+uniform int useTextureArray;
 uniform int useTransparency;
 
+// Shared light state, written once per frame by the renderer
+layout (std140) uniform LightData {
+    vec4 lightPosition;
+    vec4 lightColor;
+    vec4 ambientLight;
+};
+
+
 void main() {
-    // Sample the texture
-    vec4 textureColor = texture(textureSampler, fragTextureCoord);
+    // Sample the texture, or this instance's layer of the bound array texture
+    vec4 textureColor;
+    if (useTextureArray == 1) {
+        textureColor = texture(textureArraySampler, vec3(fragTextureCoord, fragTextureLayer));
+    } else {
+        textureColor = texture(textureSampler, fragTextureCoord);
+    }
     
     // Discard fully transparent fragments if transparency is enabled
     if (useTransparency == 1 && textureColor.a < 0.01) {
@@ -31,7 +42,7 @@ void main() {
     
     // Diffuse lighting
     float diffuseFactor = max(dot(unitNormal, unitLightVector), 0.0);
-    vec3 diffuse = diffuseFactor * lightColor;
+    vec3 diffuse = diffuseFactor * lightColor.rgb;
     
     // Specular lighting
     vec3 unitToCameraVector = normalize(toCameraVector);
@@ -39,10 +50,10 @@ void main() {
     vec3 reflectedLightDirection = reflect(lightDirection, unitNormal);
     float specularFactor = max(dot(reflectedLightDirection, unitToCameraVector), 0.0);
     float dampedFactor = pow(specularFactor, 10.0); // Shininess factor
-    vec3 specular = dampedFactor * 0.5 * lightColor; // Specular strength = 0.5
+    vec3 specular = dampedFactor * 0.5 * lightColor.rgb; // Specular strength = 0.5
     
     // Combine lighting and texture color
-    vec3 lighting = ambientLight + diffuse + specular;
+    vec3 lighting = ambientLight.rgb + diffuse + specular;
     
     // Final color with proper alpha for transparency
     if (useTransparency == 1) {
@@ -5,10 +5,17 @@ layout (location = 1) in vec2 texCoord;
 
 out vec2 fragTexCoord;
 
-uniform mat4 projectionMatrix;
 uniform mat4 modelMatrix;
 
+// Shared per-frame state, written once per frame by the renderer
+layout (std140) uniform FrameData {
+    mat4 projectionMatrix;
+    mat4 viewMatrix;
+    mat4 orthographicMatrix;
+    vec4 cameraPosition;
+};
+
 void main() {
-    gl_Position = projectionMatrix * modelMatrix * vec4(position, 1.0);
+    gl_Position = orthographicMatrix * modelMatrix * vec4(position, 1.0);
     fragTexCoord = texCoord;
 }
\ No newline at end of file
@@ -3,25 +3,53 @@
 layout (location=0) in vec3 position;
 layout (location=1) in vec2 textureCoord;
 layout (location=2) in vec3 normal;
+layout (location=3) in mat4 transformationMatrix; // per-instance, occupies locations 3-6
+layout (location=7) in mat3 normalMatrix; // per-instance, occupies locations 7-9, computed on the CPU
+layout (location=10) in float textureLayer; // per-instance, layer of the bound array texture
 
-out vec3 color;
 out vec2 fragTextureCoord;
+flat out float fragTextureLayer;
 out vec3 fragNormal;
 out vec3 fragPosition;
 out vec3 toLightVector;
 out vec3 toCameraVector;
 
-uniform mat4 transformationMatrix;
-uniform mat4 projectionMatrix;
-uniform mat4 viewMatrix;
+// Shared per-frame state, written once per frame by the renderer
+layout (std140) uniform FrameData {
+    mat4 projectionMatrix;
+    mat4 viewMatrix;
+    mat4 orthographicMatrix;
+    vec4 cameraPosition;
+};
 
-uniform vec3 lightPosition;
-uniform vec3 lightColor;
-uniform vec3 ambientLight;
-uniform vec3 cameraPosition;
+layout (std140) uniform LightData {
+    vec4 lightPosition;
+    vec4 lightColor;
+    vec4 ambientLight;
+};
+
+// Packed meshes store positions relative to their bounds and octahedral normals
+uniform int packedVertices;
+uniform vec3 positionOffset;
+uniform vec3 positionScale;
+
+vec3 decodeOctahedral(vec2 encoded) {
+    vec3 n = vec3(encoded, 1.0 - abs(encoded.x) - abs(encoded.y));
+    float t = max(-n.z, 0.0);
+    n.x += n.x >= 0.0 ? -t : t;
+    n.y += n.y >= 0.0 ? -t : t;
+    return n;
+}
 
 void main() {
-    vec4 worldPosition = transformationMatrix * vec4(position, 1.0);
+    vec3 modelPosition = position;
+    vec3 modelNormal = normal;
+    if (packedVertices == 1) {
+        modelPosition = positionOffset + positionScale * position;
+        modelNormal = decodeOctahedral(normal.xy);
+    }
+
+    vec4 worldPosition = transformationMatrix * vec4(modelPosition, 1.0);
     gl_Position = projectionMatrix * viewMatrix * worldPosition;
 
     // Pass the fragment position in world space
@@ -29,34 +57,14 @@ void main() {
     
     // Pass the texture coordinates
     fragTextureCoord = textureCoord;
+    fragTextureLayer = textureLayer;
     
     // Transform normals to world space
-    mat3 normalMatrix = mat3(transpose(inverse(transformationMatrix)));
-    fragNormal = normalize(normalMatrix * normal);
+    fragNormal = normalize(normalMatrix * modelNormal);
     
     // Calculate the vector from fragment to light
-    toLightVector = lightPosition - worldPosition.xyz;
+    toLightVector = lightPosition.xyz - worldPosition.xyz;
     
     // Calculate vector from fragment to camera
-    toCameraVector = cameraPosition - worldPosition.xyz;
-    
-    // Calculate basic lighting for backward compatibility
-    // This is now fully calculated in the fragment shader
-    vec3 lightDir = normalize(toLightVector);
-    
-    // Ambient light (1st pass)
-    vec3 ambient = ambientLight;
-    
-    // Diffuse light (2nd pass)
-    float diff = max(dot(fragNormal, lightDir), 0.2);
-    vec3 diffuse = diff * lightColor;
-    
-    // Specular highlights (3rd pass)
-    vec3 viewDir = normalize(toCameraVector);
-    vec3 reflectDir = reflect(-lightDir, fragNormal);
-    float spec = pow(max(dot(viewDir, reflectDir), 0.0), 32.0); // reflectivity
-    vec3 specular = spec * lightColor;
-    
-    // All passes combined (basic lighting model for compatibility)
-    color = ambient + diffuse + specular;
+    toCameraVector = cameraPosition.xyz - worldPosition.xyz;
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package com.discardsoft.j3D.core.asset;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the half-float and octahedral normal encodings of {@link MeshPacker}.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+class MeshPackerTest {
+
+    @Test
+    void convertsExactHalfValues() {
+        assertHalf(0x0000, 0.0f);
+        assertHalf(0x8000, -0.0f);
+        assertHalf(0x3C00, 1.0f);
+        assertHalf(0xC000, -2.0f);
+        assertHalf(0x3800, 0.5f);
+        assertHalf(0x3555, 1.0f / 3.0f);
+        assertHalf(0x7BFF, 65504.0f);
+    }
+
+    @Test
+    void clampsValuesPastHalfMaximumToInfinity() {
+        assertHalf(0x7BFF, 65519.0f); // Still rounds down to the maximum
+        assertHalf(0x7C00, 65520.0f);
+        assertHalf(0x7C00, 1.0e9f);
+        assertHalf(0xFC00, -1.0e9f);
+        assertHalf(0x7C00, Float.MAX_VALUE);
+        assertHalf(0x7C00, Float.POSITIVE_INFINITY);
+        assertHalf(0xFC00, Float.NEGATIVE_INFINITY);
+
+        int nan = MeshPacker.toHalf(Float.NaN) & 0xFFFF;
+        assertEquals(0x7C00, nan & 0x7C00);
+        assertTrue((nan & 0x03FF) != 0, "NaN must keep a mantissa bit");
+    }
+
+    @Test
+    void convertsSubnormals() {
+        assertHalf(0x0400, 0x1p-14f); // Smallest normal half
+        assertHalf(0x03FF, 1023 * 0x1p-24f); // Largest subnormal half
+        assertHalf(0x0200, 0x1p-15f);
+        assertHalf(0x0001, 0x1p-24f); // Smallest subnormal half
+        assertHalf(0x8001, -0x1p-24f);
+        assertHalf(0x0000, 0x1p-26f);
+        assertHalf(0x0000, Float.MIN_VALUE); // Float subnormals are far below half range
+        assertHalf(0x8000, -Float.MIN_VALUE);
+        assertHalf(0x0400, 0x1p-14f - 0x1p-30f); // Rounds up into the normal range
+    }
+
+    @Test
+    void roundsToNearestHalf() {
+        Random random = new Random(5);
+        for (int i = 0; i < 100_000; i++) {
+            float value = (float) ((random.nextDouble() * 2.0 - 1.0) * Math.pow(2.0, random.nextInt(40) - 24));
+            if (Math.abs(value) > 65504.0f) {
+                continue;
+            }
+            float half = fromHalf(MeshPacker.toHalf(value));
+            float ulp = Math.abs(value) < 0x1p-14f ? 0x1p-24f : Math.ulp(half) * 0x1p13f;
+            assertTrue(Math.abs(half - value) <= ulp * 0.5f, value + " became " + half);
+            assertEquals(Math.copySign(1.0f, value), Math.copySign(1.0f, half), "sign of " + value);
+        }
+    }
+
+    @Test
+    void encodesAxisNormals() {
+        assertOctahedral(0, 0, 0.0f, 0.0f, 1.0f);
+        assertOctahedral(32767, 32767, 0.0f, 0.0f, -1.0f);
+        assertOctahedral(32767, 0, 1.0f, 0.0f, 0.0f);
+        assertOctahedral(-32767, 0, -1.0f, 0.0f, 0.0f);
+        assertOctahedral(0, 32767, 0.0f, 1.0f, 0.0f);
+        assertOctahedral(0, -32767, 0.0f, -1.0f, 0.0f);
+        // A zero normal must not produce NaN
+        assertOctahedral(0, 0, 0.0f, 0.0f, 0.0f);
+    }
+
+    @Test
+    void decodesAxisNormals() {
+        float[][] axes = {{0, 0, 1}, {0, 0, -1}, {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}};
+        for (float[] axis : axes) {
+            float[] decoded = roundTrip(axis[0], axis[1], axis[2]);
+            for (int i = 0; i < 3; i++) {
+                assertEquals(axis[i], decoded[i], 1.0e-4f);
+            }
+        }
+    }
+
+    @Test
+    void roundTripsRandomNormals() {
+        Random random = new Random(9);
+        for (int i = 0; i < 10_000; i++) {
+            float x = (float) random.nextGaussian();
+            float y = (float) random.nextGaussian();
+            float z = (float) random.nextGaussian();
+            // Also cover normals just off the +Z and -Z poles and the equator
+            switch (i % 4) {
+                case 1:
+                    x *= 1.0e-4f;
+                    y *= 1.0e-4f;
+                    break;
+                case 2:
+                    z *= 1.0e-4f;
+                    break;
+                default:
+                    break;
+            }
+            float length = (float) Math.sqrt(x * x + y * y + z * z);
+            x /= length;
+            y /= length;
+            z /= length;
+
+            float[] decoded = roundTrip(x, y, z);
+            float dot = x * decoded[0] + y * decoded[1] + z * decoded[2];
+            assertTrue(dot > 0.99999f, "normal " + x + ", " + y + ", " + z + " decoded with dot " + dot);
+        }
+    }
+
+    @Test
+    void defaultsMissingNormalsToPositiveZ() {
+        PackedMesh mesh = MeshPacker.pack(new float[3], new float[2], new float[0], new int[] {0});
+        try {
+            ByteBuffer vertices = mesh.getVertices();
+            assertEquals(0, vertices.getShort(MeshPacker.NORMAL_OFFSET));
+            assertEquals(0, vertices.getShort(MeshPacker.NORMAL_OFFSET + 2));
+        } finally {
+            mesh.free();
+        }
+    }
+
+    private static void assertHalf(int expected, float value) {
+        assertEquals(expected, MeshPacker.toHalf(value) & 0xFFFF,
+                     () -> value + " gave 0x" + Integer.toHexString(MeshPacker.toHalf(value) & 0xFFFF));
+    }
+
+    private static void assertOctahedral(int expectedX, int expectedY, float x, float y, float z) {
+        short[] encoded = encode(x, y, z);
+        assertEquals(expectedX, encoded[0], "x of " + x + ", " + y + ", " + z);
+        assertEquals(expectedY, encoded[1], "y of " + x + ", " + y + ", " + z);
+    }
+
+    /**
+     * Packs a single vertex with the given normal and reads back its two encoded components.
+     */
+    private static short[] encode(float x, float y, float z) {
+        PackedMesh mesh = MeshPacker.pack(new float[3], new float[2], new float[] {x, y, z}, new int[] {0});
+        try {
+            ByteBuffer vertices = mesh.getVertices();
+            return new short[] {vertices.getShort(MeshPacker.NORMAL_OFFSET), vertices.getShort(MeshPacker.NORMAL_OFFSET + 2)};
+        } finally {
+            mesh.free();
+        }
+    }
+
+    /**
+     * Encodes a normal and decodes it like decodeOctahedral in vertex.glsl, normalized.
+     */
+    private static float[] roundTrip(float x, float y, float z) {
+        short[] encoded = encode(x, y, z);
+        // Normalized 16-bit attributes map to max(c / 32767, -1)
+        float ex = Math.max(encoded[0] / 32767.0f, -1.0f);
+        float ey = Math.max(encoded[1] / 32767.0f, -1.0f);
+        float nx = ex;
+        float ny = ey;
+        float nz = 1.0f - Math.abs(ex) - Math.abs(ey);
+        float t = Math.max(-nz, 0.0f);
+        nx += nx >= 0.0f ? -t : t;
+        ny += ny >= 0.0f ? -t : t;
+        float length = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+        return new float[] {nx / length, ny / length, nz / length};
+    }
+
+    /**
+     * Converts half-float bits back to a float.
+     */
+    private static float fromHalf(short bits) {
+        float sign = (bits & 0x8000) != 0 ? -1.0f : 1.0f;
+        int exponent = (bits >>> 10) & 0x1F;
+        int mantissa = bits & 0x3FF;
+        if (exponent == 0) {
+            return sign * mantissa * 0x1p-24f;
+        }
+        if (exponent == 0x1F) {
+            return mantissa == 0 ? sign * Float.POSITIVE_INFINITY : Float.NaN;
+        }
+        return sign * (1.0f + mantissa / 1024.0f) * (float) Math.pow(2.0, exponent - 15);
+    }
+}
@@ -0,0 +1,164 @@
+package com.discardsoft.j3D.core.asset;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that {@link ObjParser} gives the same meshes as the line-splitting parser it replaced.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+class ObjParserTest {
+
+    /** Directory of the bundled models */
+    private static final Path MODELS = Paths.get("src/main/resources/models");
+
+    @Test
+    void matchesReferenceParserOnBundledModels() throws Exception {
+        List<Path> models;
+        try (Stream<Path> files = Files.list(MODELS)) {
+            models = files.filter(file -> file.toString().endsWith(".obj")).sorted().collect(Collectors.toList());
+        }
+        assertFalse(models.isEmpty(), "No bundled models found in " + MODELS.toAbsolutePath());
+        for (Path model : models) {
+            byte[] data = Files.readAllBytes(model);
+            assertSameMesh(model.toString(), parseReference(data), ObjParser.parse(data));
+            assertSameMesh(model + " (parallel)", parseReference(data), ObjParser.parseParallel(model, ForkJoinPool.commonPool()));
+        }
+    }
+
+    @Test
+    void matchesReferenceParserOnLineAndFaceVariants() throws Exception {
+        String obj = "# comment\r\n"
+                   + "o Variants\r\n"
+                   + "v 1.0 -2.5 3.25\r\n"
+                   + "v 0.1 0.2 0.3\r\n"
+                   + "v -1e-3 123456.789 0.333333343\r\n"
+                   + "vt 0.5 0.25\r\n"
+                   + "vn 0 0 1\r\n"
+                   + "vn 0.577350 0.577350 0.577350\r\n"
+                   + "s off\r\n"
+                   + "f 1/1/1 2/1/1 3/1/2\r\n"
+                   + "f 1//1 2//2 3//2\n"
+                   + "f 1 2 3\n"
+                   + "f 3/1 2/1 1/1\n"
+                   + "f 1/1/1 2/1/1 3/1/2\n";
+        byte[] data = obj.getBytes(StandardCharsets.US_ASCII);
+        assertSameMesh("variants", parseReference(data), ObjParser.parse(data));
+    }
+
+    private static void assertSameMesh(String name, MeshData expected, MeshData actual) {
+        assertArrayEquals(expected.getPositions(), actual.getPositions(), name + " positions");
+        assertArrayEquals(expected.getTextureCoords(), actual.getTextureCoords(), name + " texture coordinates");
+        assertArrayEquals(expected.getNormals(), actual.getNormals(), name + " normals");
+        assertArrayEquals(expected.getIndices(), actual.getIndices(), name + " indices");
+    }
+
+    /**
+     * The OBJ parser ObjectLoader used before ObjParser, reading lines split on single spaces.
+     */
+    private static MeshData parseReference(byte[] data) throws Exception {
+        List<Float> vertices = new ArrayList<>();
+        List<Float> textureCoords = new ArrayList<>();
+        List<Float> normals = new ArrayList<>();
+        Map<String, Integer> uniqueVertices = new HashMap<>();
+        List<Float> finalVertices = new ArrayList<>();
+        List<Float> finalTextureCoords = new ArrayList<>();
+        List<Float> finalNormals = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] tokens = line.split(" ");
+                switch (tokens[0]) {
+                    case "v":
+                        vertices.add(Float.parseFloat(tokens[1]));
+                        vertices.add(Float.parseFloat(tokens[2]));
+                        vertices.add(Float.parseFloat(tokens[3]));
+                        break;
+                    case "vt":
+                        textureCoords.add(Float.parseFloat(tokens[1]));
+                        textureCoords.add(Float.parseFloat(tokens[2]));
+                        break;
+                    case "vn":
+                        normals.add(Float.parseFloat(tokens[1]));
+                        normals.add(Float.parseFloat(tokens[2]));
+                        normals.add(Float.parseFloat(tokens[3]));
+                        break;
+                    case "f":
+                        for (int i = 1; i < tokens.length; i++) {
+                            String[] parts = tokens[i].split("/");
+                            int vertexIndex = Integer.parseInt(parts[0]) - 1;
+                            int textureIndex = parts.length > 1 && !parts[1].isEmpty() ? Integer.parseInt(parts[1]) - 1 : -1;
+                            int normalIndex = parts.length > 2 && !parts[2].isEmpty() ? Integer.parseInt(parts[2]) - 1 : -1;
+
+                            String key = vertexIndex + "/" + textureIndex + "/" + normalIndex;
+                            if (!uniqueVertices.containsKey(key)) {
+                                finalVertices.add(vertices.get(vertexIndex * 3));
+                                finalVertices.add(vertices.get(vertexIndex * 3 + 1));
+                                finalVertices.add(vertices.get(vertexIndex * 3 + 2));
+                                if (textureIndex != -1) {
+                                    finalTextureCoords.add(textureCoords.get(textureIndex * 2));
+                                    finalTextureCoords.add(textureCoords.get(textureIndex * 2 + 1));
+                                } else {
+                                    finalTextureCoords.add(0.0f);
+                                    finalTextureCoords.add(0.0f);
+                                }
+                                if (normalIndex != -1) {
+                                    finalNormals.add(normals.get(normalIndex * 3));
+                                    finalNormals.add(normals.get(normalIndex * 3 + 1));
+                                    finalNormals.add(normals.get(normalIndex * 3 + 2));
+                                } else {
+                                    finalNormals.add(0.0f);
+                                    finalNormals.add(0.0f);
+                                    finalNormals.add(0.0f);
+                                }
+                                uniqueVertices.put(key, uniqueVertices.size());
+                            }
+                            indices.add(uniqueVertices.get(key));
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        float[] verticesArray = new float[finalVertices.size()];
+        for (int i = 0; i < verticesArray.length; i++) {
+            verticesArray[i] = finalVertices.get(i);
+        }
+        float[] textureCoordsArray = new float[finalTextureCoords.size()];
+        for (int i = 0; i < textureCoordsArray.length; i++) {
+            textureCoordsArray[i] = finalTextureCoords.get(i);
+        }
+        float[] normalsArray = new float[finalNormals.size()];
+        for (int i = 0; i < normalsArray.length; i++) {
+            normalsArray[i] = finalNormals.get(i);
+        }
+        int[] indicesArray = new int[indices.size()];
+        for (int i = 0; i < indicesArray.length; i++) {
+            indicesArray[i] = indices.get(i);
+        }
+        return new MeshData(verticesArray, textureCoordsArray, normalsArray, indicesArray);
+    }
+}
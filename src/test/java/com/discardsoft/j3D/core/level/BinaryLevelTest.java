@@ -0,0 +1,128 @@
+package com.discardsoft.j3D.core.level;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Checks that {@link BinaryLevel#read(ByteBuffer)} rejects truncated and corrupt files with an {@link IOException}.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+class BinaryLevelTest {
+
+    /** Header offsets of the string, entity, spawn and tag counts */
+    private static final int[] COUNT_OFFSETS = {12, 16, 20, 24};
+
+    @Test
+    void readsEncodedLevel() throws Exception {
+        BinaryLevel level = BinaryLevel.read(encode());
+        assertEquals(2, level.entityCount);
+        assertEquals(1, level.spawnCount);
+        assertEquals("crate", level.string(level.entityModels[1]));
+    }
+
+    @Test
+    void rejectsEveryTruncation() throws Exception {
+        ByteBuffer file = encode();
+        for (int length = 0; length < file.limit(); length++) {
+            ByteBuffer truncated = file.duplicate().limit(length);
+            assertThrows(IOException.class, () -> BinaryLevel.read(truncated), "truncated to " + length + " bytes");
+        }
+    }
+
+    @Test
+    void rejectsCorruptCounts() throws Exception {
+        int[] values = {-1, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE / 3, 1 << 28, 1000};
+        for (int offset : COUNT_OFFSETS) {
+            for (int value : values) {
+                ByteBuffer file = copy(encode());
+                file.putInt(offset, value);
+                assertThrows(IOException.class, () -> BinaryLevel.read(file), "count at " + offset + " set to " + value);
+            }
+        }
+    }
+
+    @Test
+    void rejectsCorruptStringOffsets() throws Exception {
+        ByteBuffer original = encode();
+        int stringCount = original.getInt(12);
+        int[] values = {-1, Integer.MIN_VALUE, Integer.MAX_VALUE, 1 << 30, original.limit()};
+        for (int i = 0; i <= stringCount; i++) {
+            for (int value : values) {
+                ByteBuffer file = copy(original);
+                file.putInt(32 + i * Integer.BYTES, value);
+                assertThrows(IOException.class, () -> BinaryLevel.read(file), "string offset " + i + " set to " + value);
+            }
+        }
+        // Offsets that go backwards
+        ByteBuffer file = copy(original);
+        file.putInt(32 + Integer.BYTES, original.getInt(32 + 2 * Integer.BYTES) + 1);
+        assertThrows(IOException.class, () -> BinaryLevel.read(file));
+    }
+
+    @Test
+    void rejectsBadHeaderAndReferences() throws Exception {
+        ByteBuffer badMagic = copy(encode());
+        badMagic.putInt(0, 0);
+        assertThrows(IOException.class, () -> BinaryLevel.read(badMagic));
+
+        ByteBuffer badVersion = copy(encode());
+        badVersion.putInt(4, 99);
+        assertThrows(IOException.class, () -> BinaryLevel.read(badVersion));
+
+        BinaryLevel level = BinaryLevel.read(encode());
+        level.entityModels[0] = level.strings.length;
+        ByteBuffer badReference = level.encode();
+        assertThrows(IOException.class, () -> BinaryLevel.read(badReference));
+    }
+
+    @Test
+    void failsOnlyWithIOExceptionOnRandomCorruption() throws Exception {
+        ByteBuffer original = encode();
+        Random random = new Random(1);
+        for (int i = 0; i < 20_000; i++) {
+            ByteBuffer file = copy(original);
+            for (int flips = 1 + random.nextInt(4); flips > 0; flips--) {
+                file.put(8 + random.nextInt(file.limit() - 8), (byte) random.nextInt(256));
+            }
+            try {
+                BinaryLevel.read(file);
+            } catch (IOException e) {
+                // Rejected cleanly
+            } catch (RuntimeException e) {
+                fail("Corrupt file failed with " + e, e);
+            }
+        }
+    }
+
+    /**
+     * Encodes a small level with metadata, terrain, tagged entities and a spawn point.
+     */
+    private static ByteBuffer encode() throws IOException {
+        BinaryLevel.Builder builder = new BinaryLevel.Builder();
+        builder.metadata("Test", "Level", "1.0", "Tester", null, null);
+        builder.terrain(64, 16, 0, new float[] {-32, 0, -32}, "grass", 8);
+        builder.entity("e1", "Rock", "rock", null, new float[] {1, 2, 3}, new float[3], new float[] {1, 1, 1},
+                       BinaryLevel.PROPERTY_STATIC, List.of("solid", "stone"));
+        builder.entity("e2", "Crate", "crate", "wood", new float[] {4, 5, 6}, new float[] {0, 90, 0}, new float[] {2, 2, 2},
+                       0, List.of("stone"));
+        builder.spawn("s1", "Start", new float[] {0, 1, 0}, new float[3]);
+        return builder.build().encode();
+    }
+
+    private static ByteBuffer copy(ByteBuffer buffer) {
+        ByteBuffer copy = ByteBuffer.allocate(buffer.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        copy.put(buffer.duplicate()).flip();
+        return copy;
+    }
+}
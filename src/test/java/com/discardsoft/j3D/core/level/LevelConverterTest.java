@@ -0,0 +1,183 @@
+package com.discardsoft.j3D.core.level;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Converts JSON levels to binary and back, checking the data {@link LevelLoader} builds a level from.
+ * <p>
+ * Creating the {@link LoadedLevel} itself needs an OpenGL context for its
+ * models and terrain, so the round trip stops at the decoded
+ * {@link BinaryLevel}, which {@link LevelLoader} maps field by field.
+ * </p>
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+class LevelConverterTest {
+
+    /** A level using every section, both vector notations and every entity property */
+    private static final String LEVEL = "{\n"
+        + "  \"metadata\": {\"name\": \"Test Level\", \"description\": \"All sections\", \"version\": \"2.0\",\n"
+        + "               \"author\": \"Tester\", \"created\": \"2026-01-01\"},\n"
+        + "  \"lighting\": {\"position\": {\"x\": 1, \"y\": 20, \"z\": 3},\n"
+        + "               \"color\": {\"r\": 1, \"g\": 0.9, \"b\": 0.8}, \"ambient\": [0.1, 0.2, 0.3]},\n"
+        + "  \"terrain\": {\"enabled\": true, \"size\": 256, \"gridCount\": 64, \"height\": -1.5,\n"
+        + "              \"position\": {\"x\": -128, \"y\": 0, \"z\": -128}, \"texture\": \"grass\", \"textureRepeat\": 32},\n"
+        + "  \"unknown\": {\"ignored\": [1, 2, 3]},\n"
+        + "  \"entities\": [\n"
+        + "    {\"id\": \"rock_1\", \"name\": \"Rock\", \"model\": \"rock\",\n"
+        + "     \"position\": {\"x\": 1.5, \"y\": 0, \"z\": -2.25}, \"rotation\": {\"x\": 0, \"y\": 90, \"z\": 0},\n"
+        + "     \"scale\": {\"x\": 1, \"y\": 1, \"z\": 1}, \"properties\": {\"static\": true}, \"tags\": [\"solid\", \"stone\"]},\n"
+        + "    {\"id\": \"grass_1\", \"name\": \"Grass\", \"model\": \"grass_x\", \"customTexture\": \"grass_blades\",\n"
+        + "     \"position\": [10, 0, 10], \"rotation\": [0, 0, 0], \"scale\": [2, 2, 2],\n"
+        + "     \"properties\": {\"hasTransparentTexture\": true, \"billboardY\": true}},\n"
+        + "    {\"id\": \"sign_1\", \"name\": \"Sign\", \"model\": \"sign\",\n"
+        + "     \"position\": [0, 1, 0], \"rotation\": [0, 0, 0], \"scale\": [1, 1, 1],\n"
+        + "     \"properties\": {\"hasTransparentTexture\": false, \"billboardFull\": true}, \"tags\": [\"stone\"]}\n"
+        + "  ],\n"
+        + "  \"spawns\": [\n"
+        + "    {\"id\": \"start\", \"name\": \"Start\", \"position\": {\"x\": 0, \"y\": 2, \"z\": 0},\n"
+        + "     \"rotation\": {\"x\": 0, \"y\": 180, \"z\": 0}}\n"
+        + "  ]\n"
+        + "}\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void convertsJsonToBinaryLevel() throws Exception {
+        BinaryLevel level = BinaryLevel.read(ByteBuffer.wrap(Files.readAllBytes(toBinary(LEVEL))));
+
+        assertEquals("Test Level", level.string(level.metadata[0]));
+        assertEquals("All sections", level.string(level.metadata[1]));
+        assertEquals("2.0", level.string(level.metadata[2]));
+        assertEquals("Tester", level.string(level.metadata[3]));
+        assertEquals("2026-01-01", level.string(level.metadata[4]));
+        assertNull(level.string(level.metadata[5]));
+
+        assertArrayEquals(new float[] {1, 20, 3, 1, 0.9f, 0.8f, 0.1f, 0.2f, 0.3f}, level.lighting);
+
+        assertTrue(level.terrainEnabled);
+        assertEquals(256.0f, level.terrainSize);
+        assertEquals(64, level.terrainGridCount);
+        assertEquals(-1.5f, level.terrainHeight);
+        assertArrayEquals(new float[] {-128, 0, -128}, level.terrainPosition);
+        assertEquals("grass", level.string(level.terrainTexture));
+        assertEquals(32.0f, level.terrainTextureRepeat);
+
+        assertEquals(3, level.entityCount);
+        assertEquals("rock_1", level.string(level.entityIds[0]));
+        assertEquals("Grass", level.string(level.entityNames[1]));
+        assertEquals("sign", level.string(level.entityModels[2]));
+        assertNull(level.string(level.entityTextures[0]));
+        assertEquals("grass_blades", level.string(level.entityTextures[1]));
+        assertArrayEquals(new float[] {1.5f, 0, -2.25f, 10, 0, 10, 0, 1, 0}, level.entityPositions);
+        assertArrayEquals(new float[] {0, 90, 0, 0, 0, 0, 0, 0, 0}, level.entityRotations);
+        assertArrayEquals(new float[] {1, 1, 1, 2, 2, 2, 1, 1, 1}, level.entityScales);
+        assertEquals(BinaryLevel.PROPERTY_STATIC, level.entityProperties[0]);
+        assertEquals(BinaryLevel.PROPERTY_TRANSPARENCY_OVERRIDE | BinaryLevel.PROPERTY_TRANSPARENT
+                     | BinaryLevel.PROPERTY_BILLBOARD_Y, level.entityProperties[1]);
+        assertEquals(BinaryLevel.PROPERTY_TRANSPARENCY_OVERRIDE | BinaryLevel.PROPERTY_BILLBOARD_FULL,
+                     level.entityProperties[2]);
+        assertArrayEquals(new int[] {0, 2, 2, 3}, level.tagStarts);
+        assertEquals("solid", level.string(level.tags[0]));
+        assertEquals("stone", level.string(level.tags[1]));
+        // Strings are stored once
+        assertEquals(level.tags[1], level.tags[2]);
+
+        assertEquals(1, level.spawnCount);
+        assertEquals("start", level.string(level.spawnIds[0]));
+        assertEquals("Start", level.string(level.spawnNames[0]));
+        assertArrayEquals(new float[] {0, 2, 0}, level.spawnPositions);
+        assertArrayEquals(new float[] {0, 180, 0}, level.spawnRotations);
+    }
+
+    @Test
+    void roundTripsThroughJson() throws Exception {
+        Path binary = toBinary(LEVEL);
+        Path json = directory.resolve("back.j3dl");
+        LevelConverter.binaryToJson(binary, json);
+
+        JsonObject level = JsonParser.parseString(Files.readString(json)).getAsJsonObject();
+        JsonArray entities = level.getAsJsonArray("entities");
+        assertEquals(3, entities.size());
+        JsonObject grass = entities.get(1).getAsJsonObject();
+        assertEquals("grass_blades", grass.get("customTexture").getAsString());
+        assertEquals(10.0f, grass.getAsJsonObject("position").get("x").getAsFloat());
+        assertTrue(grass.getAsJsonObject("properties").get("hasTransparentTexture").getAsBoolean());
+        assertTrue(grass.getAsJsonObject("properties").get("billboardY").getAsBoolean());
+        assertEquals(0, grass.getAsJsonArray("tags").size());
+        assertEquals("start", level.getAsJsonArray("spawns").get(0).getAsJsonObject().get("id").getAsString());
+
+        // Converting the written JSON again gives the same file
+        Path again = directory.resolve("again.j3db");
+        LevelConverter.jsonToBinary(json, again);
+        assertArrayEquals(Files.readAllBytes(binary), Files.readAllBytes(again));
+    }
+
+    @Test
+    void convertsLevelWithoutOptionalSections() throws Exception {
+        BinaryLevel level = BinaryLevel.read(ByteBuffer.wrap(Files.readAllBytes(toBinary(
+            "{\"terrain\": {\"enabled\": false}, \"entities\": [], \"spawns\": []}"))));
+        assertNull(level.metadata);
+        assertNull(level.lighting);
+        assertEquals(false, level.terrainEnabled);
+        assertEquals(0, level.entityCount);
+        assertEquals(0, level.spawnCount);
+    }
+
+    @Test
+    void reportsMissingFields() {
+        assertMissing("size of terrain",
+            "{\"terrain\": {\"enabled\": true, \"gridCount\": 4, \"height\": 0, \"position\": [0, 0, 0],"
+            + " \"texture\": \"t\", \"textureRepeat\": 1}}");
+        assertMissing("position of entity rock_1",
+            "{\"entities\": [{\"id\": \"rock_1\", \"model\": \"rock\", \"rotation\": [0, 0, 0], \"scale\": [1, 1, 1]}]}");
+        assertMissing("z of entity rock_1 scale",
+            "{\"entities\": [{\"id\": \"rock_1\", \"model\": \"rock\", \"position\": [0, 0, 0], \"rotation\": [0, 0, 0],"
+            + " \"scale\": {\"x\": 1, \"y\": 1}}]}");
+        assertMissing("rotation of spawn start",
+            "{\"spawns\": [{\"id\": \"start\", \"position\": [0, 0, 0]}]}");
+        assertMissing("color of lighting",
+            "{\"lighting\": {\"position\": [0, 0, 0], \"ambient\": [0, 0, 0]}}");
+
+        Exception shortVector = assertThrows(Exception.class, () -> toBinary(
+            "{\"spawns\": [{\"id\": \"start\", \"position\": [0, 0], \"rotation\": [0, 0, 0]}]}"));
+        assertTrue(shortVector.getMessage().contains("3 components"), shortVector.getMessage());
+
+        Exception noModel = assertThrows(Exception.class, () -> toBinary(
+            "{\"entities\": [{\"id\": \"rock_1\", \"position\": [0, 0, 0], \"rotation\": [0, 0, 0], \"scale\": [1, 1, 1]}]}"));
+        assertTrue(noModel.getMessage().contains("has no model"), noModel.getMessage());
+    }
+
+    private void assertMissing(String field, String json) {
+        Exception e = assertThrows(Exception.class, () -> toBinary(json));
+        assertEquals("Missing field " + field, e.getMessage());
+    }
+
+    /**
+     * Writes JSON level text to a file and converts it to a binary level.
+     */
+    private Path toBinary(String json) throws Exception {
+        Path source = Files.createTempFile(directory, "level", ".j3dl");
+        Files.write(source, json.getBytes(StandardCharsets.UTF_8));
+        Path binary = directory.resolve(source.getFileName() + BinaryLevel.EXTENSION);
+        LevelConverter.jsonToBinary(source, binary);
+        return binary;
+    }
+}
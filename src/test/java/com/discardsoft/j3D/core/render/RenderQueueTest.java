@@ -0,0 +1,112 @@
+package com.discardsoft.j3D.core.render;
+
+import com.discardsoft.j3D.core.entity.Entity;
+import com.discardsoft.j3D.core.entity.Model;
+import com.discardsoft.j3D.core.entity.Texture;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the radix sort of {@link RenderQueue} against a stable reference sort.
+ *
+ * @author DiscardSoft
+ * @version 0.1
+ */
+class RenderQueueTest {
+
+    /** Model shared by the queued entities, never drawn */
+    private static final Model MODEL = new Model(1, 3, new Texture(1, "test"));
+
+    @Test
+    void sortsRandomKeysLikeReferenceSort() {
+        Random random = new Random(42);
+        for (int size : new int[] {0, 1, 2, 255, 256, 257, 5000}) {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = random.nextLong();
+            }
+            assertSorted(keys);
+        }
+    }
+
+    @Test
+    void keepsEqualKeysInInsertionOrder() {
+        Random random = new Random(7);
+        long[] keys = new long[3000];
+        for (int i = 0; i < keys.length; i++) {
+            // Few distinct keys, differing only in some bytes, so many ties and skipped passes
+            keys[i] = ((long) random.nextInt(4) << 56) | ((long) random.nextInt(3) << 16) | random.nextInt(2);
+        }
+        assertSorted(keys);
+    }
+
+    @Test
+    void sortsBuiltKeysByStateThenDepth() {
+        Random random = new Random(3);
+        long[] keys = new long[1000];
+        for (int i = 0; i < keys.length; i++) {
+            if (random.nextBoolean()) {
+                keys[i] = RenderQueue.opaqueKey(random.nextInt(4), random.nextInt(16), random.nextInt(16), random.nextFloat() * 1000.0f);
+            } else {
+                keys[i] = RenderQueue.backToFrontKey(random.nextFloat() * 1000.0f);
+            }
+        }
+        assertSorted(keys);
+    }
+
+    @Test
+    void reusesQueueAfterClear() {
+        RenderQueue queue = new RenderQueue();
+        Random random = new Random(11);
+        for (int round = 0; round < 3; round++) {
+            queue.clear();
+            int size = 100 + random.nextInt(400);
+            for (int i = 0; i < size; i++) {
+                queue.add(random.nextLong(), newEntity());
+            }
+            queue.sort();
+            assertEquals(size, queue.size());
+            for (int i = 1; i < size; i++) {
+                assertTrue(Long.compareUnsigned(queue.getKey(i - 1), queue.getKey(i)) <= 0);
+            }
+        }
+    }
+
+    /**
+     * Queues the keys, sorts them and compares keys and entities with a stable unsigned sort.
+     */
+    private static void assertSorted(long[] keys) {
+        RenderQueue queue = new RenderQueue();
+        Entity[] entities = new Entity[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            entities[i] = newEntity();
+            queue.add(keys[i], entities[i]);
+        }
+        queue.sort();
+
+        Integer[] expected = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            expected[i] = i;
+        }
+        // Arrays.sort on objects is stable, so ties stay in insertion order
+        Arrays.sort(expected, Comparator.comparing(i -> keys[i], Long::compareUnsigned));
+
+        assertEquals(keys.length, queue.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(keys[expected[i]], queue.getKey(i), "key at " + i);
+            assertSame(entities[expected[i]], queue.get(i), "entity at " + i);
+        }
+    }
+
+    private static Entity newEntity() {
+        return new Entity(MODEL, new Vector3f(), new Vector3f(), new Vector3f(1.0f));
+    }
+}